@@ -0,0 +1,71 @@
+package com.vzome.core.algebra;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times AlgebraicMatrix multiplication and inversion, for the 3D and 4D matrices
+ * used by symmetry operations and projections.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 2 )
+public class AlgebraicMatrixBenchmarks
+{
+    @Param( { "golden", "heptagon", "snubDodec" } )
+    public String fieldName;
+
+    @Param( { "3", "4" } )
+    public int dimension;
+
+    private AlgebraicMatrix a, b;
+
+    private AlgebraicMatrix createMatrix( AlgebraicField field, int seed )
+    {
+        AlgebraicMatrix matrix = new AlgebraicMatrix( field, dimension );
+        for ( int i = 0; i < dimension; i++ ) {
+            for ( int j = 0; j < dimension; j++ ) {
+                AlgebraicNumber value = BenchmarkFields .createNumber( field, seed + dimension * i + j );
+                // a dominant diagonal keeps the matrix invertible
+                if ( i == j )
+                    value = value .plus( field .createRational( 10 ) );
+                matrix .setElement( i, j, value );
+            }
+        }
+        return matrix;
+    }
+
+    @Setup
+    public void setup()
+    {
+        AlgebraicField field = BenchmarkFields .create( fieldName );
+        a = createMatrix( field, 1 );
+        b = createMatrix( field, 5 );
+    }
+
+    @Benchmark
+    public AlgebraicMatrix times()
+    {
+        return a .times( b );
+    }
+
+    @Benchmark
+    public AlgebraicMatrix inverse()
+    {
+        return a .inverse();
+    }
+}
@@ -0,0 +1,58 @@
+package com.vzome.core.algebra;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times AlgebraicNumberImpl arithmetic in each of the fields known to AlgebraicFields.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 2 )
+public class AlgebraicNumberBenchmarks
+{
+    @Param( { "golden", "rootTwo", "rootThree", "heptagon", "snubCube", "snubDodec", "sqrtPhi", "polygon7", "polygon11" } )
+    public String fieldName;
+
+    private AlgebraicNumber a, b;
+
+    @Setup
+    public void setup()
+    {
+        AlgebraicField field = BenchmarkFields .create( fieldName );
+        a = BenchmarkFields .createNumber( field, 1 );
+        b = BenchmarkFields .createNumber( field, 4 );
+    }
+
+    @Benchmark
+    public AlgebraicNumber plus()
+    {
+        return a .plus( b );
+    }
+
+    @Benchmark
+    public AlgebraicNumber times()
+    {
+        return a .times( b );
+    }
+
+    @Benchmark
+    public AlgebraicNumber dividedBy()
+    {
+        return a .dividedBy( b );
+    }
+}
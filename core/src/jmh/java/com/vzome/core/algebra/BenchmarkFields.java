@@ -0,0 +1,62 @@
+package com.vzome.core.algebra;
+
+import com.vzome.fields.sqrtphi.SqrtPhiField;
+
+/**
+ * Creates the fields named in AlgebraicFields, for use as a benchmark parameter.
+ */
+public class BenchmarkFields
+{
+    private BenchmarkFields() {}
+
+    /**
+     * @param fieldName the common name of the field, as returned by {@code getName()}
+     */
+    public static AlgebraicField create( String fieldName )
+    {
+        AlgebraicNumberFactory factory = AlgebraicNumberImpl.FACTORY;
+        switch ( fieldName ) {
+        case PentagonField.FIELD_NAME:
+            return new PentagonField( factory );
+
+        case RootTwoField.FIELD_NAME:
+            return new RootTwoField( factory );
+
+        case RootThreeField.FIELD_NAME:
+            return new RootThreeField( factory );
+
+        case HeptagonField.FIELD_NAME:
+            return new HeptagonField( factory );
+
+        case SnubCubeField.FIELD_NAME:
+            return new SnubCubeField( factory );
+
+        case SnubDodecField.FIELD_NAME:
+            return new SnubDodecField( factory );
+
+        case SqrtPhiField.FIELD_NAME:
+            return new SqrtPhiField( factory );
+
+        default:
+            if ( fieldName .startsWith( PolygonField.FIELD_PREFIX ) ) {
+                int nSides = Integer .parseInt( fieldName .substring( PolygonField.FIELD_PREFIX.length() ) );
+                return new PolygonField( nSides, factory );
+            }
+            throw new IllegalArgumentException( "unknown field: " + fieldName );
+        }
+    }
+
+    /**
+     * A number using every term of the field, with small coefficients that vary with the seed.
+     */
+    public static AlgebraicNumber createNumber( AlgebraicField field, int seed )
+    {
+        int[] numerators = new int[ field .getOrder() ];
+        for ( int i = 0; i < numerators.length; i++ ) {
+            numerators[ i ] = ( ( seed + 3*i ) % 7 ) - 2;
+        }
+        if ( numerators[ 0 ] == 0 )
+            numerators[ 0 ] = 1;
+        return field .createAlgebraicNumber( numerators, seed % 5 + 1 );
+    }
+}
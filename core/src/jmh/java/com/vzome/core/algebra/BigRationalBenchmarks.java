@@ -0,0 +1,78 @@
+package com.vzome.core.algebra;
+
+import java.math.BigInteger;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times BigRationalImpl arithmetic, both for values that fit in a long,
+ * and for values that need a BigInteger.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 2 )
+public class BigRationalBenchmarks
+{
+    @Param( { "small", "big" } )
+    public String magnitude;
+
+    private BigRationalImpl a, b;
+
+    @Setup
+    public void setup()
+    {
+        if ( "big" .equals( magnitude ) ) {
+            BigInteger scale = BigInteger .valueOf( Long.MAX_VALUE );
+            a = new BigRationalImpl( scale .multiply( BigInteger .valueOf( 355 ) ), scale .add( BigInteger .valueOf( 113 ) ) );
+            b = new BigRationalImpl( scale .multiply( BigInteger .valueOf( 22 ) ) .add( BigInteger.ONE ), scale .multiply( BigInteger .valueOf( 7 ) ) );
+        }
+        else {
+            a = new BigRationalImpl( 355, 113 );
+            b = new BigRationalImpl( -22, 7 );
+        }
+    }
+
+    @Benchmark
+    public BigRational plus()
+    {
+        return a .plus( b );
+    }
+
+    @Benchmark
+    public BigRational minus()
+    {
+        return a .minus( b );
+    }
+
+    @Benchmark
+    public BigRational times()
+    {
+        return a .times( b );
+    }
+
+    @Benchmark
+    public BigRational dividedBy()
+    {
+        return a .dividedBy( b );
+    }
+
+    @Benchmark
+    public BigRational reciprocal()
+    {
+        return a .reciprocal();
+    }
+}
@@ -0,0 +1,63 @@
+package com.vzome.core.editor;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Times loading a document and replaying its full edit history,
+ * for a few of the regression test files in different fields.
+ * The files are found relative to the "vzome.regressionHome" system property,
+ * which defaults to the regression files folder, relative to the core project.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( 2 )
+public class DocumentBenchmarks
+{
+    @Param( {
+        "2008/08-Aug/11-Brian-foam/weairePhelanPyritohedron.vZome",
+        "2014/04-Apr/06-Scott-D4/D4-F-yellowMaps.vZome",
+        "2008/08-Aug/07-Scott-pinwheel/dodecagonPhyllotaxisBlue.vZome",
+        "2020/03-Mar/06-David-SnubDodec/SnubDodecFromConvexHull.vZome"
+    } )
+    public String path;
+
+    private Application app;
+
+    private byte[] bytes;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        File home = new File( System .getProperty( "vzome.regressionHome", "src/regression/files" ) );
+        bytes = Files .readAllBytes( new File( home, path ) .toPath() );
+        app = new Application( false, null, new Properties() );
+    }
+
+    @Benchmark
+    public DocumentModel loadAndReplay() throws Exception
+    {
+        DocumentModel doc = app .loadDocument( new ByteArrayInputStream( bytes ) );
+        doc .finishLoading( false, false );
+        return doc;
+    }
+}
@@ -0,0 +1,117 @@
+package com.vzome.core.math;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+
+/**
+ * Times VefParser.parseVEF for the VEF resources used to build symmetry groups,
+ * both from a String and streamed through VefStreamTokens.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 2 )
+public class VefParserBenchmarks
+{
+    @Param( { "symmetry/H4roots.vef", "5cell.vef" } )
+    public String resource;
+
+    private String vefData;
+
+    private AlgebraicField field;
+
+    // counts what it sees, so that nothing parsed is dead code
+    private static class CountingParser extends VefParser
+    {
+        int count;
+
+        @Override
+        protected void startVertices( int numVertices ) {}
+
+        @Override
+        protected void addVertex( int index, AlgebraicVector location )
+        {
+            count += location .dimension();
+        }
+
+        @Override
+        protected void startEdges( int numEdges ) {}
+
+        @Override
+        protected void addEdge( int index, int v1, int v2 )
+        {
+            ++count;
+        }
+
+        @Override
+        protected void startFaces( int numFaces ) {}
+
+        @Override
+        protected void addFace( int index, int[] verts )
+        {
+            count += verts.length;
+        }
+
+        @Override
+        protected void startBalls( int numVertices ) {}
+
+        @Override
+        protected void addBall( int index, int vertex )
+        {
+            ++count;
+        }
+    }
+
+    @Setup
+    public void setup() throws IOException
+    {
+        field = new PentagonField();
+        try ( InputStream input = VefParser.class .getResourceAsStream( resource ) ) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[ 1 << 16 ];
+            int read;
+            while ( ( read = input .read( buffer ) ) > 0 ) {
+                bytes .write( buffer, 0, read );
+            }
+            vefData = new String( bytes .toByteArray(), StandardCharsets.UTF_8 );
+        }
+    }
+
+    @Benchmark
+    public int parseVEF()
+    {
+        CountingParser parser = new CountingParser();
+        parser .parseVEF( vefData, field );
+        return parser .count;
+    }
+
+    @Benchmark
+    public int parseVEFStream()
+    {
+        CountingParser parser = new CountingParser();
+        parser .parseVEF( new VefStreamTokens( new StringReader( vefData ) ), field );
+        return parser .count;
+    }
+}
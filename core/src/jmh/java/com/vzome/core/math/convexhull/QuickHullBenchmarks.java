@@ -0,0 +1,66 @@
+package com.vzome.core.math.convexhull;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.commands.Command.Failure;
+
+/**
+ * Times QuickHull3D.build for golden points scattered through a ball,
+ * so that many of them lie on the hull.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 2 )
+public class QuickHullBenchmarks
+{
+    @Param( { "100", "1000" } )
+    public int size;
+
+    private AlgebraicVector[] points;
+
+    @Setup
+    public void setup()
+    {
+        AlgebraicField field = new PentagonField();
+        Random random = new Random( 1234 );
+        points = new AlgebraicVector[ size ];
+        int count = 0;
+        while ( count < size ) {
+            AlgebraicNumber[] coords = new AlgebraicNumber[ 3 ];
+            for ( int i = 0; i < 3; i++ ) {
+                coords[ i ] = field .createAlgebraicNumber( random .nextInt( 21 ) - 10, random .nextInt( 21 ) - 10, 1, 0 );
+            }
+            AlgebraicVector point = new AlgebraicVector( coords );
+            if ( point .toRealVector() .length() <= 10d )
+                points[ count++ ] = point;
+        }
+    }
+
+    @Benchmark
+    public QuickHull3D build() throws Failure
+    {
+        QuickHull3D hull = new QuickHull3D();
+        hull .build( points );
+        return hull;
+    }
+}
@@ -0,0 +1,105 @@
+package com.vzome.core.math.symmetry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.algebra.RootTwoField;
+import com.vzome.core.math.RealVector;
+
+/**
+ * Times AbstractSymmetry.getAxis, finding the zone for every zone normal of every orbit,
+ * scaled so that no normal is found by identity.
+ * Each benchmark operation is a lookup of the whole set of vectors.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 2 )
+public class SymmetryBenchmarks
+{
+    @Param( { "icosahedral", "octahedral" } )
+    public String symmetryName;
+
+    private AbstractSymmetry symmetry;
+
+    private AlgebraicVector[] vectors;
+
+    private RealVector[] realVectors;
+
+    @Setup
+    public void setup()
+    {
+        if ( "octahedral" .equals( symmetryName ) )
+            symmetry = new OctahedralSymmetry( new RootTwoField() );
+        else
+            symmetry = new IcosahedralSymmetry( new PentagonField() );
+        AlgebraicField field = symmetry .getField();
+        List<AlgebraicVector> normals = new ArrayList<>();
+        int scale = 2;
+        for ( Direction orbit : symmetry .getOrbitSet() ) {
+            for ( Axis zone : orbit ) {
+                normals .add( zone .normal() .scale( field .createRational( scale, 3 ) ) );
+                scale = scale % 7 + 2;
+            }
+        }
+        vectors = normals .toArray( new AlgebraicVector[ normals .size() ] );
+        realVectors = new RealVector[ vectors.length ];
+        for ( int i = 0; i < vectors.length; i++ ) {
+            realVectors[ i ] = vectors[ i ] .toRealVector();
+        }
+    }
+
+    /**
+     * Lookups in the symmetry's own OrbitSet, as for most model edits.
+     */
+    @Benchmark
+    public void getAxis( Blackhole blackhole )
+    {
+        for ( AlgebraicVector vector : vectors ) {
+            blackhole .consume( symmetry .getAxis( vector ) );
+        }
+    }
+
+    /**
+     * Lookups in a newly populated OrbitSet, so every zone must be searched for.
+     */
+    @Benchmark
+    public void getAxisNewOrbitSet( Blackhole blackhole )
+    {
+        OrbitSet orbits = new OrbitSet( symmetry );
+        orbits .addAll( symmetry .getOrbitSet() );
+        for ( AlgebraicVector vector : vectors ) {
+            blackhole .consume( symmetry .getAxis( vector, orbits ) );
+        }
+    }
+
+    /**
+     * Nearest-zone lookups, as for strut building with the mouse.
+     */
+    @Benchmark
+    public void getAxisReal( Blackhole blackhole )
+    {
+        for ( RealVector vector : realVectors ) {
+            blackhole .consume( symmetry .getOrbitSet() .getAxis( vector ) );
+        }
+    }
+}
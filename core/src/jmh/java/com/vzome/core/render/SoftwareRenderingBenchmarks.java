@@ -0,0 +1,106 @@
+package com.vzome.core.render;
+
+import java.awt.image.BufferedImage;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import javax.vecmath.Vector3f;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.construction.Color;
+import com.vzome.core.editor.SymmetrySystem;
+import com.vzome.core.kinds.GoldenFieldApplication;
+import com.vzome.core.model.ConnectorImpl;
+import com.vzome.core.model.StrutImpl;
+import com.vzome.core.viewing.Camera;
+import com.vzome.core.viewing.Lights;
+
+/**
+ * Times SoftwareThumbnailRenderer drawing a whole frame, from the RenderedModel to the image,
+ * for a cube of balls joined by struts.
+ * The score is in frames per second; divide by threads for frames per second per core.
+ */
+@State( Scope.Thread )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 2 )
+public class SoftwareRenderingBenchmarks
+{
+    @Param( { "1", "4" } )
+    public int threads;
+
+    @Param( { "640" } )
+    public int width;
+
+    private ForkJoinPool pool;
+
+    private SoftwareThumbnailRenderer renderer;
+
+    private RenderedModel model;
+
+    private Camera camera;
+
+    @Setup
+    public void setup()
+    {
+        GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+        AlgebraicField field = app .getField();
+        SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+        model = new RenderedModel( field, sys );
+        AlgebraicVector x = field .basisVector( 3, AlgebraicVector.X ) .scale( field .createRational( 4 ) );
+        AlgebraicVector y = field .basisVector( 3, AlgebraicVector.Y ) .scale( field .createRational( 4 ) );
+        AlgebraicVector z = field .basisVector( 3, AlgebraicVector.Z ) .scale( field .createRational( 4 ) );
+        AlgebraicVector corner = x .plus( y ) .plus( z ) .scale( field .createRational( -2 ) );
+        for ( int i = 0; i < 5; i++ )
+            for ( int j = 0; j < 5; j++ )
+                for ( int k = 0; k < 5; k++ ) {
+                    AlgebraicVector location = corner .plus( x .scale( field .createRational( i ) ) )
+                            .plus( y .scale( field .createRational( j ) ) ) .plus( z .scale( field .createRational( k ) ) );
+                    model .manifestationAdded( new ConnectorImpl( location ) );
+                    if ( i > 0 )
+                        model .manifestationAdded( new StrutImpl( location .minus( x ), location ) );
+                    if ( j > 0 )
+                        model .manifestationAdded( new StrutImpl( location .minus( y ), location ) );
+                }
+
+        Lights lights = new Lights();
+        lights .setBackgroundColor( new Color( 0xAF, 0xC8, 0xDC ) );
+        lights .setAmbientColor( new Color( 0x29, 0x29, 0x29 ) );
+        lights .addDirectionLight( new Color( 0xEB, 0xEB, 0xE4 ), new Vector3f( 1f, -1f, -1f ) );
+        lights .addDirectionLight( new Color( 0x4C, 0x4C, 0x4C ), new Vector3f( -1f, 0f, -0.2f ) );
+
+        pool = new ForkJoinPool( threads );
+        renderer = new SoftwareThumbnailRenderer( lights, pool );
+        camera = new Camera();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        pool .shutdown();
+    }
+
+    @Benchmark
+    public BufferedImage renderFrame()
+    {
+        return renderer .render( model, camera, width, width * 3 / 4, false );
+    }
+}
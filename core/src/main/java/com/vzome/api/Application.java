@@ -7,6 +7,7 @@ import java.io.InputStream;
 import java.io.PrintWriter;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.channels.Channels;
 import java.util.Properties;
 
 import com.vzome.core.commands.Command;
@@ -112,7 +113,13 @@ public class Application
 		    Document model = app .loadUrl( urlStr );
 		    model .getDocumentModel() .finishLoading( false, false );
             Exporter exporter = app .getExporter( format );
-            exporter .doExport( model, new PrintWriter( System.out ), 1080, 1920 );
+            if ( exporter .isBinary() ) {
+                // formats like PNG would reach a Writer only as base64
+                exporter .doExport( model, Channels .newChannel( System.out ), 1080, 1920 );
+                System.out .flush();
+            }
+            else
+                exporter .doExport( model, new PrintWriter( System.out ), 1080, 1920 );
 		} catch ( Exception e ) {
 			e.printStackTrace();
 		}
@@ -2,6 +2,7 @@
 package com.vzome.api;
 
 import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
 
 import com.vzome.core.exporters.Exporter3d;
 
@@ -19,13 +20,48 @@ public class Exporter
         return this.delegate != null;
     }
 
+    /**
+     * Writes the text form of the export.  Formats with no text form, where isBinary() is always true,
+     * like PNG, are written as base64.
+     */
     public void doExport( Document model, Writer out, int height, int width ) throws Exception
     {
         this .delegate .exportDocument( model .delegate, null, out, height, width );
     }
 
+    /**
+     * Writes the export as bytes, with no Writer involved.
+     * The format is text unless setBinary( true ) was called and the format has a binary form.
+     * The channel is not closed.
+     */
+    public void doExport( Document model, WritableByteChannel out, int height, int width ) throws Exception
+    {
+        this .delegate .exportDocument( model .delegate, null, out, height, width );
+    }
+
+    public String getFileExtension()
+    {
+        return this .delegate .getFileExtension();
+    }
+
     public String getContentType()
     {
         return this .delegate .getContentType();
     }
+
+    /**
+     * Ask for the binary form of the format, like binary STL, for exports to a channel.
+     */
+    public void setBinary( boolean binary )
+    {
+        this .delegate .setBinary( binary );
+    }
+
+    /**
+     * @return true if exports to a channel write bytes that a Writer could not carry as they are
+     */
+    public boolean isBinary()
+    {
+        return this .delegate .isBinary();
+    }
 }
@@ -32,6 +32,17 @@ public abstract class AbstractAlgebraicField implements AlgebraicField
 
     void normalize( BigRational[] factors ) {}
 
+    /**
+     * The multiplication tensor expresses multiply() as a sum of scaled products,
+     * such that {@code product[i] = sum( tensor[i][j][k] * v1[j] * v2[k] )}.
+     * AlgebraicNumberImpl uses it to accumulate products without allocating intermediate BigRationals.
+     * @return the multiplication tensor, or null if this field only supports multiply()
+     */
+    short[][][] getMultiplicationTensor()
+    {
+        return null;
+    }
+
     @Override
     public final int getOrder() { return order; }
 
@@ -99,6 +110,42 @@ public abstract class AbstractAlgebraicField implements AlgebraicField
         negativePowers = new ArrayList[ order-1 ];
     }
 
+    private AlgebraicNumberCache numberCache;	// null unless enabled
+
+    /**
+     * Canonicalize the numbers created by this field from now on,
+     * retaining at most capacity distinct values.
+     * @param capacity less than two disables the cache
+     */
+    public void enableNumberCache( int capacity )
+    {
+        if ( capacity < 2 ) {
+            this .numberCache = null;
+            return;
+        }
+        this .numberCache = new AlgebraicNumberCache( capacity );
+        this .numberCache .intern( this .zero );
+        this .numberCache .intern( this .one );
+    }
+
+    /**
+     * @return the cache with its hit-rate metrics, or null if it is not enabled
+     */
+    public AlgebraicNumberCache getNumberCache()
+    {
+        return this .numberCache;
+    }
+
+    /**
+     * Used by the AlgebraicNumberFactory implementations for every number they create.
+     * @return the canonical instance equal to number, or number itself when there is no cache
+     */
+    AlgebraicNumber intern( AlgebraicNumber number )
+    {
+        AlgebraicNumberCache cache = this .numberCache;
+        return cache == null ? number : cache .intern( number );
+    }
+
     // generateSeries() calls createPower() which can't be used in the ParameterizedField
     // until the c'tor is fully executed. That means smallSeries can't be initialized
     // in this base class c'tor, so this method generates it one time upon first use 
@@ -523,6 +570,12 @@ public abstract class AbstractAlgebraicField implements AlgebraicField
         return this .one;
     }
 
+    @Override
+    public AlgebraicNumber dotProduct( AlgebraicNumber[] v1, AlgebraicNumber[] v2 )
+    {
+        return this .numberFactory .dotProduct( this, v1, v2 );
+    }
+
     /**
      *
      * @param nums is an array of integer arrays: One array of coordinate terms per dimension.
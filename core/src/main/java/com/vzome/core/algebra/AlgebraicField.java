@@ -127,6 +127,22 @@ public interface AlgebraicField
 
     AlgebraicNumber one();
 
+    /**
+     * @param v1
+     * @param v2 must be at least as long as v1
+     * @return the sum of the products of the corresponding elements of v1 and v2,
+     * as used for vector inner products and matrix multiplication.
+     * Implementations may override this to avoid creating the intermediate products and sums.
+     */
+    default AlgebraicNumber dotProduct( AlgebraicNumber[] v1, AlgebraicNumber[] v2 )
+    {
+        AlgebraicNumber sum = this .zero();
+        for ( int i = 0; i < v1.length; i++ ) {
+            sum = sum .plus( v1[ i ] .times( v2[ i ] ) );
+        }
+        return sum;
+    }
+
     /**
      *
      * @param nums is an array of integer arrays: One array of coordinate terms per dimension.
@@ -166,10 +166,23 @@ public class AlgebraicMatrix
 
 	public AlgebraicMatrix times( AlgebraicMatrix that )
 	{
+        if ( Fields .rows( that .matrix ) != Fields .columns( this .matrix ) )
+            throw new IllegalArgumentException( "matrices cannot be multiplied" );
         AlgebraicField field = this .matrix[ 0 ][ 0 ] .getField();
-        AlgebraicMatrix result = new AlgebraicMatrix( field, this .matrix .length, that.matrix[0].length );
+        final int rows = this .matrix .length;
+        final int cols = that .matrix[ 0 ] .length;
+        AlgebraicMatrix result = new AlgebraicMatrix( field, rows, cols );
 
-        Fields .matrixMultiplication( this .matrix, that .matrix, result .matrix );
+        // Each element of the product is one dotProduct(), which avoids creating the intermediate products and sums.
+        AlgebraicNumber[] column = new AlgebraicNumber[ that .matrix .length ];
+        for ( int j = 0; j < cols; j++ ) {
+            for ( int k = 0; k < column.length; k++ ) {
+                column[ k ] = that .matrix[ k ][ j ];
+            }
+            for ( int i = 0; i < rows; i++ ) {
+                result .matrix[ i ][ j ] = field .dotProduct( this .matrix[ i ], column );
+            }
+        }
         return result;
 	}
 
@@ -183,12 +196,12 @@ public class AlgebraicMatrix
 
         AlgebraicNumber[] resultComponents = new AlgebraicNumber[ rowLength ];
         AlgebraicField field = this .matrix[ 0 ][ 0 ] .getField();
+        AlgebraicNumber[] column = new AlgebraicNumber[ colLength ];
         for ( int j = 0; j < rowLength; j++ ) {
-            resultComponents[ j ] = field .zero();
             for ( int i = 0; i < colLength; i++ ) {
-                AlgebraicNumber product = rowVector .getComponent( i ) .times( this .matrix[ i ][ j ] );
-                resultComponents[ j ] = resultComponents[ j ] .plus( product );
+                column[ i ] = this .matrix[ i ][ j ];
             }
+            resultComponents[ j ] = field .dotProduct( rowVector .getComponents(), column );
         }
         return new AlgebraicVector( resultComponents );
     }
@@ -203,11 +216,7 @@ public class AlgebraicMatrix
         AlgebraicNumber[] resultComponents = new AlgebraicNumber[ colLength ];
         AlgebraicField field = this .matrix[ 0 ][ 0 ] .getField();
         for ( int i = 0; i < colLength; i++ ) {
-            resultComponents[ i ] = field .zero();
-            for ( int j = 0; j < rowLength; j++ ) {
-                AlgebraicNumber product = columnVector .getComponent( j ) .times( this .matrix[ i ][ j ] );
-                resultComponents[ i ] = resultComponents[ i ] .plus( product );
-            }
+            resultComponents[ i ] = field .dotProduct( columnVector .getComponents(), this .matrix[ i ] );
         }
         return new AlgebraicVector( resultComponents );
     }
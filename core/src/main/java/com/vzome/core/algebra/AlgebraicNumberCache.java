@@ -0,0 +1,156 @@
+package com.vzome.core.algebra;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A bounded canonicalizing cache of AlgebraicNumbers for a single field.
+ * Equal numbers produced while the cache is enabled share one instance,
+ * so equals() is mostly an identity check and the lazily computed
+ * hashCode and double value are computed once per canonical instance.
+ *
+ * Eviction is approximately least-recently-used, using two generations:
+ * when the young generation fills up, it becomes the old generation and the
+ * previous old generation is dropped.  Any hit in the old generation is promoted.
+ *
+ * Numbers are spread by hash code over independent stripes, each with its own
+ * generations and its own lock, so threads creating numbers in the same field
+ * rarely wait for each other.
+ * This needs nothing more than a HashMap, so it transpiles like the rest of this package.
+ */
+public class AlgebraicNumberCache
+{
+    private static final int MAX_STRIPES = 16;
+
+    private static class Stripe
+    {
+        private final int generationSize;
+
+        private Map<AlgebraicNumber, AlgebraicNumber> young = new HashMap<>();
+
+        private Map<AlgebraicNumber, AlgebraicNumber> old = new HashMap<>();
+
+        private long hits = 0;
+
+        private long misses = 0;
+
+        private long evictions = 0;
+
+        Stripe( int generationSize )
+        {
+            this .generationSize = generationSize;
+        }
+
+        synchronized AlgebraicNumber intern( AlgebraicNumber number )
+        {
+            AlgebraicNumber canonical = this .young .get( number );
+            if ( canonical != null ) {
+                ++ this .hits;
+                return canonical;
+            }
+            canonical = this .old .remove( number );
+            if ( canonical != null )
+                ++ this .hits;
+            else {
+                ++ this .misses;
+                canonical = number;
+                canonical .evaluate(); // computed once, for all who share this instance
+            }
+            if ( this .young .size() >= this .generationSize ) {
+                this .evictions += this .old .size();
+                this .old = this .young;
+                this .young = new HashMap<>();
+            }
+            this .young .put( canonical, canonical );
+            return canonical;
+        }
+    }
+
+    // a power of two in length, so a stripe is chosen by masking the hash code
+    private final Stripe[] stripes;
+
+    /**
+     * @param capacity the most canonical instances retained, across all stripes and both generations
+     */
+    public AlgebraicNumberCache( int capacity )
+    {
+        if ( capacity < 2 )
+            throw new IllegalArgumentException( "AlgebraicNumberCache capacity must be at least 2, not " + capacity );
+        // at least one entry per generation in every stripe
+        int count = 1;
+        while ( count < MAX_STRIPES && 2 * ( 2 * count ) <= capacity )
+            count *= 2;
+        this .stripes = new Stripe[ count ];
+        for ( int i = 0; i < count; i++ )
+            this .stripes[ i ] = new Stripe( capacity / ( 2 * count ) );
+    }
+
+    /**
+     * @param number a newly created number
+     * @return the canonical instance equal to number, which is number itself on a miss
+     */
+    public AlgebraicNumber intern( AlgebraicNumber number )
+    {
+        int hash = number .hashCode();
+        hash ^= ( hash >>> 16 );
+        return this .stripes[ hash & ( this .stripes.length - 1 ) ] .intern( number );
+    }
+
+    public long getHits()
+    {
+        long hits = 0;
+        for ( Stripe stripe : this .stripes )
+            synchronized ( stripe ) {
+                hits += stripe .hits;
+            }
+        return hits;
+    }
+
+    public long getMisses()
+    {
+        long misses = 0;
+        for ( Stripe stripe : this .stripes )
+            synchronized ( stripe ) {
+                misses += stripe .misses;
+            }
+        return misses;
+    }
+
+    public long getEvictions()
+    {
+        long evictions = 0;
+        for ( Stripe stripe : this .stripes )
+            synchronized ( stripe ) {
+                evictions += stripe .evictions;
+            }
+        return evictions;
+    }
+
+    public int size()
+    {
+        int size = 0;
+        for ( Stripe stripe : this .stripes )
+            synchronized ( stripe ) {
+                size += stripe .young .size() + stripe .old .size();
+            }
+        return size;
+    }
+
+    /**
+     * @return the fraction of lookups that found an existing canonical instance
+     */
+    public double getHitRate()
+    {
+        long hits = this .getHits();
+        long lookups = hits + this .getMisses();
+        return lookups == 0 ? 0d : (double) hits / lookups;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "AlgebraicNumberCache: " + this .getHits() + " hits, " + this .getMisses() + " misses ("
+                + Math .round( 100d * getHitRate() ) + "% hit rate), "
+                + size() + " retained, " + this .getEvictions() + " evicted";
+    }
+}
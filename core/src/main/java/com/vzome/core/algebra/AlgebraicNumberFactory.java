@@ -15,6 +15,8 @@ public interface AlgebraicNumberFactory
     AlgebraicNumber createAlgebraicNumberFromPairs( AlgebraicField field, long[] pairs );
 
     AlgebraicNumber createRational( AlgebraicField field, long numerator, long denominator );
+
+    AlgebraicNumber dotProduct( AlgebraicField field, AlgebraicNumber[] v1, AlgebraicNumber[] v2 );
     
     boolean isPrime( int n );
     
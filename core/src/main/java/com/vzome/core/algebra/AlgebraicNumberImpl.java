@@ -58,7 +58,7 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
             for ( int j = 0; j < numerators.length; j++ ) {
                 brs[ j ] = new BigRationalImpl( numerators[ j ], divisor );
             }
-            return new AlgebraicNumberImpl( field, brs );
+            return canonical( new AlgebraicNumberImpl( field, brs ) );
         }
 
         @Override
@@ -74,7 +74,7 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
             for ( int j = 0; j < n; j++ ) {
                 brs[ j ] = new BigRationalImpl( trailingDivisorForm[ j ], denominator );
             }
-            return new AlgebraicNumberImpl( field, brs );
+            return canonical( new AlgebraicNumberImpl( field, brs ) );
         }
 
         @Override
@@ -84,13 +84,29 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
             for ( int j = 0; j < brs.length; j++ ) {
                 brs[ j ] = new BigRationalImpl( pairs[ j*2 ], pairs[ j*2+1 ] );
             }
-            return new AlgebraicNumberImpl( field, brs );
+            return canonical( new AlgebraicNumberImpl( field, brs ) );
         }
 
         @Override
         public AlgebraicNumber createRational( AlgebraicField field, long numerator, long denominator )
         {
-            return new AlgebraicNumberImpl( field, new BigRationalImpl( numerator, denominator ) );
+            return canonical( new AlgebraicNumberImpl( field, new BigRationalImpl( numerator, denominator ) ) );
+        }
+
+        @Override
+        public AlgebraicNumber dotProduct( AlgebraicField field, AlgebraicNumber[] v1, AlgebraicNumber[] v2 )
+        {
+            AbstractAlgebraicField abstractField = (AbstractAlgebraicField) field;
+            int order = field .getOrder();
+            BigRationalImpl.Accumulator[] sums = accumulators( order );
+            for ( int i = 0; i < v1.length; i++ ) {
+                AlgebraicNumberImpl n1 = (AlgebraicNumberImpl) v1[ i ];
+                AlgebraicNumberImpl n2 = (AlgebraicNumberImpl) v2[ i ];
+                if ( n1 .isZero() || n2 .isZero() )
+                    continue;
+                accumulateProduct( abstractField, n1 .factors, n2 .factors, sums );
+            }
+            return canonical( new AlgebraicNumberImpl( field, toFactors( sums, order ) ) );
         }
 
         @Override
@@ -107,6 +123,81 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
         }
     };
     
+    // Each thread reuses its own accumulators, so that times() and dotProduct()
+    //  allocate only the BigRationals of the final result.
+    private static final ThreadLocal<BigRationalImpl.Accumulator[]> ACCUMULATORS = new ThreadLocal<>();
+
+    // Returns the field's canonical instance when its number cache is enabled,
+    //  so that equal numbers share their lazily computed values.
+    private static AlgebraicNumber canonical( AlgebraicNumberImpl number )
+    {
+        return number .field .intern( number );
+    }
+
+    /**
+     * @param order
+     * @return at least order accumulators, the first order of which have been reset to zero
+     */
+    private static BigRationalImpl.Accumulator[] accumulators( int order )
+    {
+        BigRationalImpl.Accumulator[] sums = ACCUMULATORS .get();
+        if ( sums == null || sums.length < order ) {
+            sums = new BigRationalImpl.Accumulator[ order ];
+            for ( int i = 0; i < order; i++ ) {
+                sums[ i ] = new BigRationalImpl.Accumulator();
+            }
+            ACCUMULATORS .set( sums );
+        }
+        else {
+            for ( int i = 0; i < order; i++ ) {
+                sums[ i ] .reset();
+            }
+        }
+        return sums;
+    }
+
+    /**
+     * Adds the field product of v1 and v2 to sums, using the field's multiplication tensor when it has one.
+     * @param field
+     * @param v1
+     * @param v2
+     * @param sums
+     */
+    private static void accumulateProduct( AbstractAlgebraicField field, BigRational[] v1, BigRational[] v2, BigRationalImpl.Accumulator[] sums )
+    {
+        short[][][] tensor = field .getMultiplicationTensor();
+        if ( tensor == null ) {
+            BigRational[] product = field .multiply( v1, v2 );
+            for ( int i = 0; i < product.length; i++ ) {
+                sums[ i ] .plus( product[ i ] );
+            }
+            return;
+        }
+        int order = v1.length;
+        for ( int j = 0; j < order; j++ ) {
+            if ( v1[ j ] .isZero() )
+                continue;
+            for ( int k = 0; k < order; k++ ) {
+                if ( v2[ k ] .isZero() )
+                    continue;
+                for ( int i = 0; i < order; i++ ) {
+                    int multiplier = tensor[ i ][ j ][ k ];
+                    if ( multiplier != 0 )
+                        sums[ i ] .plusProduct( v1[ j ], v2[ k ], multiplier );
+                }
+            }
+        }
+    }
+
+    private static BigRational[] toFactors( BigRationalImpl.Accumulator[] sums, int order )
+    {
+        BigRational[] factors = new BigRational[ order ];
+        for ( int i = 0; i < order; i++ ) {
+            factors[ i ] = sums[ i ] .toBigRational();
+        }
+        return factors;
+    }
+
     /**
      * This non-varargs constructor does not call normalize(), 
      * so it can safely be called from within the base AlgebraicField constructor
@@ -195,6 +286,9 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
                     + other.field.getName();
             throw new IllegalStateException(reason);
         }
+        // Canonical instances already have their hashCodes, so unequal numbers are usually rejected here
+        if ( hashCode != null && other.hashCode != null && hashCode.intValue() != other.hashCode.intValue() )
+            return false;
         return Arrays.equals( factors, other.factors );
     }
     
@@ -296,7 +390,7 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
         for ( int i = 0; i < order; i++ ) {
             sum[ i ] = this .factors[ i ] .plus( ((AlgebraicNumberImpl) that) .factors[ i ] );
         }
-        return new AlgebraicNumberImpl( this .field, sum );
+        return canonical( new AlgebraicNumberImpl( this .field, sum ) );
     }
 
     /**
@@ -340,7 +434,13 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
             return that;
         if ( that .isOne() )
             return this;
-        return new AlgebraicNumberImpl( this .field, this .field .multiply( this .factors, ((AlgebraicNumberImpl) that) .factors ) );
+        BigRational[] thatFactors = ((AlgebraicNumberImpl) that) .factors;
+        if ( this .field .getMultiplicationTensor() == null )
+            return canonical( new AlgebraicNumberImpl( this .field, this .field .multiply( this .factors, thatFactors ) ) );
+        int order = this .factors .length;
+        BigRationalImpl.Accumulator[] sums = accumulators( order );
+        accumulateProduct( this .field, this .factors, thatFactors, sums );
+        return canonical( new AlgebraicNumberImpl( this .field, toFactors( sums, order ) ) );
     }
 
     /**
@@ -475,13 +575,13 @@ public class AlgebraicNumberImpl implements AlgebraicNumber
         for ( int i = 0; i < result.length; i++ ) {
             result[ i ] = factors[ i ] .negate();
         }
-        return new AlgebraicNumberImpl( field, result );
+        return canonical( new AlgebraicNumberImpl( field, result ) );
     }
 
     @Override
     public AlgebraicNumber reciprocal()
     {
-        return new AlgebraicNumberImpl( field, field .reciprocal( factors ) );
+        return canonical( new AlgebraicNumberImpl( field, field .reciprocal( factors ) ) );
     }
 
     /**
@@ -5,6 +5,7 @@ import java.util.Arrays;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonValue;
 import com.vzome.core.math.RealVector;
+import com.vzome.core.math.symmetry.Embedding;
 
 /**
  * @author vorth
@@ -19,6 +20,24 @@ public final class AlgebraicVector implements Comparable<AlgebraicVector>
     private final AlgebraicNumber[] coordinates;
     private final AlgebraicField field;
 
+    // Rendering, picking and exporting embed the same vectors over and over,
+    //  so the last embedding into R3 is kept.  Each entry is immutable, so a
+    //  reader on another thread sees either a complete entry or none at all.
+    private static final class Embedded<T>
+    {
+        private final Embedding embedding; // null for the trivial embedding
+        private final T value;
+
+        private Embedded( Embedding embedding, T value )
+        {
+            this .embedding = embedding;
+            this .value = value;
+        }
+    }
+
+    private Embedded<RealVector> realVector;
+    private Embedded<double[]> doubleVector;
+
     public AlgebraicVector( AlgebraicNumber[] n )
     {
         coordinates = new AlgebraicNumber[ n.length ];
@@ -136,7 +155,25 @@ public final class AlgebraicVector implements Comparable<AlgebraicVector>
 
     public final RealVector toRealVector()
     {
-        return new RealVector( this .coordinates[ 0 ] .evaluate(), this .coordinates[ 1 ] .evaluate(), this .coordinates[ 2 ] .evaluate() );
+        return this .toRealVector( null );
+    }
+
+    /**
+     * @param embedding may be null for the trivial embedding
+     * @return the embedding of this vector in R3, cached for repeated use
+     */
+    public final RealVector toRealVector( Embedding embedding )
+    {
+        if ( embedding != null && embedding .isTrivial() )
+            embedding = null;
+        Embedded<RealVector> cached = this .realVector;
+        if ( cached != null && cached .embedding == embedding )
+            return cached .value;
+        RealVector result = ( embedding == null )
+                ? new RealVector( this .coordinates[ 0 ] .evaluate(), this .coordinates[ 1 ] .evaluate(), this .coordinates[ 2 ] .evaluate() )
+                        : embedding .embedInR3( this );
+        this .realVector = new Embedded<>( embedding, result );
+        return result;
     }
 
     // An array of 3 doubles is used when high precision (double) vector values are needed
@@ -146,6 +183,22 @@ public final class AlgebraicVector implements Comparable<AlgebraicVector>
         return new double[] { this .coordinates[ 0 ] .evaluate(), this .coordinates[ 1 ] .evaluate(), this .coordinates[ 2 ] .evaluate() };
     }
 
+    /**
+     * @param embedding may be null for the trivial embedding
+     * @return the embedding of this vector in R3, cached for repeated use, so it must not be modified
+     */
+    public final double[] to3dDoubleVector( Embedding embedding )
+    {
+        if ( embedding != null && embedding .isTrivial() )
+            embedding = null;
+        Embedded<double[]> cached = this .doubleVector;
+        if ( cached != null && cached .embedding == embedding )
+            return cached .value;
+        double[] result = ( embedding == null )? this .to3dDoubleVector() : embedding .embedInR3Double( this );
+        this .doubleVector = new Embedded<>( embedding, result );
+        return result;
+    }
+
     /**
      * @return A String with no extended characters so it's suitable for writing
      * to an 8 bit stream such as System.out or an ASCII text log file in Windows.
@@ -200,6 +253,8 @@ public final class AlgebraicVector implements Comparable<AlgebraicVector>
     public AlgebraicVector setComponent( int component, AlgebraicNumber coord )
     {
         this .coordinates[ component ] = coord;
+        this .realVector = null;
+        this .doubleVector = null;
         return this;
     }
 
@@ -345,11 +400,8 @@ public final class AlgebraicVector implements Comparable<AlgebraicVector>
 
     public AlgebraicNumber dot( AlgebraicVector that )
     {
-        AlgebraicNumber result = this .field .zero();
-        for ( int i = 0; i < that.dimension(); i++ ) {
-            result = result .plus( this .coordinates[ i ] .times( that .coordinates[ i ] ) );
-        }
-        return result;
+        // the dimension of that governs the iteration
+        return this .field .dotProduct( that .coordinates, this .coordinates );
     }
 
     public AlgebraicNumber getLength( AlgebraicVector unit )
@@ -44,6 +44,27 @@ public class AlgebraicVectors {
     public static boolean areParallel(final AlgebraicVector v1, final AlgebraicVector v2) {
         return getNormal(v1, v2).isOrigin();
     }
+
+    /**
+     * 
+     * @param vector a vector other than the origin
+     * @return the positive multiple of vector whose first non-zero component is 1 or -1.
+     * Two vectors have equal signatures exactly when one is a positive multiple of the other,
+     * so the signature identifies the direction exactly.
+     * @throws IllegalArgumentException if vector is the origin.
+     */
+    public static AlgebraicVector getDirectionSignature(final AlgebraicVector vector) {
+        for (int i = 0; i < vector.dimension(); i++) {
+            AlgebraicNumber component = vector.getComponent(i);
+            if (!component.isZero()) {
+                if (component.isOne())
+                    return vector;
+                AlgebraicNumber scale = component.reciprocal();
+                return vector.scale(component.signum() < 0 ? scale.negate() : scale);
+            }
+        }
+        throw new IllegalArgumentException("The origin has no direction.");
+    }
     
     /** 
      * @return a vector that is orthogonal to a plane defined by three of the vertices.
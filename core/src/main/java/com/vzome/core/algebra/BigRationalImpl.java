@@ -597,6 +597,175 @@ public class BigRationalImpl implements Comparable<BigRationalImpl>, BigRational
         }
     }
 
+    /**
+     * Mutable accumulator for sums of products of BigRationals.
+     * It is intended for inner loops such as inner products and matrix multiplication,
+     * where only the final sum needs to be an immutable BigRationalImpl.
+     *
+     * The running sum is held as a reduced pair of longs, with no allocation per operation,
+     * until some operation overflows.
+     * It is then promoted to BigIntegers for the remainder of the accumulation,
+     * and only reduced when {@link #toBigRational()} is called.
+     *
+     * Instances are NOT thread-safe, and are meant to be reused by calling {@link #reset()}.
+     */
+    public static final class Accumulator
+    {
+        private long num = 0;
+        private long den = 1;
+        private BigInteger bigNum = null; // non-null only after promotion
+        private BigInteger bigDen = null;
+
+        /**
+         * Set the running sum back to zero, as a long.
+         * @return this
+         */
+        public Accumulator reset()
+        {
+            num = 0;
+            den = 1;
+            bigNum = null;
+            bigDen = null;
+            return this;
+        }
+
+        public boolean isBig() { return bigNum != null; }
+
+        /**
+         * @param that is the value to be added
+         * @return this, after adding that to the running sum
+         */
+        public Accumulator plus( BigRational that )
+        {
+            BigRationalImpl r = (BigRationalImpl) that;
+            if ( r.isZero )
+                return this;
+            if ( bigNum == null && r.notBig() ) {
+                try {
+                    addLong( r.num, r.den );
+                    return this;
+                } catch ( ArithmeticException overflow ) {
+                    // nothing has been modified, so fall through to the BigInteger math
+                }
+            }
+            if ( bigNum == null )
+                promote();
+            addBig( r.getNumerator(), r.getDenominator() );
+            return this;
+        }
+
+        /**
+         * @param a
+         * @param b
+         * @return this, after adding a * b to the running sum
+         */
+        public Accumulator plusProduct( BigRational a, BigRational b )
+        {
+            return plusProduct( a, b, 1 );
+        }
+
+        /**
+         * @param a
+         * @param b
+         * @param multiplier an integer scalar, such as an entry in a field's multiplication tensor
+         * @return this, after adding a * b * multiplier to the running sum
+         */
+        public Accumulator plusProduct( BigRational a, BigRational b, int multiplier )
+        {
+            BigRationalImpl x = (BigRationalImpl) a;
+            BigRationalImpl y = (BigRationalImpl) b;
+            if ( multiplier == 0 || x.isZero || y.isZero )
+                return this;
+            if ( bigNum == null && x.notBig() && y.notBig() ) {
+                try {
+                    long n = Math.multiplyExact( x.num, y.num );
+                    if ( multiplier != 1 )
+                        n = Math.multiplyExact( n, (long) multiplier );
+                    long d = Math.multiplyExact( x.den, y.den );
+                    addLong( n, d );
+                    return this;
+                } catch ( ArithmeticException overflow ) {
+                    // nothing has been modified, so fall through to the BigInteger math
+                }
+            }
+            if ( bigNum == null )
+                promote();
+            BigInteger n = x.getNumerator().multiply( y.getNumerator() );
+            if ( multiplier != 1 )
+                n = n.multiply( BigInteger.valueOf( multiplier ) );
+            addBig( n, x.getDenominator().multiply( y.getDenominator() ) );
+            return this;
+        }
+
+        /**
+         * @return the running sum as an immutable, reduced BigRationalImpl.
+         * The accumulator is unchanged, so accumulation may continue.
+         */
+        public BigRationalImpl toBigRational()
+        {
+            if ( bigNum != null )
+                return new BigRationalImpl( bigNum, bigDen ); // reduces, and demotes to long if possible
+            if ( num == 0 )
+                return ZERO;
+            if ( num == 1 && den == 1 )
+                return ONE;
+            // addLong() maintains all of the invariants, so no need to reduce again
+            return new BigRationalImpl( num, den, null, null );
+        }
+
+        /**
+         * Adds n/d to the long representation.
+         * The fields are only assigned after all of the math succeeds,
+         * so the running sum is unchanged if an ArithmeticException is thrown.
+         * @param n
+         * @param d must be positive
+         * @throws ArithmeticException on any overflow, or if the result would contain Long.MIN_VALUE
+         */
+        private void addLong( long n, long d )
+        {
+            long sumNum, sumDen;
+            if ( d == den ) {
+                // the most common case, since most denominators are 1
+                sumNum = Math.addExact( num, n );
+                sumDen = den;
+            } else {
+                sumNum = Math.addExact( Math.multiplyExact( num, d ), Math.multiplyExact( n, den ) );
+                sumDen = Math.multiplyExact( den, d );
+            }
+            if ( sumNum == Long.MIN_VALUE )
+                throw new ArithmeticException( "long overflow" );
+            if ( sumNum == 0 ) {
+                sumDen = 1;
+            } else if ( sumDen != 1 ) {
+                long g = Gcd.gcd( sumNum, sumDen );
+                if ( g != 1 ) {
+                    sumNum /= g;
+                    sumDen /= g;
+                }
+            }
+            num = sumNum;
+            den = sumDen;
+        }
+
+        private void addBig( BigInteger n, BigInteger d )
+        {
+            if ( bigDen.equals( d ) ) {
+                bigNum = bigNum.add( n );
+            } else {
+                bigNum = bigNum.multiply( d ).add( n.multiply( bigDen ) );
+                bigDen = bigDen.multiply( d );
+            }
+        }
+
+        private void promote()
+        {
+            bigNum = BigInteger.valueOf( num );
+            bigDen = BigInteger.valueOf( den );
+            num = 0;
+            den = 0;
+        }
+    }
+
     @JsonValue
     public Object toJson()
     {
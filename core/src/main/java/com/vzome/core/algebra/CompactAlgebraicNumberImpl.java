@@ -0,0 +1,715 @@
+package com.vzome.core.algebra;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+/**
+ *
+ * Immutable representation of an Algebraic Number,
+ * stored as a single array of long numerators with one shared, positive divisor.
+ * This is much smaller than the BigRational[] used by AlgebraicNumberImpl,
+ * and the arithmetic needs no intermediate BigRationals.
+ * Only when a result overflows a long does a number fall back to holding BigRational factors.
+ * <br>
+ * INVARIANT: either numerators is null, and factors are the truth,
+ *   or factors is null, and numerators and divisor are the truth.
+ *   The long form is always used when the value fits, and it is always reduced,
+ *   so equal values always have equal representations.
+ * <br>
+ * Arithmetic in the long form does not call AbstractAlgebraicField.normalize(),
+ * so the FACTORY should only be used by fields that don't require normalization,
+ * such as PentagonField, RootTwoField, RootThreeField and HeptagonField.
+ * The Application gives it to those fields when the "compact.numbers" property is true.
+ *
+ */
+@JsonSerialize( using = CompactAlgebraicNumberImpl.Serializer.class )
+public class CompactAlgebraicNumberImpl implements AlgebraicNumber
+{
+    private final AbstractAlgebraicField field;
+    private final long[] numerators;    // null when factors is used
+    private final long divisor;         // 0 when factors is used
+    private final BigRational[] factors; // null unless the long form would overflow
+
+    private double doubleValue = Double.NaN; // initialized on first use
+
+    public static AlgebraicNumberFactory FACTORY = new AlgebraicNumberFactory()
+    {
+        @Override
+        public BigRational zero()
+        {
+            return BigRationalImpl.ZERO;
+        }
+
+        @Override
+        public BigRational one()
+        {
+            return BigRationalImpl.ONE;
+        }
+
+        @Override
+        public BigRational createBigRational( long numerator, long denominator )
+        {
+            return new BigRationalImpl( numerator, denominator );
+        }
+
+        @Override
+        public AlgebraicNumber createAlgebraicNumber( AlgebraicField field, int[] numerators, int divisor )
+        {
+            checkOrder( field, numerators .length );
+            long[] nums = new long[ field .getOrder() ];
+            for ( int j = 0; j < numerators.length; j++ ) {
+                nums[ j ] = numerators[ j ];
+            }
+            return create( field, nums, divisor );
+        }
+
+        @Override
+        public AlgebraicNumber createAlgebraicNumberFromTD( AlgebraicField field, int[] trailingDivisorForm )
+        {
+            int n = trailingDivisorForm .length;
+            int denominator = 1;
+            if ( n == field .getOrder() + 1 ) {
+                --n;
+                denominator = trailingDivisorForm[ n ];
+            }
+            checkOrder( field, n );
+            long[] nums = new long[ field .getOrder() ];
+            for ( int j = 0; j < n; j++ ) {
+                nums[ j ] = trailingDivisorForm[ j ];
+            }
+            return create( field, nums, denominator );
+        }
+
+        @Override
+        public AlgebraicNumber createAlgebraicNumberFromPairs( AlgebraicField field, long[] pairs )
+        {
+            int n = pairs .length / 2;
+            checkOrder( field, n );
+            long[] nums = new long[ field .getOrder() ];
+            try {
+                long lcm = 1;
+                for ( int j = 0; j < n; j++ ) {
+                    long den = pairs[ j*2+1 ];
+                    if ( den == 0 || den == Long.MIN_VALUE )
+                        throw new ArithmeticException( "denominator cannot be held in a long: " + den );
+                    lcm = Math .multiplyExact( lcm / BigRationalImpl.Gcd.gcd( lcm, den ), Math .abs( den ) );
+                }
+                for ( int j = 0; j < n; j++ ) {
+                    nums[ j ] = Math .multiplyExact( pairs[ j*2 ], lcm / pairs[ j*2+1 ] );
+                }
+                return create( field, nums, lcm );
+            } catch ( ArithmeticException e ) {
+                BigRational[] brs = new BigRational[ n ];
+                for ( int j = 0; j < n; j++ ) {
+                    brs[ j ] = new BigRationalImpl( pairs[ j*2 ], pairs[ j*2+1 ] );
+                }
+                return fromFactors( field, brs );
+            }
+        }
+
+        @Override
+        public AlgebraicNumber createRational( AlgebraicField field, long numerator, long denominator )
+        {
+            long[] nums = new long[ field .getOrder() ];
+            nums[ 0 ] = numerator;
+            return create( field, nums, denominator );
+        }
+
+        @Override
+        public AlgebraicNumber dotProduct( AlgebraicField field, AlgebraicNumber[] v1, AlgebraicNumber[] v2 )
+        {
+            AbstractAlgebraicField abstractField = (AbstractAlgebraicField) field;
+            short[][][] tensor = abstractField .getMultiplicationTensor();
+            if ( tensor != null ) {
+                int order = field .getOrder();
+                long[] sum = new long[ order ];
+                long[] product = new long[ order ];
+                long sumDivisor = 1;
+                try {
+                    for ( int i = 0; i < v1.length; i++ ) {
+                        CompactAlgebraicNumberImpl n1 = (CompactAlgebraicNumberImpl) v1[ i ];
+                        CompactAlgebraicNumberImpl n2 = (CompactAlgebraicNumberImpl) v2[ i ];
+                        if ( n1 .isZero() || n2 .isZero() )
+                            continue;
+                        if ( n1 .numerators == null || n2 .numerators == null )
+                            throw new ArithmeticException( "BigRational term" );
+                        long productDivisor = multiply( tensor, n1 .numerators, n1 .divisor, n2 .numerators, n2 .divisor, product );
+                        sumDivisor = add( sum, sumDivisor, product, productDivisor );
+                        sumDivisor = reduce( sum, sumDivisor );
+                    }
+                    return canonical( new CompactAlgebraicNumberImpl( abstractField, sum, sumDivisor ) );
+                } catch ( ArithmeticException e ) {
+                    // fall through to the general case below
+                }
+            }
+            AlgebraicNumber result = field .zero();
+            for ( int i = 0; i < v1.length; i++ ) {
+                result = result .plus( v1[ i ] .times( v2[ i ] ) );
+            }
+            return result;
+        }
+
+        @Override
+        public boolean isPrime( int n )
+        {
+            return AlgebraicNumberImpl.FACTORY .isPrime( n );
+        }
+
+        @Override
+        public int nextPrime( int prime )
+        {
+            return AlgebraicNumberImpl.FACTORY .nextPrime( prime );
+        }
+    };
+
+    private CompactAlgebraicNumberImpl( AbstractAlgebraicField field, long[] numerators, long divisor )
+    {
+        this .field = field;
+        this .numerators = numerators;
+        this .divisor = divisor;
+        this .factors = null;
+    }
+
+    private CompactAlgebraicNumberImpl( AbstractAlgebraicField field, BigRational[] factors )
+    {
+        this .field = field;
+        this .numerators = null;
+        this .divisor = 0;
+        this .factors = factors;
+    }
+
+    private static AlgebraicNumber canonical( CompactAlgebraicNumberImpl number )
+    {
+        return number .field .intern( number );
+    }
+
+    private static void checkOrder( AlgebraicField field, int length )
+    {
+        if ( length > field .getOrder() )
+            throw new IllegalStateException( length + " is too many factors for field \"" + field.getName() + "\"" );
+    }
+
+    /**
+     * @param field
+     * @param numerators must have exactly field.getOrder() elements, and will be modified when reduced
+     * @param divisor
+     * @return the reduced number, which falls back to BigRational factors only when it cannot be held in longs
+     */
+    private static AlgebraicNumber create( AlgebraicField field, long[] numerators, long divisor )
+    {
+        try {
+            long reduced = reduce( numerators, divisor );
+            return canonical( new CompactAlgebraicNumberImpl( (AbstractAlgebraicField) field, numerators, reduced ) );
+        } catch ( ArithmeticException e ) {
+            // The BigRationalImpl c'tor throws the appropriate exception if divisor is zero
+            BigRational[] brs = new BigRational[ numerators .length ];
+            for ( int j = 0; j < numerators.length; j++ ) {
+                brs[ j ] = new BigRationalImpl( numerators[ j ], divisor );
+            }
+            return fromFactors( field, brs );
+        }
+    }
+
+    /**
+     * @param field
+     * @param givenFactors
+     * @return the number in the long form whenever it fits, otherwise holding the normalized factors
+     */
+    static AlgebraicNumber fromFactors( AlgebraicField field, BigRational[] givenFactors )
+    {
+        checkOrder( field, givenFactors.length );
+        AbstractAlgebraicField abstractField = (AbstractAlgebraicField) field;
+        BigRational[] factors = new BigRational[ field .getOrder() ];
+        for ( int i = 0; i < factors.length; i++ ) {
+            factors[ i ] = ( i >= givenFactors.length || givenFactors[ i ] == null )
+                    ? BigRationalImpl.ZERO
+                            : givenFactors[ i ];
+        }
+        abstractField .normalize( factors );
+
+        BigInteger lcm = BigInteger.ONE;
+        for ( BigRational factor : factors ) {
+            BigInteger den = ((BigRationalImpl) factor) .getDenominator();
+            if ( ! den .equals( BigInteger.ONE ) )
+                lcm = lcm .multiply( den ) .divide( lcm .gcd( den ) );
+        }
+        if ( BigRationalImpl .fitsInLong( lcm ) ) {
+            long[] numerators = new long[ factors .length ];
+            boolean fits = true;
+            for ( int i = 0; fits && i < factors.length; i++ ) {
+                BigRationalImpl factor = (BigRationalImpl) factors[ i ];
+                BigInteger num = factor .getNumerator() .multiply( lcm .divide( factor .getDenominator() ) );
+                fits = BigRationalImpl .fitsInLong( num );
+                numerators[ i ] = num .longValue();
+            }
+            if ( fits )
+                return canonical( new CompactAlgebraicNumberImpl( abstractField, numerators, lcm .longValue() ) );
+        }
+        return canonical( new CompactAlgebraicNumberImpl( abstractField, factors ) );
+    }
+
+    /**
+     * Divides numerators and divisor by their greatest common divisor, and makes divisor positive.
+     * @param numerators is modified in place
+     * @param divisor
+     * @return the reduced divisor
+     * @throws ArithmeticException if divisor is zero or any value would overflow a long
+     */
+    private static long reduce( long[] numerators, long divisor )
+    {
+        if ( divisor == 0 || divisor == Long.MIN_VALUE )
+            throw new ArithmeticException( "divisor cannot be held in a long: " + divisor );
+        long gcd = divisor;
+        for ( long numerator : numerators ) {
+            if ( numerator == Long.MIN_VALUE )
+                throw new ArithmeticException( "numerator cannot be held in a long" );
+            if ( gcd != 1 && numerator != 0 )
+                gcd = BigRationalImpl.Gcd.gcd( gcd, numerator );
+        }
+        if ( divisor < 0 )
+            gcd = -gcd;
+        if ( gcd != 1 ) {
+            for ( int i = 0; i < numerators.length; i++ ) {
+                numerators[ i ] /= gcd;
+            }
+        }
+        return divisor / gcd;
+    }
+
+    /**
+     * Adds addend / addendDivisor to sum / sumDivisor, leaving the unreduced result in sum.
+     * @return the new divisor of sum
+     * @throws ArithmeticException on overflow, in which case sum may have been partially modified
+     */
+    private static long add( long[] sum, long sumDivisor, long[] addend, long addendDivisor )
+    {
+        if ( sumDivisor == addendDivisor ) {
+            for ( int i = 0; i < sum.length; i++ ) {
+                sum[ i ] = Math .addExact( sum[ i ], addend[ i ] );
+            }
+            return sumDivisor;
+        }
+        long gcd = BigRationalImpl.Gcd.gcd( sumDivisor, addendDivisor );
+        long sumScale = addendDivisor / gcd;
+        long addendScale = sumDivisor / gcd;
+        for ( int i = 0; i < sum.length; i++ ) {
+            sum[ i ] = Math .addExact( Math .multiplyExact( sum[ i ], sumScale ), Math .multiplyExact( addend[ i ], addendScale ) );
+        }
+        return Math .multiplyExact( sumDivisor, sumScale );
+    }
+
+    /**
+     * Multiplies two numbers in the long form, using the field's multiplication tensor.
+     * @param product receives the unreduced numerators of the product
+     * @return the divisor of product
+     * @throws ArithmeticException on overflow
+     */
+    private static long multiply( short[][][] tensor, long[] v1, long d1, long[] v2, long d2, long[] product )
+    {
+        int order = product.length;
+        for ( int i = 0; i < order; i++ ) {
+            long sum = 0;
+            for ( int j = 0; j < order; j++ ) {
+                if ( v1[ j ] == 0 )
+                    continue;
+                for ( int k = 0; k < order; k++ ) {
+                    int multiplier = tensor[ i ][ j ][ k ];
+                    if ( multiplier != 0 && v2[ k ] != 0 )
+                        sum = Math .addExact( sum, Math .multiplyExact( Math .multiplyExact( v1[ j ], v2[ k ] ), (long) multiplier ) );
+                }
+            }
+            product[ i ] = sum;
+        }
+        return Math .multiplyExact( d1, d2 );
+    }
+
+    /**
+     * @return the BigRational factors of this number, computed if necessary.
+     * The result must not be modified when it is the factors field itself.
+     */
+    private BigRational[] factors()
+    {
+        if ( this .factors != null )
+            return this .factors;
+        BigRational[] result = new BigRational[ this .numerators .length ];
+        for ( int i = 0; i < result.length; i++ ) {
+            long num = this .numerators[ i ];
+            result[ i ] = num == 0
+                    ? BigRationalImpl.ZERO
+                            : ( this .divisor == 1 && num == 1 )? BigRationalImpl.ONE : new BigRationalImpl( num, this .divisor );
+        }
+        return result;
+    }
+
+    public BigRational[] getFactors()
+    {
+        return this .factors() .clone(); // return a copy to ensure that this instance remains immutable
+    }
+
+    /**
+     * @return true if this number could not be held in the compact long form
+     */
+    public boolean isBig()
+    {
+        return this .numerators == null;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return this .numerators == null
+                ? 31 + Arrays.hashCode( this .factors )
+                        : 31 * Arrays.hashCode( this .numerators ) + Long.hashCode( this .divisor );
+    }
+
+    @Override
+    public boolean equals( Object obj )
+    {
+        if ( this == obj )
+            return true;
+        if ( obj == null )
+            return false;
+        if ( getClass() != obj.getClass() )
+            return false;
+        CompactAlgebraicNumberImpl other = (CompactAlgebraicNumberImpl) obj;
+        if(!field.equals( other.field )) {
+            String reason  = "Invalid comparison of "
+                    + getClass().getSimpleName() + "s"
+                    + "with different fields: "
+                    + field.getName()
+                    + " and "
+                    + other.field.getName();
+            throw new IllegalStateException(reason);
+        }
+        // Since the long form is always used when it fits, mixed forms are never equal
+        if ( this .numerators != null && other .numerators != null )
+            return this .divisor == other .divisor && Arrays.equals( this .numerators, other .numerators );
+        if ( this .factors != null && other .factors != null )
+            return Arrays.equals( this .factors, other .factors );
+        return false;
+    }
+
+    @Override
+    public boolean greaterThan(AlgebraicNumber other) {
+        return compareTo(other) > 0;
+    }
+
+    @Override
+    public boolean lessThan(AlgebraicNumber other) {
+        return compareTo(other) < 0;
+    }
+
+    @Override
+    public boolean greaterThanOrEqualTo(AlgebraicNumber other) {
+        return compareTo(other) >= 0;
+    }
+
+    @Override
+    public boolean lessThanOrEqualTo(AlgebraicNumber other) {
+        return compareTo(other) <= 0;
+    }
+
+    @Override
+    public int compareTo(AlgebraicNumber other) {
+        if (this == other) {
+            return 0;
+        }
+        if (other.equals(this)) {
+            // intentionally throws a NullPointerException if other is null
+            // or an IllegalStateException if fields are different
+            return 0;
+        }
+        // See the comments in AlgebraicNumberImpl.compareTo() about rounding errors
+        return Double.compare( this.evaluate(), other.evaluate() );
+    }
+
+    @Override
+    public AlgebraicField getField()
+    {
+        return this .field;
+    }
+
+    @Override
+    public AlgebraicNumber plusInt( int n )
+    {
+        return n == 0 ? this : this.plus(field.createRational(n));
+    }
+
+    @Override
+    public AlgebraicNumber plusRational( int num, int den )
+    {
+        return this.plus(field.createRational(num, den));
+    }
+
+    @Override
+    public AlgebraicNumber plus( AlgebraicNumber that )
+    {
+        if ( this .isZero() )
+            return that;
+        if ( that .isZero() )
+            return this;
+        CompactAlgebraicNumberImpl other = (CompactAlgebraicNumberImpl) that;
+        if ( this .numerators != null && other .numerators != null ) {
+            long[] sum = this .numerators .clone();
+            try {
+                long sumDivisor = add( sum, this .divisor, other .numerators, other .divisor );
+                return canonical( new CompactAlgebraicNumberImpl( this .field, sum, reduce( sum, sumDivisor ) ) );
+            } catch ( ArithmeticException e ) {
+                // fall through to the BigRational form
+            }
+        }
+        BigRational[] f1 = this .factors();
+        BigRational[] f2 = other .factors();
+        BigRational[] sum = new BigRational[ f1 .length ];
+        for ( int i = 0; i < sum.length; i++ ) {
+            sum[ i ] = f1[ i ] .plus( f2[ i ] );
+        }
+        return fromFactors( this .field, sum );
+    }
+
+    @Override
+    public AlgebraicNumber timesInt( int n )
+    {
+        switch(n) {
+        case 0:
+            return field.zero();
+        case 1:
+            return this;
+        case -1:
+            return this.negate();
+        default:
+            return this.times(field.createRational(n));
+        }
+    }
+
+    @Override
+    public AlgebraicNumber timesRational( int num, int den )
+    {
+        return this.times(field.createRational(num, den));
+    }
+
+    @Override
+    public AlgebraicNumber times( AlgebraicNumber that )
+    {
+        if ( this.isZero() || that .isZero() )
+            return this .field .zero();
+        if ( this .isOne() )
+            return that;
+        if ( that .isOne() )
+            return this;
+        CompactAlgebraicNumberImpl other = (CompactAlgebraicNumberImpl) that;
+        short[][][] tensor = this .field .getMultiplicationTensor();
+        if ( tensor != null && this .numerators != null && other .numerators != null ) {
+            long[] product = new long[ this .numerators .length ];
+            try {
+                long productDivisor = multiply( tensor, this .numerators, this .divisor, other .numerators, other .divisor, product );
+                return canonical( new CompactAlgebraicNumberImpl( this .field, product, reduce( product, productDivisor ) ) );
+            } catch ( ArithmeticException e ) {
+                // fall through to the BigRational form
+            }
+        }
+        return fromFactors( this .field, this .field .multiply( this .factors(), other .factors() ) );
+    }
+
+    @Override
+    public AlgebraicNumber minusInt( int n )
+    {
+        return n == 0 ? this : this.minus(field.createRational(n));
+    }
+
+    @Override
+    public AlgebraicNumber minusRational( int num, int den )
+    {
+        return this.minus(field.createRational(num, den));
+    }
+
+    @Override
+    public AlgebraicNumber minus( AlgebraicNumber that )
+    {
+        // Subtraction is not commutative so don't be tempted to optimize for the case when this.isZero()
+        if ( that .isZero() )
+            return this;
+        return this .plus( that .negate() );
+    }
+
+    @Override
+    public AlgebraicNumber dividedByInt( int divisor )
+    {
+        return divisor == 1 ? this : this.dividedBy(field.createRational(divisor));
+    }
+
+    @Override
+    public AlgebraicNumber dividedByRational( int num, int den )
+    {
+        return this.dividedBy(field.createRational(num, den));
+    }
+
+    @Override
+    public AlgebraicNumber dividedBy( AlgebraicNumber that )
+    {
+        // Division is not commutative so don't be tempted to optimize for the case when this.isOne()
+        if ( that .isOne() )
+            return this;
+        return this .times( that .reciprocal() );
+    }
+
+    @Override
+    public double evaluate()
+    {
+        if ( Double.isNaN( doubleValue ) ) {
+            if ( this .numerators == null )
+                doubleValue = field .evaluateNumber( this .factors );
+            else {
+                // evaluate each term as BigRational.evaluate() would, for the same result as AlgebraicNumberImpl
+                double[] coefficients = field .getCoefficients();
+                double result = 0d;
+                for ( int i = 0; i < this .numerators .length; i++ ) {
+                    if ( this .numerators[ i ] != 0 )
+                        result += coefficients[ i ] * ( this .numerators[ i ] / (double) this .divisor );
+                }
+                doubleValue = result;
+            }
+        }
+        return doubleValue;
+    }
+
+    @Override
+    public boolean isRational()
+    {
+        if ( this .numerators == null ) {
+            for( int i = 1; i < factors.length; i++ ) {
+                if ( ! factors[ i ] .isZero() )
+                    return false;
+            }
+            return true;
+        }
+        for( int i = 1; i < numerators.length; i++ ) {
+            if ( numerators[ i ] != 0 )
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isZero()
+    {
+        // the BigRational form is never zero, since zero always fits in the long form
+        return this .numerators != null && this .numerators[ 0 ] == 0 && this .isRational();
+    }
+
+    @Override
+    public boolean isOne()
+    {
+        return this .numerators != null && this .divisor == 1 && this .numerators[ 0 ] == 1 && this .isRational();
+    }
+
+    @Override
+    public int signum() {
+        return (int) Math.signum( evaluate() );
+    }
+
+    @Override
+    public AlgebraicNumber negate()
+    {
+        if ( this .numerators != null ) {
+            long[] result = new long[ this .numerators .length ];
+            for ( int i = 0; i < result.length; i++ ) {
+                result[ i ] = - this .numerators[ i ]; // reduce() ensures that no numerator is Long.MIN_VALUE
+            }
+            return canonical( new CompactAlgebraicNumberImpl( this .field, result, this .divisor ) );
+        }
+        BigRational[] result = new BigRational[ factors .length ];
+        for ( int i = 0; i < result.length; i++ ) {
+            result[ i ] = factors[ i ] .negate();
+        }
+        return fromFactors( field, result );
+    }
+
+    @Override
+    public AlgebraicNumber reciprocal()
+    {
+        return fromFactors( field, field .reciprocal( this .factors() ) );
+    }
+
+    /**
+     * See AlgebraicNumberImpl.getNumberExpression().
+     * Unlike AlgebraicNumberImpl, the String representations are not cached,
+     * since they would be far larger than the number itself.
+     */
+    @Override
+    public void getNumberExpression( StringBuffer buf, int format )
+    {
+        field .getNumberExpression( buf, this .factors(), format );
+    }
+
+    @Override
+    public String toString( int format )
+    {
+        StringBuffer buf = new StringBuffer();
+        getNumberExpression( buf, format );
+        return buf .toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return this .toString( AlgebraicField .DEFAULT_FORMAT );
+    }
+
+    @Override
+    public int[] toTrailingDivisor()
+    {
+        if ( this .numerators == null )
+            return new AlgebraicNumberImpl( this .field, this .factors ) .toTrailingDivisor();
+        int order = this .numerators .length;
+        int[] result = new int[ order + 1 ];
+        result[ order ] = Math .toIntExact( this .divisor );
+        for ( int i = 0; i < order; i++ ) {
+            result[ i ] = Math .toIntExact( this .numerators[ i ] );
+        }
+        return result;
+    }
+
+    // JSON serialization: see the comments in AlgebraicNumberImpl
+
+    @SuppressWarnings("serial")
+    public static class Serializer extends StdSerializer<CompactAlgebraicNumberImpl> {
+
+        public Serializer()
+        {
+            this(null);
+        }
+
+        public Serializer( Class<CompactAlgebraicNumberImpl> t )
+        {
+            super(t);
+        }
+
+        @Override
+        public void serialize( CompactAlgebraicNumberImpl value, JsonGenerator jgen, SerializerProvider provider )
+            throws IOException, JsonProcessingException
+        {
+            @SuppressWarnings("rawtypes")
+            Class view = provider .getActiveView();
+            if ( ( view != null ) && Views.Real.class .isAssignableFrom( view ) )
+            {
+                jgen .writeNumber( value .evaluate() );
+            }
+            else if ( ( view != null ) && Views.TrailingDivisor.class .isAssignableFrom( view ) )
+            {
+                jgen .writeObject( value .toTrailingDivisor() );
+            }
+            else
+            {
+                jgen .writeObject( value .factors() );
+            }
+        }
+    }
+}
@@ -22,7 +22,16 @@ public class HeptagonField extends AbstractAlgebraicField
 
     public HeptagonField()
     {
-        super( FIELD_NAME, 3, AlgebraicNumberImpl.FACTORY );
+        this( AlgebraicNumberImpl.FACTORY );
+    };
+
+    /**
+     * @param factory determines the AlgebraicNumber implementation,
+     * for example CompactAlgebraicNumberImpl.FACTORY for a smaller memory footprint
+     */
+    public HeptagonField( AlgebraicNumberFactory factory )
+    {
+        super( FIELD_NAME, 3, factory );
     };
     
     // specified to more precision than a double can retain so that values are as exact as possible: within one ulp().
@@ -30,6 +39,19 @@ public class HeptagonField extends AbstractAlgebraicField
     private static final double SIGMA_VALUE = 2.24697960371746706d;  // root of x^3 -2x^2 - x +1
 
     private static final int A = 0, B = 1, C = 2;
+
+    // the same terms as multiply(), indexed as [ result ][ v1 ][ v2 ]
+    private static final short[][][] MULTIPLICATION_TENSOR = {
+            { { 1, 0, 0 }, { 0, 1, 0 }, { 0, 0, 1 } },  // ones:   ad + be + cf
+            { { 0, 1, 0 }, { 1, 0, 1 }, { 0, 1, 1 } },  // rhos:   ae + bd + bf + ce + cf
+            { { 0, 0, 1 }, { 0, 1, 1 }, { 1, 1, 1 } }   // sigmas: af + be + bf + cd + ce + cf
+    };
+
+    @Override
+    short[][][] getMultiplicationTensor()
+    {
+        return MULTIPLICATION_TENSOR;
+    }
     
     @Override
     public final BigRational[] multiply( BigRational[] first, BigRational[] second )
@@ -66,6 +66,12 @@ public abstract class ParameterizedField extends AbstractAlgebraicField {
     // See https://en.wikipedia.org/wiki/Parry_Moon#Holors
     protected abstract void initializeMultiplicationTensor();
 
+    @Override
+    short[][][] getMultiplicationTensor()
+    {
+        return multiplicationTensor;
+    }
+
     protected abstract void initializeCoefficients();
     
     protected abstract void initializeLabels();
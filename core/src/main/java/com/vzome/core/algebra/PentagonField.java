@@ -25,7 +25,16 @@ public final class PentagonField extends AbstractAlgebraicField
 
     public PentagonField()
     {
-        super( FIELD_NAME, 2, AlgebraicNumberImpl.FACTORY );
+        this( AlgebraicNumberImpl.FACTORY );
+    };
+
+    /**
+     * @param factory determines the AlgebraicNumber implementation,
+     * for example CompactAlgebraicNumberImpl.FACTORY for a smaller memory footprint
+     */
+    public PentagonField( AlgebraicNumberFactory factory )
+    {
+        super( FIELD_NAME, 2, factory );
     };
 
     public static final double PHI_VALUE = ( 1.0 + Math.sqrt( 5.0 ) ) / 2.0;
@@ -35,6 +44,18 @@ public final class PentagonField extends AbstractAlgebraicField
     public static final double B1_LENGTH = 2d * PHI_VALUE * PHI_VALUE * PHI_VALUE;
 
     private static final int ONES_PLACE = 0, PHIS_PLACE = 1;
+
+    // the same terms as multiply(), indexed as [ result ][ v1 ][ v2 ]
+    private static final short[][][] MULTIPLICATION_TENSOR = {
+            { { 1, 0 }, { 0, 1 } },  // ones
+            { { 0, 1 }, { 1, 1 } }   // phis
+    };
+
+    @Override
+    short[][][] getMultiplicationTensor()
+    {
+        return MULTIPLICATION_TENSOR;
+    }
     
     @Override
     public boolean doubleFrameVectors()
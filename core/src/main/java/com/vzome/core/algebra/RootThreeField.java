@@ -26,7 +26,16 @@ public class RootThreeField extends AbstractAlgebraicField
     
     public RootThreeField()
     {
-        super( FIELD_NAME, 2, AlgebraicNumberImpl.FACTORY );
+        this( AlgebraicNumberImpl.FACTORY );
+    };
+
+    /**
+     * @param factory determines the AlgebraicNumber implementation,
+     * for example CompactAlgebraicNumberImpl.FACTORY for a smaller memory footprint
+     */
+    public RootThreeField( AlgebraicNumberFactory factory )
+    {
+        super( FIELD_NAME, 2, factory );
     };
 
     @Override
@@ -49,6 +58,18 @@ public class RootThreeField extends AbstractAlgebraicField
 
     private static final int ONES_PLACE = 0, SQRT3_PLACE = 1;
 
+    // the same terms as multiply(), indexed as [ result ][ v1 ][ v2 ]
+    private static final short[][][] MULTIPLICATION_TENSOR = {
+            { { 1, 0 }, { 0, 3 } },  // ones
+            { { 0, 1 }, { 1, 0 } }   // sqrt3s
+    };
+
+    @Override
+    short[][][] getMultiplicationTensor()
+    {
+        return MULTIPLICATION_TENSOR;
+    }
+
     @Override
     double evaluateNumber( BigRational[] factors )
     {
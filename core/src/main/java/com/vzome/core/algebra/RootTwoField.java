@@ -22,7 +22,16 @@ public class RootTwoField extends AbstractAlgebraicField
     
     public RootTwoField()
     {
-        super( FIELD_NAME, 2, AlgebraicNumberImpl.FACTORY );
+        this( AlgebraicNumberImpl.FACTORY );
+    };
+
+    /**
+     * @param factory determines the AlgebraicNumber implementation,
+     * for example CompactAlgebraicNumberImpl.FACTORY for a smaller memory footprint
+     */
+    public RootTwoField( AlgebraicNumberFactory factory )
+    {
+        super( FIELD_NAME, 2, factory );
     };
     
     @Override
@@ -37,6 +46,18 @@ public class RootTwoField extends AbstractAlgebraicField
     
     private static final int ONES_PLACE = 0, SQRT2_PLACE = 1;
 
+    // the same terms as multiply(), indexed as [ result ][ v1 ][ v2 ]
+    private static final short[][][] MULTIPLICATION_TENSOR = {
+            { { 1, 0 }, { 0, 2 } },  // ones
+            { { 0, 1 }, { 1, 0 } }   // sqrt2s
+    };
+
+    @Override
+    short[][][] getMultiplicationTensor()
+    {
+        return MULTIPLICATION_TENSOR;
+    }
+
     @Override
     public final BigRational[] multiply( BigRational[] first, BigRational[]  second )
     {
@@ -383,6 +383,11 @@ public class CommandUniformH4Polytope extends CommandTransform
     }
 
     public void generate( int index, int renderEdges, AlgebraicNumber[] edgeScales, WythoffConstruction.Listener listener )
+    {
+        this .generate( index, renderEdges, edgeScales, new WythoffConstruction.Generator(), listener );
+    }
+
+    public void generate( int index, int renderEdges, AlgebraicNumber[] edgeScales, WythoffConstruction.Generator generator, WythoffConstruction.Listener listener )
     {   
         AlgebraicVector[] reflections = new AlgebraicVector[4];
         AlgebraicVector prototype = symm .getPrototype( index );
@@ -404,26 +409,25 @@ public class CommandUniformH4Polytope extends CommandTransform
             if ( ( renderEdges & ( 1 << mirror ) ) != 0 )
                 reflections[ mirror ] = symm .reflect( mirror, prototype );
 
-        for (Quaternion outerRoot : mRoots) { 
-            for (Quaternion innerRoot : mRoots) {
-                AlgebraicVector vertex = outerRoot.rightMultiply(prototype);
-                vertex = innerRoot.leftMultiply(vertex);
-
-                Object p1 = listener .addVertex( vertex );
-
-                for (int mirror = 0; mirror < 4; mirror++) {
-                    if (reflections[ mirror ] != null) {
-                        AlgebraicVector other = outerRoot.rightMultiply(reflections[ mirror ]);
-                        other = innerRoot.leftMultiply( other );
-                        if ( ! other .equals( vertex ) )
-                        {
-                            Object p2 = listener .addVertex( other );
-
-                            listener .addEdge( p1, p2 );
-                        }
-                    }
+        final AlgebraicVector model = prototype;
+        final int numRoots = mRoots.length;
+        AlgebraicVector[][] images = generator .generate( numRoots * numRoots, i -> {
+            Quaternion outerRoot = mRoots[ i / numRoots ];
+            Quaternion innerRoot = mRoots[ i % numRoots ];
+            AlgebraicVector[] result = new AlgebraicVector[ 5 ];
+            AlgebraicVector vertex = outerRoot.rightMultiply(model);
+            result[ 0 ] = innerRoot.leftMultiply(vertex);
+
+            for (int mirror = 0; mirror < 4; mirror++) {
+                if (reflections[ mirror ] != null) {
+                    AlgebraicVector other = outerRoot.rightMultiply(reflections[ mirror ]);
+                    result[ mirror+1 ] = innerRoot.leftMultiply( other );
                 }
             }
+            return result;
+        } );
+        for ( AlgebraicVector[] image : images ) {
+            WythoffConstruction .addImages( image, listener );
             //        try {
             //            String wythoff = Integer .toBinaryString( index );
             //            wythoff = "0000" .substring( wythoff .length() ) + wythoff;
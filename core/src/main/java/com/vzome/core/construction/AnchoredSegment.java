@@ -41,6 +41,11 @@ public class AnchoredSegment extends Segment
         return setStateVariables( gv, offset, false );
     }
 
+    public Point getAnchor()
+    {
+        return mAnchor;
+    }
+
     public Axis getAxis()
     {
         return mAxis;
@@ -29,6 +29,16 @@ public class SegmentEndPoint extends Point
         mapParamsToState();
     }
 
+    public Segment getSegment()
+    {
+        return mSegment;
+    }
+
+    public boolean isStart()
+    {
+        return this .start;
+    }
+
     @Override
     protected final boolean mapParamsToState()
     {
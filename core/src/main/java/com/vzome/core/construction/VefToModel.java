@@ -1,7 +1,6 @@
 
 package com.vzome.core.construction;
 
-import java.util.StringTokenizer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -124,7 +123,7 @@ public class VefToModel extends VefParser
     }
 
     @Override
-    protected void endFile( StringTokenizer tokens )
+    protected void endFile( Tokens tokens )
     {
         if ( noBallsSection ) {
             for (Point vertex : mVertices) {
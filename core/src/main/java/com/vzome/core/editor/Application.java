@@ -14,8 +14,11 @@ import javax.vecmath.Vector3f;
 
 import org.w3c.dom.Element;
 
+import com.vzome.core.algebra.AbstractAlgebraicField;
 import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicNumberFactory;
 import com.vzome.core.algebra.AlgebraicNumberImpl;
+import com.vzome.core.algebra.CompactAlgebraicNumberImpl;
 import com.vzome.core.algebra.EdPeggField;
 import com.vzome.core.algebra.HeptagonField;
 import com.vzome.core.algebra.PentagonField;
@@ -32,6 +35,7 @@ import com.vzome.core.commands.Command.Failure;
 import com.vzome.core.commands.XmlSaveFormat;
 import com.vzome.core.commands.XmlSymmetryFormat;
 import com.vzome.core.construction.Color;
+import com.vzome.core.editor.api.Shapes;
 import com.vzome.core.exporters.ColoredMeshJsonExporter;
 import com.vzome.core.exporters.DaeExporter;
 import com.vzome.core.exporters.DxfExporter;
@@ -43,6 +47,7 @@ import com.vzome.core.exporters.PartGeometryExporter;
 import com.vzome.core.exporters.PartsListExporter;
 import com.vzome.core.exporters.PdbExporter;
 import com.vzome.core.exporters.PlyExporter;
+import com.vzome.core.exporters.PngExporter;
 import com.vzome.core.exporters.STEPExporter;
 import com.vzome.core.exporters.SegExporter;
 import com.vzome.core.exporters.ShapesJsonExporter;
@@ -63,8 +68,14 @@ import com.vzome.core.kinds.RootThreeFieldApplication;
 import com.vzome.core.kinds.RootTwoFieldApplication;
 import com.vzome.core.kinds.SnubCubeFieldApplication;
 import com.vzome.core.kinds.SnubDodecFieldApplication;
+import com.vzome.core.math.convexhull.ParallelPointTasks;
+import com.vzome.core.math.convexhull.QuickHull3D;
+import com.vzome.core.math.symmetry.ParallelWythoffGenerator;
+import com.vzome.core.math.symmetry.WythoffConstruction;
 import com.vzome.core.render.Colors;
+import com.vzome.core.viewing.AbstractShapes;
 import com.vzome.core.viewing.Lights;
+import com.vzome.core.viewing.ShapeCache;
 import com.vzome.fields.sqrtphi.SqrtPhiField;
 import com.vzome.fields.sqrtphi.SqrtPhiFieldApplication;
 import com.vzome.xml.DomParser;
@@ -85,6 +96,15 @@ public class Application implements AlgebraicField.Registry
 
     private final Map<String, Supplier<SnapshotExporter>> exporters2d = new HashMap<>();
 
+    // shared by the shapes of all the documents of this Application, or null to share nothing
+    private final ShapeCache shapeCache;
+
+    // given to every FieldApplication this creates, for generating polytopes
+    private final WythoffConstruction.Generator wythoffGenerator = new ParallelWythoffGenerator();
+
+    // given to the editor of every document, for computing convex hulls
+    private final QuickHull3D.Tasks hullTasks = new ParallelPointTasks();
+
     private static final Logger logger = Logger.getLogger( "com.vzome.core.editor" );
 
     public Application( boolean enableCommands, Command.FailureChannel failures, Properties overrides )
@@ -100,6 +120,18 @@ public class Application implements AlgebraicField.Registry
 
         mColors = new Colors( properties );
 
+        // Documents share strut and connector shapes only when "shape.cache.size" is set
+        int shapeCacheSize = 0;
+        String size = properties .getProperty( "shape.cache.size" );
+        if ( size != null ) {
+            try {
+                shapeCacheSize = Integer .parseInt( size .trim() );
+            } catch ( NumberFormatException e ) {
+                logger .warning( "ignoring invalid shape.cache.size: " + size );
+            }
+        }
+        this .shapeCache = ( shapeCacheSize >= 2 )? new ShapeCache( shapeCacheSize ) : null;
+
         for ( int i = 1; i <= 3; i++ ) {
             Color color = mColors .getColorPref( "light.directional." + i );
             Vector3f dir = new Vector3f( mColors .getVectorPref( "direction.light." + i ) );
@@ -127,6 +159,7 @@ public class Application implements AlgebraicField.Registry
         this .exporters .put( "pdb", new PdbExporter( null, this .mColors, this .mLights, null ) );
         this .exporters .put( "seg", new SegExporter( null, this .mColors, this .mLights, null ) );
         this .exporters .put( "ply", new PlyExporter( this .mColors, this .mLights ) );
+        this .exporters .put( "png", new PngExporter( this .mColors, this .mLights ) );
         this .exporters .put( "history", new HistoryExporter( null, this .mColors, this .mLights, null ) );
 
         this .exporters2d .put( "pdf", PDFExporter::new );
@@ -134,11 +167,15 @@ public class Application implements AlgebraicField.Registry
         this .exporters2d .put( "ps",  PostScriptExporter::new );
 
         // %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
-        this.fieldAppSuppliers.put( "golden",   () -> new GoldenFieldApplication( new PentagonField() ) );
-        this.fieldAppSuppliers.put( "rootTwo",  () -> new RootTwoFieldApplication( new RootTwoField() ) );
-        this.fieldAppSuppliers.put( "heptagon", () -> new HeptagonFieldApplication( new HeptagonField() ) );
-        this.fieldAppSuppliers.put( "rootThree", () -> new RootThreeFieldApplication( new RootThreeField() ) );
-        this.fieldAppSuppliers.put( "dodecagon", () -> new RootThreeFieldApplication( new RootThreeField() ) );
+        // Setting "compact.numbers" to true makes the documents of the fields that need no normalization
+        //  store their numbers as CompactAlgebraicNumberImpl, which takes much less heap for big models.
+        AlgebraicNumberFactory numbers = Boolean .parseBoolean( properties .getProperty( "compact.numbers", "false" ) .trim() )?
+                CompactAlgebraicNumberImpl.FACTORY : AlgebraicNumberImpl.FACTORY;
+        this.fieldAppSuppliers.put( "golden",   () -> new GoldenFieldApplication( new PentagonField( numbers ) ) );
+        this.fieldAppSuppliers.put( "rootTwo",  () -> new RootTwoFieldApplication( new RootTwoField( numbers ) ) );
+        this.fieldAppSuppliers.put( "heptagon", () -> new HeptagonFieldApplication( new HeptagonField( numbers ) ) );
+        this.fieldAppSuppliers.put( "rootThree", () -> new RootThreeFieldApplication( new RootThreeField( numbers ) ) );
+        this.fieldAppSuppliers.put( "dodecagon", () -> new RootThreeFieldApplication( new RootThreeField( numbers ) ) );
         this.fieldAppSuppliers.put( "snubCube", () -> new SnubCubeFieldApplication( new SnubCubeField( AlgebraicNumberImpl.FACTORY ) ) );
         this.fieldAppSuppliers.put( "snubDodec", () -> new SnubDodecFieldApplication( new SnubDodecField( AlgebraicNumberImpl.FACTORY ) ) );
         this.fieldAppSuppliers.put( "sqrtPhi", () -> new SqrtPhiFieldApplication( new SqrtPhiField( AlgebraicNumberImpl.FACTORY ) ) );
@@ -181,6 +218,8 @@ public class Application implements AlgebraicField.Registry
         if ( fieldName .isEmpty() )
             fieldName = "golden";
         FieldApplication kind = this .getDocumentKind( fieldName );
+        this .enableNumberCache( kind );
+        this .enableShapeCache( kind );
 
         return new DocumentModel( kind, failures, element, this );
     }
@@ -188,6 +227,8 @@ public class Application implements AlgebraicField.Registry
     public DocumentModel createDocument( String fieldName )
     {
         FieldApplication kind = this .getDocumentKind( fieldName );
+        this .enableNumberCache( kind );
+        this .enableShapeCache( kind );
         return new DocumentModel( kind, failures, null, this );
     }
 
@@ -196,6 +237,8 @@ public class Application implements AlgebraicField.Registry
         String fieldName = "golden";
         // TODO: use fieldName from VEF input
         FieldApplication kind = this .getDocumentKind( fieldName );
+        this .enableNumberCache( kind );
+        this .enableShapeCache( kind );
         DocumentModel result = new DocumentModel( kind, failures, null, this );
         Map<String,Object> props = new HashMap<>();
         props .put( "script", content );
@@ -203,6 +246,53 @@ public class Application implements AlgebraicField.Registry
         return result;
     }
     
+    /**
+     * Documents share equal coordinate values heavily, so a large "number.cache.size"
+     * can save much of the heap for big models.  The cache is per field, so per document.
+     */
+    private void enableNumberCache( FieldApplication kind )
+    {
+        String size = this .properties .getProperty( "number.cache.size" );
+        if ( size == null )
+            return;
+        int capacity;
+        try {
+            capacity = Integer .parseInt( size .trim() );
+        } catch ( NumberFormatException e ) {
+            // the default, with no cache
+            logger .warning( "ignoring invalid number.cache.size: " + size );
+            return;
+        }
+        ((AbstractAlgebraicField) kind .getField()) .enableNumberCache( capacity );
+    }
+
+    /**
+     * Give the shapes of a new document the ShapeCache of this Application, if there is one,
+     * so they share geometry with the shapes of other documents.
+     */
+    private void enableShapeCache( FieldApplication kind )
+    {
+        if ( this .shapeCache == null )
+            return;
+        for ( SymmetryPerspective perspective : kind .getSymmetryPerspectives() )
+            for ( Shapes shapes : perspective .getGeometries() )
+                if ( shapes instanceof AbstractShapes )
+                    ((AbstractShapes) shapes) .setShapeCache( this .shapeCache );
+    }
+
+    /**
+     * @return the ShapeCache shared by the documents of this Application, or null if they share no shapes
+     */
+    public ShapeCache getShapeCache()
+    {
+        return this .shapeCache;
+    }
+
+    public QuickHull3D.Tasks getHullTasks()
+    {
+        return this .hullTasks;
+    }
+
     @Override
     public AlgebraicField getField( String name )
     {
@@ -210,6 +300,14 @@ public class Application implements AlgebraicField.Registry
     }
 
     public FieldApplication getDocumentKind( String name )
+    {
+        FieldApplication kind = this .createDocumentKind( name );
+        if ( kind instanceof DefaultFieldApplication )
+            ((DefaultFieldApplication) kind) .setWythoffGenerator( this .wythoffGenerator );
+        return kind;
+    }
+
+    private FieldApplication createDocumentKind( String name )
     {
         Supplier<FieldApplication> supplier = fieldAppSuppliers.get(name);
         if( supplier != null ) {
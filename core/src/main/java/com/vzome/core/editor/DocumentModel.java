@@ -33,7 +33,9 @@ import org.w3c.dom.NodeList;
 
 import com.vzome.api.Tool;
 import com.vzome.api.Tool.Factory;
+import com.vzome.core.algebra.AbstractAlgebraicField;
 import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicNumberCache;
 import com.vzome.core.algebra.AlgebraicVector;
 import com.vzome.core.commands.AbstractCommand;
 import com.vzome.core.commands.Command;
@@ -76,6 +78,7 @@ import com.vzome.core.render.RenderedModel;
 import com.vzome.core.tools.BookmarkTool;
 import com.vzome.core.viewing.Camera;
 import com.vzome.core.viewing.Lights;
+import com.vzome.core.viewing.ShapeCache;
 import com.vzome.xml.DomSerializer;
 
 public class DocumentModel implements Snapshot .Recorder, Context
@@ -132,6 +135,9 @@ public class DocumentModel implements Snapshot .Recorder, Context
 
     private final Application app;
 
+    // kept across captures, so a 2D snapshot restyled without changing the 3D view is not recomputed
+    private final Java2dExporter java2dExporter = new Java2dExporter();
+
     public void addPropertyChangeListener( PropertyChangeListener listener )
     {
         propertyChangeSupport .addPropertyChangeListener( listener );
@@ -227,6 +233,7 @@ public class DocumentModel implements Snapshot .Recorder, Context
         this .mRealizedModel .addListener( this .renderedModel ); // just setting the default
         // the renderedModel must either be disabled, or have shapes here, so the origin ball gets rendered
         this .editorModel = new EditorModelImpl( this .mRealizedModel, originPoint, kind, symmetrySystem, this .symmetrySystems );
+        this .editorModel .setHullTasks( app .getHullTasks() );
         this .tools .setEditorModel( this .editorModel );
 
         // cannot be done in the constructors
@@ -268,7 +275,7 @@ public class DocumentModel implements Snapshot .Recorder, Context
             }
         }
 
-        mHistory = new EditHistory();
+        mHistory = new EditHistory( this .mRealizedModel, this .editorModel .mSelection );
         mHistory .setListener( new EditHistory.Listener() {
 
             @Override
@@ -648,15 +655,24 @@ public class DocumentModel implements Snapshot .Recorder, Context
                 int lastDoneEdit = openUndone? 0 : Integer.parseInt( hist .getAttribute( "editNumber" ) );
                 String lseStr = hist .getAttribute( "lastStickyEdit" );
                 int lastStickyEdit = ( ( lseStr == null ) || lseStr .isEmpty() )? -1 : Integer .parseInt( lseStr );
+                List<Element> editElems = new ArrayList<>();
                 NodeList nodes = hist .getChildNodes();
                 for ( int i = 0; i < nodes .getLength(); i++ ) {
                     Node kid = nodes .item( i );
                     if ( kid instanceof Element ) {
                         Element editElem = (Element) kid;
                         mHistory .loadEdit( format, editElem, this );
+                        editElems .add( editElem );
                     }
                 }
-                mHistory .synchronize( lastDoneEdit, lastStickyEdit, explicitSnapshots );
+                EditHistory.Checkpoint checkpoint = null;
+                Element checkpointXml = (Element) mXML .getElementsByTagName( HistoryCheckpoint.ELEMENT_NAME ) .item( 0 );
+                if ( checkpointXml != null && ! openUndone && explicitSnapshots == null && ! format .isMigration() )
+                    checkpoint = this .loadCheckpoint( checkpointXml, format, editElems, lastDoneEdit );
+                if ( checkpoint != null )
+                    mHistory .synchronize( lastDoneEdit, lastStickyEdit, checkpoint );
+                else
+                    mHistory .synchronize( lastDoneEdit, lastStickyEdit, explicitSnapshots );
             } catch ( Throwable t )
             {
                 String fileVersion = mXML .getAttribute( "coreVersion" );
@@ -678,10 +694,65 @@ public class DocumentModel implements Snapshot .Recorder, Context
                         " loaded in " + duration + " seconds" 
                         + (mXML == null ? " (new)" : " from XML") );
             }
+            AlgebraicNumberCache numberCache = ((AbstractAlgebraicField) this .field) .getNumberCache();
+            if ( numberCache != null )
+                logger .info( "Document @ " + System.identityHashCode(this) + " " + numberCache );
+            ShapeCache shapeCache = this .app .getShapeCache();
+            if ( shapeCache != null && logger .isLoggable( Level.FINE ) )
+                logger .fine( "Document @ " + System.identityHashCode(this) + " " + shapeCache );
         }
     }
     private final long startTime = System.nanoTime();
 
+    // the checkpoint last restored or saved, which later saves can write again
+    private HistoryCheckpoint checkpoint = null;
+
+    /**
+     * @return null if the checkpoint does not match the edits, so they must all be replayed
+     */
+    private EditHistory.Checkpoint loadCheckpoint( Element xml, XmlSymmetryFormat format, List<Element> edits, int lastDoneEdit )
+    {
+        HistoryCheckpoint saved;
+        try {
+            saved = HistoryCheckpoint .parse( xml, this .field, format );
+        } catch ( IllegalStateException e ) {
+            logger .warning( e .getMessage() );
+            return null;
+        }
+        int editNumber = saved .getEditNumber();
+        if ( editNumber > lastDoneEdit || editNumber > edits .size() )
+            return null;
+        if ( ! HistoryCheckpoint .hashEdits( edits .subList( 0, editNumber ) ) .equals( saved .getHistoryHash() ) ) {
+            logger .info( "ignoring a checkpoint that does not match the edit history" );
+            return null;
+        }
+        HistoryCheckpoint initial = HistoryCheckpoint .capture( 0, "", this .editorModel, this .mRealizedModel );
+        if ( initial == null )
+            return null;
+        return new EditHistory.Checkpoint()
+        {
+            @Override
+            public int getEditNumber()
+            {
+                return editNumber;
+            }
+
+            @Override
+            public void restore()
+            {
+                saved .restore( editorModel, mRealizedModel );
+                // still valid for saving, while the edits before it are unchanged
+                checkpoint = saved;
+            }
+
+            @Override
+            public void restoreInitial()
+            {
+                initial .restore( editorModel, mRealizedModel );
+            }
+        };
+    }
+
     boolean fileIsTooNew( String fileVersion )
     {
         if ( fileVersion == null || "" .equals( fileVersion ) )
@@ -757,6 +828,7 @@ public class DocumentModel implements Snapshot .Recorder, Context
             childElement .setAttribute( "lastStickyEdit", Integer .toString( lastStickyEdit ) );
         }
         vZomeRoot .appendChild( childElement );
+        Element historyXml = childElement;
         doc .appendChild( vZomeRoot );
 
         childElement = lesson .getXml( doc );
@@ -794,6 +866,39 @@ public class DocumentModel implements Snapshot .Recorder, Context
         childElement = this .tools .getXml( doc );
         vZomeRoot .appendChild( childElement );
 
+        // Only when "checkpoint.min.edits" is set, histories at least that long are saved with the state
+        //  they produce, so that opening need not replay them.  There is no checkpoint for a model with
+        //  constructions that HistoryCheckpoint cannot save, such as those made by tools or transformations.
+        int editNumber = mHistory .getEditNumber();
+        int minEdits = 0;
+        String minEditsStr = editorProps .getProperty( "checkpoint.min.edits" );
+        if ( minEditsStr != null ) {
+            try {
+                minEdits = Integer .parseInt( minEditsStr .trim() );
+            } catch ( NumberFormatException e ) {
+                logger .warning( "ignoring invalid checkpoint.min.edits: " + minEditsStr );
+            }
+        }
+        if ( minEdits > 0 && editNumber >= minEdits ) {
+            List<Element> edits = new ArrayList<>();
+            NodeList nodes = historyXml .getChildNodes();
+            for ( int i = 0; i < editNumber; i++ )
+                edits .add( (Element) nodes .item( i ) );
+            // A checkpoint fewer than minEdits edits back is written again, rather than capturing the whole model
+            //  on every save, and opening replays the edits after it.
+            HistoryCheckpoint saved = this .checkpoint;
+            if ( saved != null && ( saved .getEditNumber() > editNumber || editNumber - saved .getEditNumber() >= minEdits
+                    || ! HistoryCheckpoint .hashEdits( edits .subList( 0, saved .getEditNumber() ) ) .equals( saved .getHistoryHash() ) ) )
+                saved = null;
+            if ( saved == null && mHistory .isCheckpointable() ) {
+                saved = HistoryCheckpoint .capture( editNumber, HistoryCheckpoint .hashEdits( edits ), this .editorModel, this .mRealizedModel );
+                if ( saved != null )
+                    this .checkpoint = saved;
+            }
+            if ( saved != null )
+                vZomeRoot .appendChild( saved .getXml( doc ) );
+        }
+
         DomSerializer .serialize( doc, out );
     }
 
@@ -967,8 +1072,7 @@ public class DocumentModel implements Snapshot .Recorder, Context
     public Java2dSnapshot capture2d( RenderedModel model, int height, int width, Camera camera, Lights lights,
             boolean drawLines, boolean doLighting ) throws Exception
     {
-        Java2dExporter captureSnapshot = new Java2dExporter();
-        Java2dSnapshot snapshot = captureSnapshot .render2d( model, camera, lights, height, width, drawLines, doLighting );
+        Java2dSnapshot snapshot = this .java2dExporter .render2d( model, camera, lights, height, width, drawLines, doLighting );
 
         return snapshot;
     }
@@ -22,6 +22,7 @@ import com.vzome.core.editor.api.Context;
 import com.vzome.core.editor.api.UndoableEdit;
 import com.vzome.core.commands.XmlSaveFormat;
 import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.RealizedModelImpl;
 import com.vzome.xml.DomSerializer;
 import com.vzome.xml.DomUtils;
 import com.vzome.xml.LocationData;
@@ -36,6 +37,19 @@ public class EditHistory implements Iterable<UndoableEdit>
 
     private boolean breakpointHit = false;
 
+    // while not null, the first checkpointEdits edits are still DeferredEdits, whose effects were restored from the checkpoint
+    private Checkpoint checkpoint = null;
+
+    private int checkpointEdits = 0;
+
+    // when not null, undoing or redoing many edits at once renders only the net change
+    private final RealizedModelImpl realizedModel;
+
+    // when not null, its listeners hear of a jump only after the realized model has rendered it
+    private final SelectionImpl selection;
+
+    private boolean jumping = false;
+
     private static final Logger logger = Logger .getLogger( "com.vzome.core.EditHistory" );
     private static final Logger breakpointLogger = Logger .getLogger( "com.vzome.core.editor.Breakpoint" );
 
@@ -46,8 +60,38 @@ public class EditHistory implements Iterable<UndoableEdit>
         void publishChanges();
     }
 
+    /**
+     * A saved state of the document after some number of edits, from which replay can resume.
+     * @see #synchronize(int, int, Checkpoint)
+     */
+    public interface Checkpoint
+    {
+        int getEditNumber();
+
+        /**
+         * Replace the current state with the state after getEditNumber() edits.
+         */
+        void restore();
+
+        /**
+         * Replace the current state with the state before any edits.
+         */
+        void restoreInitial();
+    }
+
     public Listener listener;
 
+    public EditHistory( RealizedModelImpl realizedModel )
+    {
+        this( realizedModel, null );
+    }
+
+    public EditHistory( RealizedModelImpl realizedModel, SelectionImpl selection )
+    {
+        this .realizedModel = realizedModel;
+        this .selection = selection;
+    }
+
     public void setListener( Listener listener )
     {
         this .listener = listener;
@@ -108,12 +152,17 @@ public class EditHistory implements Iterable<UndoableEdit>
     public UndoableEdit undoAll()
     {
         UndoableEdit last = null;
-        do {
-            UndoableEdit edit = undo();
-            if ( edit == null )
-                break;
-            last = edit;
-        } while ( true );
+        this .startJump();
+        try {
+            do {
+                UndoableEdit edit = undo();
+                if ( edit == null )
+                    break;
+                last = edit;
+            } while ( true );
+        } finally {
+            this .endJump();
+        }
         this .listener .publishChanges();
         return last;
     }
@@ -121,19 +170,53 @@ public class EditHistory implements Iterable<UndoableEdit>
     public UndoableEdit undoToManifestation( Manifestation man )
     {
         UndoableEdit edit = null;
-        do {
-            edit = undo();
-            if ( edit == null )
-                break;
-            if ( ( edit instanceof ChangeManifestations )
-                    && ((ChangeManifestations) edit) .showsManifestation( man ) ) {
-                break;
-            }
-        } while ( true );
+        this .startJump();
+        try {
+            do {
+                edit = undo();
+                if ( edit == null )
+                    break;
+                if ( ( edit instanceof ChangeManifestations )
+                        && ((ChangeManifestations) edit) .showsManifestation( man ) ) {
+                    break;
+                }
+            } while ( true );
+        } finally {
+            this .endJump();
+        }
         this .listener .publishChanges();
         return edit;
     }
 
+    /**
+     * Start batching the changes to the realized model, so that a jump across many edits
+     * reaches the renderers as one net change, in endJump().
+     * Realized edits only replay their recorded side-effects, so they can be undone and redone
+     * in a batch, but a DeferredEdit must end the jump before it is redone,
+     * since it performs the edit, which may depend on what is rendered.
+     * Selection changes are batched too, and reach the listeners after the rendering,
+     * since a selection listener may set the glow of a newly rendered manifestation.
+     */
+    private void startJump()
+    {
+        if ( this .realizedModel != null && ! this .jumping ) {
+            this .realizedModel .startBatch();
+            if ( this .selection != null )
+                this .selection .startBatch();
+            this .jumping = true;
+        }
+    }
+
+    private void endJump()
+    {
+        if ( this .jumping ) {
+            this .jumping = false;
+            this .realizedModel .endBatch();
+            if ( this .selection != null )
+                this .selection .endBatch();
+        }
+    }
+
     public UndoableEdit redoToBreakpoint() throws Command.Failure
     {
         // always try once, to skip over a breakpoint we might be sitting on
@@ -194,17 +277,22 @@ public class EditHistory implements Iterable<UndoableEdit>
     {
         UndoableEdit last = null;
         breakpointHit = false;  // different mechanism than the int parameter
-        do {
-            UndoableEdit edit = redo();
-            if ( edit == null )
-                break;
-            last = edit;
-            if ( breakpointHit )
-            {
-                breakpointHit = false;
-                break;
-            }
-        } while ( breakpoint == -1 || mEditNumber < breakpoint );
+        this .startJump();
+        try {
+            do {
+                UndoableEdit edit = redo();
+                if ( edit == null )
+                    break;
+                last = edit;
+                if ( breakpointHit )
+                {
+                    breakpointHit = false;
+                    break;
+                }
+            } while ( breakpoint == -1 || mEditNumber < breakpoint );
+        } finally {
+            this .endJump();
+        }
         this .listener .publishChanges();
         return last;
     }
@@ -216,20 +304,32 @@ public class EditHistory implements Iterable<UndoableEdit>
             editNum = mEdits .size();
         if ( editNum == mEditNumber )
             return;
-        // undo() and redo() inlined here to avoid isVisible() and block limitations
-        while ( mEditNumber < editNum )
-        {
-            if ( mEditNumber == mEdits .size() )
-                break;
-            UndoableEdit undoable = mEdits .get( mEditNumber++ );
-            undoable .redo();
+        if ( this .checkpoint != null && editNum < this .checkpointEdits ) {
+            this .materialize( editNum );
+            this .listener .publishChanges();
+            return;
         }
-        while ( mEditNumber > editNum )
-        {
-            if ( mEditNumber == 0 )
-                break;
-            UndoableEdit undoable = mEdits .get( --mEditNumber );
-            undoable .undo();
+        // undo() and redo() inlined here to avoid isVisible() and block limitations
+        this .startJump();
+        try {
+            while ( mEditNumber < editNum )
+            {
+                if ( mEditNumber == mEdits .size() )
+                    break;
+                UndoableEdit undoable = mEdits .get( mEditNumber++ );
+                if ( undoable instanceof DeferredEdit )
+                    this .endJump();
+                undoable .redo();
+            }
+            while ( mEditNumber > editNum )
+            {
+                if ( mEditNumber == 0 )
+                    break;
+                UndoableEdit undoable = mEdits .get( --mEditNumber );
+                undoable .undo();
+            }
+        } finally {
+            this .endJump();
         }
         this .listener .publishChanges();
     }
@@ -243,6 +343,14 @@ public class EditHistory implements Iterable<UndoableEdit>
     {
         if ( mEditNumber == 0 )
             return null;
+        if ( this .checkpoint != null && mEditNumber == this .checkpointEdits ) {
+            this .endJump();
+            try {
+                this .materialize( mEditNumber );
+            } catch ( Failure e ) {
+                throw new RuntimeException( e );
+            }
+        }
         UndoableEdit undoable = mEdits .get( --mEditNumber );
         if ( useBlocks && undoable instanceof EndBlock )
             return undoBlock();
@@ -254,7 +362,8 @@ public class EditHistory implements Iterable<UndoableEdit>
             return undoable;
         if ( ! undoable .isVisible() )
             return undo(); // undo another one, until we find one we want to return
-        this .listener .publishChanges();
+        if ( ! this .jumping )
+            this .listener .publishChanges();
         return undoable;
     }
 
@@ -302,6 +411,8 @@ public class EditHistory implements Iterable<UndoableEdit>
         try {
             if ( logger .isLoggable( Level .FINE ) )
                 logger .fine( "redo: " + undoable .toString() );
+            if ( undoable instanceof DeferredEdit )
+                this .endJump();
             undoable .redo();
         } catch ( RuntimeException e ) {
             if ( logger .isLoggable( Level .WARNING ) )
@@ -313,7 +424,8 @@ public class EditHistory implements Iterable<UndoableEdit>
             return undoable;
         if ( ! undoable .isVisible() )
             return redo(); // redo another one, until we find one we want to return
-        this .listener .publishChanges();
+        if ( ! this .jumping )
+            this .listener .publishChanges();
         return undoable;
     }
 
@@ -551,7 +663,7 @@ public class EditHistory implements Iterable<UndoableEdit>
             if ( locationData != null )
                 return locationData .getStartLine();
             else
-                return 0;
+                return super .getLineNumber(); // deferred again by materialize()
         }
 
         @Override
@@ -714,14 +826,47 @@ public class EditHistory implements Iterable<UndoableEdit>
      * @throws Failure
      */
     public void synchronize( int lastDoneEdit, int lastStickyEdit, UndoableEdit[] explicitSnapshots ) throws Failure
+    {
+        this .replay( 0, lastDoneEdit, lastStickyEdit, explicitSnapshots );
+    }
+
+    /**
+     * Like synchronize( lastDoneEdit, lastStickyEdit, null ), but restoring the checkpoint rather than
+     * redoing the edits before it.  Those edits remain DeferredEdits until an undo or goToEdit
+     * goes back past the checkpoint, when the whole history is replayed from the start.
+     * The checkpoint must be for no more than lastDoneEdit edits, none of them sticky.
+     * If the checkpoint cannot be restored, the whole history is replayed instead.
+     */
+    public void synchronize( int lastDoneEdit, int lastStickyEdit, Checkpoint checkpoint ) throws Failure
+    {
+        int editNumber = checkpoint .getEditNumber();
+        if ( editNumber > lastDoneEdit || editNumber > mEdits .size() )
+            throw new IllegalArgumentException( "checkpoint is after the last done edit" );
+        try {
+            checkpoint .restore();
+        } catch ( RuntimeException e ) {
+            if ( logger.isLoggable( Level.WARNING ) )
+                logger.warning( "replaying the whole history, since the checkpoint failed to restore: " + e .getMessage() );
+            checkpoint .restoreInitial();
+            this .replay( 0, lastDoneEdit, lastStickyEdit, null );
+            return;
+        }
+        if ( editNumber > 0 ) {
+            this .checkpoint = checkpoint;
+            this .checkpointEdits = editNumber;
+        }
+        this .replay( editNumber, lastDoneEdit, lastStickyEdit, null );
+    }
+
+    private void replay( int firstEdit, int lastDoneEdit, int lastStickyEdit, UndoableEdit[] explicitSnapshots ) throws Failure
     {
         int redoThreshold = Math .max( lastDoneEdit, lastStickyEdit );
 
         if ( explicitSnapshots != null )
             redoThreshold = Math .max( redoThreshold, explicitSnapshots .length - 1 );
 
-        mEditNumber = 0;
-        int targetEdit = 0;
+        mEditNumber = firstEdit;
+        int targetEdit = ( firstEdit == lastDoneEdit )? firstEdit : 0;
         List<UndoableEdit> toRedo = new ArrayList<>();
         // here the edits are all still DeferredEdits
         for ( int i = 0; i < redoThreshold; i++ )
@@ -729,7 +874,7 @@ public class EditHistory implements Iterable<UndoableEdit>
                 toRedo .add( mEdits .get( i ) );
             else
                 break;
-        for ( int oldIndex = 0; oldIndex < toRedo .size(); oldIndex++ )
+        for ( int oldIndex = firstEdit; oldIndex < toRedo .size(); oldIndex++ )
         {	            
             DeferredEdit edit = (DeferredEdit) toRedo .get( oldIndex );
             try {
@@ -784,6 +929,70 @@ public class EditHistory implements Iterable<UndoableEdit>
         goToEdit( targetEdit );
     }
 
+    /**
+     * Abandon the checkpoint, replaying the history from the start up to editNum.
+     * Every realized edit that is not sticky becomes a DeferredEdit again, so that
+     * no edit refers to the manifestations restored from the checkpoint.
+     */
+    private void materialize( int editNum ) throws Failure
+    {
+        DeferredEdit template = null;
+        for ( UndoableEdit edit : mEdits )
+            if ( edit instanceof DeferredEdit ) {
+                template = (DeferredEdit) edit;
+                break;
+            }
+        Document doc = template .xml .getOwnerDocument();
+        for ( int i = 0; i < mEdits .size(); i++ ) {
+            UndoableEdit edit = mEdits .get( i );
+            if ( edit instanceof DeferredEdit || edit .isSticky() )
+                continue;
+            DeferredEdit deferred = new DeferredEdit( template .format, edit .getXml( doc ), template .context );
+            deferred .setLineNumber( edit .getLineNumber() );
+            deferred .setBreakpoint( edit .hasBreakpoint() );
+            mEdits .set( i, deferred );
+        }
+        this .checkpoint .restoreInitial();
+        this .checkpoint = null;
+        this .checkpointEdits = 0;
+        mEditNumber = 0;
+        while ( mEditNumber < editNum && mEditNumber < mEdits .size() )
+        {
+            UndoableEdit undoable = mEdits .get( mEditNumber++ );
+            try {
+                undoable .redo();
+            } catch ( RuntimeException e ) {
+                if ( logger.isLoggable( Level.WARNING ) )
+                    logger.warning( "edit number that failed is " + ( this .mEditNumber - 1 ) );
+                // unwrap
+                Throwable t = e.getCause();
+                if ( t instanceof Command.Failure )
+                    throw (Command.Failure) t;
+                else
+                    throw e;
+            }
+        }
+    }
+
+    /**
+     * @return true if the state after the edits done so far can be saved as a checkpoint,
+     * because none of those edits is sticky, and they end outside of any block.
+     */
+    public boolean isCheckpointable()
+    {
+        int depth = 0;
+        for ( int i = 0; i < mEditNumber; i++ ) {
+            UndoableEdit edit = mEdits .get( i );
+            if ( edit .isSticky() )
+                return false;
+            if ( edit instanceof BeginBlock )
+                ++ depth;
+            else if ( edit instanceof EndBlock )
+                -- depth;
+        }
+        return depth == 0;
+    }
+
     public void loadEdit( XmlSaveFormat format, Element editElem, Context context )
     {
         DeferredEdit edit = new DeferredEdit( format, editElem, context );
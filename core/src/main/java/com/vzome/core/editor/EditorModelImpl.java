@@ -11,12 +11,14 @@ import com.vzome.core.construction.Construction;
 import com.vzome.core.construction.Point;
 import com.vzome.core.construction.Segment;
 import com.vzome.core.editor.api.EditorModel;
+import com.vzome.core.editor.api.HullTasksAware;
 import com.vzome.core.editor.api.ImplicitSymmetryParameters;
 import com.vzome.core.editor.api.LegacyEditorModel;
 import com.vzome.core.editor.api.OrbitSource;
 import com.vzome.core.editor.api.Selection;
 import com.vzome.core.editor.api.SymmetryAware;
 import com.vzome.core.editor.api.UndoableEdit;
+import com.vzome.core.math.convexhull.QuickHull3D;
 import com.vzome.core.math.symmetry.Symmetries4D;
 import com.vzome.core.model.Connector;
 import com.vzome.core.model.Manifestation;
@@ -24,7 +26,7 @@ import com.vzome.core.model.RealizedModel;
 import com.vzome.core.model.RealizedModelImpl;
 import com.vzome.core.model.Strut;
 
-public class EditorModelImpl implements LegacyEditorModel, SymmetryAware
+public class EditorModelImpl implements LegacyEditorModel, SymmetryAware, HullTasksAware
 {
     public EditorModelImpl( RealizedModelImpl realized, Point originPoint, Symmetries4D kind, OrbitSource symmetrySystem, Map<String, OrbitSource> symmetrySystems )
     {
@@ -159,6 +161,19 @@ public class EditorModelImpl implements LegacyEditorModel, SymmetryAware
 
     private final Map<String, OrbitSource> symmetrySystems;
 
+    private QuickHull3D.Tasks hullTasks = new QuickHull3D.Tasks();
+
+    public void setHullTasks( QuickHull3D.Tasks hullTasks )
+    {
+        this .hullTasks = hullTasks;
+    }
+
+    @Override
+    public QuickHull3D.Tasks getHullTasks()
+    {
+        return this .hullTasks;
+    }
+
     public Construction getSelectedConstruction( Class<? extends Construction > kind )
     {
         Class<? extends Manifestation> manifestationClass;
@@ -186,6 +201,12 @@ public class EditorModelImpl implements LegacyEditorModel, SymmetryAware
         return failedConstructions .contains( mRealized .manifest( cons ) );
     }
 
+    // for HistoryCheckpoint
+    Set<Manifestation> getFailedConstructions()
+    {
+        return failedConstructions;
+    }
+
     public Selection getSelection()
     {
         return this .mSelection;
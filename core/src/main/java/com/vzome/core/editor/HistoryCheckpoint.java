@@ -0,0 +1,527 @@
+package com.vzome.core.editor;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.Text;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.commands.XmlSaveFormat;
+import com.vzome.core.commands.XmlSymmetryFormat;
+import com.vzome.core.construction.AnchoredSegment;
+import com.vzome.core.construction.Color;
+import com.vzome.core.construction.Construction;
+import com.vzome.core.construction.FreePoint;
+import com.vzome.core.construction.Point;
+import com.vzome.core.construction.Polygon;
+import com.vzome.core.construction.PolygonFromVertices;
+import com.vzome.core.construction.Segment;
+import com.vzome.core.construction.SegmentEndPoint;
+import com.vzome.core.construction.SegmentJoiningPoints;
+import com.vzome.core.editor.api.Selection;
+import com.vzome.core.math.symmetry.Axis;
+import com.vzome.core.model.ConnectorImpl;
+import com.vzome.core.model.Group;
+import com.vzome.core.model.GroupElement;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.PanelImpl;
+import com.vzome.core.model.RealizedModelImpl;
+import com.vzome.core.model.StrutImpl;
+import com.vzome.xml.DomUtils;
+
+/**
+ * The state of the realized model, selection, groups and symmetry parameters after some number of edits,
+ * saved with the document so that opening it need not replay those edits.
+ * The checkpoint records a hash of the edits it replaces, so that it is ignored if the history
+ * no longer matches.
+ * Constructions are saved with their types, so only the types that are defined by their geometry and
+ * a few attributes can be saved; with any other construction in the model, there is no checkpoint.
+ * Those types are free points, segments joining points, anchored segments, their end points, and
+ * polygons from vertices; models built with tools or transformations are not checkpointed.
+ * Checkpoints are written only when the "checkpoint.min.edits" property is set.
+ */
+class HistoryCheckpoint
+{
+    static final String ELEMENT_NAME = "Checkpoint";
+
+    private final int editNumber;
+
+    private final String historyHash;
+
+    // for each manifestation, in model order, its constructions; the first is used to manifest it
+    private final List<List<Construction>> constructions = new ArrayList<>();
+
+    private final List<Boolean> unconstructed = new ArrayList<>();
+
+    private final List<Boolean> hidden = new ArrayList<>();
+
+    private final List<Color> colors = new ArrayList<>();
+
+    // for each group, its members: manifestation indices, or -1-id for nested groups
+    private final List<int[]> groups = new ArrayList<>();
+
+    private int[] selection;
+
+    private Point center;
+
+    private Segment axis;
+
+    private final List<Construction> failed = new ArrayList<>();
+
+    private HistoryCheckpoint( int editNumber, String historyHash )
+    {
+        this .editNumber = editNumber;
+        this .historyHash = historyHash;
+    }
+
+    public int getEditNumber()
+    {
+        return this .editNumber;
+    }
+
+    public String getHistoryHash()
+    {
+        return this .historyHash;
+    }
+
+    /**
+     * Records the current state of the editor, which must be the state after editNumber edits.
+     * @return null if some construction in the state is of a type that cannot be saved and restored
+     */
+    static HistoryCheckpoint capture( int editNumber, String historyHash, EditorModelImpl editor, RealizedModelImpl model )
+    {
+        HistoryCheckpoint result = new HistoryCheckpoint( editNumber, historyHash );
+        // group members may have been removed from the model, and replaced by equal manifestations
+        Map<Manifestation, Integer> indices = new IdentityHashMap<>();
+        for ( Manifestation man : model ) {
+            indices .put( man, indices .size() );
+            List<Construction> cs = new ArrayList<>();
+            for ( Iterator<Construction> it = man .getConstructions(); it .hasNext(); )
+                cs .add( it .next() );
+            result .unconstructed .add( cs .isEmpty() );
+            if ( cs .isEmpty() )
+                cs .add( man .toConstruction() );
+            else
+                for ( Construction c : cs )
+                    if ( ! isRestorable( c ) )
+                        return null;
+            result .constructions .add( cs );
+            result .hidden .add( man .isHidden() );
+            result .colors .add( man .getColor() );
+        }
+
+        Map<Group, Integer> groupIds = new IdentityHashMap<>();
+        List<Group> groupList = new ArrayList<>();
+        for ( Manifestation man : model ) {
+            Group group = Selection .biggestGroup( man );
+            if ( group != null && ! groupIds .containsKey( group ) )
+                result .addGroup( group, groupIds, groupList, indices );
+        }
+        for ( Group group : groupList ) {
+            int[] members = new int[ group .size() ];
+            int count = 0;
+            for ( GroupElement member : group ) {
+                if ( member instanceof Group )
+                    members[ count++ ] = -1 - groupIds .get( member );
+                else {
+                    Integer index = indices .get( member );
+                    if ( index != null )
+                        members[ count++ ] = index;
+                }
+            }
+            result .groups .add( Arrays .copyOf( members, count ) );
+        }
+
+        List<Integer> selected = new ArrayList<>();
+        for ( Manifestation man : editor .getSelection() ) {
+            Integer index = indices .get( man );
+            if ( index != null )
+                selected .add( index );
+        }
+        result .selection = new int[ selected .size() ];
+        for ( int i = 0; i < result .selection .length; i++ )
+            result .selection[ i ] = selected .get( i );
+
+        result .center = editor .getCenterPoint();
+        result .axis = editor .getSymmetrySegment();
+        if ( ! isRestorable( result .center ) || ( result .axis != null && ! isRestorable( result .axis ) ) )
+            return null;
+        for ( Manifestation man : editor .getFailedConstructions() )
+            if ( man != null )
+                result .failed .add( man .toConstruction() );
+        return result;
+    }
+
+    /**
+     * @return true if constructionXml() and parseConstructions() give back a construction of the same type,
+     * with the same geometry and attributes
+     */
+    private static boolean isRestorable( Construction c )
+    {
+        if ( c instanceof FreePoint || c instanceof SegmentJoiningPoints || c instanceof PolygonFromVertices )
+            return true;
+        if ( c instanceof SegmentEndPoint )
+            return isRestorable( ((SegmentEndPoint) c) .getSegment() );
+        if ( c instanceof AnchoredSegment )
+            return isRestorable( ((AnchoredSegment) c) .getAnchor() );
+        return false;
+    }
+
+    private static Element constructionXml( Document doc, Construction c )
+    {
+        if ( c instanceof SegmentEndPoint ) {
+            SegmentEndPoint point = (SegmentEndPoint) c;
+            Element result = doc .createElement( "segmentEndPoint" );
+            if ( point .isStart() )
+                DomUtils .addAttribute( result, "start", "true" );
+            result .appendChild( constructionXml( doc, point .getSegment() ) );
+            return result;
+        }
+        if ( c instanceof AnchoredSegment ) {
+            AnchoredSegment segment = (AnchoredSegment) c;
+            Element result = doc .createElement( "anchoredSegment" );
+            XmlSymmetryFormat .serializeAxis( result, "symm", "dir", "index", "sense", segment .getAxis() );
+            XmlSaveFormat .serializeNumber( result, "len", segment .getLength() );
+            result .appendChild( constructionXml( doc, segment .getAnchor() ) );
+            return result;
+        }
+        // point, segment or polygon, which parse as the free types
+        return c .getXml( doc );
+    }
+
+    // assigns ids depth-first, so every nested group has an id before its container is written
+    private void addGroup( Group group, Map<Group, Integer> groupIds, List<Group> groupList, Map<Manifestation, Integer> indices )
+    {
+        groupIds .put( group, groupList .size() );
+        groupList .add( group );
+        for ( GroupElement member : group )
+            if ( member instanceof Group && ! groupIds .containsKey( member ) )
+                addGroup( (Group) member, groupIds, groupList, indices );
+    }
+
+    /**
+     * Replaces the current state of the editor with this one.
+     */
+    void restore( EditorModelImpl editor, RealizedModelImpl model )
+    {
+        SelectionImpl selected = editor .mSelection;
+        List<Manifestation> previous = new ArrayList<>();
+        selected .copy( previous );
+        for ( Manifestation man : previous )
+            selected .unselect( man );
+        List<Manifestation> existing = new ArrayList<>( model .size() );
+        for ( Manifestation man : model )
+            existing .add( man );
+        for ( Manifestation man : existing ) {
+            model .hide( man );
+            model .remove( man );
+        }
+
+        Manifestation[] manifestations = new Manifestation[ this .constructions .size() ];
+        for ( int i = 0; i < manifestations.length; i++ ) {
+            List<Construction> cs = this .constructions .get( i );
+            Manifestation man;
+            if ( this .unconstructed .get( i ) )
+                man = unprojected( cs .get( 0 ) );
+            else {
+                man = model .manifest( cs .get( 0 ) );
+                for ( Construction c : cs )
+                    man .addConstruction( c );
+            }
+            Color color = this .colors .get( i );
+            if ( color != null )
+                man .setColor( color );
+            model .add( man );
+            if ( this .hidden .get( i ) )
+                man .setHidden( true );
+            else
+                model .show( man );
+            manifestations[ i ] = man;
+        }
+
+        Group[] restoredGroups = new Group[ this .groups .size() ];
+        for ( int i = 0; i < restoredGroups.length; i++ )
+            restoredGroups[ i ] = new Group();
+        for ( int i = 0; i < restoredGroups.length; i++ ) {
+            Group group = restoredGroups[ i ];
+            for ( int member : this .groups .get( i ) ) {
+                GroupElement element = ( member < 0 )? restoredGroups[ -1 - member ] : manifestations[ member ];
+                group .add( element );
+                element .setContainer( group );
+            }
+        }
+
+        for ( int index : this .selection )
+            selected .select( manifestations[ index ] );
+
+        editor .setCenterPoint( this .center );
+        editor .setSymmetrySegment( this .axis );
+        Set<Manifestation> failedConstructions = editor .getFailedConstructions();
+        failedConstructions .clear();
+        for ( Construction c : this .failed )
+            failedConstructions .add( unprojected( c ) );
+    }
+
+    // toConstruction() gives the projected shape, so it must not be projected again
+    private static Manifestation unprojected( Construction c )
+    {
+        if ( c instanceof Point )
+            return new ConnectorImpl( ((Point) c) .getLocation() );
+        if ( c instanceof Segment )
+            return new StrutImpl( ((Segment) c) .getStart(), ((Segment) c) .getEnd() );
+        Polygon polygon = (Polygon) c;
+        List<AlgebraicVector> vertices = new ArrayList<>();
+        for ( int i = 0; i < polygon .getVertexCount(); i++ )
+            vertices .add( polygon .getVertex( i ) );
+        return new PanelImpl( vertices );
+    }
+
+    Element getXml( Document doc )
+    {
+        Element result = doc .createElement( ELEMENT_NAME );
+        DomUtils .addAttribute( result, "editNumber", Integer .toString( this .editNumber ) );
+        DomUtils .addAttribute( result, "history", this .historyHash );
+        for ( int i = 0; i < this .constructions .size(); i++ ) {
+            Element man = doc .createElement( "Manifestation" );
+            if ( this .unconstructed .get( i ) )
+                DomUtils .addAttribute( man, "unconstructed", "true" );
+            if ( this .hidden .get( i ) )
+                DomUtils .addAttribute( man, "hidden", "true" );
+            Color color = this .colors .get( i );
+            if ( color != null )
+                DomUtils .addAttribute( man, "color", String .format( "%08x", color .getRGBA() ) );
+            for ( Construction c : this .constructions .get( i ) )
+                man .appendChild( this .unconstructed .get( i )? c .getXml( doc ) : constructionXml( doc, c ) );
+            result .appendChild( man );
+        }
+        for ( int[] members : this .groups ) {
+            Element group = doc .createElement( "Group" );
+            StringBuilder buf = new StringBuilder();
+            for ( int member : members ) {
+                if ( buf .length() > 0 )
+                    buf .append( ' ' );
+                if ( member < 0 )
+                    buf .append( 'g' ) .append( -1 - member );
+                else
+                    buf .append( member );
+            }
+            DomUtils .addAttribute( group, "members", buf .toString() );
+            result .appendChild( group );
+        }
+        Element selected = doc .createElement( "Selection" );
+        StringBuilder buf = new StringBuilder();
+        for ( int index : this .selection ) {
+            if ( buf .length() > 0 )
+                buf .append( ' ' );
+            buf .append( index );
+        }
+        DomUtils .addAttribute( selected, "members", buf .toString() );
+        result .appendChild( selected );
+
+        Element child = doc .createElement( "Center" );
+        child .appendChild( constructionXml( doc, this .center ) );
+        result .appendChild( child );
+        if ( this .axis != null ) {
+            child = doc .createElement( "Axis" );
+            child .appendChild( constructionXml( doc, this .axis ) );
+            result .appendChild( child );
+        }
+        if ( ! this .failed .isEmpty() ) {
+            child = doc .createElement( "Failed" );
+            for ( Construction c : this .failed )
+                child .appendChild( c .getXml( doc ) );
+            result .appendChild( child );
+        }
+        return result;
+    }
+
+    /**
+     * @throws IllegalStateException if the XML is malformed, before any state is changed
+     */
+    static HistoryCheckpoint parse( Element xml, AlgebraicField field, XmlSymmetryFormat format )
+    {
+        try {
+            HistoryCheckpoint result = new HistoryCheckpoint( Integer .parseInt( xml .getAttribute( "editNumber" ) ), xml .getAttribute( "history" ) );
+            NodeList nodes = xml .getChildNodes();
+            for ( int i = 0; i < nodes .getLength(); i++ ) {
+                if ( ! ( nodes .item( i ) instanceof Element ) )
+                    continue;
+                Element child = (Element) nodes .item( i );
+                switch ( child .getNodeName() ) {
+
+                case "Manifestation":
+                    List<Construction> cs = parseConstructions( child, field, format );
+                    if ( cs .isEmpty() )
+                        throw new IllegalStateException( "manifestation with no shape" );
+                    result .constructions .add( cs );
+                    result .unconstructed .add( "true" .equals( child .getAttribute( "unconstructed" ) ) );
+                    result .hidden .add( "true" .equals( child .getAttribute( "hidden" ) ) );
+                    String color = child .getAttribute( "color" );
+                    result .colors .add( color .isEmpty()? null : new Color( color ) );
+                    break;
+
+                case "Group":
+                    String[] tokens = splitMembers( child );
+                    int[] members = new int[ tokens.length ];
+                    for ( int j = 0; j < tokens.length; j++ )
+                        members[ j ] = tokens[ j ] .startsWith( "g" )? -1 - Integer .parseInt( tokens[ j ] .substring( 1 ) ) : Integer .parseInt( tokens[ j ] );
+                    result .groups .add( members );
+                    break;
+
+                case "Selection":
+                    tokens = splitMembers( child );
+                    result .selection = new int[ tokens.length ];
+                    for ( int j = 0; j < tokens.length; j++ )
+                        result .selection[ j ] = Integer .parseInt( tokens[ j ] );
+                    break;
+
+                case "Center":
+                    result .center = (Point) parseConstructions( child, field, format ) .get( 0 );
+                    break;
+
+                case "Axis":
+                    result .axis = (Segment) parseConstructions( child, field, format ) .get( 0 );
+                    break;
+
+                case "Failed":
+                    result .failed .addAll( parseConstructions( child, field, format ) );
+                    break;
+                }
+            }
+            if ( result .selection == null || result .center == null )
+                throw new IllegalStateException( "missing selection or center" );
+            int count = result .constructions .size();
+            for ( int index : result .selection )
+                if ( index < 0 || index >= count )
+                    throw new IllegalStateException( "bad selection index " + index );
+            for ( int[] members : result .groups )
+                for ( int member : members )
+                    if ( member >= count || -1 - member >= result .groups .size() )
+                        throw new IllegalStateException( "bad group member " + member );
+            return result;
+        } catch ( RuntimeException e ) {
+            throw new IllegalStateException( "invalid history checkpoint: " + e .getMessage(), e );
+        }
+    }
+
+    private static String[] splitMembers( Element xml )
+    {
+        String members = xml .getAttribute( "members" ) .trim();
+        return members .isEmpty()? new String[0] : members .split( " " );
+    }
+
+    private static List<Construction> parseConstructions( Element xml, AlgebraicField field, XmlSymmetryFormat format )
+    {
+        List<Construction> result = new ArrayList<>();
+        NodeList nodes = xml .getChildNodes();
+        for ( int i = 0; i < nodes .getLength(); i++ ) {
+            if ( ! ( nodes .item( i ) instanceof Element ) )
+                continue;
+            Element child = (Element) nodes .item( i );
+            switch ( child .getNodeName() ) {
+
+            case "point":
+                result .add( new FreePoint( field .parseVector( child .getAttribute( "at" ) ) ) );
+                break;
+
+            case "segment":
+                result .add( new SegmentJoiningPoints( new FreePoint( field .parseVector( child .getAttribute( "start" ) ) ),
+                        new FreePoint( field .parseVector( child .getAttribute( "end" ) ) ) ) );
+                break;
+
+            case "polygon":
+                NodeList vertices = child .getElementsByTagName( "vertex" );
+                Point[] points = new Point[ vertices .getLength() ];
+                for ( int k = 0; k < points.length; k++ )
+                    points[ k ] = new FreePoint( field .parseVector( ((Element) vertices .item( k )) .getAttribute( "at" ) ) );
+                result .add( new PolygonFromVertices( points ) );
+                break;
+
+            case "segmentEndPoint":
+                result .add( new SegmentEndPoint( (Segment) parseConstructions( child, field, format ) .get( 0 ), "true" .equals( child .getAttribute( "start" ) ) ) );
+                break;
+
+            case "anchoredSegment":
+                Axis axis = format .parseAxis( child, "symm", "dir", "index", "sense" );
+                AlgebraicNumber length = format .parseNumber( child, "len" );
+                if ( axis == null || length == null )
+                    throw new IllegalStateException( "anchored segment with no axis or length" );
+                result .add( new AnchoredSegment( axis, length, (Point) parseConstructions( child, field, format ) .get( 0 ) ) );
+                break;
+
+            default:
+                throw new IllegalStateException( "unknown construction " + child .getNodeName() );
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A hash of the edits, insensitive to attribute order and to whitespace between elements,
+     * so that it is the same for the edits as serialized and as parsed again.
+     */
+    static String hashEdits( List<Element> edits )
+    {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest .getInstance( "SHA-256" );
+        } catch ( NoSuchAlgorithmException e ) {
+            throw new IllegalStateException( e );
+        }
+        for ( Element edit : edits )
+            hashElement( digest, edit );
+        StringBuilder result = new StringBuilder();
+        for ( byte b : digest .digest() )
+            result .append( String .format( "%02x", b ) );
+        return result .toString();
+    }
+
+    private static void hashElement( MessageDigest digest, Element elem )
+    {
+        update( digest, "<" + elem .getNodeName() );
+        NamedNodeMap attrs = elem .getAttributes();
+        String[] names = new String[ attrs .getLength() ];
+        for ( int i = 0; i < names.length; i++ )
+            names[ i ] = ((Attr) attrs .item( i )) .getName();
+        Arrays .sort( names );
+        for ( String name : names ) {
+            if ( name .startsWith( "xmlns" ) )
+                continue;
+            update( digest, " " + name + "=\"" + elem .getAttribute( name ) + "\"" );
+        }
+        update( digest, ">" );
+        NodeList nodes = elem .getChildNodes();
+        for ( int i = 0; i < nodes .getLength(); i++ ) {
+            Node node = nodes .item( i );
+            if ( node instanceof Element )
+                hashElement( digest, (Element) node );
+            else if ( node instanceof Text ) {
+                String text = node .getNodeValue() .trim();
+                if ( ! text .isEmpty() )
+                    update( digest, text );
+            }
+        }
+        update( digest, "</>" );
+    }
+
+    private static void update( MessageDigest digest, String str )
+    {
+        digest .update( str .getBytes( StandardCharsets.UTF_8 ) );
+    }
+}
@@ -5,9 +5,12 @@ package com.vzome.core.editor;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -28,6 +31,9 @@ public class SelectionImpl implements Selection
     private final List<ManifestationChanges> mListeners = new ArrayList<>();
     
     private Group mSelectedGroup = null;  // when the selection is exactly one entire group
+
+    // while batching, the selection as the listeners last heard of it; see startBatch()
+    private Set<Manifestation> mNotified = null;
     
     private static final Logger logger = Logger .getLogger( "com.vzome.core.editor.selection" );
 
@@ -70,9 +76,7 @@ public class SelectionImpl implements Selection
         mManifestations .add( m );
         if ( logger .isLoggable( Level .FINER ) )
             logger .finer( "  select: " + m .toString() );
-        for (ManifestationChanges mc : mListeners) {
-            mc .manifestationAdded( m );
-        }
+        this .fireAdded( m );
     }
     
     public void unselect( Manifestation m )
@@ -81,12 +85,60 @@ public class SelectionImpl implements Selection
         {
             if ( logger .isLoggable( Level .FINER ) )
                 logger .finer( "deselect: " + m .toString() );
-            for (ManifestationChanges mc : mListeners) {
-                mc .manifestationRemoved( m );
-            }
+            this .fireRemoved( m );
         }
     }
     
+    private void fireAdded( Manifestation m )
+    {
+        if ( this .mNotified != null )
+            return;
+        for (ManifestationChanges mc : mListeners) {
+            mc .manifestationAdded( m );
+        }
+    }
+
+    private void fireRemoved( Manifestation m )
+    {
+        if ( this .mNotified != null )
+            return;
+        for (ManifestationChanges mc : mListeners) {
+            mc .manifestationRemoved( m );
+        }
+    }
+
+    /**
+     * Defer the listener notifications until endBatch(), when listeners are told only the net change.
+     * The selection itself changes immediately, so edits can still query it.
+     * This lets an EditHistory jump notify the selection listeners after the realized model has
+     * rendered its own net change, so they find every selected manifestation rendered.
+     */
+    public void startBatch()
+    {
+        if ( this .mNotified == null ) {
+            this .mNotified = Collections .newSetFromMap( new IdentityHashMap<>() );
+            this .mNotified .addAll( mManifestations );
+        }
+    }
+
+    public void endBatch()
+    {
+        Set<Manifestation> before = this .mNotified;
+        if ( before == null )
+            return;
+        this .mNotified = null;
+        Set<Manifestation> after = Collections .newSetFromMap( new IdentityHashMap<>() );
+        after .addAll( mManifestations );
+        for (Manifestation m : before) {
+            if ( ! after .contains( m ) )
+                this .fireRemoved( m );
+        }
+        for (Manifestation m : mManifestations) {
+            if ( ! before .contains( m ) )
+                this .fireAdded( m );
+        }
+    }
+
     public void selectWithGrouping( Manifestation m )
     {
         if ( mManifestations .contains( m ) )
@@ -121,9 +173,7 @@ public class SelectionImpl implements Selection
         mManifestations .add( m );
         if ( logger .isLoggable( Level .FINER ) )
             logger .finer( "  select: " + m .toString() );
-        for (ManifestationChanges mc : mListeners) {
-            mc .manifestationAdded( m );
-        }
+        this .fireAdded( m );
     }
     
     private void remove( Manifestation m )
@@ -132,9 +182,7 @@ public class SelectionImpl implements Selection
         {
             if ( logger .isLoggable( Level .FINER ) )
                 logger .finer( "deselect: " + m .toString() );
-            for (ManifestationChanges mc : mListeners) {
-                mc .manifestationRemoved( m );
-            }
+            this .fireRemoved( m );
         }
     }
     
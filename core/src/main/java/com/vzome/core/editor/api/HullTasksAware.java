@@ -0,0 +1,8 @@
+package com.vzome.core.editor.api;
+
+import com.vzome.core.math.convexhull.QuickHull3D;
+
+public interface HullTasksAware
+{
+    QuickHull3D.Tasks getHullTasks();
+}
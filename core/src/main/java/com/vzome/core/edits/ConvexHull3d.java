@@ -15,6 +15,7 @@ import com.vzome.core.construction.Point;
 import com.vzome.core.construction.PolygonFromVertices;
 import com.vzome.core.construction.SegmentJoiningPoints;
 import com.vzome.core.editor.api.EditorModel;
+import com.vzome.core.editor.api.HullTasksAware;
 import com.vzome.core.math.convexhull.QuickHull3D;
 
 public class ConvexHull3d extends ConvexHull {
@@ -23,10 +24,12 @@ public class ConvexHull3d extends ConvexHull {
     private String mode = null;
     private boolean generateStruts = true; 
     private boolean generatePanels = true; 
+    private final QuickHull3D.Tasks tasks;
 
     public ConvexHull3d( EditorModel editorModel )
     {
         super( editorModel );
+        this.tasks = ( editorModel instanceof HullTasksAware )? ((HullTasksAware) editorModel) .getHullTasks() : new QuickHull3D.Tasks();
     }
     
     @Override
@@ -84,7 +87,7 @@ public class ConvexHull3d extends ConvexHull {
 
     @Override
     public void perform() throws Failure {
-        QuickHull3D hull3d = new QuickHull3D();
+        QuickHull3D hull3d = new QuickHull3D( this.tasks );
         hull3d.build( getSelectedVertexSet(true) );
         
         redo();  // no validation failures, so commit the initial unselect operations
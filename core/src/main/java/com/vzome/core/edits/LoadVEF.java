@@ -1,20 +1,37 @@
 package com.vzome.core.edits;
 
 import java.io.IOException;
+import java.util.Map;
 
 import com.vzome.core.algebra.AlgebraicField.Registry;
 import com.vzome.core.algebra.AlgebraicVector;
 import com.vzome.core.construction.VefToModel;
 import com.vzome.core.editor.api.EditorModel;
 import com.vzome.core.editor.api.ManifestConstructions;
+import com.vzome.core.math.VefParser;
 
 public class LoadVEF extends ImportMesh {
 
+    // tokens of the same data as meshData, read as it is parsed; only for the first perform()
+    private VefParser.Tokens vefTokens;
+
     public LoadVEF( EditorModel editor )
     {
         super( editor );
     }
 
+    /**
+     * In addition to the ImportMesh parameters, "vefTokens" may give the tokens of the "vef" text,
+     * read from a stream or a mapped file, to parse them without splitting the text.
+     * The text is still required, to save in the edit history.
+     */
+    @Override
+    public void configure( Map<String, Object> params )
+    {
+        super .configure( params );
+        this .vefTokens = (VefParser.Tokens) params .get( "vefTokens" );
+    }
+
     protected boolean deselectInputs()
     {
         return false; // Required for backward compatibility
@@ -25,7 +42,13 @@ public class LoadVEF extends ImportMesh {
             throws IOException
     {
         VefToModel v2m = new VefToModel( projection, events, scale, offset );
-        v2m .parseVEF( this .meshData, this .mManifestations .getField() );
+        if ( this .vefTokens != null ) {
+            VefParser.Tokens tokens = this .vefTokens;
+            this .vefTokens = null; // consumed
+            v2m .parseVEF( tokens, this .mManifestations .getField() );
+        }
+        else
+            v2m .parseVEF( this .meshData, this .mManifestations .getField() );
     }
 
     @Override
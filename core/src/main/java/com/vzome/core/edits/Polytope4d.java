@@ -165,7 +165,7 @@ public class Polytope4d extends ChangeManifestations
     private class WythoffListener implements WythoffConstruction.Listener
     {
         private int numVertices = 0;
-        Map<String, Point> vertices = new HashMap<>();
+        Map<AlgebraicVector, Point> vertices = new HashMap<>();
 
         @Override
         public Object addEdge( Object p1, Object p2 )
@@ -184,7 +184,7 @@ public class Polytope4d extends ChangeManifestations
         @Override
         public Object addVertex( AlgebraicVector vertex )
         {
-            Point p = vertices .get( vertex.toString() );
+            Point p = vertices .get( vertex );
             if ( p == null )
             {
                 AlgebraicVector projected = vertex;
@@ -196,7 +196,7 @@ public class Polytope4d extends ChangeManifestations
                 p = new FreePoint( projected );
                 p .setIndex( numVertices++ );
                 manifestConstruction( p );
-                vertices .put( vertex.toString(), p );
+                vertices .put( vertex, p );
             }
             return p;
         }
@@ -1,7 +1,9 @@
 
 package com.vzome.core.edits;
 
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import com.vzome.core.algebra.AlgebraicVector;
@@ -41,53 +43,33 @@ public class SelectNeighbors extends ChangeSelection
             else if ( withPanels && ( man instanceof Panel ) )
                 panels .add( (Panel) man );
         }
+        // The model's location index gives the candidates directly, in the same order as iterating the model.
         for (Connector ball : balls) {
-            AlgebraicVector loc = ball .getLocation();
-            for (Manifestation man : model) {
+            for (Manifestation man : model .getManifestationsAt( ball .getLocation() )) {
                 if ( ! man .isRendered() )
                     continue;  // hidden!
-                if ( man instanceof Strut && ! struts .contains( man ) ) {
-                    Strut strut = (Strut) man;
-                    if ( loc .equals( strut .getLocation() ) 
-                            || loc .equals( strut .getEnd() ) )
-                        select( strut );
-                }
-                else if ( withPanels && ( man instanceof Panel ) && ! panels .contains( man ) ) {
-                    Panel panel = (Panel) man;
-                    for (AlgebraicVector vertex : panel) {
-                        if ( loc .equals( vertex ) ) {
-                            select( panel );
-                            // no need to continue the loop since we have already selected this panel.
-                            break;
-                        }
-                    }
-                }
+                if ( man instanceof Strut && ! struts .contains( man ) )
+                    select( man );
+                else if ( withPanels && ( man instanceof Panel ) && ! panels .contains( man ) )
+                    select( man );
             }
         }
         for (Strut strut : struts) {
-            AlgebraicVector loc = strut .getLocation();
-            AlgebraicVector end = strut .getEnd();
-            for (Manifestation man : model) {
+            List<AlgebraicVector> ends = Arrays .asList( strut .getLocation(), strut .getEnd() );
+            for (Manifestation man : model .getManifestationsAt( ends )) {
                 if ( ! man .isRendered() )
                     continue;  // hidden!
-                if ( man instanceof Connector && ! balls .contains( man ) ) {
-                    AlgebraicVector bloc = man .getLocation();
-                    if ( bloc .equals( loc ) || bloc .equals( end ) )
-                        select( man );
-                }
+                if ( man instanceof Connector && ! balls .contains( man ) )
+                    select( man );
             }
         }
         if ( withPanels ) {
-                for (Panel panel : panels) {
+            for (Panel panel : panels) {
                 for (AlgebraicVector loc : panel) {
-                    for (Manifestation man : model) {
+                    for (Manifestation man : model .getManifestationsAt( loc )) {
                         if ( man .isRendered() ) {// if not hidden!
-                            if ( man instanceof Connector && ! balls .contains( man ) ) {
-                                AlgebraicVector bloc = man .getLocation();
-                                if ( bloc .equals( loc ) ) {
-                                    select( man );
-                                }
-                            }
+                            if ( man instanceof Connector && ! balls .contains( man ) )
+                                select( man );
                         }
                     }
                 }
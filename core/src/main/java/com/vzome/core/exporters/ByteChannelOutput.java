@@ -0,0 +1,101 @@
+package com.vzome.core.exporters;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Buffered little-endian output for binary exporters, writing to a WritableByteChannel
+ * through a single direct ByteBuffer.  The buffer is reused across exports,
+ * so an exporter should hold one of these for its lifetime.
+ */
+class ByteChannelOutput
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ByteBuffer buffer = ByteBuffer .allocateDirect( BUFFER_SIZE ) .order( ByteOrder.LITTLE_ENDIAN );
+
+    private WritableByteChannel channel;
+
+    public void open( WritableByteChannel channel )
+    {
+        this .channel = channel;
+        this .buffer .clear();
+    }
+
+    /**
+     * Ensures that the buffer can hold the given number of bytes,
+     * writing out its current contents if necessary.
+     * @param bytes no more than the buffer size
+     */
+    private void reserve( int bytes ) throws IOException
+    {
+        if ( this .buffer .remaining() < bytes )
+            this .drain();
+    }
+
+    private void drain() throws IOException
+    {
+        this .buffer .flip();
+        while ( this .buffer .hasRemaining() )
+            this .channel .write( this .buffer );
+        this .buffer .clear();
+    }
+
+    public void putByte( int value ) throws IOException
+    {
+        this .reserve( 1 );
+        this .buffer .put( (byte) value );
+    }
+
+    public void putShort( int value ) throws IOException
+    {
+        this .reserve( 2 );
+        this .buffer .putShort( (short) value );
+    }
+
+    public void putInt( int value ) throws IOException
+    {
+        this .reserve( 4 );
+        this .buffer .putInt( value );
+    }
+
+    public void putFloat( double value ) throws IOException
+    {
+        this .reserve( 4 );
+        this .buffer .putFloat( (float) value );
+    }
+
+    public void putFloats( double[] values ) throws IOException
+    {
+        // values may be larger than the buffer, for example all the vertices of a model
+        for ( double value : values ) {
+            this .reserve( 4 );
+            this .buffer .putFloat( (float) value );
+        }
+    }
+
+    /**
+     * Writes the string as US-ASCII, as used for file headers.
+     */
+    public void putString( String value ) throws IOException
+    {
+        byte[] bytes = value .getBytes( StandardCharsets.US_ASCII );
+        for ( int i = 0; i < bytes.length; i += BUFFER_SIZE ) {
+            int length = Math .min( BUFFER_SIZE, bytes.length - i );
+            this .reserve( length );
+            this .buffer .put( bytes, i, length );
+        }
+    }
+
+    /**
+     * Writes out anything buffered, and releases the channel, which is not closed.
+     */
+    public void close() throws IOException
+    {
+        this .drain();
+        this .channel = null;
+    }
+}
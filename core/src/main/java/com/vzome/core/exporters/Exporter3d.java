@@ -3,6 +3,9 @@ package com.vzome.core.exporters;
 import java.io.File;
 import java.io.PrintWriter;
 import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 
 import com.vzome.core.editor.DocumentModel;
 import com.vzome.core.render.Colors;
@@ -39,6 +42,8 @@ public abstract class Exporter3d
 	protected transient Colors mColors;
 	protected transient Lights mLights;
 	protected transient RenderedModel mModel;
+
+	protected transient boolean binaryRequested = false;
 	
 	public Exporter3d( Camera scene, Colors colors, Lights lights, RenderedModel model )
 	{
@@ -53,13 +58,48 @@ public abstract class Exporter3d
 	 */
 	public abstract void doExport( File file, Writer writer, int height, int width ) throws Exception;
 
+	/**
+	 * Exporters with a binary format override this to write bytes directly, with no Writer involved.
+	 * The default writes the text format, encoded as UTF-8.
+	 * The channel is not closed.
+	 */
+	public void doExport( File file, WritableByteChannel channel, int height, int width ) throws Exception
+	{
+	    Writer writer = Channels .newWriter( channel, StandardCharsets.UTF_8 .newEncoder(), -1 );
+	    this .doExport( file, writer, height, width );
+	    writer .flush();
+	}
+
     public abstract String getFileExtension();
     
+    /**
+     * Describes what the next export to a channel will write, so it follows setBinary().
+     */
     public String getContentType()
     {
         return "text/plain";
     }
 
+    /**
+     * Ask for the binary form of the format, for exports to a channel, if the format has one.
+     * Text is the default, so callers get the same output from a channel as from a Writer
+     * unless they opt in.
+     */
+    public void setBinary( boolean binary )
+    {
+        this .binaryRequested = binary;
+    }
+
+    /**
+     * @return true if exports to a channel write a binary format, rather than the UTF-8 text of the Writer form.
+     * Callers that can take bytes should prefer a channel when this is true; a format with no text form,
+     * like PNG, still writes to a Writer, but as base64.
+     */
+    public boolean isBinary()
+    {
+        return false;
+    }
+
     /**
      * Subclasses can override this if they don't rely on Manifestations and therefore can operate on article pages
      * See the comments below DocumentModel.getNaiveExporter() for a more complete explanation.
@@ -81,6 +121,21 @@ public abstract class Exporter3d
         mModel = null;
         mLights = null;
     }
+
+    /**
+     * Like exportDocument( DocumentModel, File, Writer, int, int ), but writing bytes,
+     * so binary formats can skip the Writer.
+     */
+    public void exportDocument( DocumentModel doc, File file, WritableByteChannel channel, int height, int width ) throws Exception
+    {
+        mScene = doc .getCamera();
+        mModel = doc .getRenderedModel();
+        mLights = doc .getSceneLighting();
+        this .doExport( file, channel, height, width );
+        mScene = null;
+        mModel = null;
+        mLights = null;
+    }
 }
 
 
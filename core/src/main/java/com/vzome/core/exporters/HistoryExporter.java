@@ -3,6 +3,9 @@ package com.vzome.core.exporters;
 
 import java.io.File;
 import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -38,6 +41,14 @@ public class HistoryExporter extends Exporter3d
         DomSerializer .serialize( dom, writer );
     }
 
+    @Override
+    public void exportDocument( DocumentModel document, File file, WritableByteChannel channel, int height, int width ) throws Exception
+    {
+        Writer writer = Channels .newWriter( channel, StandardCharsets.UTF_8 .newEncoder(), -1 );
+        this .exportDocument( document, file, writer, height, width );
+        writer .flush();
+    }
+
     @Override
     public void doExport( File directory, Writer writer, int height, int width )
             throws Exception
@@ -6,6 +6,7 @@ import java.io.PrintWriter;
 import java.io.Writer;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -16,6 +17,7 @@ import com.vzome.core.model.Connector;
 import com.vzome.core.model.Manifestation;
 import com.vzome.core.model.Panel;
 import com.vzome.core.model.Strut;
+import com.vzome.core.model.VertexIndex;
 import com.vzome.core.render.Colors;
 import com.vzome.core.render.RenderedManifestation;
 import com.vzome.core.render.RenderedModel;
@@ -36,7 +38,7 @@ public class OffExporter extends Exporter3d
     @Override
 	public void doExport( File directory, Writer writer, int height, int width ) throws IOException
 	{
-        SortedSet<AlgebraicVector> vertices = new TreeSet<>();
+        VertexIndex vertices = new VertexIndex();
 		int numStruts = 0;
         ArrayComparator<AlgebraicVector> arrayComparator = new ArrayComparator<>();
         final SortedSet<AlgebraicVector[]> panelVertices = new TreeSet<>( arrayComparator.getLengthFirstArrayComparator() );
@@ -55,21 +57,16 @@ public class OffExporter extends Exporter3d
                 ArrayList<AlgebraicVector> corners = new ArrayList<>(panel.getVertexCount());
                 for (AlgebraicVector vertex : panel) {
                     corners.add(vertex);
+                    vertices.add(vertex);
                 }
-                vertices.addAll(corners);
                 AlgebraicVector[] cornerArray = new AlgebraicVector[corners.size()];
                 corners.toArray(cornerArray);
                 panelVertices.add(cornerArray);
             }
         }
 
-        // Now that we have all of the unique vertices sorted in vertices,
-        // we'll need their index, so we copy them into an ArrayList, preserving their sorted order.
-        // so we can get their index into that array.
-        ArrayList<AlgebraicVector> sortedVertexList = new ArrayList<>(vertices);
-        // we no longer need the vertices collection,
-        // so set it to null to free the memory and to ensure we don't use it later by mistake.
-        vertices = null;
+        // Now that we have all of the unique vertices, we can list them in sorted order, with their indices.
+        List<AlgebraicVector> sortedVertexList = vertices.getVertices();
 
         output = new PrintWriter( writer );
         output .println( "OFF" );
@@ -77,11 +74,11 @@ public class OffExporter extends Exporter3d
         output .println( sortedVertexList.size() + " " + panelVertices.size() + " " + numStruts + "\n");
 
         output .println( "# Vertices.  Each line is the XYZ coordinates of one vertex." );
-        for(AlgebraicVector vector : sortedVertexList) {
-            double[] dv = mModel .renderVectorDouble( vector );
-            output.print(FORMAT.format(dv[0]) + " ");   // x
-            output.print(FORMAT.format(dv[1]) + " ");   // y
-            output.print(FORMAT.format(dv[2]) + "\n");  // z
+        double[] dv = mModel .renderVectorsDouble( sortedVertexList );
+        for(int i = 0; i < dv.length; i += 3) {
+            output.print(FORMAT.format(dv[i]) + " ");     // x
+            output.print(FORMAT.format(dv[i+1]) + " ");   // y
+            output.print(FORMAT.format(dv[i+2]) + "\n");  // z
         }
 
         output .println();
@@ -89,7 +86,7 @@ public class OffExporter extends Exporter3d
         for(AlgebraicVector[] corners : panelVertices) {
             output .print( corners.length );
             for(AlgebraicVector corner : corners) {
-                output .print( " " + sortedVertexList.indexOf(corner));
+                output .print( " " + vertices.indexOf(corner));
             }
             output .println();
         }
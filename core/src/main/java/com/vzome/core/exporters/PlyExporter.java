@@ -4,9 +4,11 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
@@ -28,6 +30,8 @@ public class PlyExporter extends Exporter3d
 
     private StringBuffer vertices;
 
+    private final ByteChannelOutput binary = new ByteChannelOutput();
+
 	public PlyExporter( Colors colors, Lights lights )
 	{
 	    super( null, colors, lights, null );
@@ -100,6 +104,73 @@ public class PlyExporter extends Exporter3d
         return obj;
     }
 
+    /**
+     * When setBinary() asked for it, writes the binary_little_endian form of PLY,
+     * with the same vertices and faces as the ASCII form.
+     */
+    @Override
+    public void doExport( File directory, WritableByteChannel channel, int height, int width ) throws Exception
+    {
+        if ( ! this .binaryRequested ) {
+            super .doExport( directory, channel, height, width );
+            return;
+        }
+        int numPanels = 0;
+        Map<AlgebraicVector, Integer> indices = new HashMap<>();
+        List<AlgebraicVector> vertexList = new ArrayList<>();
+        for (RenderedManifestation rm : mModel) {
+            Manifestation man = rm .getManifestation();
+            if ( man instanceof Panel )
+            {
+                ++ numPanels;
+                for (AlgebraicVector vertex : ((Panel) man)) {
+                    if ( indices .putIfAbsent( vertex, vertexList .size() ) == null )
+                        vertexList .add( vertex );
+                }
+            }
+        }
+
+        binary .open( channel );
+        binary .putString( "ply\n"
+                + "format binary_little_endian 1.0\n"
+                + "comment   Exported by vZome, http://vzome.com\n"
+                + "comment     All vertex data is in inches\n"
+                + "element vertex " + vertexList .size() + "\n"
+                + "property float x\n"
+                + "property float y\n"
+                + "property float z\n"
+                + "element face " + numPanels + "\n"
+                + "property list int int vertex_indices\n"
+                + "end_header\n" );
+
+        binary .putFloats( this .mModel .renderVectorsDouble( vertexList ) );
+
+        for (RenderedManifestation rm : mModel) {
+            Manifestation man = rm .getManifestation();
+            if ( man instanceof Panel )
+            {
+                Panel panel = (Panel) man;
+                binary .putInt( panel .getVertexCount() );
+                for (AlgebraicVector vertex : panel) {
+                    binary .putInt( indices .get( vertex ) );
+                }
+            }
+        }
+        binary .close();
+    }
+
+    @Override
+    public boolean isBinary()
+    {
+        return this .binaryRequested;
+    }
+
+    @Override
+    public String getContentType()
+    {
+        return this .binaryRequested? "application/octet-stream" : super .getContentType();
+    }
+
     @Override
     public String getFileExtension()
     {
@@ -0,0 +1,74 @@
+package com.vzome.core.exporters;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Base64;
+
+import javax.imageio.ImageIO;
+
+import com.vzome.core.render.Colors;
+import com.vzome.core.render.SoftwareThumbnailRenderer;
+import com.vzome.core.viewing.Lights;
+
+/**
+ * Renders the model as the document camera sees it, with no OpenGL,
+ * and writes the image as PNG.
+ * PNG has no text form, so a Writer gets the PNG bytes encoded as base64,
+ * like the "png-base64" property of the desktop DocumentController.
+ */
+public class PngExporter extends Exporter3d
+{
+	public PngExporter( Colors colors, Lights lights )
+	{
+	    super( null, colors, lights, null );
+	}
+
+    @Override
+    public void doExport( File file, Writer writer, int height, int width ) throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        this .writeImage( bytes, height, width );
+        writer .write( Base64 .getEncoder() .encodeToString( bytes .toByteArray() ) );
+        writer .flush();
+    }
+
+    @Override
+    public void doExport( File file, WritableByteChannel channel, int height, int width ) throws Exception
+    {
+        OutputStream output = Channels .newOutputStream( channel );
+        this .writeImage( output, height, width );
+        output .flush();
+    }
+
+    private void writeImage( OutputStream output, int height, int width ) throws Exception
+    {
+        BufferedImage image = new SoftwareThumbnailRenderer( mLights ) .render( mModel, mScene, width, height, false );
+        ImageIO .write( image, "png", output );
+    }
+
+    /**
+     * PNG is always binary when exported to a channel, whatever setBinary() asked for.
+     */
+    @Override
+    public boolean isBinary()
+    {
+        return true;
+    }
+
+    @Override
+    public String getFileExtension()
+    {
+        return "png";
+    }
+
+    @Override
+    public String getContentType()
+    {
+        return "image/png";
+    }
+}
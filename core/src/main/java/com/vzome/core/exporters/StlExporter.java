@@ -4,6 +4,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.Locale;
@@ -24,6 +25,10 @@ import com.vzome.core.viewing.Lights;
 public class StlExporter extends Exporter3d
 {
 	private static final NumberFormat FORMAT = NumberFormat .getNumberInstance( Locale .US );
+
+	private static final String BINARY_HEADER = "Exported by vZome, http://vzome.com";
+
+	private final ByteChannelOutput binary = new ByteChannelOutput();
 			
 	public StlExporter( Camera scene, Colors colors, Lights lights, RenderedModel model )
 	{
@@ -77,6 +82,80 @@ public class StlExporter extends Exporter3d
 		output .flush();
 	}
 		
+    /**
+     * When setBinary() asked for it, writes binary STL, which is much smaller and faster to produce than the ASCII form.
+     * The triangles and their vertices are the same as for the ASCII form.
+     */
+    @Override
+    public void doExport( File directory, WritableByteChannel channel, int height, int width ) throws Exception
+    {
+        if ( ! this .binaryRequested ) {
+            super .doExport( directory, channel, height, width );
+            return;
+        }
+        int numTriangles = 0;
+        for (RenderedManifestation rm : mModel) {
+            Manifestation man = rm .getManifestation();
+            if ( man instanceof Panel )
+                numTriangles += Math .max( 0, ((Panel) man) .getVertexCount() - 2 );
+        }
+
+        binary .open( channel );
+        // the 80-byte header must not begin with "solid", or readers may take it for ASCII
+        StringBuilder header = new StringBuilder( BINARY_HEADER );
+        while ( header .length() < 80 )
+            header .append( ' ' );
+        binary .putString( header .toString() );
+        binary .putInt( numTriangles );
+
+        // renderVectorDouble() results are cached, so they are scaled into these scratch arrays,
+        //  rotating v1 and vertex as the triangle fan advances
+        double[] norm = new double[ 3 ], v0 = new double[ 3 ], v1 = new double[ 3 ], vertex = new double[ 3 ];
+        for (RenderedManifestation rm : mModel) {
+            Manifestation man = rm .getManifestation();
+            if ( man instanceof Panel )
+            {
+                Panel panel = (Panel) man;
+                double[] dn = mModel .renderVectorDouble( panel .getNormal() );
+                double length = Math .sqrt( dn[0]*dn[0] + dn[1]*dn[1] + dn[2]*dn[2] );
+                for ( int i = 0; i < 3; i++ )
+                    norm[ i ] = dn[ i ] / length;
+                int count = 0;
+                for (AlgebraicVector vert : panel) {
+                    double[] dv = mModel .renderVectorDouble( vert );
+                    double[] target = ( count == 0 )? v0 : ( count == 1 )? v1 : vertex;
+                    for ( int i = 0; i < 3; i++ )
+                        target[ i ] = dv[ i ] * RZOME_MM_SCALING;
+                    if ( count >= 2 )
+                    {
+                        binary .putFloats( norm );
+                        binary .putFloats( v0 );
+                        binary .putFloats( v1 );
+                        binary .putFloats( vertex );
+                        binary .putShort( 0 ); // attribute byte count
+                        double[] swap = v1;
+                        v1 = vertex;
+                        vertex = swap;
+                    }
+                    ++ count;
+                }
+            }
+        }
+        binary .close();
+    }
+
+    @Override
+    public boolean isBinary()
+    {
+        return this .binaryRequested;
+    }
+
+    @Override
+    public String getContentType()
+    {
+        return this .binaryRequested? "model/stl" : super .getContentType();
+    }
+
     @Override
     public String getFileExtension()
     {
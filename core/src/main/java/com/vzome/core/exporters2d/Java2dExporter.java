@@ -2,17 +2,24 @@ package com.vzome.core.exporters2d;
 
 import java.awt.Color;
 import java.awt.geom.Rectangle2D;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
 
 import javax.vecmath.Matrix4f;
-import javax.vecmath.Point3f;
-import javax.vecmath.Point4f;
 import javax.vecmath.Vector3f;
-import javax.vecmath.Vector4f;
 
 import com.vzome.core.algebra.AlgebraicMatrix;
 import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.exporters2d.Java2dSnapshot.LineSegment;
+import com.vzome.core.exporters2d.Java2dSnapshot.Polygon;
 import com.vzome.core.math.Polyhedron;
 import com.vzome.core.math.Polyhedron.Face;
 import com.vzome.core.math.RealVector;
@@ -27,135 +34,325 @@ import com.vzome.core.viewing.Lights;
 /**
  * Builds a Java2dSnapshot, for use in rendering to a Snapshot2dPanel
  * or exporting via a SnapshotExporter.
+ * The parts are projected and lit in parallel, and the last projection is kept,
+ * so a snapshot that differs only in 2D styling, like the background, costs no 3D work.
+ * The kept projection does not keep the model from being collected, and every snapshot
+ * gets its own copies of the kept polygons, since they can be changed.
  * @author vorth
  */
 public class Java2dExporter
 {
-	private transient Matrix4f viewTransform, eyeTrans;
-        
-    public Java2dSnapshot render2d( RenderedModel model, Camera view, Lights lights, int height, int width, boolean drawLines, boolean doLighting ) throws Exception
+    private final ForkJoinPool pool;
+
+    // the depth-sorted results of the last render2d(), and what they were computed from;
+    //  line segments cannot be changed, so they are shared with the snapshots, but polygons are copied
+    private Projection lastProjection;
+    private Polygon[] lastPolygons;
+    private LineSegment[] lastLines;
+
+    public Java2dExporter()
     {
-        Vector3f[] lightDirs = new Vector3f[ lights .size() ];
-        Color[] lightColors = new Color[ lights .size() ];
-        Color ambientLight;
-        Color background;
-        Java2dSnapshot snapshot = new Java2dSnapshot();
+        this( ForkJoinPool .commonPool() );
+    }
 
-        this .viewTransform = new Matrix4f();
-        view .getViewTransform( this .viewTransform );
-        
-        if ( ! view .isPerspective() ) {
-            float edge = view .getWidth() / 2;
-            this .eyeTrans = ortho( -edge, edge, -edge, edge, view .getNearClipDistance(), view .getFarClipDistance() );
-        }
-        else
-            this .eyeTrans = perspective( view .getFieldOfView(), 1.0f, view .getNearClipDistance(), view .getFarClipDistance() );
-            // TODO - make aspect ratio track the screen window shape
-
-        for ( int i = 0; i < lightDirs.length; i++ ) {
-            lightDirs[ i ] = new Vector3f();
-            // the next line fills in the direction, as well as returning the color... bad style!
-            lightColors[ i ] = new Color( lights .getDirectionalLight( i, lightDirs[ i ] ) .getRGB() );
-            // the lights stay fixed relative to the viewpoint, so we must not apply the view transform
-            lightDirs[ i ] .normalize();
-            lightDirs[ i ] .negate();
-        }
-        ambientLight = new Color( lights .getAmbientColor() .getRGB() );
+    public Java2dExporter( ForkJoinPool pool )
+    {
+        this .pool = pool;
+    }
+
+    public synchronized Java2dSnapshot render2d( RenderedModel model, Camera view, Lights lights, int height, int width, boolean drawLines, boolean doLighting ) throws Exception
+    {
+        Java2dSnapshot snapshot = new Java2dSnapshot();
 
         float[] rgb = new float[3];
         lights .getBackgroundColor() .getRGBColorComponents( rgb );
-        background = new Color( rgb[0], rgb[1], rgb[2] );
-
+        snapshot .setBackgroundColor( new Color( rgb[0], rgb[1], rgb[2] ) );
         snapshot .setStrokeWidth( 0.5f );
         snapshot .setRect( new Rectangle2D.Float( 0f, 0f, width, height ) );
-        
-        snapshot .setBackgroundColor( background );
 
-        List<Vector3f> mappedVertices = new ArrayList<>( 60 );
-        for (RenderedManifestation rm : model) {
-            Polyhedron shape = rm .getShape();
-            com.vzome.core.construction.Color c = rm .getColor();
-            Color color = (c == null)? Color.WHITE : new Color( c .getRGB() );
-            
+        Projection projection = new Projection( model, view, lights, height, width, drawLines, doLighting );
+        if ( ! projection .equals( this .lastProjection ) ) {
+            this .lastPolygons = null;
+            this .lastLines = null;
+            List<RenderedManifestation> parts = new ArrayList<>();
+            for ( RenderedManifestation rm : model )
+                parts .add( rm );
             if ( drawLines ) {
-                Manifestation m = rm .getManifestation();
-                if ( m instanceof Strut ) {
-                    AlgebraicVector start = ((Strut) m) .getLocation();
-                    AlgebraicVector end = ((Strut) m) .getEnd();
-                    Vector3f v0 = mapCoordinates( model .renderVector( start ), height, width );
-                    Vector3f v1 = mapCoordinates( model .renderVector( end ), height, width );
-                    snapshot .addLineSegment( color, v0, v1 );
-                }
-                continue;
+                this .lastLines = this .pool .submit( () -> parts .parallelStream()
+                        .map( rm -> projection .projectLine( model, rm ) )
+                        .filter( Objects::nonNull )
+                        .toArray( LineSegment[]::new ) ) .join();
+                Arrays .parallelSort( this .lastLines );
             }
-            
-            List<AlgebraicVector> vertices = shape .getVertexList();
-            AlgebraicMatrix partOrientation = rm .getOrientation();
+            else {
+                Map<OrientedShape, OrientedShape> shapes = new ConcurrentHashMap<>();
+                this .lastPolygons = this .pool .submit( () -> parts .parallelStream()
+                        .flatMap( rm -> projection .projectFaces( model, rm, shapes ) .stream() )
+                        .toArray( Polygon[]::new ) ) .join();
+                Arrays .parallelSort( this .lastPolygons );  // TODO could do more here than just "painter's algorithm"
+            }
+            this .lastProjection = projection;
+        }
+
+        if ( this .lastLines != null )
+            for ( LineSegment line : this .lastLines )
+                snapshot .addLineSegment( line );
+        else
+            for ( Polygon polygon : this .lastPolygons )
+                snapshot .addPolygon( new Polygon( polygon ) );
+        return snapshot;
+    }
+
+    /**
+     * The vertices and face lighting of one shape in one orientation, relative to the part location,
+     * shared by every part with that shape and orientation.
+     * Equality is by the identity of the shape and orientation, which the model shares among parts.
+     */
+    private static class OrientedShape
+    {
+        private final Polyhedron shape;
+        private final AlgebraicMatrix orientation;
+        private double[] vertices; // x, y, z per vertex
+        private int[][] faces;
+        private float[][] intensities; // red, green, blue light per face, or null
+
+        OrientedShape( Polyhedron shape, AlgebraicMatrix orientation )
+        {
+            this .shape = shape;
+            this .orientation = orientation;
+        }
+
+        @Override
+        public boolean equals( Object other )
+        {
+            if ( ! ( other instanceof OrientedShape ) )
+                return false;
+            OrientedShape that = (OrientedShape) other;
+            return this .shape == that .shape && this .orientation == that .orientation;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * System .identityHashCode( this .shape ) + System .identityHashCode( this .orientation );
+        }
+    }
+
+    /**
+     * Everything that determines the projected, lit parts of a snapshot, but not its 2D styling.
+     * Two are equal if they would project the same parts the same way.
+     * The model is held weakly, since the exporter keeps the last Projection.
+     */
+    private static class Projection
+    {
+        private final WeakReference<RenderedModel> model;
+        private final int modelHash;
+        private final long modelVersion;
+        private final Camera view;
+        private final float[] lighting; // ambient, then color and direction for each light
+        private final int height, width;
+        private final boolean drawLines, doLighting;
+
+        // derived from the above
+        private final float[] transform = new float[16]; // world to window, row-major
+        private final float[][] lightDirs, lightColors;
+        private final float[] ambientLight;
+        private final Matrix4f viewTransform = new Matrix4f();
+
+        Projection( RenderedModel model, Camera view, Lights lights, int height, int width, boolean drawLines, boolean doLighting )
+        {
+            this .model = new WeakReference<>( model );
+            this .modelHash = System .identityHashCode( model );
+            this .modelVersion = model .getVersion();
+            this .view = new Camera( view );
+            this .height = height;
+            this .width = width;
+            this .drawLines = drawLines;
+            this .doLighting = doLighting;
+
+            view .getViewTransform( this .viewTransform );
+            Matrix4f eyeTrans;
+            if ( ! view .isPerspective() ) {
+                float edge = view .getWidth() / 2;
+                eyeTrans = ortho( -edge, edge, -edge, edge, view .getNearClipDistance(), view .getFarClipDistance() );
+            }
+            else
+                eyeTrans = perspective( view .getFieldOfView(), 1.0f, view .getNearClipDistance(), view .getFarClipDistance() );
+                // TODO - make aspect ratio track the screen window shape
+            Matrix4f combined = new Matrix4f();
+            combined .mul( eyeTrans, this .viewTransform );
+            for ( int row = 0; row < 4; row++ )
+                for ( int col = 0; col < 4; col++ )
+                    this .transform[ row * 4 + col ] = combined .getElement( row, col );
+
+            int num = lights .size();
+            this .lightDirs = new float[ num ][];
+            this .lightColors = new float[ num ][];
+            this .lighting = new float[ 3 + 6 * num ];
+            this .ambientLight = new Color( lights .getAmbientColor() .getRGB() ) .getRGBColorComponents( null );
+            System .arraycopy( this .ambientLight, 0, this .lighting, 0, 3 );
+            for ( int i = 0; i < num; i++ ) {
+                Vector3f direction = new Vector3f();
+                // the next line fills in the direction, as well as returning the color... bad style!
+                this .lightColors[ i ] = new Color( lights .getDirectionalLight( i, direction ) .getRGB() ) .getRGBColorComponents( null );
+                // the lights stay fixed relative to the viewpoint, so we must not apply the view transform
+                direction .normalize();
+                direction .negate();
+                this .lightDirs[ i ] = new float[] { direction .x, direction .y, direction .z };
+                System .arraycopy( this .lightColors[ i ], 0, this .lighting, 3 + 6*i, 3 );
+                System .arraycopy( this .lightDirs[ i ], 0, this .lighting, 6 + 6*i, 3 );
+            }
+        }
+
+        @Override
+        public boolean equals( Object other )
+        {
+            if ( ! ( other instanceof Projection ) )
+                return false;
+            Projection that = (Projection) other;
+            RenderedModel model = this .model .get();
+            return model != null && model == that .model .get() && this .modelVersion == that .modelVersion
+                    && this .view .equals( that .view ) && Arrays .equals( this .lighting, that .lighting )
+                    && this .height == that .height && this .width == that .width
+                    && this .drawLines == that .drawLines && this .doLighting == that .doLighting;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects .hash( this .modelHash, this .modelVersion, this .view, this .height, this .width );
+        }
+
+        private static Color getColor( RenderedManifestation rm )
+        {
+            com.vzome.core.construction.Color c = rm .getColor();
+            return (c == null)? Color.WHITE : new Color( c .getRGB() );
+        }
+
+        LineSegment projectLine( RenderedModel model, RenderedManifestation rm )
+        {
+            Manifestation m = rm .getManifestation();
+            if ( ! ( m instanceof Strut ) )
+                return null;
+            float[] v0 = new float[3], v1 = new float[3];
+            RealVector start = model .renderVector( ((Strut) m) .getLocation() );
+            RealVector end = model .renderVector( ((Strut) m) .getEnd() );
+            this .mapCoordinates( start.x, start.y, start.z, v0, 0 );
+            this .mapCoordinates( end.x, end.y, end.z, v1, 0 );
+            return new LineSegment( getColor( rm ), v0[0], v0[1], v0[2], v1[0], v1[1], v1[2] );
+        }
+
+        List<Polygon> projectFaces( RenderedModel model, RenderedManifestation rm, Map<OrientedShape, OrientedShape> shapes )
+        {
             RealVector location = rm .getLocation();  // should *2?
-            
             if ( location == null )
                 // avoid NPE reported by Antonio Montero
-                continue;
-            
-            mappedVertices .clear();
-            for ( int i = 0; i < vertices .size(); i++ )
-            {
-                AlgebraicVector gv = vertices .get( i );
-                gv = partOrientation .timesColumn( gv );
-                RealVector rv = location .plus( model .renderVector( gv ) );
-                Vector3f v = mapCoordinates( rv, height, width );
-                mappedVertices .add( v );
-            }
-            
-            for (Face face : shape .getFaceSet()) {
-                int arity = face .size();
-                Java2dSnapshot.Polygon path = new Java2dSnapshot.Polygon( color );
-                boolean backFacing = false;
-                Vector3f v1 = null, v2 = null;
-                for ( int j = 0; j < arity; j++ ){
-                    Integer index = face .get( j );
-                    Vector3f v = mappedVertices .get( index );
-                    path .addVertex( v );
-                    switch ( path .size() ) {
-                        case 1 :
-                            v1 = (Vector3f) v.clone();
-                            break;
-
-                        case 2:
-                            v2 = (Vector3f) v.clone();
-                            break;
-                            
-                        case 3:
-                            Vector3f v3 = (Vector3f) v.clone();
-                            v3 .sub( v2 );
-                            v2 .sub( v1 );
-                            Vector3f normal = new Vector3f();
-                            normal .cross( v2, v3 );
-                            backFacing = normal .z > 0;
-                            break;
-                            
-                        default :
-                            break;
-                    }
+                return Collections .emptyList();
+
+            OrientedShape oriented = shapes .computeIfAbsent( new OrientedShape( rm .getShape(), rm .getOrientation() ), key -> this .orient( model, key ) );
+            double[] vertices = oriented .vertices;
+            int count = vertices.length / 3;
+            float[] mapped = new float[ 3 * count ];
+            for ( int i = 0; i < count; i++ )
+                this .mapCoordinates( (float) ( location.x + vertices[ 3*i ] ), (float) ( location.y + vertices[ 3*i + 1 ] ),
+                        (float) ( location.z + vertices[ 3*i + 2 ] ), mapped, 3*i );
+
+            Color color = getColor( rm );
+            List<Polygon> polygons = new ArrayList<>( oriented .faces.length / 2 );
+            for ( int f = 0; f < oriented .faces.length; f++ ) {
+                int[] face = oriented .faces[ f ];
+                if ( face.length >= 3 ) {
+                    int a = 3 * face[0], b = 3 * face[1], c = 3 * face[2];
+                    float normalZ = ( mapped[ b ] - mapped[ a ] ) * ( mapped[ c+1 ] - mapped[ b+1 ] )
+                                  - ( mapped[ b+1 ] - mapped[ a+1 ] ) * ( mapped[ c ] - mapped[ b ] );
+                    if ( normalZ > 0 )
+                        continue; // back-facing
                 }
+                Polygon path = new Polygon( color, face.length );
+                for ( int index : face )
+                    path .addVertex( mapped[ 3*index ], mapped[ 3*index + 1 ], mapped[ 3*index + 2 ] );
                 path .close();
-                if ( ! backFacing )
-                {
-                    if ( doLighting ) {
-                        AlgebraicVector faceNormal = partOrientation .timesColumn( face .getNormal( vertices ) );
-                        RealVector normal = model .renderVector( faceNormal ) .normalize();
-                        Vector3f normalV = new Vector3f( normal.x, normal.y, normal.z );
-                        this .viewTransform .transform( normalV );
-                        
-                        path .applyLighting( normalV, lightDirs, lightColors, ambientLight );
-                    }
-                    snapshot .addPolygon( path );
+                if ( oriented .intensities != null )
+                    path .applyLighting( oriented .intensities[ f ] );
+                polygons .add( path );
+            }
+            return polygons;
+        }
+
+        private OrientedShape orient( RenderedModel model, OrientedShape key )
+        {
+            List<AlgebraicVector> vertices = key .shape .getVertexList();
+            key .vertices = new double[ 3 * vertices .size() ];
+            for ( int i = 0; i < vertices .size(); i++ ) {
+                AlgebraicVector gv = key .orientation .timesColumn( vertices .get( i ) );
+                RealVector rv = model .renderVector( gv );
+                key .vertices[ 3*i ] = rv.x;
+                key .vertices[ 3*i + 1 ] = rv.y;
+                key .vertices[ 3*i + 2 ] = rv.z;
+            }
+            Set<Face> faceSet = key .shape .getFaceSet();
+            key .faces = new int[ faceSet .size() ][];
+            key .intensities = this .doLighting? new float[ faceSet .size() ][] : null;
+            int f = 0;
+            for ( Face face : faceSet ) {
+                int[] indices = new int[ face .size() ];
+                for ( int j = 0; j < indices.length; j++ )
+                    indices[ j ] = face .get( j );
+                key .faces[ f ] = indices;
+                if ( this .doLighting ) {
+                    AlgebraicVector faceNormal = key .orientation .timesColumn( face .getNormal( vertices ) );
+                    RealVector normal = model .renderVector( faceNormal ) .normalize();
+                    Vector3f normalV = new Vector3f( normal.x, normal.y, normal.z );
+                    this .viewTransform .transform( normalV );
+                    key .intensities[ f ] = this .lightIntensities( normalV );
                 }
-            }        
+                ++f;
+            }
+            return key;
         }
 
-        snapshot .depthSort();  // TODO could do more here than just "painter's algorithm"
-        return snapshot;
+        /**
+         * @return the red, green and blue light falling on a face with this normal, in view coordinates
+         */
+        private float[] lightIntensities( Vector3f normal )
+        {
+            float[] result = this .ambientLight .clone();
+            for ( int i = 0; i < this .lightDirs.length; i++ ) {
+                float[] dir = this .lightDirs[ i ];
+                float intensity = Math .max( normal.x * dir[0] + normal.y * dir[1] + normal.z * dir[2], 0f );
+                for ( int k = 0; k < 3; k++ )
+                    result[ k ] += intensity * this .lightColors[ i ][ k ];
+            }
+            return result;
+        }
+
+        /**
+         * Map world coordinates to Java2d coordinates, with the projected depth.
+         */
+        private void mapCoordinates( float x, float y, float z, float[] result, int offset )
+        {
+            float[] m = this .transform;
+            float w = m[12] * x + m[13] * y + m[14] * z + m[15];
+            float px = ( m[0] * x + m[1] * y + m[2]  * z + m[3] ) / w;
+            float py = ( m[4] * x + m[5] * y + m[6]  * z + m[7] ) / w;
+            float pz = ( m[8] * x + m[9] * y + m[10] * z + m[11] ) / w;
+
+            // The next two lines map Java3d screen coordinates to Java2d coordinates.
+            // The rectangles are:
+            //
+            //     upper left          lower right
+            //
+            //     (-1, h/w)           (1, -h/w)      Java3d (origin in center, right-handed)
+            //
+            //     (0,0)               (w, h)         Java2d (pixels, origin upperleft, left-handed (y grows downward))
+            //
+            //  X2 = (w/2) ( X3 + 1 )
+            result[ offset ] = ( this .width / 2f ) * ( px + 1f );
+            //
+            //  Y2 = (1/2) ( h - w * Y3 )
+            result[ offset + 1 ] = ( this .height - ( this .width * py ) ) / 2f;
+            result[ offset + 2 ] = pz;
+        }
     }
     
 
@@ -242,37 +439,4 @@ public class Java2dExporter
         m.m33 = 1;
         return m;
     }
-
-    
-    private Vector3f mapCoordinates( RealVector rv, int height, int width )
-    {
-        float xscale = width/2f;
-        Point3f vr = new Point3f( rv.x, rv.y, rv.z );
-        // vr is still in world coordinates
-        this .viewTransform .transform( vr );
-        // vr is now in view coordinates
-        Vector4f p4 = new Vector4f( vr.x, vr.y, vr.z, 1f );
-        this .eyeTrans .transform( p4 );
-        // p4 is in screen coordinates
-        vr .project( new Point4f( p4 ) );
-
-        // The next two lines map Java3d screen coordinates to Java2d coordinates.
-        // The rectangles are:
-        //
-        //     upper left          lower right
-        //
-        //     (-1, h/w)           (1, -h/w)      Java3d (origin in center, right-handed)
-        //
-        //     (0,0)               (w, h)         Java2d (pixels, origin upperleft, left-handed (y grows downward))
-        //
-        //  X2 = (w/2) ( X3 + 1 )
-        vr.x = xscale * ( vr.x + 1f );
-        //
-        //  Y2 = (1/2) ( h - w * Y3 )
-        vr.y = ( height - ( width * vr.y) ) / 2f;
-        
-        return new Vector3f( vr.x, vr.y, vr.z );
-    }
 }
-
-
@@ -6,7 +6,7 @@ import java.awt.Dimension;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Rectangle2D;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
 
 import javax.vecmath.Vector3f;
@@ -42,14 +42,28 @@ public class Java2dSnapshot
     {
         this .lines .add( new LineSegment( color, start, end ) );
     }
+
+    public void addLineSegment( LineSegment line )
+    {
+        this .lines .add( line );
+    }
     
+    /**
+     * Sort back to front, in parallel.  The sort is stable, so parts at equal depths keep their order.
+     */
     public void depthSort()
     {
-        if ( this .isLineDrawing() )
-            Collections .sort( this .lines );
+        if ( this .isLineDrawing() ) {
+            LineSegment[] sorted = this .lines .toArray( new LineSegment[ this .lines .size() ] );
+            Arrays .parallelSort( sorted );
+            this .lines = new ArrayList<>( Arrays .asList( sorted ) );
             // TODO eliminate duplicates
-        else
-            Collections .sort( this .polygons );
+        }
+        else {
+            Polygon[] sorted = this .polygons .toArray( new Polygon[ this .polygons .size() ] );
+            Arrays .parallelSort( sorted );
+            this .polygons = new ArrayList<>( Arrays .asList( sorted ) );
+        }
     }
     
     public void setRect( Rectangle2D rect )
@@ -87,24 +101,36 @@ public class Java2dSnapshot
         return this .polygons;
     }
 
+    /**
+     * A line in window coordinates, holding only primitive values; the path is made on demand.
+     */
     public static class LineSegment implements Comparable<LineSegment>
     {
-        private final GeneralPath mPath;
-        private float mDepth;
+        private final float x0, y0, x1, y1;
+        private final float mDepth;
         private final Color mPolyColor;
         
         public GeneralPath getPath()
         {
-            return mPath;
+            GeneralPath path = new GeneralPath();
+            path .moveTo( x0, y0 );
+            path .lineTo( x1, y1 );
+            return path;
         }
         
         public LineSegment( Color color, Vector3f start, Vector3f end )
+        {
+            this( color, start.x, start.y, start.z, end.x, end.y, end.z );
+        }
+
+        public LineSegment( Color color, float x0, float y0, float z0, float x1, float y1, float z1 )
         {
             mPolyColor = color;
-            mPath = new GeneralPath();
-            mPath .moveTo( start.x, start.y );
-            mPath .lineTo( end.x, end.y );
-            mDepth = ( start.z + end.z ) / 2.0f;
+            this .x0 = x0;
+            this .y0 = y0;
+            this .x1 = x1;
+            this .y1 = y1;
+            mDepth = ( z0 + z1 ) / 2.0f;
         }
         
         public Color getColor()
@@ -115,25 +141,32 @@ public class Java2dSnapshot
         @Override
         public int compareTo( LineSegment other )
         {
-            double otherZ = other .mDepth;
-            if ( mDepth > otherZ )
-                return 1;
-            if ( mDepth < otherZ )
-                return -1;
-            return 0;
+            return Float .compare( mDepth, other .mDepth );
         }
     }
 
+    /**
+     * A polygon in window coordinates, holding its vertices as x, y pairs
+     * in a float array; the path is made on demand.
+     */
     public static class Polygon implements Comparable<Polygon>
     {
-        private final GeneralPath mPath;
+        private float[] mCoords;
         private float mDepth;
         private int mSize = 0;
         private Color mPolyColor;
         
         public GeneralPath getPath()
         {
-            return mPath;
+            GeneralPath path = new GeneralPath( GeneralPath.WIND_NON_ZERO, mSize );
+            for ( int i = 0; i < mSize; i++ ) {
+                if ( i == 0 )
+                    path .moveTo( mCoords[ 0 ], mCoords[ 1 ] );
+                else
+                    path .lineTo( mCoords[ 2*i ], mCoords[ 2*i + 1 ] );
+            }
+            path .closePath();
+            return path;
         }
 
         public int size()
@@ -143,27 +176,47 @@ public class Java2dSnapshot
         
         public void addVertex( Vector3f vertex )
         {
+            this .addVertex( vertex.x, vertex.y, vertex.z );
+        }
+
+        public void addVertex( float x, float y, float z )
+        {
+            if ( 2 * mSize == mCoords.length )
+                mCoords = Arrays .copyOf( mCoords, 2 * mCoords.length );
+            mCoords[ 2*mSize ] = x;
+            mCoords[ 2*mSize + 1 ] = y;
+            if ( mSize == 0 )
+                mDepth = z;
+            else
+                mDepth += z;
             ++ mSize;
-            if ( mSize == 1 ) {
-                mPath .moveTo( vertex.x, vertex.y );
-                mDepth = vertex.z;
-            }
-            else {
-                mPath .lineTo( vertex.x, vertex.y );
-                mDepth += vertex.z;
-            }
         }
         
         public void close()
         {
             mDepth /= mSize;
-            mPath .closePath();
         }
         
         public Polygon( Color color )
+        {
+            this( color, 4 );
+        }
+
+        public Polygon( Color color, int arity )
         {
             mPolyColor = color;
-            mPath = new GeneralPath();
+            mCoords = new float[ 2 * Math .max( 1, arity ) ];
+        }
+
+        /**
+         * A copy of other, which can be changed without changing other.
+         */
+        public Polygon( Polygon other )
+        {
+            mPolyColor = other .mPolyColor;
+            mCoords = Arrays .copyOf( other .mCoords, Math .max( 2, 2 * other .mSize ) );
+            mSize = other .mSize;
+            mDepth = other .mDepth;
         }
         
         public Color getColor()
@@ -174,12 +227,7 @@ public class Java2dSnapshot
         @Override
         public int compareTo( Polygon other )
         {
-            double otherZ = other .mDepth;
-            if ( mDepth > otherZ )
-                return 1;
-            if ( mDepth < otherZ )
-                return -1;
-            return 0;
+            return Float .compare( mDepth, other .mDepth );
         }
 
         public void applyLighting( Vector3f normal, Vector3f[] lightDirs, Color[] lightColors, Color ambient )
@@ -193,9 +241,18 @@ public class Java2dSnapshot
                 greenIntensity += intensity * ( lightColors[ i ].getGreen() / 255f );
                 blueIntensity += intensity * ( lightColors[ i ].getBlue() / 255f );
             }
-            int red = (int) ( mPolyColor.getRed() * Math.min( redIntensity, 1f ) );
-            int green = (int) ( mPolyColor.getGreen() * Math.min( greenIntensity, 1f ) );
-            int blue = (int) ( mPolyColor.getBlue() * Math.min( blueIntensity, 1f ) );
+            this .applyLighting( new float[] { redIntensity, greenIntensity, blueIntensity } );
+        }
+
+        /**
+         * @param intensities the red, green and blue light falling on this polygon, as computed
+         * by applyLighting() above, so polygons facing the same way can share them
+         */
+        public void applyLighting( float[] intensities )
+        {
+            int red = (int) ( mPolyColor.getRed() * Math.min( intensities[ 0 ], 1f ) );
+            int green = (int) ( mPolyColor.getGreen() * Math.min( intensities[ 1 ], 1f ) );
+            int blue = (int) ( mPolyColor.getBlue() * Math.min( intensities[ 2 ], 1f ) );
             mPolyColor = new Color( red, green, blue );
         }
     }
@@ -45,6 +45,8 @@ public class DefaultFieldApplication implements FieldApplication
 	
 	private Map<String, CoxeterGroup> groups4d = new HashMap<String, CoxeterGroup>();
 
+	private WythoffConstruction.Generator wythoffGenerator = new WythoffConstruction.Generator();
+
     private final Command pointsymm = new CommandCentralSymmetry();
     private final Command mirrorsymm = new CommandMirrorSymmetry();
     private final Command translate = new CommandTranslate();
@@ -155,7 +157,20 @@ public class DefaultFieldApplication implements FieldApplication
             }
             this .groups4d .put( groupName, group );
         }
-        WythoffConstruction .constructPolytope( group, index, edgesToRender, edgeScales, group, listener );
+        WythoffConstruction .constructPolytope( group, index, edgesToRender, edgeScales, group, this .wythoffGenerator, listener );
+	}
+
+	/**
+	 * @param generator used by constructPolytope(), which is serial until this is called
+	 */
+	public void setWythoffGenerator( WythoffConstruction.Generator generator )
+	{
+	    this .wythoffGenerator = generator;
+	}
+
+	protected WythoffConstruction.Generator getWythoffGenerator()
+	{
+	    return this .wythoffGenerator;
 	}
 
 	@Override
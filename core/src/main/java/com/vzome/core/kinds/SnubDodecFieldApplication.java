@@ -188,7 +188,7 @@ public class SnubDodecFieldApplication extends DefaultFieldApplication
                 QuaternionicSymmetry qsymm = new QuaternionicSymmetry( "H_4", "com/vzome/core/math/symmetry/H4roots.vef", this .getField() );
                 this .h4Builder = new CommandUniformH4Polytope( this .getField(), qsymm, 0 );
             }
-            this .h4Builder .generate( index, edgesToRender, edgeScales, listener );
+            this .h4Builder .generate( index, edgesToRender, edgeScales, this .getWythoffGenerator(), listener );
             break;
 
         default:
@@ -84,6 +84,28 @@ public class Polyhedron implements Cloneable
         return this .evilTwin;
     }
     
+    /**
+     * Get a new Polyhedron with the vertices and faces of this one, shared rather
+     * than copied, but with its own guid and no name, orbit, length, or evil twin.
+     * This lets documents share the geometry of a strut or connector shape
+     * without sharing its identity.  Neither Polyhedron should be modified afterward.
+     */
+    public Polyhedron shareGeometry()
+    {
+        Polyhedron result = null;
+        try {
+            result = (Polyhedron) this .clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException( e );
+        }
+        result .guid = UUID .randomUUID();
+        result .evilTwin = null;
+        result .name = null;
+        result .orbit = null;
+        result .length = null;
+        return result;
+    }
+
     @JsonIgnore
     public AlgebraicField getField()
     {
@@ -93,15 +93,69 @@ public abstract class VefParser
         return mVersion >= VERSION_W_FIRST;
     }
     
+    /**
+     * The whitespace-separated tokens of VEF data, however they are read.
+     * nextToken() and nextInt() throw NoSuchElementException when the tokens are exhausted,
+     * and nextInt() throws NumberFormatException when the next token is not an integer.
+     */
+    public interface Tokens
+    {
+        boolean hasMoreTokens();
+
+        String nextToken();
+
+        int nextInt();
+    }
+
+    private static class StringTokens implements Tokens
+    {
+        private final StringTokenizer tokenizer;
+
+        StringTokens( String vefData )
+        {
+            this .tokenizer = new StringTokenizer( vefData );
+        }
+
+        @Override
+        public boolean hasMoreTokens()
+        {
+            return this .tokenizer .hasMoreTokens();
+        }
+
+        @Override
+        public String nextToken()
+        {
+            return this .tokenizer .nextToken();
+        }
+
+        @Override
+        public int nextInt()
+        {
+            return Integer .parseInt( this .tokenizer .nextToken() );
+        }
+    }
+
     public void parseVEF( String vefData, final AlgebraicField field )
+    {
+        Tokens tokens = new StringTokens( vefData );
+        if ( ! tokens .hasMoreTokens() )
+            throw new IllegalStateException( "VEF format error: no tokens in file data: \"" + vefData + "\"" );
+        this .parseVEF( tokens, field );
+    }
+
+    /**
+     * Parses VEF data from any source of tokens, calling the start, add and end methods
+     * for each section as its elements are read, so the data need never be held in full.
+     * See VefStreamTokens for reading from a Reader or a memory-mapped file.
+     */
+    public void parseVEF( Tokens tokens, final AlgebraicField field )
     {
         this.field = field;
-        StringTokenizer tokens = new StringTokenizer( vefData );
         String token = null;
         try {
             token = tokens .nextToken();
         } catch ( NoSuchElementException e1 ) {
-            throw new IllegalStateException( "VEF format error: no tokens in file data: \"" + vefData + "\"" );
+            throw new IllegalStateException( "VEF format error: no tokens in file data" );
         }
         mVersion = 0;
         isRational = false;
@@ -274,18 +328,18 @@ public abstract class VefParser
             }
             startEdges( numEdges );
             for ( int i = 0; i < numEdges; i++ ){
+                int v1;
                 try {
-                    token = tokens .nextToken();
+                    v1 = tokens .nextInt();
                 } catch ( NoSuchElementException e1 ) {
                     throw new IllegalStateException( "VEF format error: not enough edges in list" );
                 }
-                int v1 = Integer .parseInt( token );
+                int v2;
                 try {
-                    token = tokens .nextToken();
+                    v2 = tokens .nextInt();
                 } catch ( NoSuchElementException e1 ) {
                     throw new IllegalStateException( "VEF format error: 2nd vertex index of last edge is missing" );
                 }
-                int v2 = Integer .parseInt( token );
                 addEdge( i, v1, v2 );
             }
             endEdges();
@@ -301,20 +355,19 @@ public abstract class VefParser
             }
             startFaces( numFaces );
             for ( int i = 0; i < numFaces; i++ ){
+                int order;
                 try {
-                    token = tokens .nextToken();
+                    order = tokens .nextInt();
                 } catch ( NoSuchElementException e1 ) {
                     throw new IllegalStateException( "VEF format error: not enough faces in list" );
                 }
-                int order = Integer .parseInt( token );
                 int[] verts = new int[order];
                 for ( int j = 0; j < order; j++ ) {
                     try {
-                        token = tokens .nextToken();
+                        verts[j] = tokens .nextInt();
                     } catch ( NoSuchElementException e1 ) {
                         throw new IllegalStateException( "VEF format error: not enough vertices in last face" );
                     }
-                    verts[j] = Integer .parseInt( token );
                 }
                 addFace( i, verts );
             }
@@ -331,12 +384,12 @@ public abstract class VefParser
             }
             startBalls( numBalls );
             for ( int i = 0; i < numBalls; i++ ){
+                int v1;
                 try {
-                    token = tokens .nextToken();
+                    v1 = tokens .nextInt();
                 } catch ( NoSuchElementException e1 ) {
                     throw new IllegalStateException( "VEF format error: not enough balls in list" );
                 }
-                int v1 = Integer .parseInt( token );
                 addBall( i, v1 );
             }
             endBalls();
@@ -345,7 +398,7 @@ public abstract class VefParser
         endFile( tokens );
     }
     
-    protected void endFile( StringTokenizer tokens )
+    protected void endFile( Tokens tokens )
     {
     }
 }
@@ -0,0 +1,205 @@
+package com.vzome.core.math;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.NoSuchElementException;
+
+/**
+ * VEF tokens read incrementally from a Reader, or from a file through a sliding memory-mapped window,
+ * so that very large VEF files can be parsed without holding their text in memory.
+ * Integers are parsed directly from the buffered characters, without creating a String per token.
+ * Mapped files are read as single-byte characters, which is all that VEF uses.
+ *
+ * Use with VefParser.parseVEF( Tokens, AlgebraicField ).
+ *
+ * This class is not transpiled to Javascript; see build.gradle.
+ */
+public class VefStreamTokens implements VefParser.Tokens, Closeable
+{
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final long WINDOW_SIZE = 1 << 26;
+
+    private final char[] buffer = new char[ BUFFER_SIZE ];
+
+    private int position = 0;
+
+    private int limit = 0;
+
+    private final StringBuilder token = new StringBuilder();
+
+    private final Reader reader;
+
+    private final FileChannel channel;
+
+    private MappedByteBuffer window = null;
+
+    private long windowEnd = 0;
+
+    public VefStreamTokens( Reader reader )
+    {
+        this .reader = reader;
+        this .channel = null;
+    }
+
+    public VefStreamTokens( FileChannel channel )
+    {
+        this .reader = null;
+        this .channel = channel;
+    }
+
+    /**
+     * Opens the file for memory-mapped reading.  The caller must close the result.
+     */
+    public static VefStreamTokens open( Path file ) throws IOException
+    {
+        return new VefStreamTokens( FileChannel .open( file, StandardOpenOption.READ ) );
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        this .window = null;
+        if ( this .reader != null )
+            this .reader .close();
+        else
+            this .channel .close();
+    }
+
+    /**
+     * Refills the buffer, if it has been consumed.
+     * @return false at the end of the input
+     */
+    private boolean fill()
+    {
+        if ( this .position < this .limit )
+            return true;
+        this .position = 0;
+        this .limit = 0;
+        try {
+            if ( this .reader != null ) {
+                int read = this .reader .read( this .buffer );
+                if ( read > 0 )
+                    this .limit = read;
+            }
+            else {
+                if ( this .window == null || ! this .window .hasRemaining() ) {
+                    long size = this .channel .size();
+                    if ( this .windowEnd >= size )
+                        return false;
+                    long length = Math .min( WINDOW_SIZE, size - this .windowEnd );
+                    this .window = this .channel .map( FileChannel.MapMode.READ_ONLY, this .windowEnd, length );
+                    this .windowEnd += length;
+                }
+                int length = Math .min( this .buffer.length, this .window .remaining() );
+                for ( int i = 0; i < length; i++ )
+                    this .buffer[ i ] = (char) ( this .window .get() & 0xFF );
+                this .limit = length;
+            }
+        } catch ( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+        return this .limit > 0;
+    }
+
+    // the same delimiters as the default for StringTokenizer
+    private static boolean isDelimiter( char c )
+    {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    /**
+     * @return false if there is no token left
+     */
+    private boolean skipDelimiters()
+    {
+        while ( fill() ) {
+            while ( this .position < this .limit ) {
+                if ( ! isDelimiter( this .buffer[ this .position ] ) )
+                    return true;
+                ++ this .position;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends the rest of the current token to the reusable builder.
+     */
+    private void readRestOfToken()
+    {
+        while ( fill() ) {
+            int start = this .position;
+            while ( this .position < this .limit && ! isDelimiter( this .buffer[ this .position ] ) )
+                ++ this .position;
+            this .token .append( this .buffer, start, this .position - start );
+            if ( this .position < this .limit )
+                return;
+        }
+    }
+
+    @Override
+    public boolean hasMoreTokens()
+    {
+        return skipDelimiters();
+    }
+
+    @Override
+    public String nextToken()
+    {
+        if ( ! skipDelimiters() )
+            throw new NoSuchElementException();
+        this .token .setLength( 0 );
+        readRestOfToken();
+        return this .token .toString();
+    }
+
+    @Override
+    public int nextInt()
+    {
+        if ( ! skipDelimiters() )
+            throw new NoSuchElementException();
+        boolean negative = false;
+        char c = this .buffer[ this .position ];
+        if ( c == '-' || c == '+' ) {
+            negative = c == '-';
+            ++ this .position;
+        }
+        long value = 0;
+        int digits = 0;
+        while ( fill() ) {
+            c = this .buffer[ this .position ];
+            if ( isDelimiter( c ) )
+                break;
+            int digit = c - '0';
+            if ( digit < 0 || digit > 9 || value > Integer.MAX_VALUE )
+                throw notAnInteger( negative, value, digits );
+            value = value * 10 + digit;
+            ++ digits;
+            ++ this .position;
+        }
+        if ( negative )
+            value = -value;
+        if ( digits == 0 || value > Integer.MAX_VALUE || value < Integer.MIN_VALUE )
+            throw notAnInteger( negative, Math .abs( value ), digits );
+        return (int) value;
+    }
+
+    // consumes the rest of the bad token, to report it as Integer.parseInt would
+    private NumberFormatException notAnInteger( boolean negative, long value, int digits )
+    {
+        this .token .setLength( 0 );
+        if ( negative )
+            this .token .append( '-' );
+        if ( digits > 0 )
+            this .token .append( value );
+        readRestOfToken();
+        return new NumberFormatException( "For input string: \"" + this .token + "\"" );
+    }
+}
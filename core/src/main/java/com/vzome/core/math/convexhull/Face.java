@@ -25,6 +25,10 @@ class Face {
     double area;
     private AlgebraicVector centroid;
     AlgebraicNumber planeOffset;
+    // floating-point approximations of normal and planeOffset, for the filtered distance tests
+    private double nx, ny, nz, offset;
+    // term magnitudes of the same numbers, which bound the error of those approximations
+    private double mnx, mny, mnz, moffset;
     int index;
     int numVerts;
 
@@ -110,10 +114,47 @@ class Face {
         return normal;
     }
 
+    private void computePlaneApproximation() {
+        double[] n = normal.to3dDoubleVector();
+        nx = n[0];
+        ny = n[1];
+        nz = n[2];
+        offset = planeOffset.evaluate();
+        mnx = magnitude(normal.getComponent(0));
+        mny = magnitude(normal.getComponent(1));
+        mnz = magnitude(normal.getComponent(2));
+        moffset = magnitude(planeOffset);
+    }
+
+    /**
+     * Returns the sum of the absolute values of the terms of n.
+     * AlgebraicNumber.evaluate() adds up those terms, so its rounding error
+     * is relative to this sum, which may be far larger than the value of n.
+     * When the terms do not fit in an int, this returns infinity,
+     * so that distances involving n are always computed exactly.
+     */
+    static double magnitude(AlgebraicNumber n) {
+        int[] terms;
+        try {
+            terms = n.toTrailingDivisor();
+        } catch (ArithmeticException e) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int order = terms.length - 1;
+        double sum = 0d;
+        for (int i = 0; i < order; i++) {
+            if (terms[i] != 0) {
+                sum += Math.abs(terms[i] * n.getField().getUnitTerm(i).evaluate());
+            }
+        }
+        return sum / Math.abs(terms[order]);
+    }
+
     private void computeNormalAndCentroid() throws Failure {
         normal = computeNormal();
         centroid = computeCentroid();
         planeOffset = normal.dot(centroid);
+        computePlaneApproximation();
         int numv = 0;
         HalfEdge he = he0;
         do {
@@ -129,6 +170,7 @@ class Face {
         normal = computeNormal(); // ignoring minArea
         centroid = computeCentroid();
         planeOffset = normal.dot(centroid);
+        computePlaneApproximation();
     }
 
     public static Face createTriangle(Vertex v0, Vertex v1, Vertex v2) {
@@ -248,6 +290,40 @@ class Face {
         return normal.dot(p).minus(planeOffset);
     }
 
+    /**
+     * Relative error allowed for the floating-point distance to a vertex,
+     * measured against the term magnitudes of the coordinates and plane.
+     * This is far larger than the rounding of the evaluations, products and sums involved,
+     * but still small enough that the exact arithmetic is rarely needed.
+     */
+    private static final double FILTER_EPSILON = 1e-8;
+
+    /**
+     * Bounds the difference between the floating-point distance to vtx
+     * and the evaluated exact distance.
+     */
+    double filterBound(Vertex vtx) {
+        return FILTER_EPSILON * (mnx * vtx.mx + mny * vtx.my + mnz * vtx.mz + moffset);
+    }
+
+    /**
+     * Computes the distance from a vertex to the plane of this face, in floating point
+     * when that clearly decides its sign, and otherwise with exact arithmetic.
+     * Either way, the sign is the same as for distanceToPlane(vtx.pnt).evaluate().
+     *
+     * @param vtx
+     *            the vertex
+     * @return approximate distance from the vertex to the plane
+     */
+    double filteredDistance(Vertex vtx) {
+        double dist = nx * vtx.x + ny * vtx.y + nz * vtx.z - offset;
+        double bound = filterBound(vtx);
+        if (dist > bound || dist < -bound) {
+            return dist;
+        }
+        return distanceToPlane(vtx.pnt).evaluate();
+    }
+
     /**
      * Returns the normal of the plane associated with this face.
      *
@@ -0,0 +1,65 @@
+package com.vzome.core.math.convexhull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the per-point computations of QuickHull3D by splitting the points
+ * across a ForkJoinPool.  QuickHull3D still makes every selection serially,
+ * in point order, so the hull is exactly the one the serial Tasks would build.
+ *
+ * This class is not transpiled to Javascript; see build.gradle.
+ */
+public class ParallelPointTasks extends QuickHull3D.Tasks
+{
+    private static final int THRESHOLD = 256;
+
+    private final ForkJoinPool pool;
+
+    public ParallelPointTasks()
+    {
+        this( ForkJoinPool .commonPool() );
+    }
+
+    public ParallelPointTasks( ForkJoinPool pool )
+    {
+        this.pool = pool;
+    }
+
+    @Override
+    public void forEachPoint( int count, QuickHull3D.PointTask task )
+    {
+        if ( count <= THRESHOLD )
+            super .forEachPoint( count, task );
+        else
+            this .pool .invoke( new PointsAction( task, 0, count ) );
+    }
+
+    private static class PointsAction extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final QuickHull3D.PointTask task;
+        private final int start, end;
+
+        PointsAction( QuickHull3D.PointTask task, int start, int end )
+        {
+            this.task = task;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ( end - start <= THRESHOLD ) {
+                for ( int i = start; i < end; i++ )
+                    task .run( i );
+            }
+            else {
+                int middle = ( start + end ) >>> 1;
+                invokeAll( new PointsAction( task, start, middle ), new PointsAction( task, middle, end ) );
+            }
+        }
+    }
+}
@@ -173,6 +173,68 @@ public class QuickHull3D {
     protected int numFaces;
     protected int numPoints;
 
+    /**
+     * A computation over the input points, identified by index.
+     */
+    public interface PointTask {
+        void run(int i);
+    }
+
+    /**
+     * Runs a PointTask for every input point.  Tasks write only their own
+     * result slot, and all the selections that depend on those results are
+     * made serially, in point order, so the hull is the same however they run.
+     * This implementation is serial; Java applications pass a ParallelPointTasks
+     * to the QuickHull3D constructor.
+     */
+    public static class Tasks {
+        public void forEachPoint(int count, PointTask task) {
+            for (int i = 0; i < count; i++) {
+                task.run(i);
+            }
+        }
+    }
+
+    private final Tasks tasks;
+
+    /**
+     * When false, every distance is the exact distance evaluated as a double,
+     * as before the floating-point filter; tests use this to check that
+     * the filter never changes the hull.
+     */
+    boolean filterDistances = true;
+
+    /**
+     * Returns the distance from vtx to the plane of face, from Face.filteredDistance
+     * unless filterDistances is false.
+     */
+    private double distance(Face face, Vertex vtx) {
+        if (filterDistances) {
+            return face.filteredDistance(vtx);
+        }
+        return face.distanceToPlane(vtx.pnt).evaluate();
+    }
+
+    /**
+     * Decides whether vtx is farther above face than maxVtx is above maxFace,
+     * as if by comparing their exact distances evaluated as doubles.
+     * The distances given are from distance(), so they are only
+     * recomputed exactly when they are too close to call.
+     */
+    private boolean isFarther(Face face, Vertex vtx, double dist, Face maxFace, Vertex maxVtx, double maxDist) {
+        if (!filterDistances || maxFace == null || maxVtx == null) {
+            return dist > maxDist;
+        }
+        double margin = face.filterBound(vtx) + maxFace.filterBound(maxVtx);
+        if (dist - maxDist > margin) {
+            return true;
+        }
+        if (maxDist - dist > margin) {
+            return false;
+        }
+        return face.distanceToPlane(vtx.pnt).evaluate() > maxFace.distanceToPlane(maxVtx.pnt).evaluate();
+    }
+
     /**
      * Returns true if debugging is enabled.
      *
@@ -229,10 +291,22 @@ public class QuickHull3D {
         }
     }
 
+    /**
+     * Creates an empty convex hull object, that computes serially.
+     */
+    public QuickHull3D() {
+        this(new Tasks());
+    }
+
     /**
      * Creates an empty convex hull object.
+     *
+     * @param tasks
+     *            runs the computations over all the input points
      */
-    public QuickHull3D() {}
+    public QuickHull3D(Tasks tasks) {
+        this.tasks = tasks;
+    }
 
 
 //    /**
@@ -573,25 +647,28 @@ public class QuickHull3D {
         AlgebraicVector diff02;
         AlgebraicVector nrml = null;
         double maxSqr = 0;
-        AlgebraicVector u01 = vtx[1].pnt.minus(vtx[0].pnt);
+        final AlgebraicVector u01 = vtx[1].pnt.minus(vtx[0].pnt);
 //        u01.normalize(); // TODO: reduce to unit vector
+        final Vertex vtx0 = vtx[0];
+        final double[] lenSqrs = new double[numPoints];
+        tasks.forEachPoint(numPoints, i -> {
+            AlgebraicVector xprod = u01.cross(pointBuffer[i].pnt.minus(vtx0.pnt));
+            lenSqrs[i] = xprod.dot(xprod).evaluate(); // TODO: get rid of evaluate()
+        });
         for (int i = 0; i < numPoints; i++) {
-            diff02 = pointBuffer[i].pnt.minus(vtx[0].pnt);
-            AlgebraicVector xprod = u01.cross(diff02);
-            AlgebraicNumber lenSqr = xprod.dot(xprod);
-         // TODO: get rid of evaluate()
-            if (lenSqr.evaluate() > maxSqr 
+            if (lenSqrs[i] > maxSqr 
                     && pointBuffer[i] != vtx[0] // paranoid
                     && pointBuffer[i] != vtx[1]) 
             {
-                maxSqr = lenSqr.evaluate();
+                maxSqr = lenSqrs[i];
                 vtx[2] = pointBuffer[i];
-                nrml = xprod;
             }
         }
         if (maxSqr == 0) {
             throw new Failure("Input points are collinear");
         }
+        diff02 = vtx[2].pnt.minus(vtx[0].pnt);
+        nrml = u01.cross(diff02);
         //nrml.normalize(); // TODO: reduce to unit vector
 
         // recompute nrml to make sure it is normal to u10 - otherwise could
@@ -601,9 +678,12 @@ public class QuickHull3D {
         //nrml.normalize(); // TODO: reduce to unit vector
 
         double maxDist = 0d;
-        AlgebraicNumber d0 = vtx[2].pnt.dot(nrml);
+        final AlgebraicVector nrml2 = nrml;
+        final AlgebraicNumber d0 = vtx[2].pnt.dot(nrml);
+        final double[] dists = new double[numPoints];
+        tasks.forEachPoint(numPoints, i -> dists[i] = Math.abs(pointBuffer[i].pnt.dot(nrml2).minus(d0).evaluate()));
         for (int i = 0; i < numPoints; i++) {
-            double dist = Math.abs(pointBuffer[i].pnt.dot(nrml).minus(d0).evaluate());
+            double dist = dists[i];
             if (dist > maxDist 
                     && pointBuffer[i] != vtx[0] // paranoid
                     && pointBuffer[i] != vtx[1] 
@@ -655,24 +735,28 @@ public class QuickHull3D {
             faces.add(tris[i]);
         }
 
-        for (int i = 0; i < numPoints; i++) {
+        final Face[] maxFaces = new Face[numPoints];
+        tasks.forEachPoint(numPoints, i -> {
             Vertex v = pointBuffer[i];
 
             if (v == vtx[0] || v == vtx[1] || v == vtx[2] || v == vtx[3]) {
-                continue;
+                return;
             }
 
-            maxDist = 0d;
+            double maxFaceDist = 0d;
             Face maxFace = null;
             for (int k = 0; k < 4; k++) {
-                double dist = tris[k].distanceToPlane(v.pnt).evaluate(); // TODO: get rid of evaluate()
-                if (dist > maxDist) {
+                double dist = distance(tris[k], v);
+                if (isFarther(tris[k], v, dist, maxFace, v, maxFaceDist)) {
                     maxFace = tris[k];
-                    maxDist = dist;
+                    maxFaceDist = dist;
                 }
             }
-            if (maxFace != null) {
-                addPointToFace(v, maxFace);
+            maxFaces[i] = maxFace;
+        });
+        for (int i = 0; i < numPoints; i++) {
+            if (maxFaces[i] != null) {
+                addPointToFace(pointBuffer[i], maxFaces[i]);
             }
         }
     }
@@ -898,8 +982,8 @@ public class QuickHull3D {
             Face maxFace = null;
             for (Face newFace : newFaces) {
                 if (newFace.mark == Face.VISIBLE) {
-                    double dist = newFace.distanceToPlane(vtx.pnt).evaluate();
-                    if (dist > maxDist) {
+                    double dist = distance(newFace, vtx);
+                    if (isFarther(newFace, vtx, dist, maxFace, vtx, maxDist)) {
                         maxDist = dist;
                         maxFace = newFace;
                     }
@@ -930,7 +1014,7 @@ public class QuickHull3D {
                 Vertex vtxNext = faceVtxs;
                 for (Vertex vtx = vtxNext; vtx != null; vtx = vtxNext) {
                     vtxNext = vtx.next;
-                    double dist = absorbingFace.distanceToPlane(vtx.pnt).evaluate();
+                    double dist = distance(absorbingFace, vtx);
                     if (dist > 0) { // tolerance) {
                         addPointToFace(vtx, absorbingFace);
                     } else {
@@ -1004,7 +1088,7 @@ public class QuickHull3D {
         return false;
     }
 
-    protected void calculateHorizon(AlgebraicVector eyePnt, HalfEdge edge0, Face face, Vector<HalfEdge> horizon) {
+    protected void calculateHorizon(Vertex eyeVtx, HalfEdge edge0, Face face, Vector<HalfEdge> horizon) {
         deleteFacePoints(face, null);
         face.mark = Face.DELETED;
         if (debug) {
@@ -1021,8 +1105,8 @@ public class QuickHull3D {
         do {
             Face oppFace = edge.oppositeFace();
             if (oppFace.mark == Face.VISIBLE) {
-                if (oppFace.distanceToPlane(eyePnt).evaluate() > tolerance) {
-                    calculateHorizon(eyePnt, edge.getOpposite(), oppFace, horizon);
+                if (distance(oppFace, eyeVtx) > tolerance) {
+                    calculateHorizon(eyeVtx, edge.getOpposite(), oppFace, horizon);
                 } else {
                     horizon.add(edge);
                     if (debug) {
@@ -1069,8 +1153,8 @@ public class QuickHull3D {
             Vertex eyeVtx = null;
             double maxDist = 0;
             for (Vertex vtx = eyeFace.outside; vtx != null && vtx.face == eyeFace; vtx = vtx.next) {
-                double dist = eyeFace.distanceToPlane(vtx.pnt).evaluate();
-                if (dist > maxDist) {
+                double dist = distance(eyeFace, vtx);
+                if (isFarther(eyeFace, vtx, dist, eyeFace, eyeVtx, maxDist)) {
                     maxDist = dist;
                     eyeVtx = vtx;
                 }
@@ -1091,7 +1175,7 @@ public class QuickHull3D {
                     + eyeVtx.face.getVertexString());
         }
         removePointFromFace(eyeVtx, eyeVtx.face);
-        calculateHorizon(eyeVtx.pnt, null, eyeVtx.face, horizon);
+        calculateHorizon(eyeVtx, null, eyeVtx.face, horizon);
         newFaces.clear();
         addNewFaces(newFaces, eyeVtx, horizon);
 
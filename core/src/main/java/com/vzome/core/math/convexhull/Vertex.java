@@ -14,6 +14,16 @@ class Vertex {
      */
     final AlgebraicVector pnt;
 
+    /**
+     * Floating-point approximation of pnt, for the filtered distance tests in Face.
+     */
+    final double x, y, z;
+
+    /**
+     * Term magnitudes of the coordinates of pnt; see Face.magnitude.
+     */
+    final double mx, my, mz;
+
     /**
      * Back index into an array.
      */
@@ -40,6 +50,13 @@ class Vertex {
     public Vertex(AlgebraicVector v, int idx) {
         pnt = v;
         index = idx;
+        double[] dv = v.to3dDoubleVector();
+        x = dv[0];
+        y = dv[1];
+        z = dv[2];
+        mx = Face.magnitude(v.getComponent(0));
+        my = Face.magnitude(v.getComponent(1));
+        mz = Face.magnitude(v.getComponent(2));
     }
 
 }
@@ -297,12 +297,29 @@ public abstract class AbstractSymmetry implements Symmetry
     }
 
 
+    /**
+     * Returns the zone containing the given vector, among the given orbits.
+     * Zones are recorded in the OrbitSet by exact direction signature, so the search
+     * below runs only once for each direction.
+     */
     @Override
     public Axis getAxis( AlgebraicVector vector, OrbitSet orbits )
     {
         if ( vector .isOrigin() ) {
             return null;
         }
+        String signature = AlgebraicVectors.getDirectionSignature( vector ) .toString();
+        Axis axis = orbits .getCachedAxis( signature );
+        if ( axis == null ) {
+            axis = this .findAxis( vector, orbits );
+            if ( axis != null )
+                orbits .cacheAxis( signature, axis );
+        }
+        return axis;
+    }
+
+    private Axis findAxis( AlgebraicVector vector, OrbitSet orbits )
+    {
         Direction canonicalOrbit = this .getSpecialOrbit( SpecialOrbit.BLACK );
         if ( canonicalOrbit == null )
             // the old, brute-force approach
@@ -24,6 +24,9 @@ public class OrbitSet implements Iterable<Direction>
     
     private final Symmetry symmetry;
     private transient Direction lastAdded = null;
+
+    // zones already found by Symmetry.getAxis( AlgebraicVector, OrbitSet ), keyed by direction signature
+    private transient final Map<String, Axis> axesByDirection = new HashMap<>();
     
     public OrbitSet( Symmetry symmetry )
     {
@@ -41,6 +44,20 @@ public class OrbitSet implements Iterable<Direction>
         return symmetry .getAxis( vector, this .contents .values() );
     }
     
+    /**
+     * @param signature the string form of a direction signature, as returned by AlgebraicVectors.getDirectionSignature
+     * @return the zone previously recorded for the signature, or null
+     */
+    Axis getCachedAxis( String signature )
+    {
+        return this .axesByDirection .get( signature );
+    }
+
+    void cacheAxis( String signature, Axis axis )
+    {
+        this .axesByDirection .put( signature, axis );
+    }
+
     public Direction getDirection( String name )
     {
         for (Direction dir : this) {
@@ -78,6 +95,7 @@ public class OrbitSet implements Iterable<Direction>
 
     public boolean remove( Direction orbit )
     {
+        this .axesByDirection .clear();
         String key = orbit .toString();
         boolean hadOne = this .contents .containsKey( key );
         this .contents .remove( orbit .toString() );
@@ -86,6 +104,7 @@ public class OrbitSet implements Iterable<Direction>
 
     public boolean add( Direction orbit )
     {
+        this .axesByDirection .clear();
         String key = orbit .toString();
         boolean hadOne = this .contents .containsKey( key );
         this .contents .put( orbit .toString(), orbit );
@@ -106,16 +125,19 @@ public class OrbitSet implements Iterable<Direction>
 
     public void clear()
     {
+        this .axesByDirection .clear();
         this .contents .clear();
     }
 
     public void addAll( OrbitSet orbits )
     {
+        this .axesByDirection .clear();
         this .contents .putAll( orbits .contents );
     }
 
     public void retainAll( OrbitSet allOrbits )
     {
+        this .axesByDirection .clear();
         List<String> badKeys = new ArrayList<String>();
         for ( String key : this .contents .keySet() ) {
             if ( ! allOrbits .contents .containsKey( key ) )
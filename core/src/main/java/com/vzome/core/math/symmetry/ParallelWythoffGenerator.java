@@ -0,0 +1,74 @@
+package com.vzome.core.math.symmetry;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.vzome.core.algebra.AlgebraicVector;
+
+/**
+ * Computes the images for a Wythoff construction by splitting the group elements
+ * across a ForkJoinPool.  The result is indexed by group element, exactly as
+ * for the serial Generator, so the listener still sees a deterministic sequence.
+ *
+ * This class is not transpiled to Javascript; see build.gradle.
+ */
+public class ParallelWythoffGenerator extends WythoffConstruction.Generator
+{
+    private static final int THRESHOLD = 16;
+
+    private final ForkJoinPool pool;
+
+    public ParallelWythoffGenerator()
+    {
+        this( ForkJoinPool .commonPool() );
+    }
+
+    public ParallelWythoffGenerator( ForkJoinPool pool )
+    {
+        this.pool = pool;
+    }
+
+    @Override
+    public AlgebraicVector[][] generate( int order, WythoffConstruction.ElementImages images )
+    {
+        AlgebraicVector[][] result = new AlgebraicVector[ order ][];
+        if ( order == 0 )
+            return result;
+        // The first element is computed on this thread, so that lazily initialized
+        //  field state (like the cached powers used by some groups) is filled before
+        //  the worker threads read it.
+        result[ 0 ] = images .getImages( 0 );
+        this .pool .invoke( new GenerateTask( images, result, 1, order ) );
+        return result;
+    }
+
+    private static class GenerateTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final WythoffConstruction.ElementImages images;
+        private final AlgebraicVector[][] result;
+        private final int start, end;
+
+        GenerateTask( WythoffConstruction.ElementImages images, AlgebraicVector[][] result, int start, int end )
+        {
+            this.images = images;
+            this.result = result;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if ( end - start <= THRESHOLD ) {
+                for ( int i = start; i < end; i++ )
+                    result[ i ] = images .getImages( i );
+            }
+            else {
+                int middle = ( start + end ) >>> 1;
+                invokeAll( new GenerateTask( images, result, start, middle ), new GenerateTask( images, result, middle, end ) );
+            }
+        }
+    }
+}
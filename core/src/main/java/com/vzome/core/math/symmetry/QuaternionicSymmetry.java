@@ -1,8 +1,6 @@
 
 package com.vzome.core.math.symmetry;
 
-import java.util.StringTokenizer;
-
 import com.vzome.core.algebra.AlgebraicField;
 import com.vzome.core.algebra.AlgebraicNumber;
 import com.vzome.core.algebra.AlgebraicVector;
@@ -103,7 +101,7 @@ public class QuaternionicSymmetry
         {}
 
         @Override
-        protected void endFile( StringTokenizer tokens )
+        protected void endFile( Tokens tokens )
         {}
         
     }
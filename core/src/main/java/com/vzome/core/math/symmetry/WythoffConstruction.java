@@ -18,7 +18,60 @@ public class WythoffConstruction
         Object addFace( Object[] vertices );
     }
     
+    /**
+     * Computes the vertex produced by one group element, followed by its
+     * neighbor vertices, or null for neighbors that produce no edge.
+     */
+    public interface ElementImages
+    {
+        AlgebraicVector[] getImages( int element );
+    }
+
+    /**
+     * Computes the ElementImages for every element of a group, in element order.
+     * This implementation is serial; the Java Application gives its field applications a ParallelWythoffGenerator.
+     */
+    public static class Generator
+    {
+        public AlgebraicVector[][] generate( int order, ElementImages images )
+        {
+            AlgebraicVector[][] result = new AlgebraicVector[ order ][];
+            for ( int i = 0; i < order; i++ )
+                result[ i ] = images .getImages( i );
+            return result;
+        }
+    }
+
+    /**
+     * Reports the vertices and edges for one group element to the listener.
+     * Generators may compute images in any order, but they are always reported
+     * serially, in element order, so the listener sees the same sequence every time.
+     * @param images a vertex followed by its neighbors, as computed by ElementImages
+     * @param listener
+     */
+    public static void addImages( AlgebraicVector[] images, Listener listener )
+    {
+        AlgebraicVector vector = images[ 0 ];
+        Object p = listener .addVertex( vector );
+        for ( int e = 1; e < images.length; e++ )
+        {
+            AlgebraicVector other = images[ e ];
+            if ( other != null && ! other .equals( vector ) ) {
+                Object p2 = listener .addVertex( other );
+                listener .addEdge( p, p2 );
+            }
+        }
+    }
+
     public static void constructPolytope( CoxeterGroup group, int index, int edgesToRender, AlgebraicNumber[] edgeScales, CoxeterGroup renderingGroup, Listener listener )
+    {
+        constructPolytope( group, index, edgesToRender, edgeScales, renderingGroup, new Generator(), listener );
+    }
+
+    /**
+     * @param generator computes the images of the group elements, perhaps in parallel
+     */
+    public static void constructPolytope( CoxeterGroup group, int index, int edgesToRender, AlgebraicNumber[] edgeScales, CoxeterGroup renderingGroup, Generator generator, Listener listener )
     {
         AlgebraicVector[] neighbors = new AlgebraicVector[4];
         
@@ -71,21 +124,21 @@ public class WythoffConstruction
             }
         }
         else
-            for ( int i = 0; i < order; i++ )
-            {
-                AlgebraicVector vector = renderingGroup .groupAction( model, i );
-                Object p = listener .addVertex( vector );
+        {
+            final AlgebraicVector vertex = model;
+            AlgebraicVector[][] images = generator .generate( order, i -> {
+                AlgebraicVector[] result = new AlgebraicVector[ 5 ];
+                result[ 0 ] = renderingGroup .groupAction( vertex, i );
                 for ( int e = 0; e < 4; e++ )
                 {
-                    if ( neighbors[ e ] .equals( origin ) )
-                        continue;
-                    AlgebraicVector other = renderingGroup .groupAction( neighbors[ e ], i );
-                    if ( ! other .equals( vector ) ) {
-                        Object p2 = listener .addVertex( other );
-                        listener .addEdge( p, p2 );
-                    }
+                    if ( ! neighbors[ e ] .equals( origin ) )
+                        result[ e+1 ] = renderingGroup .groupAction( neighbors[ e ], i );
                 }
-            }
+                return result;
+            } );
+            for ( int i = 0; i < order; i++ )
+                addImages( images[ i ], listener );
+        }
     }
 
     public static class VefPrinter implements Listener
@@ -5,21 +5,14 @@ import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
-import java.util.stream.StreamSupport;
 
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
-import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.vzome.core.algebra.AlgebraicField;
-import com.vzome.core.algebra.AlgebraicNumber;
 import com.vzome.core.algebra.AlgebraicVector;
 import com.vzome.core.construction.Color;
 import com.vzome.core.construction.ConstructionChanges;
@@ -34,97 +27,84 @@ public class ColoredMeshJson
 {
     public static void generate( Iterable<Manifestation> model, AlgebraicField field, Writer writer ) throws IOException
     {
-        SortedSet<AlgebraicVector> vertices = new TreeSet<>();
-        ArrayList<JsonNode> balls = new ArrayList<>();
-        ArrayList<JsonNode> struts = new ArrayList<>();
-        ArrayList<JsonNode> panels = new ArrayList<>();
+        VertexIndex vertices = new VertexIndex();
         AlgebraicVector lastBall = null;
         AlgebraicVector lastVertex = null;
 
         // phase one: find and index all vertices
         for ( Manifestation man : model ) {
+            vertices .add( man );
             if ( man instanceof Connector )
             {
                 lastBall = man .getLocation();
-                vertices .add( lastBall );
             }
             else if ( man instanceof Strut )
             {
                 lastVertex = man .getLocation();
-                vertices .add( lastVertex );
-                vertices .add( ((Strut) man) .getEnd() );
             }
             else if ( man instanceof Panel )
             {
                 for ( AlgebraicVector vertex : (Panel) man ) {
                     lastVertex = vertex;
-                    vertices .add( vertex );
                 }
             }
         }
         final AlgebraicVector origin = ( lastBall != null )? lastBall : lastVertex;
 
-        // Up to this point, the vertices TreeSet has collected and sorted every unique vertex of every manifestation.
-        // From now on we'll need their index, so we copy them into an ArrayList, preserving their sorted order.
-        // so we can get their index into that array.
-        ArrayList<AlgebraicVector> sortedVertexList = new ArrayList<>(vertices);
-        // we no longer need the vertices collection, 
-        // so set it to null to free the memory and to ensure we don't use it later by mistake.
-        vertices = null;
+        // phase two: generate the JSON, streaming each section
+        JsonFactory factory = new JsonFactory() .disable( JsonGenerator.Feature.AUTO_CLOSE_TARGET );
+        JsonGenerator generator = factory.createGenerator( writer );
+        generator .useDefaultPrettyPrinter();
 
-        // phase three: generate the JSON
-        ObjectMapper mapper = new ObjectMapper();
+        generator .writeStartObject();
+        generator .writeStringField( "field", field .getName() );
+
+        generator .writeFieldName( "vertices" );
+        vertices .writeTrailingDivisors( generator, origin );
+
+        generator .writeFieldName( "balls" );
+        generator .writeStartArray();
         for ( Manifestation man : model ) {
             if ( man instanceof Connector )
             {
-                ObjectNode ballJson = mapper .createObjectNode();
-                ballJson .set( "vertex", mapper .valueToTree( sortedVertexList .indexOf( man .getLocation() ) ) );
-                ballJson .set( "color", mapper .valueToTree( man .getColor() .toWebString() ) );
-                balls .add( ballJson );
-            }
-            else if ( man instanceof Strut )
-            {
-                ObjectNode strutJson = mapper .createObjectNode();
-                int start = sortedVertexList .indexOf( man .getLocation() );
-                int end = sortedVertexList .indexOf( ((Strut) man) .getEnd() );
-                JsonNode ends = mapper .valueToTree( new int[]{ start, end } );
-                strutJson .set( "vertices", ends );
-                strutJson .set( "color", mapper .valueToTree( man .getColor() .toWebString() ) );
-                struts .add( strutJson );
+                generator .writeStartObject();
+                generator .writeNumberField( "vertex", vertices .indexOf( man .getLocation() ) );
+                generator .writeStringField( "color", man .getColor() .toWebString() );
+                generator .writeEndObject();
             }
-            else if ( man instanceof Panel )
+        }
+        generator .writeEndArray();
+
+        generator .writeFieldName( "struts" );
+        generator .writeStartArray();
+        for ( Manifestation man : model ) {
+            if ( man instanceof Strut )
             {
-                ObjectNode panelJson = mapper .createObjectNode();
-                @SuppressWarnings("unchecked")
-                Stream<AlgebraicVector> vertexStream = StreamSupport.stream( ( (Iterable<AlgebraicVector>) man ).spliterator(), false);
-                JsonNode node = mapper .valueToTree( vertexStream.map( v -> sortedVertexList .indexOf( v ) ). collect( Collectors.toList() ) );
-                panelJson .set( "vertices", node );
-                panelJson .set( "color", mapper .valueToTree( man .getColor() .toWebString() ) );
-                panels .add( panelJson );
+                int start = vertices .indexOf( man .getLocation() );
+                int end = vertices .indexOf( ((Strut) man) .getEnd() );
+                generator .writeStartObject();
+                generator .writeFieldName( "vertices" );
+                generator .writeArray( new int[]{ start, end }, 0, 2 );
+                generator .writeStringField( "color", man .getColor() .toWebString() );
+                generator .writeEndObject();
             }
         }
+        generator .writeEndArray();
 
-        JsonFactory factory = new JsonFactory() .disable( JsonGenerator.Feature.AUTO_CLOSE_TARGET );
-        JsonGenerator generator = factory.createGenerator( writer );
-        generator .useDefaultPrettyPrinter();
-        generator .setCodec( mapper );
-
-        generator .writeStartObject();
-        generator .writeStringField( "field", field .getName() );
-
-        generator .writeFieldName( "vertices" );
+        generator .writeFieldName( "panels" );
         generator .writeStartArray();
-        ObjectWriter objectWriter = mapper .writerWithView( AlgebraicNumber.Views.TrailingDivisor.class );
-        for ( AlgebraicVector algebraicVector : sortedVertexList ) {
-            algebraicVector = algebraicVector .minus( origin );
-            // This awkward serialize+deserialize seems to be the only way to use views with streaming JSON
-            generator .writeObject( mapper .readTree( objectWriter .writeValueAsString( algebraicVector ) ) );            
+        for ( Manifestation man : model ) {
+            if ( man instanceof Panel )
+            {
+                generator .writeStartObject();
+                generator .writeFieldName( "vertices" );
+                SimpleMeshJson .writeIndices( generator, (Panel) man, vertices );
+                generator .writeStringField( "color", man .getColor() .toWebString() );
+                generator .writeEndObject();
+            }
         }
         generator .writeEndArray();
 
-        generator .writeObjectField( "balls", balls );
-        generator .writeObjectField( "struts", struts );
-        generator .writeObjectField( "panels", panels );
         generator .writeEndObject();
         generator.close();
     }
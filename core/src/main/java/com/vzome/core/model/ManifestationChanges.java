@@ -1,6 +1,8 @@
 
 package com.vzome.core.model;
 
+import java.util.Collection;
+
 import com.vzome.core.construction.Color;
 
 public interface ManifestationChanges
@@ -10,4 +12,20 @@ public interface ManifestationChanges
     void manifestationRemoved( Manifestation m );
     
     void manifestationColored( Manifestation m, Color color );
+
+    /**
+     * All the manifestations shown by a batch, at once.  Override this when
+     * one change is much cheaper than many.
+     */
+    default void manifestationsAdded( Collection<Manifestation> ms )
+    {
+        for ( Manifestation m : ms )
+            this .manifestationAdded( m );
+    }
+
+    default void manifestationsRemoved( Collection<Manifestation> ms )
+    {
+        for ( Manifestation m : ms )
+            this .manifestationRemoved( m );
+    }
 }
@@ -33,6 +33,9 @@ public abstract class ManifestationImpl implements GroupElement, Manifestation,
 
     private static int NEXT_ID = 0;
 
+    // the order of addition to a RealizedModelImpl, maintained by that class
+    long mSequence = 0;
+
     void resetId()
     {
         NEXT_ID = 0;
@@ -1,6 +1,12 @@
 package com.vzome.core.model;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
 import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
 import com.vzome.core.construction.Color;
 import com.vzome.core.construction.Construction;
 
@@ -26,6 +32,46 @@ public interface RealizedModel extends Iterable<Manifestation>
     void remove( Manifestation mManifestation );
 
     void setColor( Manifestation manifestation, Color color );
+
+    /**
+     * @param location
+     * @return every manifestation with a ball location, strut end or panel vertex at location,
+     * in the same order as iteration over this model, including hidden manifestations.
+     */
+    default List<Manifestation> getManifestationsAt( AlgebraicVector location )
+    {
+        return this .getManifestationsAt( Collections .singletonList( location ) );
+    }
+
+    /**
+     * This default implementation scans the whole model.
+     * @param locations
+     * @return every manifestation with a ball location, strut end or panel vertex at any of the locations,
+     * in the same order as iteration over this model, including hidden manifestations.
+     */
+    default List<Manifestation> getManifestationsAt( Collection<AlgebraicVector> locations )
+    {
+        List<Manifestation> result = new ArrayList<>();
+        for ( Manifestation man : this ) {
+            if ( man instanceof Connector ) {
+                if ( locations .contains( man .getLocation() ) )
+                    result .add( man );
+            }
+            else if ( man instanceof Strut ) {
+                if ( locations .contains( man .getLocation() ) || locations .contains( ((Strut) man) .getEnd() ) )
+                    result .add( man );
+            }
+            else if ( man instanceof Panel ) {
+                for ( AlgebraicVector vertex : (Panel) man ) {
+                    if ( locations .contains( vertex ) ) {
+                        result .add( man );
+                        break;
+                    }
+                }
+            }
+        }
+        return result;
+    }
     
     // new for better performance in Javascript
 
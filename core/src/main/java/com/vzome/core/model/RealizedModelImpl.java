@@ -3,8 +3,12 @@
 package com.vzome.core.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -31,6 +35,12 @@ public class RealizedModelImpl implements RealizedModel
 
     // TODO: DJH: Can this be replaced by a HashSet since the key is always equal to the value.
     private final HashMap<Manifestation, Manifestation> mManifestations = new LinkedHashMap<>( 1000 );
+
+    // Every ball location, strut end and panel vertex, mapped to the manifestations found there,
+    //  in the same order as mManifestations, so getManifestationsAt() need not scan the whole model.
+    private final Map<AlgebraicVector, List<Manifestation>> mLocations = new HashMap<>( 1000 );
+
+    private long mNextSequence = 0;
     
     private Projection mProjection;
 
@@ -116,17 +126,80 @@ public class RealizedModelImpl implements RealizedModel
     public void add( Manifestation m )
     {
         // TODO: DJH: Can this be replaced by a HashSet since the key is always equal to the value.
-        mManifestations .put( m, m );
+        if ( mManifestations .put( m, m ) == null ) {
+            // When m replaces an equal value, the original key is retained for iteration,
+            //  so the index must retain it as well.
+            if ( m instanceof ManifestationImpl )
+                ((ManifestationImpl) m) .mSequence = mNextSequence++;
+            for ( AlgebraicVector location : getLocations( m ) ) {
+                List<Manifestation> located = mLocations .get( location );
+                if ( located == null ) {
+                    located = new ArrayList<>( 2 );
+                    mLocations .put( location, located );
+                }
+                if ( ! ( m instanceof Panel ) || ! located .contains( m ) ) // a panel could repeat a vertex
+                    located .add( m );
+            }
+        }
         if ( logger .isLoggable( Level .FINER ) )
             logger .finer( "add manifestation: " + m .toString() );
     }
     
     public void remove( Manifestation m )
     {
-        mManifestations .remove( m );
+        if ( mManifestations .remove( m ) != null ) {
+            for ( AlgebraicVector location : getLocations( m ) ) {
+                List<Manifestation> located = mLocations .get( location );
+                if ( located != null ) {
+                    located .remove( m );
+                    if ( located .isEmpty() )
+                        mLocations .remove( location );
+                }
+            }
+        }
         if ( logger .isLoggable( Level .FINER ) )
             logger .finer( "remove manifestation: " + m .toString() );
     }
+
+    private static Iterable<AlgebraicVector> getLocations( Manifestation m )
+    {
+        if ( m instanceof Strut )
+            return Arrays .asList( m .getLocation(), ((Strut) m) .getEnd() );
+        if ( m instanceof Panel )
+            return (Panel) m;
+        return Collections .singletonList( m .getLocation() );
+    }
+
+    @Override
+    public List<Manifestation> getManifestationsAt( AlgebraicVector location )
+    {
+        List<Manifestation> located = mLocations .get( location );
+        return located == null
+                ? Collections .<Manifestation>emptyList()
+                        : Collections .unmodifiableList( located );
+    }
+
+    @Override
+    public List<Manifestation> getManifestationsAt( Collection<AlgebraicVector> locations )
+    {
+        List<Manifestation> result = new ArrayList<>();
+        for ( AlgebraicVector location : locations ) {
+            for ( Manifestation man : getManifestationsAt( location ) ) {
+                if ( ! result .contains( man ) )
+                    result .add( man );
+            }
+        }
+        if ( locations .size() > 1 ) {
+            // restore the order of iteration over the model
+            Collections .sort( result, ( m1, m2 ) -> Long .compare( sequence( m1 ), sequence( m2 ) ) );
+        }
+        return result;
+    }
+
+    private static long sequence( Manifestation m )
+    {
+        return ( m instanceof ManifestationImpl )? ((ManifestationImpl) m) .mSequence : 0;
+    }
     
     public void refresh( boolean on, RealizedModelImpl unused )
     {
@@ -274,10 +347,16 @@ public class RealizedModelImpl implements RealizedModel
     
     private boolean doingBatch = false;
     
-    private final Set<Manifestation> additions = new HashSet<>();
+    // Identity sets, since a manifestation may be removed and an equal one shown in the same batch,
+    //  and each must reach the listeners.
+    private final Set<Manifestation> additions = Collections .newSetFromMap( new IdentityHashMap<>() );
     
-    private final Set<Manifestation> removals = new HashSet<>();
+    private final Set<Manifestation> removals = Collections .newSetFromMap( new IdentityHashMap<>() );
 
+    /**
+     * Defer show() and hide() notifications until endBatch(), when listeners are told only
+     * the net change.  Nothing may depend on isRendered() during a batch.
+     */
     public void startBatch()
     {
         additions .clear();
@@ -287,12 +366,25 @@ public class RealizedModelImpl implements RealizedModel
 
     public void endBatch()
     {
+        List<Manifestation> hidden = new ArrayList<>( removals .size() );
         for (Manifestation m : removals) {
-            privateHide( m );
+            if ( m .isRendered() )
+                hidden .add( m );
         }
+        if ( ! hidden .isEmpty() )
+            for (ManifestationChanges next : mListeners) {
+                next .manifestationsRemoved( hidden );
+            }
+        List<Manifestation> shown = new ArrayList<>( additions .size() );
         for (Manifestation m : additions) {
-            privateShow( m );
+            if ( ! m .isRendered() )
+                shown .add( m );
         }
+        if ( ! shown .isEmpty() )
+            for (ManifestationChanges next : mListeners) {
+                next .manifestationsAdded( shown );
+                // one side-effect will be to set the rendered objects
+            }
         additions .clear();
         removals .clear();
         this .doingBatch = false;
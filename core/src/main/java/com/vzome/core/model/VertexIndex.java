@@ -0,0 +1,111 @@
+package com.vzome.core.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicVector;
+
+/**
+ * Collects the distinct vertices of a model, for exporters that write a vertex table
+ * and then refer to vertices by index.
+ * Vertices are indexed in their sorted order, once all have been added,
+ * and the index lookups are hashed, so export time stays linear in the number of references.
+ */
+public class VertexIndex
+{
+    private Set<AlgebraicVector> distinct = new HashSet<>();
+
+    private List<AlgebraicVector> sorted = null;
+
+    private final Map<AlgebraicVector, Integer> indices = new HashMap<>();
+
+    public void add( AlgebraicVector vertex )
+    {
+        if ( this .sorted != null )
+            throw new IllegalStateException( "vertices cannot be added after they are indexed" );
+        this .distinct .add( vertex );
+    }
+
+    /**
+     * Adds the location of a Connector, both ends of a Strut, or all the vertices of a Panel.
+     */
+    public void add( Manifestation man )
+    {
+        if ( man instanceof Connector )
+            this .add( man .getLocation() );
+        else if ( man instanceof Strut ) {
+            this .add( man .getLocation() );
+            this .add( ((Strut) man) .getEnd() );
+        }
+        else if ( man instanceof Panel )
+            for ( AlgebraicVector vertex : (Panel) man )
+                this .add( vertex );
+    }
+
+    private void index()
+    {
+        if ( this .sorted == null ) {
+            this .sorted = new ArrayList<>( this .distinct );
+            Collections .sort( this .sorted );
+            for ( AlgebraicVector vertex : this .sorted )
+                this .indices .put( vertex, this .indices .size() );
+            this .distinct = null;
+        }
+    }
+
+    /**
+     * @return the distinct vertices, in sorted order.  No more vertices can be added after this.
+     */
+    public List<AlgebraicVector> getVertices()
+    {
+        this .index();
+        return Collections .unmodifiableList( this .sorted );
+    }
+
+    /**
+     * @return the index of the vertex in getVertices(), or -1 if it was never added.
+     */
+    public int indexOf( AlgebraicVector vertex )
+    {
+        this .index();
+        Integer index = this .indices .get( vertex );
+        return ( index == null )? -1 : index;
+    }
+
+    public int size()
+    {
+        return ( this .sorted == null )? this .distinct .size() : this .sorted .size();
+    }
+
+    /**
+     * Writes the vertices as a JSON array of vectors, each relative to the origin,
+     * with every component in trailing divisor form.
+     * This is the streaming equivalent of serializing the vectors with the AlgebraicNumber.Views.TrailingDivisor view.
+     */
+    public void writeTrailingDivisors( JsonGenerator generator, AlgebraicVector origin ) throws IOException
+    {
+        generator .writeStartArray();
+        for ( AlgebraicVector vertex : this .getVertices() ) {
+            writeTrailingDivisor( generator, vertex .minus( origin ) );
+        }
+        generator .writeEndArray();
+    }
+
+    public static void writeTrailingDivisor( JsonGenerator generator, AlgebraicVector vector ) throws IOException
+    {
+        generator .writeStartArray();
+        for ( AlgebraicNumber component : vector .getComponents() ) {
+            int[] trailingDivisor = component .toTrailingDivisor();
+            generator .writeArray( trailingDivisor, 0, trailingDivisor.length );
+        }
+        generator .writeEndArray();
+    }
+}
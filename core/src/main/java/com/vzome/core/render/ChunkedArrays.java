@@ -0,0 +1,216 @@
+package com.vzome.core.render;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+/**
+ * Parallel growable float arrays, and a parallel array of objects, stored in chunks of
+ * CHUNK_SIZE elements.  A Frozen copy shares every chunk, so taking one costs only the
+ * chunk references, and the next write to a shared chunk copies just that chunk.
+ * This lets the editing thread publish a snapshot after every small edit, without
+ * copying the whole arrays each time.
+ *
+ * Only the editing thread may write; Frozen copies may be read on any thread.
+ */
+class ChunkedArrays
+{
+    static final int CHUNK_SIZE = 256;
+
+    private final int[] widths;
+
+    // floats[ k ][ c ] is chunk c of array k, and objects[ c ] is chunk c of the objects
+    private final float[][][] floats;
+    private Object[][] objects = new Object[0][];
+
+    // shared[ c ] is true when some Frozen copy holds chunk c, so it must be copied before a write
+    private boolean[] shared = new boolean[0];
+
+    private int chunks = 0;
+
+    ChunkedArrays( int... widths )
+    {
+        this .widths = widths;
+        this .floats = new float[ widths.length ][][];
+        for ( int k = 0; k < widths.length; k++ )
+            this .floats[ k ] = new float[0][];
+    }
+
+    int getWidth( int k )
+    {
+        return this .widths[ k ];
+    }
+
+    int capacity()
+    {
+        return this .chunks * CHUNK_SIZE;
+    }
+
+    /**
+     * Add chunks, so that there is room for count elements.  New elements are zero and null.
+     */
+    void ensureCapacity( int count )
+    {
+        int needed = ( count + CHUNK_SIZE - 1 ) / CHUNK_SIZE;
+        if ( needed <= this .chunks )
+            return;
+        if ( needed > this .shared.length ) {
+            int length = Math .max( needed, Math .max( 4, 2 * this .shared.length ) );
+            for ( int k = 0; k < this .widths.length; k++ )
+                this .floats[ k ] = Arrays .copyOf( this .floats[ k ], length );
+            this .objects = Arrays .copyOf( this .objects, length );
+            this .shared = Arrays .copyOf( this .shared, length );
+        }
+        for ( int c = this .chunks; c < needed; c++ ) {
+            for ( int k = 0; k < this .widths.length; k++ )
+                this .floats[ k ][ c ] = new float[ CHUNK_SIZE * this .widths[ k ] ];
+            this .objects[ c ] = new Object[ CHUNK_SIZE ];
+            this .shared[ c ] = false;
+        }
+        this .chunks = needed;
+    }
+
+    /**
+     * @return the index of the chunk holding element, after copying it if a Frozen copy shares it
+     */
+    private int writable( int element )
+    {
+        int c = element / CHUNK_SIZE;
+        if ( this .shared[ c ] ) {
+            for ( int k = 0; k < this .widths.length; k++ )
+                this .floats[ k ][ c ] = this .floats[ k ][ c ] .clone();
+            this .objects[ c ] = this .objects[ c ] .clone();
+            this .shared[ c ] = false;
+        }
+        return c;
+    }
+
+    /**
+     * Write one element of array k, from the first getWidth( k ) floats of values.
+     */
+    void set( int k, int element, float[] values )
+    {
+        int c = this .writable( element );
+        int width = this .widths[ k ];
+        System .arraycopy( values, 0, this .floats[ k ][ c ], ( element % CHUNK_SIZE ) * width, width );
+    }
+
+    void set( int k, int element, float x, float y, float z )
+    {
+        int c = this .writable( element );
+        int i = ( element % CHUNK_SIZE ) * this .widths[ k ];
+        float[] chunk = this .floats[ k ][ c ];
+        chunk[ i ] = x;
+        chunk[ i + 1 ] = y;
+        chunk[ i + 2 ] = z;
+    }
+
+    void setObject( int element, Object value )
+    {
+        int c = this .writable( element );
+        this .objects[ c ][ element % CHUNK_SIZE ] = value;
+    }
+
+    float get( int k, int element, int j )
+    {
+        return this .floats[ k ][ element / CHUNK_SIZE ][ ( element % CHUNK_SIZE ) * this .widths[ k ] + j ];
+    }
+
+    Object getObject( int element )
+    {
+        return this .objects[ element / CHUNK_SIZE ][ element % CHUNK_SIZE ];
+    }
+
+    /**
+     * Copy count elements of every array, and the objects, from another ChunkedArrays with the same widths.
+     */
+    void copy( ChunkedArrays from, int fromStart, int toStart, int count )
+    {
+        float[] values = new float[ 4 ];
+        for ( int i = 0; i < count; i++ ) {
+            for ( int k = 0; k < this .widths.length; k++ ) {
+                int width = this .widths[ k ];
+                if ( values.length < width )
+                    values = new float[ width ];
+                for ( int j = 0; j < width; j++ )
+                    values[ j ] = from .get( k, fromStart + i, j );
+                this .set( k, toStart + i, values );
+            }
+            this .setObject( toStart + i, from .getObject( fromStart + i ) );
+        }
+    }
+
+    /**
+     * @return a copy of the first count elements that later writes will not change
+     */
+    Frozen freeze( int count )
+    {
+        int used = ( count + CHUNK_SIZE - 1 ) / CHUNK_SIZE;
+        Arrays .fill( this .shared, 0, used, true );
+        float[][][] floatChunks = new float[ this .widths.length ][][];
+        for ( int k = 0; k < this .widths.length; k++ )
+            floatChunks[ k ] = Arrays .copyOf( this .floats[ k ], used );
+        return new Frozen( this .widths, floatChunks, Arrays .copyOf( this .objects, used ), count );
+    }
+
+    /**
+     * An immutable view of the arrays, as of one freeze().
+     */
+    static class Frozen
+    {
+        private final int[] widths;
+        private final float[][][] floats;
+        private final Object[][] objects;
+        private final int count;
+
+        private Frozen( int[] widths, float[][][] floats, Object[][] objects, int count )
+        {
+            this .widths = widths;
+            this .floats = floats;
+            this .objects = objects;
+            this .count = count;
+        }
+
+        int size()
+        {
+            return this .count;
+        }
+
+        float get( int k, int element, int j )
+        {
+            return this .floats[ k ][ element / CHUNK_SIZE ][ ( element % CHUNK_SIZE ) * this .widths[ k ] + j ];
+        }
+
+        Object getObject( int element )
+        {
+            return this .objects[ element / CHUNK_SIZE ][ element % CHUNK_SIZE ];
+        }
+
+        /**
+         * Copy count elements of array k, starting at element start, into result.
+         */
+        void get( int k, int start, int count, float[] result )
+        {
+            int width = this .widths[ k ];
+            for ( int i = 0; i < count; i++ )
+                for ( int j = 0; j < width; j++ )
+                    result[ i * width + j ] = this .get( k, start + i, j );
+        }
+
+        /**
+         * Put the elements of array k from start to end into buffer, at the same element positions.
+         */
+        void copyTo( FloatBuffer buffer, int k, int start, int end )
+        {
+            int width = this .widths[ k ];
+            buffer .position( start * width );
+            int element = start;
+            while ( element < end ) {
+                int offset = element % CHUNK_SIZE;
+                int run = Math .min( end - element, CHUNK_SIZE - offset );
+                buffer .put( this .floats[ k ][ element / CHUNK_SIZE ], offset * width, run * width );
+                element += run;
+            }
+            buffer .position( 0 );
+        }
+    }
+}
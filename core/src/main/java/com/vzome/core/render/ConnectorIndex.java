@@ -0,0 +1,130 @@
+package com.vzome.core.render;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vzome.core.math.RealVector;
+
+/**
+ * A uniform grid of rendered connector locations, so that snapping and
+ * picking near a point cost only as much as the balls in the nearby cells,
+ * rather than a scan of the whole model.
+ */
+class ConnectorIndex
+{
+    private final double cellSize;
+
+    private final Map<Long, List<RenderedManifestation>> cells = new HashMap<>();
+
+    // the cell each entry was added to, so that remove() need not recompute its location
+    private final Map<RenderedManifestation, Long> entries = new IdentityHashMap<>();
+
+    ConnectorIndex( double cellSize )
+    {
+        if ( ! ( cellSize > 0d ) )
+            throw new IllegalArgumentException( "cell size must be positive, not " + cellSize );
+        this .cellSize = cellSize;
+    }
+
+    private int cell( float coordinate )
+    {
+        return (int) Math .floor( coordinate / this .cellSize );
+    }
+
+    // 21 bits per axis is plenty, since vZome models stay within a few thousand units of the origin
+    private static long key( int i, int j, int k )
+    {
+        return ( ( i & 0x1FFFFFL ) << 42 ) | ( ( j & 0x1FFFFFL ) << 21 ) | ( k & 0x1FFFFFL );
+    }
+
+    void add( RenderedManifestation rm )
+    {
+        RealVector location = rm .getLocation();
+        Long key = key( cell( location.x ), cell( location.y ), cell( location.z ) );
+        if ( this .entries .put( rm, key ) != null )
+            return;
+        this .cells .computeIfAbsent( key, k -> new ArrayList<>( 2 ) ) .add( rm );
+    }
+
+    void remove( RenderedManifestation rm )
+    {
+        Long key = this .entries .remove( rm );
+        if ( key == null )
+            return;
+        List<RenderedManifestation> cell = this .cells .get( key );
+        cell .remove( rm );
+        if ( cell .isEmpty() )
+            this .cells .remove( key );
+    }
+
+    int size()
+    {
+        return this .entries .size();
+    }
+
+    private static double distanceSquared( RenderedManifestation rm, RealVector location )
+    {
+        RealVector ball = rm .getLocation();
+        double dx = ball.x - location.x, dy = ball.y - location.y, dz = ball.z - location.z;
+        return dx*dx + dy*dy + dz*dz;
+    }
+
+    /**
+     * @return the cells that could hold a ball within radius of location
+     */
+    private Iterable<List<RenderedManifestation>> cellsNear( RealVector location, double radius )
+    {
+        // compared in floating point, since the cell size was chosen for an earlier, smaller radius,
+        //  and a large radius would overflow any integer count of cells
+        double span = 2d * Math .ceil( radius / this .cellSize ) + 1d;
+        if ( ! ( span <= Math .cbrt( this .cells .size() ) ) )
+            // a large radius would probe more cells than are occupied
+            return this .cells .values();
+        int reach = (int) ( span - 1d ) / 2;
+        int ci = cell( location.x ), cj = cell( location.y ), ck = cell( location.z );
+        List<List<RenderedManifestation>> result = new ArrayList<>();
+        for ( int i = ci - reach; i <= ci + reach; i++ )
+            for ( int j = cj - reach; j <= cj + reach; j++ )
+                for ( int k = ck - reach; k <= ck + reach; k++ ) {
+                    List<RenderedManifestation> cell = this .cells .get( key( i, j, k ) );
+                    if ( cell != null )
+                        result .add( cell );
+                }
+        return result;
+    }
+
+    /**
+     * @return the ball nearest to location, if it is closer than radius, or null
+     */
+    RenderedManifestation nearest( RealVector location, double radius )
+    {
+        RenderedManifestation result = null;
+        double best = radius * radius;
+        for ( List<RenderedManifestation> cell : this .cellsNear( location, radius ) )
+            for ( RenderedManifestation rm : cell ) {
+                double d2 = distanceSquared( rm, location );
+                if ( d2 < best ) {
+                    best = d2;
+                    result = rm;
+                }
+            }
+        return result;
+    }
+
+    /**
+     * @return all the balls closer than radius to location, in no particular order
+     */
+    List<RenderedManifestation> within( RealVector location, double radius )
+    {
+        List<RenderedManifestation> result = new ArrayList<>();
+        double r2 = radius * radius;
+        for ( List<RenderedManifestation> cell : this .cellsNear( location, radius ) )
+            for ( RenderedManifestation rm : cell )
+                if ( distanceSquared( rm, location ) < r2 )
+                    result .add( rm );
+        return result;
+    }
+}
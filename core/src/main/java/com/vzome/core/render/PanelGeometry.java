@@ -0,0 +1,487 @@
+package com.vzome.core.render;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.vzome.core.math.RealVector;
+import com.vzome.opengl.InstancedGeometry;
+
+/**
+ * All the panels of a SymmetryRendering, merged into one mesh, so that they cost
+ * one draw call, rather than one ShapeAndInstances per panel.
+ * Panel shapes are positioned absolutely, so the mesh is drawn as a single instance,
+ * with the instance data and colors given for every vertex.
+ *
+ * Each panel owns a contiguous range of the triangle vertices, and another of the
+ * line vertices.  New panels are appended.  A removed panel leaves a degenerate hole,
+ * and the mesh is compacted once the holes outgrow the panels.
+ *
+ * As with ShapeAndInstances, the editing thread publishes immutable snapshots,
+ * and only the rendering thread copies them into the buffers.
+ * The meshes are ChunkedArrays, so a snapshot shares all but the chunks written since.
+ */
+public class PanelGeometry implements InstancedGeometry
+{
+    private static final int VERTICES = 0, NORMALS = 1, DATA = 2, COLORS = 3;
+
+    private static final int LINE_VERTICES = 0, LINE_DATA = 1;
+
+    private static final int[] MESH_WIDTHS = new int[] { 3, 3, 4, 4 };
+
+    private static final int[] LINE_WIDTHS = new int[] { 3, 4 };
+
+    /**
+     * Parallel growable attribute arrays, and the range of vertices
+     * changed since the last snapshot.
+     * The first vertex of each panel also holds its PanelRecord, for picking.
+     */
+    private static class Mesh
+    {
+        private final ChunkedArrays arrays;
+        private int size = 0, holes = 0;
+        private int dirtyStart = 0, dirtyEnd = 0;
+
+        Mesh( int[] widths )
+        {
+            this .arrays = new ChunkedArrays( widths );
+        }
+
+        /**
+         * @return the first of count new vertices at the end of the mesh
+         */
+        int append( int count )
+        {
+            int start = this .size;
+            this .arrays .ensureCapacity( start + count );
+            this .size += count;
+            this .markDirty( start, this .size );
+            return start;
+        }
+
+        void markDirty( int start, int end )
+        {
+            if ( start >= end )
+                return;
+            if ( this .dirtyStart >= this .dirtyEnd ) {
+                this .dirtyStart = start;
+                this .dirtyEnd = end;
+            }
+            else {
+                this .dirtyStart = Math .min( this .dirtyStart, start );
+                this .dirtyEnd = Math .max( this .dirtyEnd, end );
+            }
+        }
+
+        boolean isDirty()
+        {
+            return this .dirtyStart < this .dirtyEnd;
+        }
+
+        /**
+         * Collapse a range of vertices to the origin, so it draws nothing.
+         */
+        void free( int start, int count )
+        {
+            for ( int i = start; i < start + count; i++ )
+                this .arrays .set( 0, i, 0f, 0f, 0f );
+            this .arrays .setObject( start, null );
+            this .holes += count;
+            this .markDirty( start, start + count );
+        }
+    }
+
+    /**
+     * What picking needs to know about a panel, kept with its first vertex,
+     * so that it moves with the vertices when the mesh is compacted.
+     */
+    private static class PanelRecord
+    {
+        private final RenderedManifestation rm;
+        private final int count;
+
+        PanelRecord( RenderedManifestation rm, int count )
+        {
+            this .rm = rm;
+            this .count = count;
+        }
+    }
+
+    // vertex ranges of one panel, in both meshes
+    private static class Range
+    {
+        int start, count, lineStart, lineCount;
+    }
+
+    private final float globalScale;
+
+    // in mesh order, so that compaction preserves it; RM.hashCode() uses a GUID, as in ShapeAndInstances
+    private final Map<RenderedManifestation, Range> panels = new LinkedHashMap<>();
+
+    private Mesh mesh = new Mesh( MESH_WIDTHS );
+
+    private Mesh lines = new Mesh( LINE_WIDTHS );
+
+    // the latest snapshot published for rendering, and its version
+    private Snapshot published;
+    private long version = 0;
+
+    // these are touched only by the rendering thread
+    private final RenderBuffers meshBuffers = new RenderBuffers( MESH_WIDTHS );
+    private final RenderBuffers lineBuffers = new RenderBuffers( LINE_WIDTHS );
+
+    // temporary storage, reused for every panel
+    private final float[] data = new float[4], rgba = new float[4];
+
+    public PanelGeometry( float globalScale )
+    {
+        this .globalScale = globalScale;
+    }
+
+    public int size()
+    {
+        return this .panels .size();
+    }
+
+    public Collection<RenderedManifestation> getPanels()
+    {
+        return this .panels .keySet();
+    }
+
+    public void addPanel( RenderedManifestation rm )
+    {
+        if ( this .panels .containsKey( rm ) )
+            this .removePanel( rm ); // its shape may have changed
+        List<RealVector> vertices = new ArrayList<>();
+        List<RealVector> normals = new ArrayList<>();
+        List<RealVector> lineVertices = new ArrayList<>();
+        ShapeAndInstances .triangulate( rm .getShape(), vertices, normals, lineVertices );
+
+        Range range = new Range();
+        range.count = vertices .size();
+        range.start = this .mesh .append( range.count );
+        range.lineCount = lineVertices .size();
+        range.lineStart = this .lines .append( range.lineCount );
+        put( this .mesh .arrays, VERTICES, range.start, vertices, this .globalScale );
+        put( this .mesh .arrays, NORMALS, range.start, normals, 1f );
+        put( this .lines .arrays, LINE_VERTICES, range.lineStart, lineVertices, this .globalScale );
+        this .mesh .arrays .setObject( range.start, new PanelRecord( rm, range.count ) );
+        this .panels .put( rm, range );
+        this .writePanelData( rm, range );
+    }
+
+    private static void put( ChunkedArrays arrays, int k, int start, List<RealVector> vectors, float scale )
+    {
+        int i = start;
+        for ( RealVector vector : vectors )
+            arrays .set( k, i++, scale * vector.x, scale * vector.y, scale * vector.z );
+    }
+
+    public void removePanel( RenderedManifestation rm )
+    {
+        Range range = this .panels .remove( rm );
+        if ( range == null )
+            return;
+        this .mesh .free( range.start, range.count );
+        this .lines .free( range.lineStart, range.lineCount );
+        if ( this .mesh.holes > this .mesh.size - this .mesh.holes )
+            this .compact();
+    }
+
+    public void clear()
+    {
+        this .panels .clear();
+        // new meshes, since the old ones may be shared with snapshots, and hold stale panel records
+        this .mesh = new Mesh( MESH_WIDTHS );
+        this .lines = new Mesh( LINE_WIDTHS );
+    }
+
+    /**
+     * Rewrite the instance data and colors of one panel, as when its glow or color changes.
+     */
+    public void panelChanged( RenderedManifestation rm )
+    {
+        Range range = this .panels .get( rm );
+        if ( range != null )
+            this .writePanelData( rm, range );
+    }
+
+    /**
+     * Give the vertex ranges of "from" to "to", a copy of the same panel in another snapshot,
+     * and rewrite its instance data and colors.
+     * The panel moves to the end of the map order, which only changes where compaction puts it.
+     */
+    public void switchPanel( RenderedManifestation from, RenderedManifestation to )
+    {
+        Range range = this .panels .remove( from );
+        if ( range == null )
+            return;
+        this .panels .put( to, range );
+        this .mesh .arrays .setObject( range.start, new PanelRecord( to, range.count ) );
+        this .writePanelData( to, range );
+    }
+
+    /**
+     * Rewrite the instance data and colors of every panel.
+     */
+    public void refresh()
+    {
+        for ( Map.Entry<RenderedManifestation, Range> entry : this .panels .entrySet() )
+            this .writePanelData( entry .getKey(), entry .getValue() );
+    }
+
+    private void writePanelData( RenderedManifestation rm, Range range )
+    {
+        ShapeAndInstances .getInstanceData( rm, this .globalScale, this .data, this .rgba );
+        fill( this .mesh .arrays, DATA, range.start, range.count, this .data );
+        fill( this .mesh .arrays, COLORS, range.start, range.count, this .rgba );
+        fill( this .lines .arrays, LINE_DATA, range.lineStart, range.lineCount, this .data );
+        this .mesh .markDirty( range.start, range.start + range.count );
+        this .lines .markDirty( range.lineStart, range.lineStart + range.lineCount );
+    }
+
+    private static void fill( ChunkedArrays arrays, int k, int start, int count, float[] value )
+    {
+        for ( int i = start; i < start + count; i++ )
+            arrays .set( k, i, value );
+    }
+
+    /**
+     * Copy the panels into new meshes, in order, leaving no holes.
+     */
+    private void compact()
+    {
+        Mesh oldMesh = this .mesh, oldLines = this .lines;
+        this .mesh = new Mesh( MESH_WIDTHS );
+        this .lines = new Mesh( LINE_WIDTHS );
+        for ( Range range : this .panels .values() ) {
+            int start = this .mesh .append( range.count );
+            this .mesh .arrays .copy( oldMesh .arrays, range.start, start, range.count );
+            range.start = start;
+            int lineStart = this .lines .append( range.lineCount );
+            this .lines .arrays .copy( oldLines .arrays, range.lineStart, lineStart, range.lineCount );
+            range.lineStart = lineStart;
+        }
+        // append() has marked every vertex dirty
+    }
+
+    /**
+     * Like the panel case of ShapeAndInstances.pick(), but for each panel's range of triangles.
+     */
+    public void pick( ShapeAndInstances.Intersector intersector, float[] embedding )
+    {
+        pick( intersector, embedding, 1f / this .globalScale, this .mesh .arrays .freeze( this .mesh.size ) );
+    }
+
+    private static void pick( ShapeAndInstances.Intersector intersector, float[] embedding, float scale, ChunkedArrays.Frozen mesh )
+    {
+        float[] triangle = new float[ 9 ];
+        int vertex = 0;
+        while ( vertex < mesh .size() ) {
+            PanelRecord panel = (PanelRecord) mesh .getObject( vertex );
+            if ( panel == null ) {
+                ++vertex; // in a hole
+                continue;
+            }
+            // We know that we'll have 3 vertices per triangle, and a full set of triangles for both polygons.
+            // We just intersect the triangles of one of the two polygons.
+            int triangles = panel.count / 6;
+            for ( int i = 0; i < triangles; i++ ) {
+                mesh .get( VERTICES, vertex + i * 3, 3, triangle );
+                intersector .intersectTriangle( triangle, 0, panel.rm, scale, embedding );
+            }
+            vertex += panel.count;
+        }
+    }
+
+    /**
+     * Publish the current panels for rendering, if they have changed since the last snapshot.
+     * Only the editing thread may call this.
+     */
+    Snapshot snapshot()
+    {
+        if ( this .published != null && ! this .mesh .isDirty() && ! this .lines .isDirty()
+                && this .published .vertexCount == this .mesh.size && this .published .panelCount == this .panels .size() )
+            return this .published;
+        this .published = new Snapshot( ++this .version );
+        this .mesh .dirtyStart = this .mesh .dirtyEnd = 0;
+        this .lines .dirtyStart = this .lines .dirtyEnd = 0;
+        return this .published;
+    }
+
+    @Override
+    public int prepareToRender( BufferStorage storage )
+    {
+        return this .snapshot() .prepareToRender( storage );
+    }
+
+    @Override
+    public boolean hasVertexData()
+    {
+        return true;
+    }
+
+    @Override
+    public int getVertexCount()
+    {
+        return this .mesh.size;
+    }
+
+    @Override
+    public int getLineVertexCount()
+    {
+        return this .lines.size;
+    }
+
+    @Override
+    public int getLineVerticesVBO() { return this .lineBuffers .getId( LINE_VERTICES ); }
+
+    @Override
+    public int getLineInstancesVBO() { return this .lineBuffers .getId( LINE_DATA ); }
+
+    @Override
+    public int getVerticesVBO() { return this .meshBuffers .getId( VERTICES ); }
+
+    @Override
+    public int getNormalsVBO() { return this .meshBuffers .getId( NORMALS ); }
+
+    @Override
+    public int getInstancesVBO() { return this .meshBuffers .getId( DATA ); }
+
+    @Override
+    public int getColorsVBO() { return this .meshBuffers .getId( COLORS ); }
+
+    @Override
+    public FloatBuffer getLineVerticesBuffer()
+    {
+        return this .lineBuffers .getBuffer( LINE_VERTICES );
+    }
+
+    @Override
+    public FloatBuffer getLineInstancesBuffer()
+    {
+        return this .lineBuffers .getBuffer( LINE_DATA );
+    }
+
+    @Override
+    public FloatBuffer getVerticesBuffer()
+    {
+        return this .meshBuffers .getBuffer( VERTICES );
+    }
+
+    @Override
+    public FloatBuffer getNormalsBuffer()
+    {
+        return this .meshBuffers .getBuffer( NORMALS );
+    }
+
+    @Override
+    public FloatBuffer getInstancesBuffer()
+    {
+        return this .meshBuffers .getBuffer( DATA );
+    }
+
+    @Override
+    public FloatBuffer getColorsBuffer()
+    {
+        return this .meshBuffers .getBuffer( COLORS );
+    }
+
+    /**
+     * An immutable view of the merged mesh, as of one version, which the rendering thread
+     * can draw and pick while the editing thread goes on changing the panels.
+     * It shares the unchanged chunks of the meshes with the editing thread and other snapshots.
+     */
+    class Snapshot implements InstancedGeometry
+    {
+        private final long version;
+        private final int vertexCount, lineVertexCount, panelCount;
+        private final int dirtyStart, dirtyEnd, lineDirtyStart, lineDirtyEnd;
+        private final ChunkedArrays.Frozen meshArrays, lineArrays;
+
+        private Snapshot( long version )
+        {
+            Mesh mesh = PanelGeometry.this .mesh, lines = PanelGeometry.this .lines;
+            this .version = version;
+            this .vertexCount = mesh.size;
+            this .lineVertexCount = lines.size;
+            this .panelCount = PanelGeometry.this .panels .size();
+            this .dirtyStart = mesh.dirtyStart;
+            this .dirtyEnd = mesh.dirtyEnd;
+            this .lineDirtyStart = lines.dirtyStart;
+            this .lineDirtyEnd = lines.dirtyEnd;
+            this .meshArrays = mesh.arrays .freeze( mesh.size );
+            this .lineArrays = lines.arrays .freeze( lines.size );
+        }
+
+        void pick( ShapeAndInstances.Intersector intersector, float[] embedding )
+        {
+            PanelGeometry .pick( intersector, embedding, 1f / globalScale, this .meshArrays );
+        }
+
+        @Override
+        public int prepareToRender( BufferStorage storage )
+        {
+            meshBuffers .update( this .meshArrays, this .vertexCount, this .dirtyStart, this .dirtyEnd, this .version, storage );
+            lineBuffers .update( this .lineArrays, this .lineVertexCount, this .lineDirtyStart, this .lineDirtyEnd, this .version, storage );
+            return this .panelCount == 0? 0 : 1;
+        }
+
+        @Override
+        public boolean hasVertexData()
+        {
+            return true;
+        }
+
+        @Override
+        public int getVertexCount()
+        {
+            return this .vertexCount;
+        }
+
+        @Override
+        public int getLineVertexCount()
+        {
+            return this .lineVertexCount;
+        }
+
+        @Override
+        public int getLineVerticesVBO() { return PanelGeometry.this .getLineVerticesVBO(); }
+
+        @Override
+        public int getLineInstancesVBO() { return PanelGeometry.this .getLineInstancesVBO(); }
+
+        @Override
+        public int getVerticesVBO() { return PanelGeometry.this .getVerticesVBO(); }
+
+        @Override
+        public int getNormalsVBO() { return PanelGeometry.this .getNormalsVBO(); }
+
+        @Override
+        public int getInstancesVBO() { return PanelGeometry.this .getInstancesVBO(); }
+
+        @Override
+        public int getColorsVBO() { return PanelGeometry.this .getColorsVBO(); }
+
+        @Override
+        public FloatBuffer getLineVerticesBuffer() { return PanelGeometry.this .getLineVerticesBuffer(); }
+
+        @Override
+        public FloatBuffer getLineInstancesBuffer() { return PanelGeometry.this .getLineInstancesBuffer(); }
+
+        @Override
+        public FloatBuffer getVerticesBuffer() { return PanelGeometry.this .getVerticesBuffer(); }
+
+        @Override
+        public FloatBuffer getNormalsBuffer() { return PanelGeometry.this .getNormalsBuffer(); }
+
+        @Override
+        public FloatBuffer getInstancesBuffer() { return PanelGeometry.this .getInstancesBuffer(); }
+
+        @Override
+        public FloatBuffer getColorsBuffer() { return PanelGeometry.this .getColorsBuffer(); }
+    }
+}
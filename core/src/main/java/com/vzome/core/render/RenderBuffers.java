@@ -0,0 +1,83 @@
+package com.vzome.core.render;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import com.vzome.opengl.InstancedGeometry.BufferStorage;
+
+/**
+ * The direct buffers and buffer ids holding some parallel attribute arrays for OpenGL.
+ * Only the rendering thread touches these, bringing them up to date from one published
+ * version of the arrays at a time, so the editing thread never writes a buffer being drawn.
+ */
+class RenderBuffers
+{
+    private final int[] widths;
+
+    private final FloatBuffer[] buffers;
+
+    private final int[] ids;
+
+    // the versions last copied into the buffers, and last stored; versions start at 1
+    private long copiedVersion = -1, storedVersion = -1;
+
+    RenderBuffers( int... widths )
+    {
+        this .widths = widths;
+        this .buffers = new FloatBuffer[ widths.length ];
+        this .ids = new int[ widths.length ];
+        Arrays .fill( this .ids, -1 );
+    }
+
+    FloatBuffer getBuffer( int k )
+    {
+        return this .buffers[ k ];
+    }
+
+    int getId( int k )
+    {
+        return this .ids[ k ];
+    }
+
+    /**
+     * Bring the buffers up to date with one version of the arrays, and store them if storage is given.
+     * Only the elements from dirtyStart to dirtyEnd are copied and stored, when the buffers
+     * already hold the previous version; otherwise everything is.
+     * @param count the number of elements in use
+     * @param dirtyStart the first element that differs from the previous version
+     * @param dirtyEnd just past the last element that differs from the previous version
+     */
+    void update( ChunkedArrays.Frozen arrays, int count, int dirtyStart, int dirtyEnd, long version, BufferStorage storage )
+    {
+        if ( this .copiedVersion != version ) {
+            int capacity = this .buffers[ 0 ] == null? 0 : this .buffers[ 0 ] .capacity() / this .widths[ 0 ];
+            boolean whole = this .copiedVersion != version - 1;
+            if ( count > capacity ) {
+                int newCapacity = Math .max( count, Math .max( 16, 2 * capacity ) );
+                for ( int k = 0; k < this .widths.length; k++ )
+                    this .buffers[ k ] = ByteBuffer.allocateDirect( newCapacity * this .widths[ k ] * 4 ) .order(ByteOrder.nativeOrder()) .asFloatBuffer();
+                whole = true;
+                this .storedVersion = -1; // the new buffers must be stored whole
+            }
+            int start = whole? 0 : dirtyStart;
+            int end = whole? count : Math .min( dirtyEnd, count );
+            if ( start < end )
+                for ( int k = 0; k < this .widths.length; k++ )
+                    arrays .copyTo( this .buffers[ k ], k, start, end );
+            this .copiedVersion = version;
+        }
+        if ( storage == null || this .storedVersion == version || this .buffers[ 0 ] == null )
+            return;
+        int end = Math .min( dirtyEnd, count );
+        for ( int k = 0; k < this .widths.length; k++ ) {
+            int width = this .widths[ k ];
+            if ( this .storedVersion != version - 1 || this .ids[ k ] == -1 )
+                this .ids[ k ] = storage .storeBuffer( this .buffers[ k ], this .ids[ k ] );
+            else if ( dirtyStart < end )
+                this .ids[ k ] = storage .storeBufferRange( this .buffers[ k ], this .ids[ k ], dirtyStart * width, ( end - dirtyStart ) * width );
+        }
+        this .storedVersion = version;
+    }
+}
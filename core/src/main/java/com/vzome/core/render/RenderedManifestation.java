@@ -197,7 +197,7 @@ public class RenderedManifestation implements RenderedObject
     public RealVector getLocation()
     {
         if ( this .location != null )
-            return getEmbedding() .embedInR3( this .location );
+            return this .location .toRealVector( getEmbedding() );
         else
             return new RealVector( 0d, 0d, 0d );
     }
@@ -262,6 +262,15 @@ public class RenderedManifestation implements RenderedObject
         return true;
     }
 
+    /**
+     * A hash code consistent with equals(), which compares location and shape.
+     * hashCode() is based on the guid instead, so only identical objects collide.
+     */
+    int getShapeHash()
+    {
+        return ( this .fixedLocation == null )? 0 : this .fixedLocation .hashCode();
+    }
+
     public RenderedManifestation copy()
     {
         RenderedManifestation copy = new RenderedManifestation( null, this .orbitSource );
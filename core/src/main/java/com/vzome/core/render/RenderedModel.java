@@ -1,10 +1,15 @@
 package com.vzome.core.render;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -53,6 +58,28 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
 	private boolean enabled = true;
 
     private boolean colorPanels = true;
+
+    // The change journal, used by snapshot() to record only what changed since the last snapshot.
+    //  snapshotCopies maps each live RenderedManifestation to its copy in lastSnapshot.
+    //  Nothing is journaled until the first snapshot, since that one copies everything anyway.
+    private RenderedModel lastSnapshot = null;
+    private final Map<RenderedManifestation, RenderedManifestation> snapshotCopies = new IdentityHashMap<>();
+    private final Set<RenderedManifestation> changedSinceSnapshot = Collections .newSetFromMap( new IdentityHashMap<>() );
+    private final Set<RenderedManifestation> removedSinceSnapshot = Collections .newSetFromMap( new IdentityHashMap<>() );
+
+    // For a snapshot recorded as a delta, the snapshot it is based on, and the differences from it.
+    //  switchedFrom and switchedTo are parallel lists of the base copy and the new copy of each part
+    //  whose glow or color changed.  mRendered is filled in only when needed; see getRendered().
+    private RenderedModel base = null;
+    private List<RenderedManifestation> addedToBase, removedFromBase, switchedFrom, switchedTo;
+    private volatile boolean materialized = true;
+
+    // counts the changes to the rendered manifestations; see getVersion().
+    //  Only the editing thread changes it, but exporters read it on other threads.
+    private volatile long version = 0;
+
+    // built on the first getNearbyBall() query, then maintained as connectors come and go
+    private ConnectorIndex connectorIndex = null;
     
     private static final class SymmetryOrbitSource implements OrbitSource
     {
@@ -169,51 +196,126 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
     @Override
 	public void manifestationAdded( Manifestation m )
 	{
+	    RenderedManifestation rm = this .addRendered( m );
+	    if ( rm == null )
+	        return;
+	    if ( mainListener != null )
+	        mainListener .manifestationAdded( rm );
+        for (RenderingChanges listener : mListeners) {
+            listener .manifestationAdded( rm );
+        }
+	}
+
+    @Override
+    public void manifestationsAdded( Collection<Manifestation> ms )
+    {
+        List<RenderedManifestation> added = new ArrayList<>( ms .size() );
+        for ( Manifestation m : ms ) {
+            RenderedManifestation rm = this .addRendered( m );
+            if ( rm != null )
+                added .add( rm );
+        }
+        if ( added .isEmpty() )
+            return;
+        if ( mainListener != null )
+            mainListener .manifestationsAdded( added );
+        for (RenderingChanges listener : mListeners) {
+            listener .manifestationsAdded( added );
+        }
+    }
+
+    /**
+     * @return the new RenderedManifestation, or null if the listeners need not be told
+     */
+    private RenderedManifestation addRendered( Manifestation m )
+    {
         ManifestationImpl mi = (ManifestationImpl) m;
 		if ( ! this .enabled )
 		{
 		    mi .setRenderedObject( new RenderedManifestation( m, this .orbitSource ) );
-			return;
+			return null;
 		}
 		
 	    RenderedManifestation rm = render( m );
         Polyhedron poly = rm .getShape();
 	    if ( poly == null )
-	        return; // no direction for this strut
+	        return null; // no direction for this strut
 	    mi .setRenderedObject( rm );
         
 	    mRendered .add( rm );
 	    this .byID .put( rm .getGuid(), rm );
-	    if ( mainListener != null )
-	        mainListener .manifestationAdded( rm );
-        for (RenderingChanges listener : mListeners) {
-            listener .manifestationAdded( rm );
-        }
+	    this .journalChanged( rm );
+	    ++ this .version;
+	    if ( this .connectorIndex != null && m instanceof Connector )
+	        this .connectorIndex .add( rm );
+	    return rm;
 	}
 	
     @Override
 	public void manifestationRemoved( Manifestation m )
 	{
-        ManifestationImpl mi = (ManifestationImpl) m;
-		if ( ! this .enabled ) {
-			mi .setRenderedObject( null );
-			return;
-		}
-		
-	    RenderedManifestation rendered = (RenderedManifestation) ((HasRenderedObject) m) .getRenderedObject();
+	    RenderedManifestation rendered = this .getRenderedToRemove( m );
 	    if ( rendered == null )
-	        return; // there was no way to render the shape
+	        return;
 	    
 	    for (RenderingChanges listener : mListeners) {
             listener .manifestationRemoved( rendered );
         }
 	    if ( mainListener != null )
             mainListener .manifestationRemoved( rendered );
+	    this .removeRendered( m, rendered );
+	}
+
+    @Override
+    public void manifestationsRemoved( Collection<Manifestation> ms )
+    {
+        List<Manifestation> removed = new ArrayList<>( ms .size() );
+        List<RenderedManifestation> rendered = new ArrayList<>( ms .size() );
+        for ( Manifestation m : ms ) {
+            RenderedManifestation rm = this .getRenderedToRemove( m );
+            if ( rm != null ) {
+                removed .add( m );
+                rendered .add( rm );
+            }
+        }
+        if ( rendered .isEmpty() )
+            return;
+        for (RenderingChanges listener : mListeners) {
+            listener .manifestationsRemoved( rendered );
+        }
+        if ( mainListener != null )
+            mainListener .manifestationsRemoved( rendered );
+        for ( int i = 0; i < rendered .size(); i++ )
+            this .removeRendered( removed .get( i ), rendered .get( i ) );
+    }
+
+    /**
+     * @return the RenderedManifestation to remove, or null if the listeners need not be told
+     */
+    private RenderedManifestation getRenderedToRemove( Manifestation m )
+    {
+		if ( ! this .enabled ) {
+			((ManifestationImpl) m) .setRenderedObject( null );
+			return null;
+		}
+	    // null if there was no way to render the shape
+	    return (RenderedManifestation) ((HasRenderedObject) m) .getRenderedObject();
+    }
+
+    private void removeRendered( Manifestation m, RenderedManifestation rendered )
+    {
 	    if ( ! mRendered .remove( rendered ) )
 	        throw new IllegalStateException( "unable to remove RenderedManifestation" );
 	    
         this .byID .remove( rendered .getGuid() );
-        mi .setRenderedObject( null );
+        if ( this .connectorIndex != null )
+            this .connectorIndex .remove( rendered );
+        ((ManifestationImpl) m) .setRenderedObject( null );
+        if ( this .lastSnapshot != null ) {
+            this .changedSinceSnapshot .remove( rendered );
+            this .removedSinceSnapshot .add( rendered );
+        }
+        ++ this .version;
 	}
     
     public RenderedManifestation getRenderedManifestation( String guid )
@@ -227,6 +329,8 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
         if ( rendered == null )
             return; // could not find a shape for m, probably
         rendered .setGlow( on? mSelectionGlow : 0f );
+        this .journalChanged( rendered );
+        ++ this .version;
         if ( mainListener != null )
             mainListener .glowChanged( rendered );
         for (RenderingChanges listener : mListeners) {
@@ -241,6 +345,8 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
         if ( rendered == null )
             return; // could not find a shape for m, probably
         rendered .setColor( color );
+        this .journalChanged( rendered );
+        ++ this .version;
         if ( mainListener != null )
             mainListener .colorChanged( rendered );
         for (RenderingChanges listener : mListeners) {
@@ -255,6 +361,8 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
         if ( rendered == null )
             return; // could not find a shape for m, probably
         rendered .setTransparency( on? mSelectionGlow : 0f );
+        this .journalChanged( rendered );
+        ++ this .version;
         if ( mainListener != null )
             mainListener .colorChanged( rendered );
         for (RenderingChanges listener : mListeners) {
@@ -266,9 +374,18 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
     @JsonValue
 	public Iterator<RenderedManifestation> iterator()
 	{
-	    return mRendered .iterator();
+	    return this .getRendered() .iterator();
 	}
 
+    /**
+     * @return a number that changes whenever the rendered manifestations do,
+     * so a consumer can tell whether work derived from this model is still current
+     */
+    public long getVersion()
+    {
+        return this .version;
+    }
+
 	public OrbitSource getOrbitSource()
 	{
 	    return this .orbitSource;
@@ -278,6 +395,8 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
 
     public void setShapes( Shapes shapes )
     {
+        this .resetJournal(); // the listener may swap the shape of every RenderedManifestation
+        ++ this .version;
         boolean supported = this .mainListener .shapesChanged( shapes );
         if ( ! supported )
             // Oddity: this assumes that the orbitSource has already been updated
@@ -288,6 +407,9 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
 	{
         this .orbitSource = orbitSource;
         this .enabled = true;
+        this .resetJournal(); // every RenderedManifestation may change, so the next snapshot is a full copy
+        ++ this .version;
+        this .connectorIndex = null; // the embedding may have changed
 
         mPolyhedra = orbitSource .getShapes();        
         if ( mPolyhedra == null )
@@ -352,80 +474,204 @@ public class RenderedModel implements ManifestationChanges, Iterable<RenderedMan
 			this .setManifestationColor( m, color );
     }
 
+    /**
+     * Record the current rendering, for a lesson page.
+     * The first snapshot copies every RenderedManifestation.  Later snapshots record only
+     * the differences from the previous one, sharing the copies that did not change,
+     * so renderChange() between successive snapshots costs only as much as those differences.
+     */
     public RenderedModel snapshot()
     {
         RenderedModel snapshot = new RenderedModel( this .orbitSource .getSymmetry(), false );
-        for (RenderedManifestation rm : mRendered) {
-            RenderedManifestation copy = rm .copy();
-            snapshot .mRendered .add( copy );
+        if ( this .lastSnapshot == null ) {
+            for (RenderedManifestation rm : mRendered) {
+                RenderedManifestation copy = rm .copy();
+                snapshot .mRendered .add( copy );
+                this .snapshotCopies .put( rm, copy );
+            }
         }
+        else {
+            snapshot .base = this .lastSnapshot;
+            snapshot .addedToBase = new ArrayList<>( this .changedSinceSnapshot .size() );
+            snapshot .removedFromBase = new ArrayList<>( this .removedSinceSnapshot .size() );
+            snapshot .switchedFrom = new ArrayList<>();
+            snapshot .switchedTo = new ArrayList<>();
+            snapshot .materialized = false;
+            for ( RenderedManifestation rm : this .removedSinceSnapshot ) {
+                RenderedManifestation oldCopy = this .snapshotCopies .remove( rm );
+                if ( oldCopy != null )
+                    snapshot .removedFromBase .add( oldCopy );
+            }
+            for ( RenderedManifestation rm : this .changedSinceSnapshot ) {
+                RenderedManifestation copy = rm .copy();
+                RenderedManifestation oldCopy = this .snapshotCopies .put( rm, copy );
+                if ( oldCopy != null ) {
+                    // the same part, with a new glow or color
+                    snapshot .switchedFrom .add( oldCopy );
+                    snapshot .switchedTo .add( copy );
+                }
+                else
+                    snapshot .addedToBase .add( copy );
+            }
+        }
+        this .lastSnapshot = snapshot;
+        this .changedSinceSnapshot .clear();
+        this .removedSinceSnapshot .clear();
         return snapshot;
     }
-    
+
+    private void journalChanged( RenderedManifestation rm )
+    {
+        if ( this .lastSnapshot != null )
+            this .changedSinceSnapshot .add( rm );
+    }
+
+    private void resetJournal()
+    {
+        this .lastSnapshot = null;
+        this .snapshotCopies .clear();
+        this .changedSinceSnapshot .clear();
+        this .removedSinceSnapshot .clear();
+    }
+
+    /**
+     * Returns the full set of RenderedManifestations, applying the chain of
+     * snapshot differences first, if this is a snapshot that has not needed it yet.
+     */
+    private synchronized HashSet<RenderedManifestation> getRendered()
+    {
+        if ( ! this .materialized ) {
+            List<RenderedModel> chain = new ArrayList<>();
+            RenderedModel full = this;
+            while ( ! full .materialized ) {
+                chain .add( full );
+                full = full .base;
+            }
+            mRendered .addAll( full .mRendered );
+            for ( int i = chain .size() - 1; i >= 0; i-- ) {
+                RenderedModel delta = chain .get( i );
+                mRendered .removeAll( delta .removedFromBase );
+                mRendered .removeAll( delta .switchedFrom );
+                mRendered .addAll( delta .addedToBase );
+                mRendered .addAll( delta .switchedTo );
+            }
+            this .materialized = true;
+        }
+        return mRendered;
+    }
+
     /**
      * Switch a scene graph (changes) from rendering one RenderedModel to another one.
      * For RenderedManifestations that show the same object in both, just update the
      * attributes.
      * When "from" is empty, this is the initial rendering of the "to" RenderedModel.
+     * When one is a snapshot recorded just after the other, only their differences are rendered.
      * @param from is an empty RenderedModel in some cases
      * @param to
      * @param changes is a scene graph
      */
     public static void renderChange( RenderedModel from, RenderedModel to, RenderingChanges changes )
     {
-        // TODO: Does clone() perform any better than new HashSet(), or is there any other reason to keep it?
-//        Set<RenderedManifestation> toRemove = (Set<RenderedManifestation>) from .mRendered .clone();
-        HashSet<RenderedManifestation> toRemove = new HashSet<>(from.mRendered);
-        toRemove .removeAll( to .mRendered );
-        for ( RenderedManifestation rm : toRemove ) {
-            changes .manifestationRemoved( rm );
+        if ( to .base == from ) {
+            for ( RenderedManifestation rm : to .removedFromBase ) {
+                changes .manifestationRemoved( rm );
+            }
+            for ( RenderedManifestation rm : to .addedToBase ) {
+                changes .manifestationAdded( rm );
+            }
+            for ( int i = 0; i < to .switchedTo .size(); i++ ) {
+                switchManifestation( to .switchedFrom .get( i ), to .switchedTo .get( i ), changes );
+            }
+            return;
         }
-        // TODO: Does clone() perform any better than new HashSet(), or is there any other reason to keep it?
-//        Set<RenderedManifestation> toAdd = (Set<RenderedManifestation>) to .mRendered .clone();
-        HashSet<RenderedManifestation> toAdd = new HashSet<>(to.mRendered);
-        toAdd .removeAll( from .mRendered );
-        for ( RenderedManifestation rm : toAdd ) {
-            changes .manifestationAdded( rm );
+        if ( from .base == to ) {
+            for ( RenderedManifestation rm : from .addedToBase ) {
+                changes .manifestationRemoved( rm );
+            }
+            for ( RenderedManifestation rm : from .removedFromBase ) {
+                changes .manifestationAdded( rm );
+            }
+            for ( int i = 0; i < from .switchedTo .size(); i++ ) {
+                switchManifestation( from .switchedTo .get( i ), from .switchedFrom .get( i ), changes );
+            }
+            return;
         }
-        for ( RenderedManifestation fromRm : from .mRendered ) {
-            for ( RenderedManifestation toRm : to .mRendered ) {
+
+        HashSet<RenderedManifestation> fromRendered = from .getRendered();
+        HashSet<RenderedManifestation> toRendered = to .getRendered();
+        for ( RenderedManifestation rm : fromRendered ) {
+            if ( ! toRendered .contains( rm ) )
+                changes .manifestationRemoved( rm );
+        }
+        // Group "to" by a hash consistent with equals(), to find the matches for each in "from"
+        //  without comparing every pair.
+        HashMap<Integer, List<RenderedManifestation>> toByShape = new HashMap<>();
+        for ( RenderedManifestation rm : toRendered ) {
+            if ( ! fromRendered .contains( rm ) )
+                changes .manifestationAdded( rm );
+            toByShape .computeIfAbsent( rm .getShapeHash(), hash -> new ArrayList<>( 1 ) ) .add( rm );
+        }
+        for ( RenderedManifestation fromRm : fromRendered ) {
+            List<RenderedManifestation> candidates = toByShape .get( fromRm .getShapeHash() );
+            if ( candidates == null )
+                continue;
+            for ( RenderedManifestation toRm : candidates ) {
                 if ( fromRm .equals( toRm ) )
-                {
-                    // This part is fragile.  The next call relies on the fact that "changes"
-                    //   is the only sticky RenderingChanges that ever touches these RMs,
-                    //   or picking will break.
-                    changes .manifestationSwitched( fromRm, toRm );
-                    if ( Float.floatToIntBits( fromRm .getGlow() ) != Float .floatToIntBits( toRm .getGlow() ) )
-                        changes .glowChanged( toRm );
-                    Color fromColor = fromRm .getColor();
-                    Color toColor = toRm .getColor();
-                    if ( fromColor == null && toColor == null )
-                    	continue;
-                    if ( ( fromColor == null && toColor != null )
-                      || ( fromColor != null && toColor == null )
-                      || ! fromColor .equals( toColor ) )
-                        changes .colorChanged( toRm );
-                }
+                    switchManifestation( fromRm, toRm, changes );
             }
         }
     }
 
+    private static void switchManifestation( RenderedManifestation fromRm, RenderedManifestation toRm, RenderingChanges changes )
+    {
+        // This part is fragile.  The next call relies on the fact that "changes"
+        //   is the only sticky RenderingChanges that ever touches these RMs,
+        //   or picking will break.
+        changes .manifestationSwitched( fromRm, toRm );
+        if ( Float.floatToIntBits( fromRm .getGlow() ) != Float .floatToIntBits( toRm .getGlow() ) )
+            changes .glowChanged( toRm );
+        Color fromColor = fromRm .getColor();
+        Color toColor = toRm .getColor();
+        if ( ( fromColor == null && toColor != null )
+          || ( fromColor != null && ! fromColor .equals( toColor ) )
+          || Float.floatToIntBits( fromRm .getTransparency() ) != Float .floatToIntBits( toRm .getTransparency() ) )
+            changes .colorChanged( toRm );
+    }
+
 	public RealVector renderVector( AlgebraicVector av )
 	{
 		if ( av != null )
-			return getEmbedding() .embedInR3( av );
+			return av .toRealVector( getEmbedding() );
 		else
             return new RealVector( 0d, 0d, 0d );
 	}
 
+    /**
+     * @return the embedded vector, which may be cached on av, so it must not be modified
+     */
     public double[] renderVectorDouble( AlgebraicVector av )
     {
         if ( av != null )
-            return getEmbedding() .embedInR3Double( av );
+            return av .to3dDoubleVector( getEmbedding() );
         else
             return new double[] { 0d, 0d, 0d };
     }
 
+    /**
+     * @return the embedded vectors packed as consecutive x, y, z triples
+     */
+    public double[] renderVectorsDouble( Collection<AlgebraicVector> vectors )
+    {
+        Embedding embedding = getEmbedding();
+        double[] result = new double[ 3 * vectors .size() ];
+        int i = 0;
+        for ( AlgebraicVector av : vectors ) {
+            System .arraycopy( av .to3dDoubleVector( embedding ), 0, result, i, 3 );
+            i += 3;
+        }
+        return result;
+    }
+
 	public Embedding getEmbedding()
 	{
 		return this .orbitSource .getSymmetry();
@@ -483,21 +729,39 @@ vZome VEF 6 field heptagon
         return Math.acos( cosine );
     }
 
+    /**
+     * @return the ball nearest to location, if it is closer than tolerance, or null
+     */
     public RenderedManifestation getNearbyBall( RealVector location, double tolerance )
     {
-        for ( RenderedManifestation rm : this .mRendered ) {
-            if ( rm .getManifestation() instanceof Connector ) {
-                RealVector ballLoc = rm .getLocation();
-                double distance = ballLoc .minus( location ) .length();
-                if ( distance < tolerance )
-                    return rm;
-            }
+        return this .getConnectorIndex( tolerance ) .nearest( location, tolerance );
+    }
+
+    /**
+     * @return all the balls closer than radius to location, in no particular order
+     */
+    public List<RenderedManifestation> getNearbyBalls( RealVector location, double radius )
+    {
+        return this .getConnectorIndex( radius ) .within( location, radius );
+    }
+
+    /**
+     * @param cellSize is used only if the index must be built, sized for the queries expected
+     */
+    private ConnectorIndex getConnectorIndex( double cellSize )
+    {
+        if ( this .connectorIndex == null ) {
+            ConnectorIndex index = new ConnectorIndex( cellSize );
+            for ( RenderedManifestation rm : this .getRendered() )
+                if ( rm .getManifestation() instanceof Connector )
+                    index .add( rm );
+            this .connectorIndex = index;
         }
-        return null;
+        return this .connectorIndex;
     }
 
     public Iterable<Manifestation> getManifestations()
     {
-        return this .mRendered .stream() .map( rm -> rm .getManifestation() ) .collect( Collectors .toList() );
+        return this .getRendered() .stream() .map( rm -> rm .getManifestation() ) .collect( Collectors .toList() );
     }
 }
@@ -3,6 +3,8 @@
  */
 package com.vzome.core.render;
 
+import java.util.Collection;
+
 import com.vzome.core.editor.api.Shapes;
 
 public interface RenderingChanges {
@@ -13,6 +15,22 @@ public interface RenderingChanges {
 
     void manifestationRemoved( RenderedManifestation manifestation );
 
+    /**
+     * All the manifestations added by one batch of changes, so that
+     * geometry can be rebuilt once rather than once per manifestation.
+     */
+    default void manifestationsAdded( Collection<RenderedManifestation> manifestations )
+    {
+        for ( RenderedManifestation manifestation : manifestations )
+            this .manifestationAdded( manifestation );
+    }
+
+    default void manifestationsRemoved( Collection<RenderedManifestation> manifestations )
+    {
+        for ( RenderedManifestation manifestation : manifestations )
+            this .manifestationRemoved( manifestation );
+    }
+
     /**
      * Given two RMs that both render the same underlying Manifestation,
      * switch the associated graphics object's userData.
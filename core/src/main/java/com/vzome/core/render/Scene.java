@@ -3,9 +3,13 @@ package com.vzome.core.render;
 
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
-import java.util.ConcurrentModificationException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -14,10 +18,16 @@ import com.vzome.core.editor.api.Shapes;
 import com.vzome.core.viewing.Lights;
 import com.vzome.opengl.Renderer;
 
+/**
+ * The rendered model, as drawn by OpenGL.
+ * Edits may arrive on any thread, and are serialized on this Scene.  Each edit publishes
+ * an immutable Frame, which the rendering thread picks up and draws without locking,
+ * so it always draws a consistent model, never one in the middle of an edit.
+ */
 public class Scene implements RenderingChanges, PropertyChangeListener
 {
     private static final Logger LOGGER = Logger.getLogger( new Throwable().getStackTrace()[0].getClassName() );
-    
+
     public interface Provider
     {
         Scene getScene();
@@ -26,9 +36,35 @@ public class Scene implements RenderingChanges, PropertyChangeListener
     private Color bkgdColor;
     private final Map<String, SymmetryRendering> symmetries = new HashMap<>();
     private final Lights lights;
-    private int forceRender = 3; // double-buffering means we cannot simply use a boolean
     private boolean drawOutlines;
 
+    /**
+     * Everything drawn by render(), as of one edit.
+     */
+    private static final class Frame
+    {
+        private final Color background;
+        private final boolean drawOutlines;
+        private final List<SymmetryFrame> symmetries;
+
+        Frame( Color background, boolean drawOutlines, List<SymmetryFrame> symmetries )
+        {
+            this .background = background;
+            this .drawOutlines = drawOutlines;
+            this .symmetries = symmetries;
+        }
+    }
+
+    // written only by publish(), and read without locking by render() and pick()
+    private volatile Frame frame;
+
+    // touched only by the rendering thread
+    private Frame drawnFrame;
+    private int forceRender = 3; // double-buffering means we cannot simply use a boolean
+
+    private final AtomicLong publishes = new AtomicLong();
+    private final AtomicLong framesDrawn = new AtomicLong();
+
     private static final float MODEL_SCALE_FACTOR = 2f; // this seems to align with the way Java3d rendering came out
 
     private final int maxOrientations;
@@ -38,9 +74,10 @@ public class Scene implements RenderingChanges, PropertyChangeListener
         this .maxOrientations = maxOrientations;
         this .lights = lights;
         this .bkgdColor = lights .getBackgroundColor();
-        
+
         this .drawOutlines = drawOutlines;
-        
+        this .publish();
+
         lights .addPropertyListener( new PropertyChangeListener(){
 
             @Override
@@ -49,138 +86,206 @@ public class Scene implements RenderingChanges, PropertyChangeListener
                 if ( "backgroundColor" .equals( chg .getPropertyName() ) )
                 {
                     int rgb =  Integer .parseInt( (String) chg .getNewValue(), 16 );
-                    bkgdColor = new Color( rgb );
-                    forceRender();
+                    synchronized ( Scene.this ) {
+                        bkgdColor = new Color( rgb );
+                        publish();
+                    }
                 }
             }
         });
 	}
-    
+
     public Lights getLighting()
     {
         return this .lights;
     }
 
+    /**
+     * Draw the latest published frame, unless it has been drawn enough already.
+     * This never waits for an edit in progress.
+     */
     public void render( Renderer solids, Renderer outlines, boolean viewChanged )
     {
-        if ( viewChanged )
-            this .forceRender();
+        Frame frame = this .frame;
+        if ( viewChanged || frame != this .drawnFrame ) {
+            this .drawnFrame = frame;
+            this .forceRender = 3;  // 2 should suffice, but we do get flicker
+        }
 
         if ( this .forceRender > 0 ) {
             float[] rgba = new float[4];
-            this .bkgdColor .getRGBColorComponents( rgba );
+            frame .background .getRGBColorComponents( rgba );
             solids .clear( rgba );
             outlines .clear( rgba ); // should not really clear
 
-            try {
-                for (SymmetryRendering symmetry : this.symmetries.values()) {
-                    // Just render them all; no harm in mixing, and little cost for empty ones
-                    solids.renderSymmetry(symmetry);
-                    if (this.drawOutlines)
-                        outlines.renderSymmetry(symmetry);
-                }
-                --this.forceRender;
-            } catch (ConcurrentModificationException ex) {
-                // Rather than synchronizing these collections, just bail out
-                // of the rendering loop if a ConcurrentModificationException happens.
-                // Subsequent renderings will resolve any visual defect.
-                this.forceRender();
-                if(LOGGER.isLoggable(Level.FINE)) {
-                    LOGGER.fine("Ignoring ConcurrentModificationException on thread: " + Thread.currentThread());
-                }
+            for ( SymmetryFrame symmetry : frame .symmetries ) {
+                // Just render them all; no harm in mixing, and little cost for empty ones
+                solids .renderSymmetry( symmetry );
+                if ( frame .drawOutlines )
+                    outlines .renderSymmetry( symmetry );
             }
+            --this .forceRender;
+            this .framesDrawn .incrementAndGet();
         }
     }
 
+    /**
+     * Snapshot every symmetry rendering, and make the result the frame to draw.
+     * Every edit ends with this, while holding the lock on this Scene.
+     */
+    private void publish()
+    {
+        List<SymmetryFrame> frames = new ArrayList<>( this .symmetries .size() );
+        for ( SymmetryRendering symmetryRendering : this .symmetries .values() )
+            frames .add( symmetryRendering .snapshot() );
+        this .frame = new Frame( this .bkgdColor, this .drawOutlines, Collections .unmodifiableList( frames ) );
+        long count = this .publishes .incrementAndGet();
+        if ( LOGGER .isLoggable( Level.FINEST ) )
+            LOGGER .finest( "published frame " + count + ", " + this .framesDrawn .get() + " frames drawn so far" );
+    }
+
+    /**
+     * @return the number of frames published by edits so far
+     */
+    public long getPublishCount()
+    {
+        return this .publishes .get();
+    }
+
+    /**
+     * @return the number of times render() has drawn a frame so far
+     */
+    public long getFramesDrawn()
+    {
+        return this .framesDrawn .get();
+    }
+
 	@Override
-	public void reset()
+	public synchronized void reset()
 	{
         for ( SymmetryRendering symmetryRendering : this .symmetries .values() ) {
             symmetryRendering .reset();
         }
-        this .forceRender();
+        this .publish();
 	}
 
 	@Override
-	public void manifestationAdded( RenderedManifestation rm )
+	public synchronized void manifestationAdded( RenderedManifestation rm )
 	{
+	    this .getSymmetryRendering( rm ) .manifestationAdded( rm );
+        this .publish();
+	}
+
+    @Override
+    public synchronized void manifestationsAdded( Collection<RenderedManifestation> rms )
+    {
+        Map<SymmetryRendering, List<RenderedManifestation>> bySymmetry = new HashMap<>();
+        for ( RenderedManifestation rm : rms ) {
+            SymmetryRendering symmetryRendering = this .getSymmetryRendering( rm );
+            List<RenderedManifestation> added = bySymmetry .get( symmetryRendering );
+            if ( added == null ) {
+                added = new ArrayList<>();
+                bySymmetry .put( symmetryRendering, added );
+            }
+            added .add( rm );
+        }
+        for ( Map.Entry<SymmetryRendering, List<RenderedManifestation>> entry : bySymmetry .entrySet() ) {
+            entry .getKey() .manifestationsAdded( entry .getValue() );
+        }
+        this .publish();
+    }
+
+    private SymmetryRendering getSymmetryRendering( RenderedManifestation rm )
+    {
 	    String symmetryName = rm .getOrbitSource() .getSymmetry() .getName();
 	    SymmetryRendering symmetryRendering = this .symmetries .get( symmetryName );
 	    if ( symmetryRendering == null ) {
 	        symmetryRendering = new SymmetryRendering( rm .getOrbitSource(), MODEL_SCALE_FACTOR );
 	        this .symmetries .put( symmetryName, symmetryRendering );
 	    }
-	    this .symmetries .get( symmetryName ) .manifestationAdded( rm );
-        this .forceRender();
-	}
+	    return symmetryRendering;
+    }
 
 	@Override
-	public void manifestationRemoved( RenderedManifestation rm )
+	public synchronized void manifestationRemoved( RenderedManifestation rm )
 	{
         for ( SymmetryRendering symmetryRendering : this .symmetries .values() ) {
             symmetryRendering .manifestationRemoved( rm ); // this will be a no-op in all but one
         }
-        this .forceRender();
+        this .publish();
+    }
+
+    @Override
+    public synchronized void manifestationsRemoved( Collection<RenderedManifestation> rms )
+    {
+        for ( SymmetryRendering symmetryRendering : this .symmetries .values() ) {
+            symmetryRendering .manifestationsRemoved( rms ); // each removes only its own
+        }
+        this .publish();
     }
 
     @Override
-    public boolean shapesChanged( Shapes shapes )
+    public synchronized boolean shapesChanged( Shapes shapes )
     {
         String symmetryName = shapes .getSymmetry() .getName();
         SymmetryRendering symmetryRendering = this .symmetries .get( symmetryName );
         boolean success = symmetryRendering .shapesChanged( shapes );
         if ( success )
-            this .forceRender();
+            this .publish();
         return success;
     }
 
 	@Override
-	public void manifestationSwitched( RenderedManifestation from, RenderedManifestation to )
+	public synchronized void manifestationSwitched( RenderedManifestation from, RenderedManifestation to )
 	{
-	}
+        for ( SymmetryRendering symmetryRendering : this .symmetries .values() ) {
+            symmetryRendering .manifestationSwitched( from, to ); // this will be a no-op in all but one
+        }
+        this .publish();
+    }
 
 	@Override
-	public void glowChanged( RenderedManifestation rm )
+	public synchronized void glowChanged( RenderedManifestation rm )
 	{
         String symmetryName = rm .getOrbitSource() .getSymmetry() .getName();
         this .symmetries .get( symmetryName ) .glowChanged( rm );
-        this .forceRender();
+        this .publish();
     }
 
 	@Override
-	public void colorChanged( RenderedManifestation rm )
+	public synchronized void colorChanged( RenderedManifestation rm )
 	{
         String symmetryName = rm .getOrbitSource() .getSymmetry() .getName();
         this .symmetries .get( symmetryName ) .colorChanged( rm );
-        this .forceRender();
+        this .publish();
     }
 
 	@Override
-	public void locationChanged( RenderedManifestation rm )
+	public synchronized void locationChanged( RenderedManifestation rm )
 	{
         String symmetryName = rm .getOrbitSource() .getSymmetry() .getName();
         this .symmetries .get( symmetryName ) .locationChanged( rm );
-        this .forceRender();
+        this .publish();
     }
 
 	@Override
-	public void orientationChanged( RenderedManifestation rm )
+	public synchronized void orientationChanged( RenderedManifestation rm )
 	{
         String symmetryName = rm .getOrbitSource() .getSymmetry() .getName();
         this .symmetries .get( symmetryName ) .orientationChanged( rm );
-        this .forceRender();
+        this .publish();
     }
 
 	@Override
-	public void shapeChanged( RenderedManifestation rm )
+	public synchronized void shapeChanged( RenderedManifestation rm )
 	{
         String symmetryName = rm .getOrbitSource() .getSymmetry() .getName();
         this .symmetries .get( symmetryName ) .shapeChanged( rm );
-        this .forceRender();
+        this .publish();
     }
 
     @Override
-    public void propertyChange( PropertyChangeEvent evt )
+    public synchronized void propertyChange( PropertyChangeEvent evt )
     {
         switch ( evt .getPropertyName() ) {
 
@@ -189,7 +294,7 @@ public class Scene implements RenderingChanges, PropertyChangeListener
 
         case "drawOutlines":
             drawOutlines = (Boolean) evt .getNewValue();
-            this .forceRender();
+            this .publish();
             break;
 
         case "showFrameLabels":
@@ -203,15 +308,13 @@ public class Scene implements RenderingChanges, PropertyChangeListener
         }
     }
 
-    private void forceRender()
-    {
-        this .forceRender = 3;  // 2 should suffice, but we do get flicker
-    }
-
+    /**
+     * Pick among the parts of the latest published frame, without waiting for an edit in progress.
+     */
     public void pick( ShapeAndInstances.Intersector intersector )
     {
-        for ( SymmetryRendering symmetryRendering : this .symmetries .values() )
-            symmetryRendering .pick( intersector ); // this will be a no-op in all but one
+        for ( SymmetryFrame symmetry : this .frame .symmetries )
+            symmetry .pick( intersector ); // this will be a no-op in all but one
     }
 
     public int getMaxOrientations()
@@ -5,10 +5,13 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.IntFunction;
 
 import com.vzome.core.algebra.AlgebraicVector;
 import com.vzome.core.construction.Color;
@@ -26,24 +29,81 @@ public class ShapeAndInstances implements InstancedGeometry
         void intersectTriangle( float[] verticesArray, int i, RenderedManifestation rm, float scale, float[] embedding );
         
         void intersectTriangle( float[] verticesArray, int i, RenderedManifestation rm, float scale, float[] embedding, float[] orientation, float[] location );
+
+        /**
+         * Lets pick() skip the triangles of any instance that cannot possibly be hit.
+         * @param center the embedded location of an instance
+         * @param radius bounds the embedded instance geometry around center
+         * @return false only if nothing within radius of center can be intersected
+         */
+        default boolean intersectsSphere( float[] center, float radius )
+        {
+            return true;
+        }
     }
 
-    private FloatBuffer verticesBuffer, normalsBuffer, lineVerticesBuffer, positionsBuffer, colorsBuffer;
-    int lineVerticesVBO = -1, verticesVBO = -1, normalsVBO = -1, positionsVBO = -1, colorsVBO = -1;
+    private FloatBuffer verticesBuffer, normalsBuffer, lineVerticesBuffer;
     private int vertexCount, lineVertexCount;
     private final float globalScale;
     private final Polyhedron shape;
     
     private final float[] verticesArray; // used for panel picking
     
-    private boolean hasChanges;
+    // the range of slots whose instance data must be rewritten and published, empty when dirtyStart >= dirtyEnd
+    private int dirtyStart = 0, dirtyEnd = 0;
+
+    // the slots changed one at a time since the last snapshot, for updating the pick index;
+    //  null when so many changed that the index should be built again
+    private int[] changedSlots = new int[ 16 ];
+    private int changedCount = 0;
+
+    // the instance data, colors and instance of every slot, written only by the editing thread,
+    //  and shared with the published snapshots until a slot is written again
+    private final ChunkedArrays instanceData = new ChunkedArrays( FLOATS_PER_INSTANCE, FLOATS_PER_INSTANCE );
+
+    // the latest snapshot published for rendering, and its version
+    private Snapshot published;
+    private long version = 0;
+
+    // these are touched only by the rendering thread
+    private int lineVerticesVBO = -1, verticesVBO = -1, normalsVBO = -1;
+    private final RenderBuffers instanceBuffers = new RenderBuffers( FLOATS_PER_INSTANCE, FLOATS_PER_INSTANCE );
+
+    // temporary storage, reused for every instance
+    private final float[] data = new float[4], rgba = new float[4];
+
+    // bounding radii of the embedded shape, indexed by strut zone, or just one for a ball; computed on demand
+    private float[] boundingRadii;
+    private float[] boundingEmbedding;
+
+    // temporary storage, reset and reused during pick()
+    private final float[] pickLocation = new float[3];
+    private final float[] pickCenter = new float[3];
+
+    // the index of instance bounding spheres for picking snapshots, and the snapshot, orientations and embedding
+    //  it is current with; these and the temporary storage above are touched only while holding pickTree
+    private final SphereTree pickTree = new SphereTree();
+    private Snapshot pickTreeSnapshot;
+    private float[][] pickTreeOrientations;
+    private float[] pickTreeEmbedding;
+
+    // the most snapshots that pick() will step through to update the index, and the most changed slots
+    //  a snapshot will list for it, rather than building it again
+    private static final int MAX_PICK_STEPS = 16;
+    private static final int MAX_CHANGED_SLOTS = 1024;
     
-    // Must use a Set here, or the performance is awful.  However, RM.hashCode()
+    // Must use a Map here, or the performance is awful.  However, RM.hashCode()
     //   must use a GUID, or else the preview strut removal eats real struts.
-    private Collection<RenderedManifestation> instances = new HashSet<>();
+    // Each instance owns one slot in the instance buffers, and the slots in use
+    //   are always 0 .. size-1, so the buffers can be drawn without gaps.
+    private final Map<RenderedManifestation, Integer> slots = new HashMap<>();
+
+    private RenderedManifestation[] slotInstances = new RenderedManifestation[0];
 
     public static final int COORDS_PER_VERTEX = 3;
 
+    public static final int FLOATS_PER_INSTANCE = 4;
+
     public ShapeAndInstances( Polyhedron shape, float globalScale )
     {
         this .shape = shape;
@@ -56,43 +116,7 @@ public class ShapeAndInstances implements InstancedGeometry
         List<RealVector> vertices = new ArrayList<>();
         List<RealVector> normals = new ArrayList<>();
         List<RealVector> lineVertices = new ArrayList<>();
-        List<AlgebraicVector> vertexList = shape .getVertexList();
-        Set<Polyhedron.Face> faces = shape .getFaceSet();
-        for ( Polyhedron.Face face : faces ) {
-            int count = face.size();
-            AlgebraicVector vertex = vertexList .get( face .getVertex(0) );
-            RealVector rv0 = vertex .toRealVector();
-            vertex = vertexList.get( face .getVertex(1) );
-            RealVector rv1 = vertex .toRealVector();
-            vertex = vertexList.get( face .getVertex(2) );
-            RealVector rvLast = vertex .toRealVector();
-            RealVector normal = rv0.minus(rv1) .cross( rvLast.minus(rv0) ) .normalize();
-            vertices .add( rv0 );
-            normals .add( normal );
-            vertices .add( rv1 );
-            normals .add( normal );
-            vertices .add( rvLast );
-            normals .add( normal );
-            lineVertices .add( rv0 );
-            lineVertices .add( rv1 );
-            lineVertices .add( rv1 );
-            lineVertices .add( rvLast );
-            for (int i = 3; i < count; i++) {
-                vertex = vertexList .get( face .getVertex(i) );
-                RealVector rv = vertex .toRealVector();
-                vertices .add( rv0 );
-                vertices .add( rvLast );
-                vertices .add( rv );
-                normals .add( normal );
-                normals .add( normal );
-                normals .add( normal );
-                lineVertices .add( rvLast );
-                lineVertices .add( rv );
-                rvLast = rv;
-            }
-            lineVertices .add( rvLast );
-            lineVertices .add( rv0 );
-        }
+        triangulate( shape, vertices, normals, lineVertices );
 
         this .vertexCount = vertices .size();
         this .verticesArray = new float[ ShapeAndInstances.COORDS_PER_VERTEX * this .vertexCount ]; // we'll use this later for panel picking
@@ -132,10 +156,55 @@ public class ShapeAndInstances implements InstancedGeometry
         this .lineVerticesBuffer .position(0);
     }
 
+    /**
+     * Triangulate every face of shape as a fan, with a flat normal per face,
+     * and list the vertex pairs of the face outlines.
+     */
+    static void triangulate( Polyhedron shape, List<RealVector> vertices, List<RealVector> normals, List<RealVector> lineVertices )
+    {
+        List<AlgebraicVector> vertexList = shape .getVertexList();
+        Set<Polyhedron.Face> faces = shape .getFaceSet();
+        for ( Polyhedron.Face face : faces ) {
+            int count = face.size();
+            AlgebraicVector vertex = vertexList .get( face .getVertex(0) );
+            RealVector rv0 = vertex .toRealVector();
+            vertex = vertexList.get( face .getVertex(1) );
+            RealVector rv1 = vertex .toRealVector();
+            vertex = vertexList.get( face .getVertex(2) );
+            RealVector rvLast = vertex .toRealVector();
+            RealVector normal = rv0.minus(rv1) .cross( rvLast.minus(rv0) ) .normalize();
+            vertices .add( rv0 );
+            normals .add( normal );
+            vertices .add( rv1 );
+            normals .add( normal );
+            vertices .add( rvLast );
+            normals .add( normal );
+            lineVertices .add( rv0 );
+            lineVertices .add( rv1 );
+            lineVertices .add( rv1 );
+            lineVertices .add( rvLast );
+            for (int i = 3; i < count; i++) {
+                vertex = vertexList .get( face .getVertex(i) );
+                RealVector rv = vertex .toRealVector();
+                vertices .add( rv0 );
+                vertices .add( rvLast );
+                vertices .add( rv );
+                normals .add( normal );
+                normals .add( normal );
+                normals .add( normal );
+                lineVertices .add( rvLast );
+                lineVertices .add( rv );
+                rvLast = rv;
+            }
+            lineVertices .add( rvLast );
+            lineVertices .add( rv0 );
+        }
+    }
+
     public ShapeAndInstances( Polyhedron shape, Collection<RenderedManifestation> instances, float globalScale )
     {
         this( shape, globalScale );
-        this .instances .addAll( instances );  // we are changing shapes
+        this .addInstances( instances );  // we are changing shapes
     }
 
     protected Polyhedron getShape()
@@ -165,140 +234,394 @@ public class ShapeAndInstances implements InstancedGeometry
     public int getNormalsVBO() { return this .normalsVBO; }
 
     @Override
-    public int getInstancesVBO() { return this .positionsVBO; }
+    public int getInstancesVBO() { return this .instanceBuffers .getId( 0 ); }
 
     @Override
-    public int getColorsVBO() {  return this .colorsVBO;  }
+    public int getColorsVBO() {  return this .instanceBuffers .getId( 1 );  }
 
+    /**
+     * Rewrite the instance data for every instance, as when an embedding or color scheme changes.
+     */
     public void rebuildInstanceData()
     {
-        this .hasChanges = true;
+        this .markDirty( 0, this .slots .size() );
+    }
+
+    /**
+     * Rewrite the instance data for one instance, as when its glow or color changes.
+     */
+    public void instanceChanged( RenderedManifestation rm )
+    {
+        Integer slot = this .slots .get( rm );
+        if ( slot != null )
+            this .markDirty( slot, slot + 1 );
     }
 
+    private void markDirty( int start, int end )
+    {
+        if ( start >= end )
+            return;
+        if ( this .changedSlots != null ) {
+            if ( end - start > 1 || this .changedCount > MAX_CHANGED_SLOTS )
+                this .changedSlots = null;
+            else {
+                if ( this .changedCount == this .changedSlots .length )
+                    this .changedSlots = Arrays .copyOf( this .changedSlots, 2 * this .changedCount );
+                this .changedSlots[ this .changedCount++ ] = start;
+            }
+        }
+        if ( this .dirtyStart >= this .dirtyEnd ) {
+            this .dirtyStart = start;
+            this .dirtyEnd = end;
+        }
+        else {
+            this .dirtyStart = Math .min( this .dirtyStart, start );
+            this .dirtyEnd = Math .max( this .dirtyEnd, end );
+        }
+    }
+
+    /**
+     * Grow the instance arrays, at least doubling them, so that they can hold count instances.
+     */
+    private void ensureCapacity( int count )
+    {
+        int capacity = this .slotInstances .length;
+        if ( count <= capacity )
+            return;
+        int newCapacity = Math .max( count, Math .max( 16, 2 * capacity ) );
+        this .slotInstances = Arrays .copyOf( this .slotInstances, newCapacity );
+        this .instanceData .ensureCapacity( newCapacity );
+    }
+
+    /**
+     * Compute the instance data and color for one instance, as the shaders expect them.
+     * @param data receives the scaled location and the orientation index plus glow
+     * @param rgba receives the color and opacity
+     */
+    static void getInstanceData( RenderedManifestation part, float globalScale, float[] data, float[] rgba )
+    {
+        AlgebraicVector vector = part .getLocationAV();
+        // Embedding will be handled in the shader
+        if ( vector == null ) {
+            data[ 0 ] = data[ 1 ] = data[ 2 ] = 0f;
+        }
+        else {
+            RealVector rv = vector .toRealVector(); // cached in the vector
+            data[ 0 ] = globalScale * rv .x;
+            data[ 1 ] = globalScale * rv .y;
+            data[ 2 ] = globalScale * rv .z;
+        }
+        int zone = part .getStrutZone();
+        if ( zone < 0 )
+            zone = 0;
+        data[ 3 ] = part .getGlow() + zone;
+
+        Color color = part .getColor();
+        if ( color == null )
+            color = Color.WHITE;
+        color .getRGBColorComponents( rgba );
+        float opacity = 1f - part .getTransparency();
+        if ( opacity <= 0.999f )
+            rgba[ 3 ] = opacity;
+    }
+
+    private void writeInstance( int slot, RenderedManifestation part )
+    {
+        getInstanceData( part, this .globalScale, this .data, this .rgba );
+        this .instanceData .set( 0, slot, this .data );
+        this .instanceData .set( 1, slot, this .rgba );
+        this .instanceData .setObject( slot, part );
+    }
+
+    /**
+     * Publish the current instances for rendering, if they have changed since the last snapshot.
+     * Only the editing thread may call this.
+     */
+    Snapshot snapshot()
+    {
+        int count = this .slots .size();
+        if ( this .published != null && this .dirtyStart >= this .dirtyEnd && this .published .count == count )
+            return this .published;
+        // slots beyond the count were freed since they were marked
+        int start = this .dirtyStart;
+        int end = Math .min( this .dirtyEnd, count );
+        for ( int slot = start; slot < end; slot++ )
+            this .writeInstance( slot, this .slotInstances[ slot ] );
+        // let go of the instances in freed slots
+        for ( int slot = count; this .published != null && slot < this .published .count; slot++ )
+            this .instanceData .setObject( slot, null );
+        int[] changed = ( this .changedSlots == null )? null : Arrays .copyOf( this .changedSlots, this .changedCount );
+        this .published = new Snapshot( ++this .version, count, start, end, changed, this .published );
+        this .dirtyStart = this .dirtyEnd = 0;
+        this .changedSlots = new int[ 16 ];
+        this .changedCount = 0;
+        return this .published;
+    }
+
+    /**
+     * Draw the current instances directly, when editing and rendering share a thread.
+     */
+    @Override
     public int prepareToRender( BufferStorage storage )
+    {
+        return this .snapshot() .prepareToRender( storage );
+    }
+
+    private void prepareShape( BufferStorage storage )
     {
         if ( storage != null && this .verticesVBO == -1 ) {
             this .verticesVBO = storage .storeBuffer( this .verticesBuffer, -1 );
             this .normalsVBO = storage .storeBuffer( this .normalsBuffer, -1 );
             this .lineVerticesVBO = storage .storeBuffer( this .lineVerticesBuffer, -1 );
         }
-        if ( this .hasChanges ) {
-
-            float[] offsets = new float[4 * instances.size()];
-            float[] colors = new float[4 * instances.size()];
-            int i = 0;
-            for( RenderedManifestation part : instances ) {
-                AlgebraicVector vector = part .getLocationAV();
-                // Embedding will be handled in the shader
-                RealVector rv = ( vector == null )? new RealVector() : vector .toRealVector();
-                int zone = part .getStrutZone();
-                if ( zone < 0 )
-                    zone = 0;
-                float orientationAndGlow = part .getGlow() + zone;
-                offsets[i * 4 + 0] = globalScale * rv .x;
-                offsets[i * 4 + 1] = globalScale * rv .y;
-                offsets[i * 4 + 2] = globalScale * rv .z;
-                offsets[i * 4 + 3] = orientationAndGlow;
-
-                float[] rgba = new float[4];
-                Color color = part .getColor();
-                if ( color == null )
-                    color = Color.WHITE;
-                color .getRGBColorComponents( rgba );
-                float opacity = 1f - part .getTransparency();
-                if ( opacity > 0.999f )
-                    opacity = rgba[ 3 ];
-                colors[i * 4 + 0] = rgba[ 0 ];
-                colors[i * 4 + 1] = rgba[ 1 ];
-                colors[i * 4 + 2] = rgba[ 2 ];
-                colors[i * 4 + 3] = opacity;
-
-                ++i;
-            }
-
-            this .positionsBuffer = ByteBuffer.allocateDirect( offsets.length * 4 ) .order(ByteOrder.nativeOrder())
-                    .asFloatBuffer() .put( offsets );
-            this .positionsBuffer .position( 0 );
-            if ( storage != null )
-                this .positionsVBO = storage .storeBuffer( this .positionsBuffer, this .positionsVBO );
+    }
 
-            this .colorsBuffer = ByteBuffer.allocateDirect( colors.length * 4 ) .order(ByteOrder.nativeOrder())
-                    .asFloatBuffer() .put( colors );
-            this .colorsBuffer .position( 0 );
-            if ( storage != null )
-                this .colorsVBO = storage .storeBuffer( this .colorsBuffer, this .colorsVBO );
+    public void addInstance( RenderedManifestation rm )
+    {
+        Integer slot = this .slots .get( rm );
+        if ( slot == null ) {
+            slot = this .slots .size();
+            this .ensureCapacity( slot + 1 );
+            this .slotInstances[ slot ] = rm;
+            this .slots .put( rm, slot );
+        }
+        this .markDirty( slot, slot + 1 );
+    }
 
-            this .hasChanges = false;
+    /**
+     * Free the slot of rm, by moving the instance in the last slot into it.
+     */
+    public void removeInstance( RenderedManifestation rm )
+    {
+        Integer slot = this .slots .remove( rm );
+        if ( slot == null )
+            return;
+        int last = this .slots .size();
+        if ( slot != last ) {
+            RenderedManifestation moved = this .slotInstances[ last ];
+            this .slotInstances[ slot ] = moved;
+            this .slots .put( moved, slot );
+            this .markDirty( slot, slot + 1 );
         }
-        return this .instances .size();
+        this .slotInstances[ last ] = null;
     }
 
-    public void addInstance( RenderedManifestation rm )
+    /**
+     * Give the slot of "from" to "to", a copy of the same part in another snapshot,
+     * and rewrite its instance data, in case the glow or color differs.
+     */
+    public void switchInstance( RenderedManifestation from, RenderedManifestation to )
     {
-        this .instances .add( rm );
-        this .hasChanges = true;
+        Integer slot = this .slots .remove( from );
+        if ( slot == null )
+            return;
+        this .slotInstances[ slot ] = to;
+        this .slots .put( to, slot );
+        this .markDirty( slot, slot + 1 );
     }
 
-    public void removeInstance( RenderedManifestation rm )
+    /**
+     * Add many instances, with one update of the instance data.
+     */
+    public void addInstances( Collection<RenderedManifestation> rms )
+    {
+        this .ensureCapacity( this .slots .size() + rms .size() );
+        for ( RenderedManifestation rm : rms )
+            this .addInstance( rm );
+    }
+
+    public void removeInstances( Collection<RenderedManifestation> rms )
     {
-        this .instances .remove( rm );
-        this .hasChanges = true;
+        for ( RenderedManifestation rm : rms )
+            this .removeInstance( rm );
     }
 
     public Collection<RenderedManifestation> getInstances()
     {
-        return this .instances;
+        return this .slots .keySet();
     }
 
     public void removeInstances()
     {
-        this .instances .clear();
-        this .hasChanges = true;
+        Arrays .fill( this .slotInstances, 0, this .slots .size(), null );
+        this .slots .clear();
+        this .dirtyStart = this .dirtyEnd = 0;
+        this .changedSlots = new int[ 16 ];
+        this .changedCount = 0;
     }
     
+    /**
+     * Pick the current instances, testing every one of them.
+     * Snapshot.pick() gives the same results, using an index to skip most instances.
+     */
     public void pick( Intersector intersector, float[][] orientations, float[] embedding )
     {
+        RenderedManifestation[] instances = this .slotInstances;
+        synchronized ( this .pickTree ) {
+            this .pick( intersector, orientations, embedding, slot -> instances[ slot ], this .slots .size() );
+        }
+    }
+
+    private void pick( Intersector intersector, float[][] orientations, float[] embedding, IntFunction<RenderedManifestation> instances, int count )
+    {
+        if ( this .shape .isPanel() ) {
+            this .pickPanel( intersector, embedding, instances, count );
+            return;
+        }
+        for ( int slot = 0; slot < count; slot++ ) {
+            RenderedManifestation rm = instances .apply( slot );
+            float[] location = this .pickLocation( rm );
+            // Only instances whose bounding sphere meets the ray need the triangle tests
+            float radius = this .getBoundingRadius( rm, orientations, embedding );
+            if ( intersector .intersectsSphere( embed( embedding, location, this .pickCenter ), radius ) )
+                this .pickInstance( intersector, rm, location, orientations, embedding );
+        }
+    }
+
+    private void pickPanel( Intersector intersector, float[] embedding, IntFunction<RenderedManifestation> instances, int count )
+    {
+        if ( count == 0 )
+            return;
+        // A panel shape has only a single instance, for now
+        RenderedManifestation rm = instances .apply( 0 );
         float scale = 1f / this .globalScale;
-        if ( this .shape .isPanel() && ! this .instances .isEmpty() ) {
-            // A panel shape has only a single instance, for now
-            RenderedManifestation rm = this .instances .iterator() .next();
-            
-            // We know that we'll have 3 vertices per triangle, and a full set of triangles for both polygons.
-            // We just intersect the triangles of one of the two polygons.
-            int triangles = this .vertexCount / 6;
-            for ( int i = 0; i < triangles; i++ ) {
-                intersector .intersectTriangle( this .verticesArray, i * 9, rm, scale, embedding );
-            }
+
+        // We know that we'll have 3 vertices per triangle, and a full set of triangles for both polygons.
+        // We just intersect the triangles of one of the two polygons.
+        int triangles = this .vertexCount / 6;
+        for ( int i = 0; i < triangles; i++ ) {
+            intersector .intersectTriangle( this .verticesArray, i * 9, rm, scale, embedding );
         }
-        else if ( this .shape .getOrbit() != null ) {
-            // a strut shape
-            for ( RenderedManifestation rm : instances ) {
-                float[] orientation = orientations [ rm .getStrutZone() ];
-                AlgebraicVector vector = rm .getLocationAV();
-                // Embedding will be handled in the intersector
-                RealVector rv = ( vector == null )? new RealVector() : vector .toRealVector();
-                float[] location = new float[3];
-                rv .addTo( location, location );
-                int triangles = this .vertexCount / 3 ;
-                for ( int i = 0; i < triangles; i++ ) {
-                    intersector .intersectTriangle( this .verticesArray, i * 9, rm, scale, embedding, orientation, location );
-                }
-            }
+    }
+
+    private void pickInstance( Intersector intersector, RenderedManifestation rm, float[] location, float[][] orientations, float[] embedding )
+    {
+        float scale = 1f / this .globalScale;
+        // a strut shape is oriented by its zone, a ball shape is not
+        float[] orientation = ( this .shape .getOrbit() == null )? null : orientations[ rm .getStrutZone() ];
+        int triangles = this .vertexCount / 3 ;
+        for ( int i = 0; i < triangles; i++ ) {
+            intersector .intersectTriangle( this .verticesArray, i * 9, rm, scale, embedding, orientation, location );
+        }
+    }
+
+    /**
+     * Bring the pick index up to date with a snapshot, by resetting the spheres of the slots changed
+     * by each snapshot published since the one it was current with, or by building it again.
+     */
+    private void updatePickTree( Snapshot target, float[][] orientations, float[] embedding )
+    {
+        if ( this .pickTreeSnapshot == target && this .pickTreeOrientations == orientations && this .pickTreeEmbedding == embedding )
+            return;
+        List<int[]> changes = new ArrayList<>();
+        Snapshot step = target;
+        while ( step != null && step != this .pickTreeSnapshot && step .changedSlots != null ) {
+            changes .add( step .changedSlots );
+            step = step .previous;
+        }
+        boolean rebuild = step != this .pickTreeSnapshot || step == null
+                || this .pickTreeOrientations != orientations || this .pickTreeEmbedding != embedding;
+        if ( rebuild ) {
+            this .pickTree .setSize( 0 );
+            this .pickTree .setSize( target .count );
+            for ( int slot = 0; slot < target .count; slot++ )
+                this .setPickSphere( target, slot, orientations, embedding );
+            this .pickTree .rebuild();
         }
         else {
-            // a ball shape
-            for ( RenderedManifestation rm : instances ) {
-                AlgebraicVector vector = rm .getLocationAV();
-                // Embedding will be handled in the intersector
-                RealVector rv = ( vector == null )? new RealVector() : vector .toRealVector();
-                float[] location = new float[3];
-                rv .addTo( location, location );
-                int triangles = this .vertexCount / 3 ;
-                for ( int i = 0; i < triangles; i++ ) {
-                    intersector .intersectTriangle( this .verticesArray, i * 9, rm, scale, embedding, null, location );
+            this .pickTree .setSize( target .count );
+            for ( int[] slots : changes )
+                for ( int slot : slots )
+                    if ( slot < target .count )
+                        this .setPickSphere( target, slot, orientations, embedding );
+            this .pickTree .refit();
+        }
+        this .pickTreeSnapshot = target;
+        this .pickTreeOrientations = orientations;
+        this .pickTreeEmbedding = embedding;
+        // the snapshots before this one are no longer needed for updates
+        target .previous = null;
+    }
+
+    private void setPickSphere( Snapshot snapshot, int slot, float[][] orientations, float[] embedding )
+    {
+        RenderedManifestation rm = (RenderedManifestation) snapshot .arrays .getObject( slot );
+        snapshot .getLocation( slot, this .pickLocation );
+        embed( embedding, this .pickLocation, this .pickCenter );
+        float radius = this .getBoundingRadius( rm, orientations, embedding );
+        this .pickTree .setSphere( slot, this .pickCenter[ 0 ], this .pickCenter[ 1 ], this .pickCenter[ 2 ], radius );
+    }
+
+    private float[] pickLocation( RenderedManifestation rm )
+    {
+        AlgebraicVector vector = rm .getLocationAV();
+        // Embedding will be handled in the intersector
+        if ( vector == null ) {
+            Arrays .fill( this .pickLocation, 0f );
+            return this .pickLocation;
+        }
+        RealVector rv = vector .toRealVector(); // cached in the vector
+        this .pickLocation[ 0 ] = rv .x;
+        this .pickLocation[ 1 ] = rv .y;
+        this .pickLocation[ 2 ] = rv .z;
+        return this .pickLocation;
+    }
+
+    /**
+     * Applies the linear part of a column-major 4x4 embedding, as the intersector does for each vertex.
+     */
+    private static float[] embed( float[] embedding, float[] v, float[] result )
+    {
+        for ( int j = 0; j < 3; j++ ) {
+            result[ j ] = embedding[ j ] * v[ 0 ] + embedding[ 4 + j ] * v[ 1 ] + embedding[ 8 + j ] * v[ 2 ];
+        }
+        return result;
+    }
+
+    private float getBoundingRadius( RenderedManifestation rm, float[][] orientations, float[] embedding )
+    {
+        if ( this .shape .getOrbit() == null )
+            return this .getBoundingRadius( 0, 1, null, embedding );
+        int zone = rm .getStrutZone();
+        return this .getBoundingRadius( zone, orientations .length, orientations[ zone ], embedding );
+    }
+
+    /**
+     * @param index the strut zone, or zero for a ball
+     * @param count the number of distinct indices
+     * @param orientation may be null
+     * @param embedding
+     * @return the largest distance of any embedded, oriented vertex from the embedded instance location
+     */
+    private float getBoundingRadius( int index, int count, float[] orientation, float[] embedding )
+    {
+        if ( this .boundingRadii == null || this .boundingRadii .length != count || this .boundingEmbedding != embedding ) {
+            this .boundingRadii = new float[ count ];
+            Arrays .fill( this .boundingRadii, -1f );
+            this .boundingEmbedding = embedding;
+        }
+        if ( this .boundingRadii[ index ] < 0f ) {
+            float[] vertex = new float[3];
+            float[] oriented = new float[3];
+            float[] embedded = new float[3];
+            float max = 0f;
+            for ( int i = 0; i < this .vertexCount; i++ ) {
+                for ( int j = 0; j < 3; j++ ) {
+                    vertex[ j ] = this .verticesArray[ i * COORDS_PER_VERTEX + j ] / this .globalScale;
+                }
+                if ( orientation != null ) {
+                    // orientations are column-major 4x4 matrices, like the embedding
+                    embed( orientation, vertex, oriented );
+                    embed( embedding, oriented, embedded );
                 }
+                else
+                    embed( embedding, vertex, embedded );
+                float lengthSquared = embedded[ 0 ] * embedded[ 0 ] + embedded[ 1 ] * embedded[ 1 ] + embedded[ 2 ] * embedded[ 2 ];
+                max = Math .max( max, lengthSquared );
             }
+            this .boundingRadii[ index ] = (float) Math .sqrt( max );
         }
+        return this .boundingRadii[ index ];
     }
 
     @Override
@@ -310,7 +633,7 @@ public class ShapeAndInstances implements InstancedGeometry
     @Override
     public FloatBuffer getInstancesBuffer()
     {
-        return this .positionsBuffer;
+        return this .instanceBuffers .getBuffer( 0 );
     }
 
     @Override
@@ -328,6 +651,113 @@ public class ShapeAndInstances implements InstancedGeometry
     @Override
     public FloatBuffer getColorsBuffer()
     {
-        return this .colorsBuffer;
+        return this .instanceBuffers .getBuffer( 1 );
+    }
+
+    /**
+     * An immutable view of the instances, as of one version, which the rendering thread
+     * can draw and pick while the editing thread goes on changing this ShapeAndInstances.
+     * It shares the unchanged chunks of the instance data with the editing thread and other snapshots.
+     */
+    class Snapshot implements InstancedGeometry
+    {
+        private final long version;
+        private final int count, dirtyStart, dirtyEnd;
+        private final ChunkedArrays.Frozen arrays;
+
+        // the slots changed since the previous snapshot, or null if too many changed to list
+        private final int[] changedSlots;
+
+        // the snapshot published before this one, until the pick index has caught up with this one,
+        //  and how many snapshots that chain holds
+        private volatile Snapshot previous;
+        private final int steps;
+
+        private Snapshot( long version, int count, int dirtyStart, int dirtyEnd, int[] changedSlots, Snapshot previous )
+        {
+            this .version = version;
+            this .count = count;
+            this .dirtyStart = dirtyStart;
+            this .dirtyEnd = dirtyEnd;
+            this .changedSlots = changedSlots;
+            this .arrays = instanceData .freeze( count );
+            int steps = ( previous == null )? 0 : ( previous .previous == null )? 1 : previous .steps + 1;
+            // past MAX_PICK_STEPS, the next pick builds its index again, so the chain can be dropped
+            this .previous = ( steps <= MAX_PICK_STEPS )? previous : null;
+            this .steps = ( steps <= MAX_PICK_STEPS )? steps : 0;
+        }
+
+        /**
+         * Fill location with the unscaled location of the instance in slot.
+         */
+        private void getLocation( int slot, float[] location )
+        {
+            for ( int j = 0; j < 3; j++ )
+                location[ j ] = this .arrays .get( 0, slot, j ) / globalScale;
+        }
+
+        /**
+         * Pick the instances of this snapshot, testing only those in the branches of
+         * the pick index whose bounding spheres meet the ray.
+         */
+        void pick( Intersector intersector, float[][] orientations, float[] embedding )
+        {
+            ChunkedArrays.Frozen arrays = this .arrays;
+            synchronized ( pickTree ) {
+                if ( shape .isPanel() ) {
+                    pickPanel( intersector, embedding, slot -> (RenderedManifestation) arrays .getObject( slot ), this .count );
+                    return;
+                }
+                updatePickTree( this, orientations, embedding );
+                pickTree .visit( intersector, slot -> {
+                    this .getLocation( slot, pickLocation );
+                    pickInstance( intersector, (RenderedManifestation) arrays .getObject( slot ), pickLocation, orientations, embedding );
+                } );
+            }
+        }
+
+        @Override
+        public int prepareToRender( BufferStorage storage )
+        {
+            prepareShape( storage );
+            instanceBuffers .update( this .arrays, this .count, this .dirtyStart, this .dirtyEnd, this .version, storage );
+            return this .count;
+        }
+
+        @Override
+        public int getVertexCount() { return vertexCount; }
+
+        @Override
+        public int getLineVertexCount() { return lineVertexCount; }
+
+        @Override
+        public int getLineVerticesVBO() { return lineVerticesVBO; }
+
+        @Override
+        public int getVerticesVBO() { return verticesVBO; }
+
+        @Override
+        public int getNormalsVBO() { return normalsVBO; }
+
+        @Override
+        public int getInstancesVBO() { return ShapeAndInstances.this .getInstancesVBO(); }
+
+        @Override
+        public int getColorsVBO() { return ShapeAndInstances.this .getColorsVBO(); }
+
+        @Override
+        public FloatBuffer getLineVerticesBuffer() { return lineVerticesBuffer; }
+
+        @Override
+        public FloatBuffer getVerticesBuffer() { return verticesBuffer; }
+
+        @Override
+        public FloatBuffer getNormalsBuffer() { return normalsBuffer; }
+
+        @Override
+        public FloatBuffer getInstancesBuffer() { return ShapeAndInstances.this .getInstancesBuffer(); }
+
+        @Override
+        public FloatBuffer getColorsBuffer() { return ShapeAndInstances.this .getColorsBuffer(); }
     }
 }
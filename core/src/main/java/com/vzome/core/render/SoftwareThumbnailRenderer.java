@@ -0,0 +1,126 @@
+package com.vzome.core.render;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.vecmath.Matrix4f;
+import javax.vecmath.Vector3f;
+
+import com.vzome.core.construction.Color;
+import com.vzome.core.viewing.Camera;
+import com.vzome.core.viewing.Lights;
+import com.vzome.core.viewing.ThumbnailRenderer;
+import com.vzome.opengl.SoftwareRenderer;
+
+/**
+ * A ThumbnailRenderer that needs no OpenGL and no display, drawing with a SoftwareRenderer,
+ * so thumbnails and images can be made on a server.
+ */
+public class SoftwareThumbnailRenderer implements ThumbnailRenderer
+{
+    private final Lights lights;
+
+    private final ForkJoinPool pool;
+
+    public SoftwareThumbnailRenderer( Lights lights )
+    {
+        this( lights, ForkJoinPool .commonPool() );
+    }
+
+    /**
+     * @param pool rasterizes the image tiles in parallel, or null to use only the calling thread
+     */
+    public SoftwareThumbnailRenderer( Lights lights, ForkJoinPool pool )
+    {
+        this .lights = lights;
+        this .pool = pool;
+    }
+
+    @Override
+    public void captureSnapshot( RenderedModel snapshot, Camera view, int maxSize, Listener callback )
+    {
+        if ( snapshot == null )
+            return;
+        // the same 5:4 shape as the desktop thumbnails
+        callback .thumbnailReady( this .render( snapshot, view, maxSize, maxSize * 4 / 5, false ) );
+    }
+
+    public BufferedImage render( RenderedModel model, Camera camera, int width, int height, boolean withAlpha )
+    {
+        SoftwareRenderer renderer = this .prepare( model, camera, width, height );
+        return renderer .getImage( withAlpha );
+    }
+
+    /**
+     * Fill a new SoftwareRenderer with the model, as seen by the camera, but do not rasterize it yet.
+     */
+    public SoftwareRenderer prepare( RenderedModel model, Camera camera, int width, int height )
+    {
+        // a private copy, since the Scene listens to its Lights for as long as they live
+        Scene scene = new Scene( new Lights( this .lights ), false, 0 );
+        synchronized ( model )
+        {
+            RenderedModel .renderChange( new RenderedModel( null, null ), model, scene );
+        }
+        SoftwareRenderer renderer = new SoftwareRenderer( width, height, this .pool );
+        setLights( renderer, this .lights );
+        setView( renderer, camera, (float) width / (float) height );
+        scene .render( renderer, renderer, true );
+        return renderer;
+    }
+
+    private static void setLights( SoftwareRenderer renderer, Lights lights )
+    {
+        int num = lights .size();
+        float[][] directions = new float[num][];
+        float[][] colors = new float[num][];
+        for ( int i = 0; i < num; i++ ) {
+            Vector3f direction = new Vector3f();
+            Color color = lights .getDirectionalLight( i, direction ); // sets direction as a side-effect
+            colors[i] = new float[4];
+            color .getRGBColorComponents( colors[i] );
+            directions[i] = new float[] { direction .x, direction .y, direction .z };
+        }
+        float[] ambient = new float[4];
+        lights .getAmbientColor() .getRGBColorComponents( ambient );
+        renderer .setLights( directions, colors, ambient );
+    }
+
+    /**
+     * As the JoglRenderingViewer sets up its projection, with the camera's width or field of view
+     * spanning the horizontal.
+     */
+    private static void setView( SoftwareRenderer renderer, Camera camera, float aspectRatio )
+    {
+        Matrix4f transform = new Matrix4f();
+        camera .getViewTransform( transform );
+        float[] modelView = new float[16];
+        for ( int column = 0; column < 4; column++ )
+            for ( int row = 0; row < 4; row++ )
+                modelView[ column * 4 + row ] = transform .getElement( row, column );
+
+        float near = camera .getNearClipDistance();
+        float far = camera .getFarClipDistance();
+        float[] projection = new float[16];
+        if ( camera .isPerspective() ) {
+            float fovY = camera .getFieldOfView() / aspectRatio;
+            float f = (float) ( 1d / Math .tan( fovY / 2d ) );
+            projection[0] = f / aspectRatio;
+            projection[5] = f;
+            projection[10] = ( far + near ) / ( near - far );
+            projection[11] = -1f;
+            projection[14] = 2f * far * near / ( near - far );
+        }
+        else {
+            float halfEdgeX = camera .getWidth() / 2f;
+            float halfEdgeY = halfEdgeX / aspectRatio;
+            projection[0] = 1f / halfEdgeX;
+            projection[5] = 1f / halfEdgeY;
+            projection[10] = -2f / ( far - near );
+            projection[14] = - ( far + near ) / ( far - near );
+            projection[15] = 1f;
+        }
+        float fogFront = near + 2 * ( far - near ) / 5; // offset from near and far by 20%
+        renderer .setView( modelView, projection, near, fogFront, far, camera .isPerspective() );
+    }
+}
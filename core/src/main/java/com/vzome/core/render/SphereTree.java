@@ -0,0 +1,307 @@
+package com.vzome.core.render;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * A bounding volume hierarchy over numbered spheres, with a bounding sphere for every node,
+ * so the spheres that a pick ray may hit are found without testing them all.
+ * Spheres can change in place, and refit() then updates only the bounds above the leaves
+ * that changed.  Spheres numbered beyond those in the hierarchy are tested one by one,
+ * until there are enough of them to make a rebuild worthwhile.
+ */
+class SphereTree
+{
+    private static final int LEAF_SIZE = 4;
+
+    // x, y, z and radius of every sphere; a negative radius means there is no sphere
+    private float[] spheres = new float[0];
+
+    // spheres 0 .. count-1 are in use, and 0 .. built-1 are in the hierarchy
+    private int count = 0, built = 0;
+
+    // the spheres in the hierarchy, ordered so that each leaf holds a contiguous range
+    private int[] order = new int[0];
+
+    // for each node, its bounding sphere, its children, or its range of order for a leaf, and its parent
+    private float[] bounds = new float[0];
+    private int[] left = new int[0], right = new int[0], parent = new int[0];
+    private int nodes = 0;
+
+    // the leaf holding each sphere in the hierarchy
+    private int[] leafOf = new int[0];
+
+    // leaves whose bounds are stale
+    private int[] staleLeaves = new int[0];
+    private boolean[] stale = new boolean[0];
+    private int staleCount = 0;
+
+    // spheres in the hierarchy changed since it was built, which makes it looser
+    private int changed = 0;
+
+    // temporary storage for one sphere center
+    private final float[] center = new float[3];
+
+    /**
+     * Set the number of spheres in use.  Spheres beyond it are removed, and new ones have no sphere until set.
+     */
+    void setSize( int size )
+    {
+        if ( 4 * size > this .spheres.length )
+            this .spheres = Arrays .copyOf( this .spheres, Math .max( 4 * size, 2 * this .spheres.length ) );
+        for ( int i = size; i < this .count; i++ )
+            this .clearSphere( i );
+        for ( int i = this .count; i < size; i++ )
+            this .spheres[ 4 * i + 3 ] = -1f;
+        this .count = size;
+    }
+
+    void setSphere( int i, float x, float y, float z, float radius )
+    {
+        this .spheres[ 4 * i ] = x;
+        this .spheres[ 4 * i + 1 ] = y;
+        this .spheres[ 4 * i + 2 ] = z;
+        this .spheres[ 4 * i + 3 ] = radius;
+        this .markStale( i );
+    }
+
+    void clearSphere( int i )
+    {
+        this .spheres[ 4 * i + 3 ] = -1f;
+        this .markStale( i );
+    }
+
+    private void markStale( int i )
+    {
+        if ( i >= this .built )
+            return;
+        ++this .changed;
+        int leaf = this .leafOf[ i ];
+        if ( ! this .stale[ leaf ] ) {
+            this .stale[ leaf ] = true;
+            this .staleLeaves[ this .staleCount++ ] = leaf;
+        }
+    }
+
+    /**
+     * Bring the bounds up to date after spheres have changed, rebuilding the hierarchy
+     * when too many spheres are outside it, or have changed since it was built.
+     */
+    void refit()
+    {
+        if ( this .count - this .built > this .built / 4 + LEAF_SIZE || this .changed > this .built / 2 + LEAF_SIZE ) {
+            this .rebuild();
+            return;
+        }
+        for ( int s = 0; s < this .staleCount; s++ ) {
+            int node = this .staleLeaves[ s ];
+            this .stale[ node ] = false;
+            this .fitLeaf( node );
+            for ( node = this .parent[ node ]; node >= 0; node = this .parent[ node ] )
+                this .fitNode( node );
+        }
+        this .staleCount = 0;
+    }
+
+    /**
+     * Build the hierarchy again, over all the spheres in use.
+     */
+    void rebuild()
+    {
+        int n = this .count;
+        this .order = new int[ n ];
+        for ( int i = 0; i < n; i++ )
+            this .order[ i ] = i;
+        // median splits leave at least two spheres in every leaf, so there are fewer than n leaves
+        int capacity = Math .max( 1, 2 * n );
+        this .bounds = new float[ 4 * capacity ];
+        this .left = new int[ capacity ];
+        this .right = new int[ capacity ];
+        this .parent = new int[ capacity ];
+        this .stale = new boolean[ capacity ];
+        this .staleLeaves = new int[ capacity ];
+        this .staleCount = 0;
+        this .changed = 0;
+        this .leafOf = new int[ n ];
+        this .nodes = 0;
+        this .built = n;
+        if ( n > 0 )
+            this .build( 0, n, -1 );
+    }
+
+    private int build( int start, int end, int parentNode )
+    {
+        int node = this .nodes++;
+        this .parent[ node ] = parentNode;
+        if ( end - start <= LEAF_SIZE ) {
+            // a leaf, with its range of order stored as the negated children
+            this .left[ node ] = -1 - start;
+            this .right[ node ] = -1 - end;
+            for ( int i = start; i < end; i++ )
+                this .leafOf[ this .order[ i ] ] = node;
+            this .fitLeaf( node );
+            return node;
+        }
+        // split at the median of the widest extent of the centers
+        float[] min = new float[] { Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE };
+        float[] max = new float[] { -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE };
+        for ( int i = start; i < end; i++ )
+            for ( int j = 0; j < 3; j++ ) {
+                float c = this .spheres[ 4 * this .order[ i ] + j ];
+                min[ j ] = Math .min( min[ j ], c );
+                max[ j ] = Math .max( max[ j ], c );
+            }
+        int axis = 0;
+        for ( int j = 1; j < 3; j++ )
+            if ( max[ j ] - min[ j ] > max[ axis ] - min[ axis ] )
+                axis = j;
+        int middle = ( start + end ) / 2;
+        this .select( start, end - 1, middle, axis );
+        this .left[ node ] = this .build( start, middle, node );
+        this .right[ node ] = this .build( middle, end, node );
+        this .fitNode( node );
+        return node;
+    }
+
+    /**
+     * Partially sort order[ lo .. hi ] by the given coordinate, so that order[ k ] is in its sorted place.
+     */
+    private void select( int lo, int hi, int k, int axis )
+    {
+        while ( lo < hi ) {
+            float pivot = this .spheres[ 4 * this .order[ ( lo + hi ) >>> 1 ] + axis ];
+            int i = lo, j = hi;
+            while ( i <= j ) {
+                while ( this .spheres[ 4 * this .order[ i ] + axis ] < pivot ) i++;
+                while ( this .spheres[ 4 * this .order[ j ] + axis ] > pivot ) j--;
+                if ( i <= j ) {
+                    int swap = this .order[ i ];
+                    this .order[ i++ ] = this .order[ j ];
+                    this .order[ j-- ] = swap;
+                }
+            }
+            if ( k <= j )
+                hi = j;
+            else if ( k >= i )
+                lo = i;
+            else
+                return;
+        }
+    }
+
+    private boolean isLeaf( int node )
+    {
+        return this .left[ node ] < 0;
+    }
+
+    private void fitLeaf( int node )
+    {
+        int start = -1 - this .left[ node ], end = -1 - this .right[ node ];
+        float[] min = new float[] { Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE };
+        float[] max = new float[] { -Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE };
+        boolean any = false;
+        for ( int i = start; i < end; i++ ) {
+            int s = 4 * this .order[ i ];
+            float r = this .spheres[ s + 3 ];
+            if ( r < 0f )
+                continue;
+            any = true;
+            for ( int j = 0; j < 3; j++ ) {
+                min[ j ] = Math .min( min[ j ], this .spheres[ s + j ] - r );
+                max[ j ] = Math .max( max[ j ], this .spheres[ s + j ] + r );
+            }
+        }
+        int b = 4 * node;
+        if ( ! any ) {
+            this .bounds[ b + 3 ] = -1f;
+            return;
+        }
+        for ( int j = 0; j < 3; j++ )
+            this .bounds[ b + j ] = ( min[ j ] + max[ j ] ) / 2f;
+        float radius = 0f;
+        for ( int i = start; i < end; i++ ) {
+            int s = 4 * this .order[ i ];
+            float r = this .spheres[ s + 3 ];
+            if ( r >= 0f )
+                radius = Math .max( radius, distance( this .bounds, b, this .spheres, s ) + r );
+        }
+        this .bounds[ b + 3 ] = radius;
+    }
+
+    /**
+     * Bound the bounding spheres of both children.
+     */
+    private void fitNode( int node )
+    {
+        int a = 4 * this .left[ node ], c = 4 * this .right[ node ], b = 4 * node;
+        float ra = this .bounds[ a + 3 ], rc = this .bounds[ c + 3 ];
+        if ( rc < 0f || ( ra >= 0f && distance( this .bounds, a, this .bounds, c ) + rc <= ra ) ) {
+            System .arraycopy( this .bounds, a, this .bounds, b, 4 );
+            return;
+        }
+        float d = distance( this .bounds, a, this .bounds, c );
+        if ( ra < 0f || d + ra <= rc ) {
+            System .arraycopy( this .bounds, c, this .bounds, b, 4 );
+            return;
+        }
+        float r = ( d + ra + rc ) / 2f;
+        float t = ( r - ra ) / d;
+        for ( int j = 0; j < 3; j++ )
+            this .bounds[ b + j ] = this .bounds[ a + j ] + t * ( this .bounds[ c + j ] - this .bounds[ a + j ] );
+        // a little slack for rounding, so the children are surely inside
+        this .bounds[ b + 3 ] = r * 1.0001f;
+    }
+
+    private static float distance( float[] p, int i, float[] q, int j )
+    {
+        float dx = p[ i ] - q[ j ], dy = p[ i + 1 ] - q[ j + 1 ], dz = p[ i + 2 ] - q[ j + 2 ];
+        return (float) Math .sqrt( dx * dx + dy * dy + dz * dz );
+    }
+
+    /**
+     * Call visitor for every sphere that the intersector may hit, skipping the subtrees
+     * whose bounds it cannot hit.
+     */
+    void visit( ShapeAndInstances.Intersector intersector, IntConsumer visitor )
+    {
+        if ( this .built > 0 ) {
+            int[] stack = new int[ 64 ];
+            int top = 0;
+            stack[ top++ ] = 0;
+            while ( top > 0 ) {
+                int node = stack[ --top ];
+                if ( ! this .mayHit( intersector, this .bounds, 4 * node ) )
+                    continue;
+                if ( this .isLeaf( node ) ) {
+                    for ( int i = -1 - this .left[ node ]; i < -1 - this .right[ node ]; i++ )
+                        this .visitSphere( intersector, visitor, this .order[ i ] );
+                }
+                else {
+                    if ( top + 2 > stack.length )
+                        stack = Arrays .copyOf( stack, 2 * stack.length );
+                    stack[ top++ ] = this .right[ node ];
+                    stack[ top++ ] = this .left[ node ];
+                }
+            }
+        }
+        for ( int i = this .built; i < this .count; i++ )
+            this .visitSphere( intersector, visitor, i );
+    }
+
+    private void visitSphere( ShapeAndInstances.Intersector intersector, IntConsumer visitor, int i )
+    {
+        if ( this .mayHit( intersector, this .spheres, 4 * i ) )
+            visitor .accept( i );
+    }
+
+    private boolean mayHit( ShapeAndInstances.Intersector intersector, float[] array, int s )
+    {
+        float radius = array[ s + 3 ];
+        if ( radius < 0f )
+            return false;
+        this .center[ 0 ] = array[ s ];
+        this .center[ 1 ] = array[ s + 1 ];
+        this .center[ 2 ] = array[ s + 2 ];
+        return intersector .intersectsSphere( this .center, radius );
+    }
+}
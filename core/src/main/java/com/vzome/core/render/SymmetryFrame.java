@@ -0,0 +1,19 @@
+package com.vzome.core.render;
+
+import com.vzome.opengl.InstancedGeometry;
+
+/**
+ * Everything a Renderer needs to draw the parts rendered in one symmetry system,
+ * and to pick among them.  A SymmetryRendering is one, for use on a single thread,
+ * and its snapshot() is an immutable one, for use on the rendering thread.
+ */
+public interface SymmetryFrame
+{
+    float[] getEmbedding();
+
+    float[][] getOrientations();
+
+    Iterable<InstancedGeometry> getGeometries();
+
+    void pick( ShapeAndInstances.Intersector intersector );
+}
@@ -1,7 +1,9 @@
 package com.vzome.core.render;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.vzome.core.editor.api.OrbitSource;
@@ -9,16 +11,20 @@ import com.vzome.core.editor.api.Shapes;
 import com.vzome.core.math.Polyhedron;
 import com.vzome.opengl.InstancedGeometry;
 
-public class SymmetryRendering implements RenderingChanges
+public class SymmetryRendering implements RenderingChanges, SymmetryFrame
 {
     private final float[][] orientations;
     private final float[] embedding;
     private final Map<Polyhedron, InstancedGeometry> geometries = new HashMap<Polyhedron, InstancedGeometry>();
     private final float globalScale;
+
+    // all panels share one merged mesh, since every panel has its own shape
+    private final PanelGeometry panels;
     
     public SymmetryRendering( OrbitSource orbits, float globalScale )
     {
         this .globalScale = globalScale;
+        this .panels = new PanelGeometry( globalScale );
         this .orientations = orbits .getOrientations();
         this .embedding = orbits .getEmbedding();
     }
@@ -32,33 +38,111 @@ public class SymmetryRendering implements RenderingChanges
         }
     }
     
+    @Override
     public void pick( ShapeAndInstances.Intersector intersector )
     {
         for ( InstancedGeometry geometry : this .geometries .values()) {
             ShapeAndInstances shapeAndInstances = (ShapeAndInstances) geometry;
             shapeAndInstances .pick( intersector, this .orientations, this .embedding );
         }
+        this .panels .pick( intersector, this .embedding );
     }
 
+    private static boolean isPanel( RenderedManifestation rm )
+    {
+        Polyhedron shape = rm .getShape();
+        return shape != null && shape .isPanel();
+    }
+
+    @Override
     public float[] getEmbedding()
     {
         return this .embedding;
     }
 
+    @Override
     public float[][] getOrientations()
     {
         return this .orientations;
     }
 
+    @Override
     public Iterable<InstancedGeometry> getGeometries()
     {
-        return this .geometries .values();
+        if ( this .panels .size() == 0 )
+            return this .geometries .values();
+        List<InstancedGeometry> result = new ArrayList<>( this .geometries .values() );
+        result .add( this .panels );
+        return result;
+    }
+
+    /**
+     * Publish the current geometry, for drawing and picking on another thread.
+     * Only geometries changed since the last snapshot are copied.
+     * Only the editing thread may call this.
+     * @return an immutable frame
+     */
+    public SymmetryFrame snapshot()
+    {
+        List<ShapeAndInstances.Snapshot> shapes = new ArrayList<>( this .geometries .size() );
+        for ( InstancedGeometry geometry : this .geometries .values() )
+            shapes .add( ((ShapeAndInstances) geometry) .snapshot() );
+        PanelGeometry.Snapshot panels = this .panels .size() == 0? null : this .panels .snapshot();
+        return new Frame( this .orientations, this .embedding, shapes, panels );
+    }
+
+    private static class Frame implements SymmetryFrame
+    {
+        private final float[][] orientations;
+        private final float[] embedding;
+        private final List<ShapeAndInstances.Snapshot> shapes;
+        private final PanelGeometry.Snapshot panels;
+        private final List<InstancedGeometry> geometries;
+
+        Frame( float[][] orientations, float[] embedding, List<ShapeAndInstances.Snapshot> shapes, PanelGeometry.Snapshot panels )
+        {
+            this .orientations = orientations;
+            this .embedding = embedding;
+            this .shapes = shapes;
+            this .panels = panels;
+            this .geometries = new ArrayList<>( shapes );
+            if ( panels != null )
+                this .geometries .add( panels );
+        }
+
+        @Override
+        public float[] getEmbedding()
+        {
+            return this .embedding;
+        }
+
+        @Override
+        public float[][] getOrientations()
+        {
+            return this .orientations;
+        }
+
+        @Override
+        public Iterable<InstancedGeometry> getGeometries()
+        {
+            return this .geometries;
+        }
+
+        @Override
+        public void pick( ShapeAndInstances.Intersector intersector )
+        {
+            for ( ShapeAndInstances.Snapshot shape : this .shapes )
+                shape .pick( intersector, this .orientations, this .embedding );
+            if ( this .panels != null )
+                this .panels .pick( intersector, this .embedding );
+        }
     }
 
     @Override
     public boolean shapesChanged( Shapes shapes )
     {
-        for ( InstancedGeometry geometry : this .geometries .values() ) {
+        // copied, since getShapeAndInstances() below adds the new shapes to the map
+        for ( InstancedGeometry geometry : new ArrayList<>( this .geometries .values() ) ) {
             ShapeAndInstances shapesAndInstances = ((ShapeAndInstances) geometry);
             if ( shapesAndInstances .getShape() .isPanel() )
                 continue; // no change necessary
@@ -91,17 +175,63 @@ public class SymmetryRendering implements RenderingChanges
     @Override
     public void manifestationAdded( RenderedManifestation rm )
     {
+        if ( isPanel( rm ) ) {
+            this .panels .addPanel( rm );
+            return;
+        }
         Polyhedron shape = rm .getShape();
         ShapeAndInstances shapesAndInstances = this .getShapeAndInstances( shape );
         shapesAndInstances .addInstance( rm );
     }
 
+    @Override
+    public void manifestationsAdded( Collection<RenderedManifestation> rms )
+    {
+        for ( Map.Entry<Polyhedron, List<RenderedManifestation>> entry : byShape( rms ) .entrySet() ) {
+            if ( entry .getKey() .isPanel() )
+                for ( RenderedManifestation rm : entry .getValue() )
+                    this .panels .addPanel( rm );
+            else
+                this .getShapeAndInstances( entry .getKey() ) .addInstances( entry .getValue() );
+        }
+    }
+
+    @Override
+    public void manifestationsRemoved( Collection<RenderedManifestation> rms )
+    {
+        for ( Map.Entry<Polyhedron, List<RenderedManifestation>> entry : byShape( rms ) .entrySet() ) {
+            if ( entry .getKey() .isPanel() ) {
+                for ( RenderedManifestation rm : entry .getValue() )
+                    this .panels .removePanel( rm );
+                continue;
+            }
+            ShapeAndInstances shapesAndInstances = (ShapeAndInstances) this .geometries .get( entry .getKey() );
+            if ( shapesAndInstances != null )
+                shapesAndInstances .removeInstances( entry .getValue() );
+        }
+    }
+
+    private static Map<Polyhedron, List<RenderedManifestation>> byShape( Collection<RenderedManifestation> rms )
+    {
+        Map<Polyhedron, List<RenderedManifestation>> result = new HashMap<>();
+        for ( RenderedManifestation rm : rms ) {
+            List<RenderedManifestation> instances = result .get( rm .getShape() );
+            if ( instances == null ) {
+                instances = new ArrayList<>();
+                result .put( rm .getShape(), instances );
+            }
+            instances .add( rm );
+        }
+        return result;
+    }
+
     @Override
     public void reset()
     {
         for ( InstancedGeometry geometry : this .geometries .values() ) {
             ((ShapeAndInstances) geometry) .removeInstances();
         }
+        this .panels .clear();
     }
 
     public void refresh()
@@ -109,11 +239,16 @@ public class SymmetryRendering implements RenderingChanges
         for ( InstancedGeometry geometry : this .geometries .values() ) {
             ((ShapeAndInstances) geometry) .rebuildInstanceData();
         }
+        this .panels .refresh();
     }
 
     @Override
     public void manifestationRemoved( RenderedManifestation rm )
     {
+        if ( isPanel( rm ) ) {
+            this .panels .removePanel( rm );
+            return;
+        }
         Polyhedron shape = rm .getShape();
         ShapeAndInstances shapesAndInstances = (ShapeAndInstances) this .geometries .get( shape );
         if ( shapesAndInstances != null )
@@ -123,22 +258,38 @@ public class SymmetryRendering implements RenderingChanges
     @Override
     public void manifestationSwitched( RenderedManifestation from, RenderedManifestation to )
     {
-        // TODO Auto-generated method stub
-        
+        if ( isPanel( from ) ) {
+            this .panels .switchPanel( from, to );
+            return;
+        }
+        ShapeAndInstances shapesAndInstances = (ShapeAndInstances) this .geometries .get( from .getShape() );
+        if ( shapesAndInstances != null )
+            shapesAndInstances .switchInstance( from, to );
     }
 
     @Override
     public void glowChanged( RenderedManifestation rm )
     {
+        if ( isPanel( rm ) ) {
+            this .panels .panelChanged( rm );
+            return;
+        }
         Polyhedron shape = rm .getShape();
         ShapeAndInstances shapesAndInstances = (ShapeAndInstances) this .geometries .get( shape );
-        shapesAndInstances .rebuildInstanceData();
+        shapesAndInstances .instanceChanged( rm );
     }
 
     @Override
     public void colorChanged( RenderedManifestation rm )
     {
-        // TODO Auto-generated method stub
+        if ( isPanel( rm ) ) {
+            this .panels .panelChanged( rm );
+            return;
+        }
+        Polyhedron shape = rm .getShape();
+        ShapeAndInstances shapesAndInstances = (ShapeAndInstances) this .geometries .get( shape );
+        if ( shapesAndInstances != null )
+            shapesAndInstances .instanceChanged( rm );
     }
 
     @Override
@@ -161,6 +312,6 @@ public class SymmetryRendering implements RenderingChanges
 
     public int numGeometries()
     {
-        return this .geometries .size();
+        return this .geometries .size() + ( this .panels .size() == 0? 0 : 1 );
     }
 }
\ No newline at end of file
@@ -1,6 +1,8 @@
 
 package com.vzome.core.render;
 
+import java.util.Collection;
+
 import com.vzome.core.editor.api.Shapes;
 
 public class TransparentRendering implements RenderingChanges
@@ -32,6 +34,22 @@ public class TransparentRendering implements RenderingChanges
         mRealOne .manifestationRemoved( manifestation );
     }
 
+    @Override
+    public void manifestationsAdded( Collection<RenderedManifestation> manifestations )
+    {
+        for ( RenderedManifestation manifestation : manifestations ) {
+            manifestation .setTransparency( 0.50f );
+            manifestation .setPickable( false );
+        }
+        mRealOne .manifestationsAdded( manifestations );
+    }
+
+    @Override
+    public void manifestationsRemoved( Collection<RenderedManifestation> manifestations )
+    {
+        mRealOne .manifestationsRemoved( manifestations );
+    }
+
     @Override
     public void glowChanged( RenderedManifestation manifestation )
     {
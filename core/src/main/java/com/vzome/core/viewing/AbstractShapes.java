@@ -34,6 +34,19 @@ public abstract class AbstractShapes implements Shapes
 
     protected Polyhedron mConnectorGeometry;
 
+    // shared with the AbstractShapes of other documents, or null to share nothing
+    private ShapeCache shapeCache = null;
+
+    /**
+     * Share shapes with the AbstractShapes of other documents, through a cache the Application owns.
+     * Shapes built before this is called are not shared.
+     * @param cache or null to share nothing, which is the default
+     */
+    public void setShapeCache( ShapeCache cache )
+    {
+        this .shapeCache = cache;
+    }
+
     public AbstractShapes( String pkgName, String name, String alias, Symmetry symm )
     {
         mPkgName = pkgName;
@@ -82,6 +95,22 @@ public abstract class AbstractShapes implements Shapes
         return orbitStrutGeometry;
     }
     
+    /**
+     * Identifies the geometry this Shapes produces for a given symmetry, for the ShapeCache.
+     * Subclasses whose shapes depend on more than the class, package and name must override this.
+     */
+    protected String getStyleKey()
+    {
+        return this.getClass().getSimpleName() + "/" + mPkgName + "/" + mName;
+    }
+
+    private ShapeCache.Key getShapeKey( Direction orbit, AlgebraicNumber length )
+    {
+        if ( orbit == null )
+            return new ShapeCache.Key( mSymmetry .getField(), mSymmetry .getName(), getStyleKey(), null, null, null );
+        return new ShapeCache.Key( mSymmetry .getField(), mSymmetry .getName(), getStyleKey(), orbit .getName(), orbit .getPrototype(), length );
+    }
+
     public Map<String, StrutGeometry> getStrutGeometries()
     {
         // Will lazy-populate strutGeometries
@@ -114,7 +143,16 @@ public abstract class AbstractShapes implements Shapes
     public Polyhedron getConnectorShape()
     {
         if ( mConnectorGeometry == null ) {
-            mConnectorGeometry = buildConnectorShape( mPkgName );
+            ShapeCache cache = this .shapeCache;
+            if ( cache == null )
+                mConnectorGeometry = buildConnectorShape( mPkgName );
+            else {
+                ShapeCache.Key key = this .getShapeKey( null, null );
+                Polyhedron shared = cache .get( key );
+                if ( shared == null )
+                    shared = cache .put( key, buildConnectorShape( mPkgName ) );
+                mConnectorGeometry = shared .shareGeometry();
+            }
             mConnectorGeometry .setName( "ball" );
         }
         return mConnectorGeometry;
@@ -160,8 +198,7 @@ public abstract class AbstractShapes implements Shapes
         //        int[] normSquared = mSymmetry .getField() .dot( offset, offset );
         Polyhedron lengthShape = strutShapesByLength.get( length );
         if ( lengthShape == null ) {
-            StrutGeometry orbitStrutGeometry = getStrutGeometry( orbit ); // may lazy-create the geometry
-            lengthShape = orbitStrutGeometry .getStrutPolyhedron( length );
+            lengthShape = this .buildStrutShape( orbit, length );
             strutShapesByLength.put( length, lengthShape );
             if ( lengthShape != null ) {
                 lengthShape .setName( orbit .getName() + strutShapesByLength .size() );
@@ -173,6 +210,26 @@ public abstract class AbstractShapes implements Shapes
         return lengthShape;
     }
 
+    /**
+     * Get a new Polyhedron for the strut, sharing its geometry with any other
+     * AbstractShapes using the same ShapeCache that have already built the same one.
+     */
+    private Polyhedron buildStrutShape( Direction orbit, AlgebraicNumber length )
+    {
+        ShapeCache cache = this .shapeCache;
+        if ( cache == null )
+            return getStrutGeometry( orbit ) .getStrutPolyhedron( length ); // may lazy-create the geometry
+        ShapeCache.Key key = this .getShapeKey( orbit, length );
+        Polyhedron shared = cache .get( key );
+        if ( shared == null ) {
+            shared = getStrutGeometry( orbit ) .getStrutPolyhedron( length ); // may lazy-create the geometry
+            if ( shared == null )
+                return null;
+            shared = cache .put( key, shared );
+        }
+        return shared .shareGeometry();
+    }
+
     // no changes are ever generated
 
     @Override
@@ -13,7 +13,6 @@ import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Properties;
 import java.util.Set;
-import java.util.StringTokenizer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -98,6 +97,13 @@ public class ExportedVEFShapes extends AbstractShapes
             }
     }
 
+    @Override
+    protected String getStyleKey()
+    {
+        return super .getStyleKey() + ( this .isSnub ? "/snub" : "" )
+                + ( this .fallback == null ? "" : ( "+" + this .fallback .getStyleKey() ) );
+    }
+
     @Override
     protected Polyhedron buildConnectorShape(String pkgName) {
         String vefData = loadVefData(NODE_MODEL);
@@ -283,7 +289,7 @@ public class ExportedVEFShapes extends AbstractShapes
         }
 
         @Override
-        protected void endFile( StringTokenizer tokens )
+        protected void endFile( Tokens tokens )
         {
             if ( ! tokens .hasMoreTokens() )
                 return;
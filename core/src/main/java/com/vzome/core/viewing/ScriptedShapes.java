@@ -35,6 +35,12 @@ public class ScriptedShapes extends AbstractShapes
         this.fallback = fallback;
     }
     
+    @Override
+    protected String getStyleKey()
+    {
+        return super .getStyleKey() + ( this .fallback == null ? "" : ( "+" + this .fallback .getStyleKey() ) );
+    }
+
     @Override
     protected StrutGeometry createStrutGeometry( Direction dir )
     {
@@ -0,0 +1,202 @@
+package com.vzome.core.viewing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.math.Polyhedron;
+
+/**
+ * A bounded cache of strut and connector shapes, shared by the AbstractShapes
+ * of all the documents of one Application, when it enables "shape.cache.size".
+ * Every document builds its own FieldApplication, and so its own field,
+ * Symmetry and Shapes objects, but equal keys always produce equal geometry,
+ * so documents can share the Polyhedra, if not their identity.
+ * See AbstractShapes.getStrutShape() and Polyhedron.shareGeometry().
+ *
+ * Eviction is approximately least-recently-used, with two generations,
+ * just as in AlgebraicNumberCache.
+ */
+public class ShapeCache
+{
+    /**
+     * Identifies a shape by value, since no field, Symmetry or Direction object
+     * is shared between documents.  Fields must have the same class and name,
+     * not just be equal, since AlgebraicField.equals() also matches fields like
+     * RootTwoField and PolygonField(4), whose numbers have different representations.
+     */
+    public static final class Key
+    {
+        private final AlgebraicField field;
+        private final String symmetry, style, orbit;
+        private final AlgebraicVector prototype;
+        private final AlgebraicNumber length;
+        private final int hashCode;
+
+        /**
+         * @param field
+         * @param symmetry the symmetry name
+         * @param style identifies the Shapes, as from AbstractShapes.getStyleKey()
+         * @param orbit the orbit name, or null for a connector
+         * @param prototype the orbit prototype vector, or null for a connector
+         * @param length the strut length, or null for a connector
+         */
+        public Key( AlgebraicField field, String symmetry, String style, String orbit, AlgebraicVector prototype, AlgebraicNumber length )
+        {
+            this.field = field;
+            this.symmetry = symmetry;
+            this.style = style;
+            this.orbit = orbit;
+            this.prototype = prototype;
+            this.length = length;
+            int result = field .getClass() .hashCode();
+            result = 31 * result + field .getName() .hashCode();
+            result = 31 * result + symmetry .hashCode();
+            result = 31 * result + style .hashCode();
+            result = 31 * result + ( ( orbit == null ) ? 0 : orbit .hashCode() );
+            result = 31 * result + ( ( prototype == null ) ? 0 : prototype .hashCode() );
+            result = 31 * result + ( ( length == null ) ? 0 : length .hashCode() );
+            this.hashCode = result;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals( Object obj )
+        {
+            if ( this == obj )
+                return true;
+            if ( obj == null || getClass() != obj.getClass() )
+                return false;
+            Key other = (Key) obj;
+            // the field must match first, since numbers from different fields cannot be compared
+            if ( this.hashCode != other.hashCode || this.field .getClass() != other.field .getClass()
+                    || ! this.field .getName() .equals( other.field .getName() ) )
+                return false;
+            if ( ! this.symmetry .equals( other.symmetry ) || ! this.style .equals( other.style ) )
+                return false;
+            if ( this.orbit == null ? other.orbit != null : ! this.orbit .equals( other.orbit ) )
+                return false;
+            if ( this.prototype == null ? other.prototype != null : ! this.prototype .equals( other.prototype ) )
+                return false;
+            return this.length == null ? other.length == null : this.length .equals( other.length );
+        }
+
+        @Override
+        public String toString()
+        {
+            return this.field .getName() + " " + this.symmetry + " " + this.style
+                    + ( this.orbit == null ? " connector" : ( " " + this.orbit + " " + this.length ) );
+        }
+    }
+
+    private final int generationSize;
+
+    private Map<Key, Polyhedron> young = new HashMap<>();
+
+    private Map<Key, Polyhedron> old = new HashMap<>();
+
+    private long hits = 0;
+
+    private long misses = 0;
+
+    private long evictions = 0;
+
+    /**
+     * @param capacity the most shapes retained, across both generations
+     */
+    public ShapeCache( int capacity )
+    {
+        if ( capacity < 2 )
+            throw new IllegalArgumentException( "ShapeCache capacity must be at least 2, not " + capacity );
+        this .generationSize = capacity / 2;
+    }
+
+    /**
+     * @return the cached shape for key, or null if the caller must build it and put() it
+     */
+    public synchronized Polyhedron get( Key key )
+    {
+        Polyhedron shape = this .young .get( key );
+        if ( shape == null ) {
+            shape = this .old .remove( key );
+            if ( shape != null )
+                this .retain( key, shape );
+        }
+        if ( shape == null )
+            ++ this .misses;
+        else
+            ++ this .hits;
+        return shape;
+    }
+
+    /**
+     * Shapes are built outside the lock, so two threads may build the same one;
+     * the first to put() it wins, and both use that one.
+     * @return the shape now cached for key
+     */
+    public synchronized Polyhedron put( Key key, Polyhedron shape )
+    {
+        Polyhedron existing = this .young .get( key );
+        if ( existing != null )
+            return existing;
+        existing = this .old .remove( key );
+        if ( existing != null )
+            shape = existing;
+        this .retain( key, shape );
+        return shape;
+    }
+
+    private void retain( Key key, Polyhedron shape )
+    {
+        if ( this .young .size() >= this .generationSize ) {
+            this .evictions += this .old .size();
+            this .old = this .young;
+            this .young = new HashMap<>();
+        }
+        this .young .put( key, shape );
+    }
+
+    public synchronized long getHits()
+    {
+        return this .hits;
+    }
+
+    public synchronized long getMisses()
+    {
+        return this .misses;
+    }
+
+    public synchronized long getEvictions()
+    {
+        return this .evictions;
+    }
+
+    public synchronized int size()
+    {
+        return this .young .size() + this .old .size();
+    }
+
+    /**
+     * @return the fraction of lookups that found a cached shape
+     */
+    public synchronized double getHitRate()
+    {
+        long lookups = this .hits + this .misses;
+        return lookups == 0 ? 0d : (double) this .hits / lookups;
+    }
+
+    @Override
+    public synchronized String toString()
+    {
+        return "ShapeCache: " + this .hits + " hits, " + this .misses + " misses ("
+                + Math .round( 100d * getHitRate() ) + "% hit rate), "
+                + size() + " retained, " + this .evictions + " evicted";
+    }
+}
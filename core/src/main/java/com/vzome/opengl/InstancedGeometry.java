@@ -23,6 +23,17 @@ public interface InstancedGeometry {
     public interface BufferStorage
     {
         int storeBuffer( FloatBuffer buffer, int oldId );
+
+        /**
+         * Store just part of a buffer previously stored whole, with storeBuffer().
+         * @param start the first float to store
+         * @param length the number of floats to store
+         * @return the buffer id, which may differ from id if the storage cannot store ranges
+         */
+        default int storeBufferRange( FloatBuffer buffer, int id, int start, int length )
+        {
+            return storeBuffer( buffer, id );
+        }
     }
 
     FloatBuffer getLineVerticesBuffer();
@@ -34,4 +45,24 @@ public interface InstancedGeometry {
     FloatBuffer getInstancesBuffer();
 
     FloatBuffer getColorsBuffer();
+
+    /**
+     * A merged mesh draws a single instance, but gives the instance data and colors
+     * for every vertex, and the instance data for every line vertex as well.
+     * @return true if the instance data and colors are per vertex rather than per instance
+     */
+    default boolean hasVertexData()
+    {
+        return false;
+    }
+
+    default int getLineInstancesVBO()
+    {
+        return getInstancesVBO();
+    }
+
+    default FloatBuffer getLineInstancesBuffer()
+    {
+        return getInstancesBuffer();
+    }
 }
\ No newline at end of file
@@ -74,6 +74,8 @@ public interface OpenGlShim {
 
 	void glBufferData( int i, FloatBuffer clientBuffer );
 
+	void glBufferSubData( int offset, int size, FloatBuffer clientBuffer );
+
     void glDeleteBuffer( int oldId );
 
 	void multiplyMM( float[] view, float[] eyeTransform, float[] camera );
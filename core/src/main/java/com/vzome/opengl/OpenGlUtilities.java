@@ -36,6 +36,19 @@ public class OpenGlUtilities
         return buffers[ 0 ];
     }
 
+    static int storeBufferRange( OpenGlShim gl, FloatBuffer clientBuffer, int id, int start, int length )
+    {
+        FloatBuffer range = clientBuffer .duplicate();
+        range .position( start );
+        range .limit( start + length );
+        gl .glBindBuffer( id );
+        // Replace just the range, leaving the rest of the buffer as it was stored.
+        gl .glBufferSubData( start * 4, length * 4, range );
+        OpenGlUtilities.checkGLError( gl, "glBufferSubData");
+        gl .glBindBuffer( 0 );
+        return id;
+    }
+
     /**
      * Checks if we've had an error inside of OpenGL ES, and if so what that error is.
      * @param func
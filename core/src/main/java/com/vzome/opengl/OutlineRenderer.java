@@ -2,7 +2,7 @@ package com.vzome.opengl;
 
 import java.nio.FloatBuffer;
 
-import com.vzome.core.render.SymmetryRendering;
+import com.vzome.core.render.SymmetryFrame;
 
 /**
 * Created by vorth on 7/28/14.
@@ -166,7 +166,7 @@ public class OutlineRenderer implements InstancedGeometry.BufferStorage, Rendere
     }
     
     @Override
-    public void renderSymmetry( SymmetryRendering symmetryRendering )
+    public void renderSymmetry( SymmetryFrame symmetryRendering )
     {
         gl.glUseProgram( programId );
         OpenGlUtilities.checkGLError( gl, "glUseProgram" );  // a compile / link problem seems to fail only now!
@@ -184,13 +184,14 @@ public class OutlineRenderer implements InstancedGeometry.BufferStorage, Rendere
             if ( instanceCount == 0 )
                 continue;
             
+            boolean instanced = ! shapeClass .hasVertexData();
             if ( this .useVBOs ) {
                 OpenGlUtilities .setVBO( gl, a_Vertex,       shapeClass .getLineVerticesVBO(),  false, COORDS_PER_VERTEX );
-                OpenGlUtilities .setVBO( gl, a_InstanceData, shapeClass .getInstancesVBO(), true, 4 );
+                OpenGlUtilities .setVBO( gl, a_InstanceData, shapeClass .getLineInstancesVBO(), instanced, 4 );
             }
             else {
                 OpenGlUtilities .setBuffer( gl, a_Vertex,       shapeClass .getLineVerticesBuffer(),  false, COORDS_PER_VERTEX );
-                OpenGlUtilities .setBuffer( gl, a_InstanceData, shapeClass .getInstancesBuffer(), true, 4 );
+                OpenGlUtilities .setBuffer( gl, a_InstanceData, shapeClass .getLineInstancesBuffer(), instanced, 4 );
             }
 
             gl.glDrawLinesInstanced( 0, shapeClass .getLineVertexCount(), instanceCount );
@@ -203,4 +204,10 @@ public class OutlineRenderer implements InstancedGeometry.BufferStorage, Rendere
     {
         return OpenGlUtilities .storeBuffer( this .gl, clientBuffer, oldId );
     }
+
+    @Override
+    public int storeBufferRange( FloatBuffer clientBuffer, int id, int start, int length )
+    {
+        return OpenGlUtilities .storeBufferRange( this .gl, clientBuffer, id, start, length );
+    }
 }
@@ -1,6 +1,6 @@
 package com.vzome.opengl;
 
-import com.vzome.core.render.SymmetryRendering;
+import com.vzome.core.render.SymmetryFrame;
 
 public interface Renderer
 {
@@ -10,5 +10,5 @@ public interface Renderer
 
     void clear( float[] background );
 
-    void renderSymmetry( SymmetryRendering symmetryRendering );
+    void renderSymmetry( SymmetryFrame symmetryRendering );
 }
\ No newline at end of file
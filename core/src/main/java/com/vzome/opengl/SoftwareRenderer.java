@@ -0,0 +1,393 @@
+package com.vzome.opengl;
+
+import java.awt.image.BufferedImage;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import com.vzome.core.render.SymmetryFrame;
+
+/**
+ * A Renderer that rasterizes into memory, with no OpenGL and no display,
+ * for thumbnails and images made on headless machines.
+ *
+ * It follows the SolidRenderer shaders: flat-shaded triangles lit by the same directional
+ * and ambient lights, plus glow, with depth fog, back-face culling, a z-buffer,
+ * and alpha blending in drawing order.  Outlines are not drawn.
+ *
+ * renderSymmetry() transforms and lights the triangles, and the first call to getPixels()
+ * or getImage() bins them into square tiles, then rasterizes the tiles in parallel.
+ * Each tile owns its pixels, and draws its triangles in order, so the result does not
+ * depend on the number of threads.
+ * Triangles that cross the near or far plane are dropped rather than clipped,
+ * which is harmless for a camera that frames the whole model.
+ */
+public class SoftwareRenderer implements Renderer
+{
+    private static final int TILE_SIZE = 32;
+
+    // window x, y, z of three vertices, then red, green, blue, alpha
+    private static final int FLOATS_PER_TRIANGLE = 13;
+
+    private final int width, height, tilesX, tilesY;
+
+    private final ForkJoinPool pool;
+
+    private final float[] colors; // rgba per pixel
+
+    private final float[] depths;
+
+    private float[] triangles = new float[ 1024 * FLOATS_PER_TRIANGLE ];
+    private int triangleCount = 0;
+
+    private boolean rasterized = false;
+
+    private final float[] background = new float[] { 1f, 1f, 1f, 1f };
+
+    private float[] modelView = new float[16], projection = new float[16];
+    private float near = 0.1f, far = 100f, fogMin = 0f;
+    private boolean perspective = false;
+
+    private float[][] lightDirections = new float[0][], lightColors = new float[0][];
+    private float[] ambientLight = new float[3];
+
+    /**
+     * @param pool runs the tiles in parallel, or null to run them all on the calling thread
+     */
+    public SoftwareRenderer( int width, int height, ForkJoinPool pool )
+    {
+        if ( width <= 0 || height <= 0 )
+            throw new IllegalArgumentException( "image size must be positive, not " + width + "x" + height );
+        this .width = width;
+        this .height = height;
+        this .tilesX = ( width + TILE_SIZE - 1 ) / TILE_SIZE;
+        this .tilesY = ( height + TILE_SIZE - 1 ) / TILE_SIZE;
+        this .pool = pool;
+        this .colors = new float[ width * height * 4 ];
+        this .depths = new float[ width * height ];
+    }
+
+    public int getWidth()
+    {
+        return this .width;
+    }
+
+    public int getHeight()
+    {
+        return this .height;
+    }
+
+    public int getTriangleCount()
+    {
+        return this .triangleCount;
+    }
+
+    @Override
+    public void setLights( float[][] lightDirections, float[][] lightColors, float[] ambientLight )
+    {
+        this .lightDirections = new float[ lightDirections.length ][];
+        for ( int i = 0; i < lightDirections.length; i++ ) {
+            float[] d = lightDirections[ i ];
+            float length = (float) Math .sqrt( d[0]*d[0] + d[1]*d[1] + d[2]*d[2] );
+            this .lightDirections[ i ] = new float[] { d[0] / length, d[1] / length, d[2] / length };
+        }
+        this .lightColors = lightColors .clone();
+        this .ambientLight = ambientLight .clone();
+    }
+
+    @Override
+    public void setView( float[] modelView, float[] projection, float near, float fogFront, float far, boolean perspective )
+    {
+        this .modelView = modelView .clone();
+        this .projection = projection .clone();
+        this .near = near;
+        this .far = far;
+        this .fogMin = ( fogFront - near ) / ( far - near );
+        this .perspective = perspective;
+    }
+
+    @Override
+    public void clear( float[] background )
+    {
+        System .arraycopy( background, 0, this .background, 0, Math .min( 4, background.length ) );
+        this .triangleCount = 0;
+        this .rasterized = false;
+    }
+
+    @Override
+    public void renderSymmetry( SymmetryFrame symmetryRendering )
+    {
+        float[] embedding = symmetryRendering .getEmbedding();
+        float[][] orientations = symmetryRendering .getOrientations();
+        float[] eye = multiply( this .modelView, embedding );
+        float[] clip = multiply( this .projection, eye );
+        float[] normal = new float[3], eyeNormal = new float[3], rgba = new float[4];
+        float[] position = new float[3], window = new float[9];
+
+        for ( InstancedGeometry shape : symmetryRendering .getGeometries() )
+        {
+            int instanceCount = shape .prepareToRender( null ); // brings the buffers up to date, storing nothing
+            if ( instanceCount == 0 )
+                continue;
+            boolean perVertex = shape .hasVertexData();
+            FloatBuffer vertices = shape .getVerticesBuffer();
+            FloatBuffer normals = shape .getNormalsBuffer();
+            FloatBuffer instances = shape .getInstancesBuffer();
+            FloatBuffer instanceColors = shape .getColorsBuffer();
+            int triangles = shape .getVertexCount() / 3;
+
+            for ( int instance = 0; instance < instanceCount; instance++ ) {
+                for ( int t = 0; t < triangles; t++ ) {
+                    int first = 3 * t;
+                    // instance data is the same for every vertex of a triangle, even when given per vertex
+                    int data = 4 * ( perVertex? first : instance );
+                    float orientationAndGlow = instances .get( data + 3 );
+                    int index = Math .max( 0, Math .min( orientations.length - 1, (int) Math .floor( orientationAndGlow ) ) );
+                    float[] orientation = orientations[ index ];
+
+                    boolean visible = true;
+                    for ( int j = 0; j < 3 && visible; j++ ) {
+                        int v = 3 * ( first + j );
+                        transform( orientation, vertices .get( v ), vertices .get( v+1 ), vertices .get( v+2 ), 1f, position );
+                        position[0] += instances .get( data );
+                        position[1] += instances .get( data + 1 );
+                        position[2] += instances .get( data + 2 );
+                        visible = this .project( clip, position, window, 3 * j );
+                    }
+                    if ( ! visible )
+                        continue;
+                    // GL culls clockwise triangles, and window y runs down here
+                    float area = ( window[3] - window[0] ) * ( window[7] - window[1] ) - ( window[6] - window[0] ) * ( window[4] - window[1] );
+                    if ( area >= 0f )
+                        continue;
+
+                    int n = 3 * first;
+                    transform( orientation, normals .get( n ), normals .get( n+1 ), normals .get( n+2 ), 0f, normal );
+                    transform( eye, normal[0], normal[1], normal[2], 0f, eyeNormal );
+                    int c = 4 * ( perVertex? first : instance );
+                    rgba[0] = instanceColors .get( c );
+                    rgba[1] = instanceColors .get( c + 1 );
+                    rgba[2] = instanceColors .get( c + 2 );
+                    rgba[3] = instanceColors .get( c + 3 );
+                    this .light( eyeNormal, orientationAndGlow - (float) Math .floor( orientationAndGlow ), rgba );
+                    this .addTriangle( window, rgba );
+                }
+            }
+        }
+        this .rasterized = false;
+    }
+
+    /**
+     * As in the SolidRenderer vertex shader.
+     */
+    private void light( float[] normal, float glow, float[] rgba )
+    {
+        float length = (float) Math .sqrt( normal[0]*normal[0] + normal[1]*normal[1] + normal[2]*normal[2] );
+        if ( length > 0f ) {
+            normal[0] /= length; normal[1] /= length; normal[2] /= length;
+        }
+        float red = glow + this .ambientLight[0] * 0.9f;
+        float green = glow + this .ambientLight[1] * 0.9f;
+        float blue = glow + this .ambientLight[2] * 0.9f;
+        for ( int i = 0; i < this .lightDirections.length; i++ ) {
+            float[] direction = this .lightDirections[ i ];
+            float diffuse = Math .max( 0f, normal[0]*direction[0] + normal[1]*direction[1] + normal[2]*direction[2] );
+            red += diffuse * rgba[0] * this .lightColors[ i ][0];
+            green += diffuse * rgba[1] * this .lightColors[ i ][1];
+            blue += diffuse * rgba[2] * this .lightColors[ i ][2];
+        }
+        rgba[0] = Math .min( 1f, red );
+        rgba[1] = Math .min( 1f, green );
+        rgba[2] = Math .min( 1f, blue );
+    }
+
+    /**
+     * Map a world position to window coordinates, with y running down and depth from 0 to 1.
+     * @return false if the position is not between the near and far planes
+     */
+    private boolean project( float[] clip, float[] position, float[] window, int offset )
+    {
+        float x = clip[0] * position[0] + clip[4] * position[1] + clip[8]  * position[2] + clip[12];
+        float y = clip[1] * position[0] + clip[5] * position[1] + clip[9]  * position[2] + clip[13];
+        float z = clip[2] * position[0] + clip[6] * position[1] + clip[10] * position[2] + clip[14];
+        float w = clip[3] * position[0] + clip[7] * position[1] + clip[11] * position[2] + clip[15];
+        if ( ! ( w > 0f ) || z < -w || z > w )
+            return false;
+        window[ offset ] = ( x / w + 1f ) * 0.5f * this .width;
+        window[ offset + 1 ] = ( 1f - y / w ) * 0.5f * this .height;
+        window[ offset + 2 ] = ( z / w + 1f ) * 0.5f;
+        return true;
+    }
+
+    private void addTriangle( float[] window, float[] rgba )
+    {
+        int base = this .triangleCount * FLOATS_PER_TRIANGLE;
+        if ( base + FLOATS_PER_TRIANGLE > this .triangles.length )
+            this .triangles = Arrays .copyOf( this .triangles, 2 * this .triangles.length );
+        System .arraycopy( window, 0, this .triangles, base, 9 );
+        System .arraycopy( rgba, 0, this .triangles, base + 9, 4 );
+        ++ this .triangleCount;
+    }
+
+    /**
+     * @return the image as packed ARGB pixels, row by row from the top
+     */
+    public int[] getPixels()
+    {
+        if ( ! this .rasterized ) {
+            this .rasterize();
+            this .rasterized = true;
+        }
+        int[] pixels = new int[ this .width * this .height ];
+        for ( int i = 0; i < pixels.length; i++ ) {
+            int k = 4 * i;
+            pixels[ i ] = ( toByte( this .colors[ k+3 ] ) << 24 ) | ( toByte( this .colors[ k ] ) << 16 )
+                    | ( toByte( this .colors[ k+1 ] ) << 8 ) | toByte( this .colors[ k+2 ] );
+        }
+        return pixels;
+    }
+
+    public BufferedImage getImage( boolean withAlpha )
+    {
+        BufferedImage image = new BufferedImage( this .width, this .height, withAlpha? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB );
+        image .setRGB( 0, 0, this .width, this .height, this .getPixels(), 0, this .width );
+        return image;
+    }
+
+    private static int toByte( float value )
+    {
+        return Math .round( Math .max( 0f, Math .min( 1f, value ) ) * 255f );
+    }
+
+    private void rasterize()
+    {
+        int tileCount = this .tilesX * this .tilesY;
+        int[][] bins = new int[ tileCount ][];
+        int[] binSizes = new int[ tileCount ];
+        for ( int t = 0; t < this .triangleCount; t++ ) {
+            int base = t * FLOATS_PER_TRIANGLE;
+            float[] tr = this .triangles;
+            float minX = Math .min( tr[ base ], Math .min( tr[ base+3 ], tr[ base+6 ] ) );
+            float maxX = Math .max( tr[ base ], Math .max( tr[ base+3 ], tr[ base+6 ] ) );
+            float minY = Math .min( tr[ base+1 ], Math .min( tr[ base+4 ], tr[ base+7 ] ) );
+            float maxY = Math .max( tr[ base+1 ], Math .max( tr[ base+4 ], tr[ base+7 ] ) );
+            int x0 = Math .max( 0, (int) minX / TILE_SIZE ), x1 = Math .min( this .tilesX - 1, (int) maxX / TILE_SIZE );
+            int y0 = Math .max( 0, (int) minY / TILE_SIZE ), y1 = Math .min( this .tilesY - 1, (int) maxY / TILE_SIZE );
+            for ( int ty = y0; ty <= y1; ty++ )
+                for ( int tx = x0; tx <= x1; tx++ ) {
+                    int tile = ty * this .tilesX + tx;
+                    int[] bin = bins[ tile ];
+                    if ( bin == null )
+                        bin = bins[ tile ] = new int[ 16 ];
+                    else if ( binSizes[ tile ] == bin.length )
+                        bin = bins[ tile ] = Arrays .copyOf( bin, 2 * bin.length );
+                    bin[ binSizes[ tile ]++ ] = t;
+                }
+        }
+        if ( this .pool == null )
+            for ( int tile = 0; tile < tileCount; tile++ )
+                this .rasterizeTile( tile, bins[ tile ], binSizes[ tile ] );
+        else
+            this .pool .submit( () -> IntStream .range( 0, tileCount ) .parallel()
+                    .forEach( tile -> this .rasterizeTile( tile, bins[ tile ], binSizes[ tile ] ) ) ) .join();
+    }
+
+    private void rasterizeTile( int tile, int[] bin, int size )
+    {
+        int left = ( tile % this .tilesX ) * TILE_SIZE, top = ( tile / this .tilesX ) * TILE_SIZE;
+        int right = Math .min( this .width, left + TILE_SIZE ), bottom = Math .min( this .height, top + TILE_SIZE );
+        for ( int y = top; y < bottom; y++ ) {
+            Arrays .fill( this .depths, y * this .width + left, y * this .width + right, 1f );
+            for ( int x = left; x < right; x++ )
+                System .arraycopy( this .background, 0, this .colors, 4 * ( y * this .width + x ), 4 );
+        }
+        float[] tr = this .triangles;
+        for ( int i = 0; i < size; i++ ) {
+            int base = bin[ i ] * FLOATS_PER_TRIANGLE;
+            float ax = tr[ base ],   ay = tr[ base+1 ], az = tr[ base+2 ];
+            float bx = tr[ base+3 ], by = tr[ base+4 ], bz = tr[ base+5 ];
+            float cx = tr[ base+6 ], cy = tr[ base+7 ], cz = tr[ base+8 ];
+            // front faces have negative area, so negate the edge functions to make the inside positive
+            float area = ( bx - ax ) * ( cy - ay ) - ( cx - ax ) * ( by - ay );
+            int x0 = Math .max( left, (int) Math .floor( Math .min( ax, Math .min( bx, cx ) ) ) );
+            int x1 = Math .min( right - 1, (int) Math .ceil( Math .max( ax, Math .max( bx, cx ) ) ) );
+            int y0 = Math .max( top, (int) Math .floor( Math .min( ay, Math .min( by, cy ) ) ) );
+            int y1 = Math .min( bottom - 1, (int) Math .ceil( Math .max( ay, Math .max( by, cy ) ) ) );
+            for ( int y = y0; y <= y1; y++ ) {
+                float py = y + 0.5f;
+                for ( int x = x0; x <= x1; x++ ) {
+                    float px = x + 0.5f;
+                    float wa = ( cx - bx ) * ( py - by ) - ( cy - by ) * ( px - bx );
+                    float wb = ( ax - cx ) * ( py - cy ) - ( ay - cy ) * ( px - cx );
+                    float wc = ( bx - ax ) * ( py - ay ) - ( by - ay ) * ( px - ax );
+                    if ( wa > 0f || wb > 0f || wc > 0f )
+                        continue;
+                    float z = ( wa * az + wb * bz + wc * cz ) / area;
+                    int pixel = y * this .width + x;
+                    if ( ! ( z < this .depths[ pixel ] ) )
+                        continue;
+                    this .depths[ pixel ] = z;
+                    this .shade( 4 * pixel, z, tr, base + 9 );
+                }
+            }
+        }
+    }
+
+    /**
+     * As in the SolidRenderer fragment shader, then blended over the pixel.
+     */
+    private void shade( int k, float z, float[] tr, int color )
+    {
+        float fog = this .fogFactor( z );
+        float alpha = tr[ color+3 ] + ( this .background[3] - tr[ color+3 ] ) * fog;
+        for ( int j = 0; j < 3; j++ ) {
+            float fragment = tr[ color+j ] + ( this .background[ j ] - tr[ color+j ] ) * fog;
+            this .colors[ k+j ] = fragment * alpha + this .colors[ k+j ] * ( 1f - alpha );
+        }
+        this .colors[ k+3 ] = alpha + this .colors[ k+3 ] * ( 1f - alpha );
+    }
+
+    private float fogFactor( float depth )
+    {
+        float distance;
+        if ( ! this .perspective )
+            distance = depth * ( this .far - this .near ) + this .near;
+        else {
+            float ndc = depth * 2f - 1f;
+            distance = ( 2f * this .near * this .far ) / ( this .far + this .near - ndc * ( this .far - this .near ) );
+        }
+        float d = distance / this .far;
+        if ( d >= 1f )
+            return 1f;
+        if ( d <= this .fogMin )
+            return 0f;
+        return 1f - ( 1f - d ) / ( 1f - this .fogMin );
+    }
+
+    /**
+     * @return a times b, for column-major 4x4 matrices
+     */
+    private static float[] multiply( float[] a, float[] b )
+    {
+        float[] result = new float[16];
+        for ( int col = 0; col < 4; col++ )
+            for ( int row = 0; row < 4; row++ ) {
+                float sum = 0f;
+                for ( int k = 0; k < 4; k++ )
+                    sum += a[ k * 4 + row ] * b[ col * 4 + k ];
+                result[ col * 4 + row ] = sum;
+            }
+        return result;
+    }
+
+    /**
+     * Transform a point (w = 1) or a direction (w = 0) by a column-major 4x4 matrix, ignoring the result's w.
+     */
+    private static void transform( float[] m, float x, float y, float z, float w, float[] result )
+    {
+        result[0] = m[0] * x + m[4] * y + m[8]  * z + m[12] * w;
+        result[1] = m[1] * x + m[5] * y + m[9]  * z + m[13] * w;
+        result[2] = m[2] * x + m[6] * y + m[10] * z + m[14] * w;
+    }
+}
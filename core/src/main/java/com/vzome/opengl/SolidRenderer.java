@@ -2,7 +2,7 @@ package com.vzome.opengl;
 
 import java.nio.FloatBuffer;
 
-import com.vzome.core.render.SymmetryRendering;
+import com.vzome.core.render.SymmetryFrame;
 
 /**
 * Created by vorth on 7/28/14.
@@ -213,7 +213,7 @@ public class SolidRenderer implements InstancedGeometry.BufferStorage, Renderer
     }
     
     @Override
-    public void renderSymmetry( SymmetryRendering symmetryRendering )
+    public void renderSymmetry( SymmetryFrame symmetryRendering )
     {
         gl.glUseProgram( programId );
         OpenGlUtilities.checkGLError( gl, "glUseProgram" );  // a compile / link problem seems to fail only now!
@@ -231,17 +231,18 @@ public class SolidRenderer implements InstancedGeometry.BufferStorage, Renderer
             if ( instanceCount == 0 )
                 continue;
 
+            boolean instanced = ! shape .hasVertexData();
             if ( this .useVBOs ) {
                 OpenGlUtilities .setVBO( gl, a_Vertex,       shape .getVerticesVBO(),  false, COORDS_PER_VERTEX );
                 OpenGlUtilities .setVBO( gl, a_Normal,       shape .getNormalsVBO(),   false, COORDS_PER_VERTEX );
-                OpenGlUtilities .setVBO( gl, a_InstanceData, shape .getInstancesVBO(), true, 4 );
-                OpenGlUtilities .setVBO( gl, a_Color,        shape .getColorsVBO(),    true, 4 );
+                OpenGlUtilities .setVBO( gl, a_InstanceData, shape .getInstancesVBO(), instanced, 4 );
+                OpenGlUtilities .setVBO( gl, a_Color,        shape .getColorsVBO(),    instanced, 4 );
             }
             else {
                 OpenGlUtilities .setBuffer( gl, a_Vertex,       shape .getVerticesBuffer(),  false, COORDS_PER_VERTEX );
                 OpenGlUtilities .setBuffer( gl, a_Normal,       shape .getNormalsBuffer(),   false, COORDS_PER_VERTEX );
-                OpenGlUtilities .setBuffer( gl, a_InstanceData, shape .getInstancesBuffer(), true, 4 );
-                OpenGlUtilities .setBuffer( gl, a_Color,        shape .getColorsBuffer(),    true, 4 );
+                OpenGlUtilities .setBuffer( gl, a_InstanceData, shape .getInstancesBuffer(), instanced, 4 );
+                OpenGlUtilities .setBuffer( gl, a_Color,        shape .getColorsBuffer(),    instanced, 4 );
             }
 
             gl.glDrawTrianglesInstanced( 0, shape .getVertexCount(), instanceCount );
@@ -254,4 +255,10 @@ public class SolidRenderer implements InstancedGeometry.BufferStorage, Renderer
     {
         return OpenGlUtilities .storeBuffer( this .gl, clientBuffer, oldId );
     }
+
+    @Override
+    public int storeBufferRange( FloatBuffer clientBuffer, int id, int start, int length )
+    {
+        return OpenGlUtilities .storeBufferRange( this .gl, clientBuffer, id, start, length );
+    }
 }
@@ -48,6 +48,16 @@ public class AlgebraicFieldTest {
         }
     }
     
+    // the fields that the "compact.numbers" property gives CompactAlgebraicNumberImpl numbers
+    private final static List<AlgebraicField> COMPACT_FIELDS = new ArrayList<>();
+
+    static {
+        COMPACT_FIELDS.add (new PentagonField( CompactAlgebraicNumberImpl.FACTORY ));
+        COMPACT_FIELDS.add (new RootTwoField( CompactAlgebraicNumberImpl.FACTORY ));
+        COMPACT_FIELDS.add (new RootThreeField( CompactAlgebraicNumberImpl.FACTORY ));
+        COMPACT_FIELDS.add (new HeptagonField( CompactAlgebraicNumberImpl.FACTORY ));
+    }
+
     @Test
     public void testApplicationDocumentKinds()
     {
@@ -249,6 +259,79 @@ public class AlgebraicFieldTest {
         assertEquals(TEST_FIELDS.size(), pass);
     }
 
+    @Test
+    public void testMultiplicationTensor() {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        for(AlgebraicField field : TEST_FIELDS) {
+            AbstractAlgebraicField abstractField = (AbstractAlgebraicField) field;
+            AlgebraicNumber[] terms = getTestTerms(field);
+            for(AlgebraicNumber n1 : terms) {
+                for(AlgebraicNumber n2 : terms) {
+                    // times() accumulates using the tensor, so compare it to multiply()
+                    BigRational[] factors = abstractField.multiply(((AlgebraicNumberImpl) n1).getFactors(), ((AlgebraicNumberImpl) n2).getFactors());
+                    AlgebraicNumber expected = new AlgebraicNumberImpl(field, factors);
+                    assertEquals(field.getName() + ": " + n1 + " * " + n2, expected, n1.times(n2));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDotProduct() {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        for(AlgebraicField field : TEST_FIELDS) {
+            testDotProduct(field);
+        }
+    }
+
+    private void testDotProduct(AlgebraicField field) {
+        AlgebraicNumber[] v1 = getTestTerms(field);
+        AlgebraicNumber[] v2 = new AlgebraicNumber[v1.length];
+        for(int i = 0; i < v1.length; i++) {
+            v2[i] = v1[v1.length - 1 - i].plusRational(i, 7);
+        }
+        AlgebraicNumber expected = field.zero();
+        for(int i = 0; i < v1.length; i++) {
+            expected = expected.plus(v1[i].times(v2[i]));
+        }
+        assertEquals(field.getName(), expected, field.dotProduct(v1, v2));
+        assertTrue(field.getName(), field.dotProduct(new AlgebraicNumber[] { field.zero() }, v2).isZero());
+    }
+
+    @Test
+    public void testCompactFields() {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        for(AlgebraicField field : COMPACT_FIELDS) {
+            String msg = field.getName() + " compact";
+            assertTrue(msg, field.one() instanceof CompactAlgebraicNumberImpl);
+            // equal to the same field with the default numbers, so documents can mix them
+            assertTrue(msg, TEST_FIELDS.contains(field));
+            assertTrue(msg, field.getOrder() >= 2);
+            testConvertGoldenNumberPairs(field);
+            testDotProduct(field);
+            try {
+                field .zero() .reciprocal() .evaluate();
+                fail( "Zero divide should throw an exception" );
+            } catch ( RuntimeException re ) {
+                assertEquals( "Denominator is zero", re .getMessage() );
+            }
+        }
+    }
+
+    private static AlgebraicNumber[] getTestTerms(AlgebraicField field) {
+        List<AlgebraicNumber> terms = new ArrayList<>();
+        terms.add(field.zero());
+        terms.add(field.one());
+        terms.add(field.createRational(-3, 4));
+        for(int i = 1; i < field.getOrder(); i++) {
+            terms.add(field.getUnitTerm(i));
+            terms.add(field.getUnitTerm(i).timesRational(5, -3).plusRational(2, 9));
+        }
+        // large enough that the long math overflows to BigInteger
+        terms.add(field.createRational(Long.MAX_VALUE / 3, 7).times(field.getUnitTerm(field.getOrder() - 1)));
+        return terms.toArray(new AlgebraicNumber[terms.size()]);
+    }
+
 	@Test
 	public void testReciprocal()
 	{
@@ -0,0 +1,88 @@
+package com.vzome.core.algebra;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.vzome.core.generic.Utilities;
+
+public class AlgebraicNumberCacheTest
+{
+    @Test
+    public void testEqualNumbersAreShared()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        for ( AbstractAlgebraicField field : new AbstractAlgebraicField[] { new PentagonField(), new PentagonField( CompactAlgebraicNumberImpl.FACTORY ) } ) {
+            assertNull( field .getNumberCache() );
+            AlgebraicNumber phi = field .getUnitTerm( 1 );
+            assertNotSame( phi .plus( field .one() ), phi .plus( field .one() ) );
+
+            field .enableNumberCache( 1000 );
+            AlgebraicNumberCache cache = field .getNumberCache();
+            phi = field .getUnitTerm( 1 );
+            AlgebraicNumber sum = phi .plus( field .one() );
+            assertSame( sum, field .one() .plus( phi ) );
+            assertSame( sum, phi .times( phi ) );
+            assertSame( field .one(), phi .times( phi .reciprocal() ) );
+            assertSame( field .zero(), field .createRational( 0 ) );
+            assertSame( field .createRational( 3, 4 ), field .createRational( 6, 8 ) );
+            assertSame( sum .negate(), field .createAlgebraicNumber( new int[] { -1, -1 } ) );
+            assertTrue( cache .getHits() > 0 );
+            assertTrue( cache .getHitRate() > 0d && cache .getHitRate() < 1d );
+
+            field .enableNumberCache( 0 );
+            assertNull( field .getNumberCache() );
+        }
+    }
+
+    @Test
+    public void testEviction()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        AbstractAlgebraicField field = new PentagonField();
+        field .enableNumberCache( 10 );
+        AlgebraicNumberCache cache = field .getNumberCache();
+        AlgebraicNumber first = field .createRational( 100 );
+        for ( int i = 0; i < 100; i++ ) {
+            field .createRational( i, 7 );
+            assertTrue( cache .size() <= 10 );
+        }
+        assertTrue( cache .getEvictions() > 0 );
+        AlgebraicNumber again = field .createRational( 100 );
+        assertNotSame( first, again );
+        assertEquals( first, again );
+        // a recently used number survives
+        assertSame( again, field .createRational( 100 ) );
+    }
+
+    @Test
+    public void testConcurrentInterning() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        AbstractAlgebraicField field = new PentagonField();
+        field .enableNumberCache( 100000 );
+        int threads = 4, count = 2000;
+        AlgebraicNumber[][] results = new AlgebraicNumber[ threads ][ count ];
+        Thread[] workers = new Thread[ threads ];
+        for ( int t = 0; t < threads; t++ ) {
+            AlgebraicNumber[] result = results[ t ];
+            workers[ t ] = new Thread( () -> {
+                for ( int i = 0; i < count; i++ )
+                    result[ i ] = field .createAlgebraicNumber( new int[] { i, i % 7 } );
+            } );
+            workers[ t ] .start();
+        }
+        for ( Thread worker : workers )
+            worker .join();
+        // nothing was evicted, so every thread got the same instances
+        assertEquals( 0, field .getNumberCache() .getEvictions() );
+        for ( int t = 1; t < threads; t++ )
+            for ( int i = 0; i < count; i++ )
+                assertSame( results[ 0 ][ i ], results[ t ][ i ] );
+        assertEquals( threads * count, field .getNumberCache() .getHits() + field .getNumberCache() .getMisses() - 2 );
+    }
+}
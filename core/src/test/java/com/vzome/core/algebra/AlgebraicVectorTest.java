@@ -1,9 +1,14 @@
 package com.vzome.core.algebra;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 
+import com.vzome.core.math.RealVector;
+import com.vzome.core.math.symmetry.Embedding;
+
 public class AlgebraicVectorTest {
 
 	@Test
@@ -19,4 +24,48 @@ public class AlgebraicVectorTest {
 		assertEquals( target, result );
 	}
 
+	@Test
+	public void testCachedEmbedding()
+	{
+		AlgebraicField field = new PentagonField();
+		int[] embeddings = { 0 };
+		Embedding doubling = new Embedding()
+		{
+			@Override
+			public RealVector embedInR3( AlgebraicVector v )
+			{
+				++ embeddings[ 0 ];
+				return v .toRealVector() .scale( 2d );
+			}
+
+			@Override
+			public double[] embedInR3Double( AlgebraicVector v )
+			{
+				++ embeddings[ 0 ];
+				double[] dv = v .to3dDoubleVector();
+				return new double[] { 2 * dv[ 0 ], 2 * dv[ 1 ], 2 * dv[ 2 ] };
+			}
+
+			@Override
+			public boolean isTrivial()
+			{
+				return false;
+			}
+		};
+		AlgebraicVector v = new AlgebraicVector( field .one(), field .createRational( 2 ), field .getUnitTerm( 1 ) );
+		RealVector rv = v .toRealVector( doubling );
+		assertSame( rv, v .toRealVector( doubling ) );
+		assertEquals( 2f, rv .x, 0f );
+		double[] dv = v .to3dDoubleVector( doubling );
+		assertSame( dv, v .to3dDoubleVector( doubling ) );
+		assertEquals( 2, embeddings[ 0 ] );
+		assertArrayEquals( v .to3dDoubleVector(), v .to3dDoubleVector( new Embedding.Trivial() ), 0d );
+
+		v .setComponent( AlgebraicVector.X, field .createRational( 3 ) );
+		assertEquals( 6f, v .toRealVector( doubling ) .x, 0f );
+		assertEquals( 6d, v .to3dDoubleVector( doubling )[ 0 ], 0d );
+		assertEquals( 3f, v .toRealVector() .x, 0f );
+		assertEquals( 4, embeddings[ 0 ] );
+	}
+
 }
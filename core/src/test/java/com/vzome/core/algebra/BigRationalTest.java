@@ -1093,6 +1093,41 @@ public class BigRationalTest {
         assertTrue("big enough", i > 727);  // be sure we tested the original problem
     }
 
+    @Test
+    public void testAccumulator() {
+        BigRationalImpl.Accumulator acc = new BigRationalImpl.Accumulator();
+        assertEquals(BigRationalImpl.ZERO, acc.toBigRational());
+        acc.plus(new BigRationalImpl(1, 6)).plusProduct(new BigRationalImpl(2, 3), new BigRationalImpl(3, 4), 2);
+        assertEquals("7/6", acc.toBigRational().toString());
+        acc.plusProduct(new BigRationalImpl(-7), new BigRationalImpl(1, 6));
+        assertTrue(acc.toBigRational().isZero());
+        assertFalse(acc.isBig());
+
+        // The same harmonic sum as testHarmonicMeans must match the immutable arithmetic after promotion
+        BigRationalImpl sum = BigRationalImpl.ZERO;
+        acc.reset();
+        for(long i = 1; i <= 1000; i++) {
+            BigRationalImpl recip = new BigRationalImpl(1, i);
+            sum = (BigRationalImpl) sum.plus(recip);
+            acc.plusProduct(recip, BigRationalImpl.ONE);
+        }
+        assertTrue(acc.isBig());
+        assertEquals(sum, acc.toBigRational());
+        assertEquals(sum.isBig(), acc.toBigRational().isBig());
+
+        // overflow of the product itself, then demotion back to long
+        BigRationalImpl big = new BigRationalImpl(Long.MAX_VALUE);
+        acc.reset().plusProduct(big, big).plusProduct(big, big.negate()).plus(BigRationalImpl.ONE);
+        assertTrue(acc.isBig());
+        assertEquals(BigRationalImpl.ONE, acc.toBigRational());
+        assertFalse(acc.toBigRational().isBig());
+
+        // a sum of Long.MIN_VALUE must be promoted
+        acc.reset().plus(new BigRationalImpl(-Long.MAX_VALUE)).plus(new BigRationalImpl(-1));
+        assertTrue(acc.isBig());
+        assertEquals(new BigRationalImpl(Long.MIN_VALUE), acc.toBigRational());
+    }
+
     @Test
     public void testBugFix1() {
         Long den = 4294967296L;
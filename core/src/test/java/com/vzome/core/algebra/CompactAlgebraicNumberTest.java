@@ -0,0 +1,168 @@
+package com.vzome.core.algebra;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vzome.core.generic.Utilities;
+
+/**
+ * Verifies that CompactAlgebraicNumberImpl gives exactly the same results as AlgebraicNumberImpl
+ */
+public class CompactAlgebraicNumberTest
+{
+    // pairs of the same field, using the default and the compact number factories
+    private static final AlgebraicField[][] TEST_FIELDS = {
+            { new PentagonField(), new PentagonField( CompactAlgebraicNumberImpl.FACTORY ) },
+            { new RootTwoField(), new RootTwoField( CompactAlgebraicNumberImpl.FACTORY ) },
+            { new RootThreeField(), new RootThreeField( CompactAlgebraicNumberImpl.FACTORY ) },
+            { new HeptagonField(), new HeptagonField( CompactAlgebraicNumberImpl.FACTORY ) },
+    };
+
+    private static List<AlgebraicNumber> getTestTerms( AlgebraicField field )
+    {
+        List<AlgebraicNumber> terms = new ArrayList<>();
+        terms.add( field .zero() );
+        terms.add( field .one() );
+        terms.add( field .createRational( -3, 4 ) );
+        terms.add( field .createRational( 7, 3 ) .plus( field .getUnitTerm( 1 ) .dividedByInt( 6 ) ) );
+        for ( int i = 1; i < field .getOrder(); i++ ) {
+            terms.add( field .getUnitTerm( i ) );
+            terms.add( field .getUnitTerm( i ) .timesRational( 5, -3 ) .plusRational( 2, 9 ) );
+        }
+        terms.add( field .createAlgebraicNumberFromTD( new int[] { 5, -3 } ) .plusInt( 11 ) );
+        // large enough that the long math overflows
+        terms.add( field .createRational( Long.MAX_VALUE / 3, 7 ) .times( field .getUnitTerm( field .getOrder() - 1 ) ) );
+        return terms;
+    }
+
+    private static void assertSameNumber( String message, AlgebraicNumber expected, AlgebraicNumber actual )
+    {
+        assertTrue( message, actual instanceof CompactAlgebraicNumberImpl );
+        assertEquals( message, expected .toString(), actual .toString() );
+        assertEquals( message, expected .toString( AlgebraicField.VEF_FORMAT ), actual .toString( AlgebraicField.VEF_FORMAT ) );
+        assertArrayEquals( message, ((AlgebraicNumberImpl) expected) .getFactors(), ((CompactAlgebraicNumberImpl) actual) .getFactors() );
+        assertEquals( message, expected .evaluate(), actual .evaluate(), 0d );
+        assertEquals( message, expected .isZero(), actual .isZero() );
+        assertEquals( message, expected .isOne(), actual .isOne() );
+        assertEquals( message, expected .isRational(), actual .isRational() );
+        assertEquals( message, expected .signum(), actual .signum() );
+    }
+
+    @Test
+    public void testArithmetic()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        for ( AlgebraicField[] fields : TEST_FIELDS ) {
+            List<AlgebraicNumber> expectedTerms = getTestTerms( fields[ 0 ] );
+            List<AlgebraicNumber> actualTerms = getTestTerms( fields[ 1 ] );
+            for ( int i = 0; i < expectedTerms.size(); i++ ) {
+                AlgebraicNumber e1 = expectedTerms .get( i );
+                AlgebraicNumber a1 = actualTerms .get( i );
+                String name = fields[ 0 ] .getName() + " " + e1;
+                assertSameNumber( name, e1, a1 );
+                assertSameNumber( name + " negate", e1 .negate(), a1 .negate() );
+                if ( ! e1 .isZero() )
+                    assertSameNumber( name + " reciprocal", e1 .reciprocal(), a1 .reciprocal() );
+                for ( int j = 0; j < expectedTerms.size(); j++ ) {
+                    AlgebraicNumber e2 = expectedTerms .get( j );
+                    AlgebraicNumber a2 = actualTerms .get( j );
+                    String names = name + ", " + e2;
+                    assertSameNumber( names + " plus", e1 .plus( e2 ), a1 .plus( a2 ) );
+                    assertSameNumber( names + " minus", e1 .minus( e2 ), a1 .minus( a2 ) );
+                    assertSameNumber( names + " times", e1 .times( e2 ), a1 .times( a2 ) );
+                    if ( ! e2 .isZero() )
+                        assertSameNumber( names + " dividedBy", e1 .dividedBy( e2 ), a1 .dividedBy( a2 ) );
+                    assertEquals( names + " equals", e1 .equals( e2 ), a1 .equals( a2 ) );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testOverflow()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        AlgebraicField field = new PentagonField( CompactAlgebraicNumberImpl.FACTORY );
+        AlgebraicNumber big = field .createRational( Long.MAX_VALUE - 1 ) .times( field .getGoldenRatio() );
+        assertFalse( ((CompactAlgebraicNumberImpl) big) .isBig() );
+
+        AlgebraicNumber bigger = big .times( big );
+        assertTrue( ((CompactAlgebraicNumberImpl) bigger) .isBig() );
+        assertTrue( bigger .greaterThan( big ) );
+
+        // once the result fits again, it returns to the long form and compares as equal
+        AlgebraicNumber back = bigger .dividedBy( big );
+        assertFalse( ((CompactAlgebraicNumberImpl) back) .isBig() );
+        assertEquals( big, back );
+        assertEquals( big .hashCode(), back .hashCode() );
+        assertTrue( bigger .minus( bigger ) .isZero() );
+        assertEquals( field .zero(), bigger .minus( bigger ) );
+
+        AlgebraicNumber tiny = field .createRational( 1, Long.MAX_VALUE - 1 ) .times( field .getGoldenRatio() .reciprocal() );
+        assertTrue( ((CompactAlgebraicNumberImpl) tiny .times( tiny )) .isBig() );
+        assertEquals( field .one(), tiny .times( tiny ) .dividedBy( tiny ) .dividedBy( tiny ) );
+
+        try {
+            field .zero() .reciprocal();
+            fail( "Zero divide should throw an exception" );
+        } catch ( RuntimeException re ) {
+            assertEquals( "Denominator is zero", re .getMessage() );
+        }
+        try {
+            field .createRational( 1, 0 );
+            fail( "Zero denominator should throw an exception" );
+        } catch ( RuntimeException re ) {
+            assertEquals( "Denominator is zero", re .getMessage() );
+        }
+    }
+
+    @Test
+    public void testTrailingDivisor()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        for ( AlgebraicField[] fields : TEST_FIELDS ) {
+            int[] td = new int[ fields[ 0 ] .getOrder() + 1 ];
+            for ( int i = 0; i < td.length - 1; i++ ) {
+                td[ i ] = 6 * i - 4;
+            }
+            td[ td.length - 1 ] = -6;
+            AlgebraicNumber expected = fields[ 0 ] .createAlgebraicNumberFromTD( td );
+            AlgebraicNumber actual = fields[ 1 ] .createAlgebraicNumberFromTD( td );
+            assertSameNumber( fields[ 0 ] .getName(), expected, actual );
+            assertArrayEquals( fields[ 0 ] .getName(), expected .toTrailingDivisor(), actual .toTrailingDivisor() );
+            assertEquals( actual, fields[ 1 ] .createAlgebraicNumberFromTD( actual .toTrailingDivisor() ) );
+        }
+    }
+
+    @Test
+    public void testDotProduct()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        for ( AlgebraicField[] fields : TEST_FIELDS ) {
+            List<AlgebraicNumber> expectedTerms = getTestTerms( fields[ 0 ] );
+            List<AlgebraicNumber> actualTerms = getTestTerms( fields[ 1 ] );
+            int n = expectedTerms .size();
+            AlgebraicNumber[] e1 = expectedTerms .toArray( new AlgebraicNumber[ n ] );
+            AlgebraicNumber[] a1 = actualTerms .toArray( new AlgebraicNumber[ n ] );
+            AlgebraicNumber[] e2 = new AlgebraicNumber[ n ];
+            AlgebraicNumber[] a2 = new AlgebraicNumber[ n ];
+            for ( int i = 0; i < n; i++ ) {
+                e2[ i ] = e1[ n - 1 - i ] .plusRational( i, 7 );
+                a2[ i ] = a1[ n - 1 - i ] .plusRational( i, 7 );
+            }
+            // the last terms overflow, so check the long form alone as well
+            assertSameNumber( fields[ 0 ] .getName(), fields[ 0 ] .dotProduct( e2, e1 ), fields[ 1 ] .dotProduct( a2, a1 ) );
+            AlgebraicVector ev = new AlgebraicVector( e1[ 2 ], e1[ 3 ], e1[ 4 ] );
+            AlgebraicVector av = new AlgebraicVector( a1[ 2 ], a1[ 3 ], a1[ 4 ] );
+            assertSameNumber( fields[ 0 ] .getName(), ev .dot( ev ), av .dot( av ) );
+        }
+    }
+}
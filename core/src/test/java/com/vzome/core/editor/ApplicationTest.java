@@ -1,8 +1,22 @@
 package com.vzome.core.editor;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 
 import org.junit.After;
@@ -11,12 +25,20 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import com.vzome.core.algebra.AbstractAlgebraicField;
 import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicNumberImpl;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.CompactAlgebraicNumberImpl;
 import com.vzome.core.construction.Color;
 import com.vzome.core.construction.Construction;
 import com.vzome.core.construction.ConstructionChanges;
 import com.vzome.core.math.Projection;
+import com.vzome.core.math.VefStreamTokens;
+import com.vzome.core.generic.Utilities;
 import com.vzome.core.model.ColoredMeshJson;
+import com.vzome.core.model.Manifestation;
+import com.vzome.xml.ResourceLoader;
 
 public class ApplicationTest {
 
@@ -96,4 +118,104 @@ public class ApplicationTest {
         }
     }
 
+    @Test
+    public void testInvalidCacheSizes()
+    {
+        Properties props = new Properties();
+        props .setProperty( "number.cache.size", "lots" );
+        props .setProperty( "shape.cache.size", "1e3" );
+        Application application = new Application( false, null, props );
+        // invalid sizes fall back to the defaults, with no caches
+        DocumentModel doc = application .createDocument( "golden" );
+        assertNull( ((AbstractAlgebraicField) doc .getField()) .getNumberCache() );
+        assertNull( application .getShapeCache() );
+
+        props .setProperty( "number.cache.size", " 1000" );
+        props .setProperty( "shape.cache.size", "100" );
+        application = new Application( false, null, props );
+        doc = application .createDocument( "golden" );
+        assertNotNull( ((AbstractAlgebraicField) doc .getField()) .getNumberCache() );
+        assertNotNull( application .getShapeCache() );
+    }
+
+    private static List<String> buildHull( Application application, Class<?> numbers ) throws IOException
+    {
+        DocumentModel doc = application .createDocument( "golden" );
+        Map<String,Object> props = new HashMap<>();
+        props .put( "vef", ResourceLoader .loadStringResource( "com/vzome/core/math/5cell.vef" ) );
+        props .put( "scale", doc .getField() .one() );
+        doc .doEdit( "LoadVEF", props );
+        doc .doEdit( "SelectAll" );
+        doc .doEdit( "ConvexHull3d" );
+        List<String> result = new ArrayList<>();
+        for ( Manifestation man : doc .getEditorModel() .getRealizedModel() ) {
+            AlgebraicVector location = man .getLocation();
+            if ( location != null )
+                assertTrue( numbers .isInstance( location .getComponent( 0 ) ) );
+            result .add( man .toString() );
+        }
+        Collections .sort( result );
+        return result;
+    }
+
+    @Test
+    public void testCompactNumbers() throws IOException
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        Application defaults = new Application( false, null, new Properties() );
+        Properties props = new Properties();
+        props .setProperty( "compact.numbers", "true" );
+        Application compact = new Application( false, null, props );
+        for ( String kind : new String[] { "golden", "rootTwo", "rootThree", "heptagon", "dodecagon" } ) {
+            assertTrue( kind, compact .getField( kind ) .one() instanceof CompactAlgebraicNumberImpl );
+            assertTrue( kind, defaults .getField( kind ) .one() instanceof AlgebraicNumberImpl );
+        }
+        // the other fields need normalization, so they never use compact numbers
+        assertTrue( compact .getField( "snubDodec" ) .one() instanceof AlgebraicNumberImpl );
+        assertEquals( buildHull( defaults, AlgebraicNumberImpl.class ), buildHull( compact, CompactAlgebraicNumberImpl.class ) );
+    }
+
+    private static List<String> describeModel( DocumentModel doc )
+    {
+        List<String> result = new ArrayList<>();
+        for ( Manifestation man : doc .getEditorModel() .getRealizedModel() )
+            result .add( man .toString() );
+        Collections .sort( result );
+        return result;
+    }
+
+    @Test
+    public void testLoadVefFromTokens() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        Application app = new Application( false, null, new Properties() );
+        String vef = ResourceLoader .loadStringResource( "com/vzome/core/math/5cell.vef" );
+        DocumentModel fromText = app .createDocument( "golden" );
+        Map<String,Object> props = new HashMap<>();
+        props .put( "vef", vef );
+        fromText .doEdit( "LoadVEF", props );
+        assertTrue( fromText .getEditorModel() .getRealizedModel() .size() > 0 );
+
+        DocumentModel fromFile = app .createDocument( "golden" );
+        Path file = Files .createTempFile( "vzome", ".vef" );
+        try {
+            Files .write( file, vef .getBytes( StandardCharsets.US_ASCII ) );
+            try ( VefStreamTokens tokens = VefStreamTokens .open( file ) ) {
+                props = new HashMap<>();
+                props .put( "vef", vef );
+                props .put( "vefTokens", tokens );
+                fromFile .doEdit( "LoadVEF", props );
+            }
+        } finally {
+            Files .delete( file );
+        }
+        assertEquals( describeModel( fromText ), describeModel( fromFile ) );
+
+        // the history still has the text, so the edit replays without the file
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        fromFile .serialize( out, new Properties() );
+        DocumentModel reloaded = app .loadDocument( new ByteArrayInputStream( out .toByteArray() ) );
+        reloaded .finishLoading( false, false );
+        assertEquals( describeModel( fromText ), describeModel( reloaded ) );
+    }
 }
@@ -0,0 +1,190 @@
+package com.vzome.core.editor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.vzome.core.construction.Color;
+import com.vzome.core.generic.Utilities;
+import com.vzome.core.editor.api.Selection;
+import com.vzome.core.model.HasRenderedObject;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.ManifestationChanges;
+import com.vzome.core.model.RealizedModelImpl;
+import com.vzome.core.render.RenderedManifestation;
+import com.vzome.core.render.RenderedModel;
+import com.vzome.xml.ResourceLoader;
+
+public class EditHistoryTest
+{
+    // tracks which manifestations the listeners have been told are showing
+    private static class Shown implements ManifestationChanges
+    {
+        private final Set<Manifestation> shown = Collections .newSetFromMap( new IdentityHashMap<>() );
+
+        private int events = 0;
+
+        @Override
+        public void manifestationAdded( Manifestation m )
+        {
+            ++ this .events;
+            this .shown .add( m );
+        }
+
+        @Override
+        public void manifestationRemoved( Manifestation m )
+        {
+            ++ this .events;
+            this .shown .remove( m );
+        }
+
+        @Override
+        public void manifestationColored( Manifestation m, Color color ) {}
+    }
+
+    private static Set<Manifestation> visible( RealizedModelImpl model )
+    {
+        Set<Manifestation> result = Collections .newSetFromMap( new IdentityHashMap<>() );
+        for ( Manifestation man : model )
+            if ( ! man .isHidden() )
+                result .add( man );
+        return result;
+    }
+
+    private static int difference( Set<Manifestation> before, Set<Manifestation> after )
+    {
+        int result = 0;
+        for ( Manifestation man : before )
+            if ( ! after .contains( man ) )
+                ++ result;
+        for ( Manifestation man : after )
+            if ( ! before .contains( man ) )
+                ++ result;
+        return result;
+    }
+
+    @Test
+    public void testJumpsRenderNetChanges() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        Application app = new Application( false, null, new Properties() );
+        DocumentModel doc = app .createDocument( "golden" );
+        RealizedModelImpl model = (RealizedModelImpl) doc .getEditorModel() .getRealizedModel();
+        Shown listener = new Shown();
+        listener .shown .addAll( visible( model ) );
+        model .addListener( listener );
+
+        // the second LoadVEF manifests new objects equal to the deleted ones
+        Map<String,Object> props = new HashMap<>();
+        props .put( "vef", ResourceLoader .loadStringResource( "com/vzome/core/math/5cell.vef" ) );
+        props .put( "scale", doc .getField() .one() );
+        doc .doEdit( "LoadVEF", props );
+        doc .doEdit( "SelectAll" );
+        doc .doEdit( "Delete" );
+        doc .doEdit( "LoadVEF", new HashMap<>( props ) );
+        EditHistory history = doc .getHistoryModel();
+        int edits = history .getEditNumber();
+        assertEquals( visible( model ), listener .shown );
+
+        for ( int target : new int[] { 2, 0, edits, 3, 1, edits } ) {
+            Set<Manifestation> before = visible( model );
+            listener .events = 0;
+            history .goToEdit( target );
+            assertEquals( target, history .getEditNumber() );
+            Set<Manifestation> after = visible( model );
+            assertEquals( after, listener .shown );
+            assertEquals( difference( before, after ), listener .events );
+        }
+
+        Set<Manifestation> before = visible( model );
+        listener .events = 0;
+        history .undoAll();
+        Set<Manifestation> after = visible( model );
+        assertEquals( after, listener .shown );
+        assertEquals( difference( before, after ), listener .events );
+
+        before = after;
+        listener .events = 0;
+        history .redoAll( -1 );
+        assertEquals( edits, history .getEditNumber() );
+        after = visible( model );
+        assertEquals( after, listener .shown );
+        assertEquals( difference( before, after ), listener .events );
+    }
+
+    // every visible manifestation glows exactly when it is selected
+    private static void assertGlowMatchesSelection( RealizedModelImpl model, Selection selection )
+    {
+        int selected = 0;
+        for ( Manifestation man : model ) {
+            if ( man .isHidden() || ! man .isRendered() )
+                continue;
+            RenderedManifestation rm = (RenderedManifestation) ((HasRenderedObject) man) .getRenderedObject();
+            boolean isSelected = selection .manifestationSelected( man );
+            if ( isSelected )
+                ++ selected;
+            assertEquals( man .toString(), isSelected, rm .getGlow() > 0f );
+        }
+        assertEquals( selected, selection .size() );
+    }
+
+    @Test
+    public void testJumpsKeepSelectionGlow() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        Application app = new Application( false, null, new Properties() );
+        DocumentModel doc = app .createDocument( "golden" );
+        RealizedModelImpl model = (RealizedModelImpl) doc .getEditorModel() .getRealizedModel();
+        Selection selection = doc .getEditorModel() .getSelection();
+        RenderedModel rendered = doc .getRenderedModel();
+        // as the desktop DocumentController renders the selection
+        doc .addSelectionListener( new ManifestationChanges()
+        {
+            @Override
+            public void manifestationAdded( Manifestation m )
+            {
+                rendered .setManifestationGlow( m, true );
+            }
+
+            @Override
+            public void manifestationRemoved( Manifestation m )
+            {
+                rendered .setManifestationGlow( m, false );
+            }
+
+            @Override
+            public void manifestationColored( Manifestation m, Color c ) {}
+        } );
+
+        Map<String,Object> props = new HashMap<>();
+        props .put( "vef", ResourceLoader .loadStringResource( "com/vzome/core/math/5cell.vef" ) );
+        props .put( "scale", doc .getField() .one() );
+        doc .doEdit( "LoadVEF", props );
+        doc .doEdit( "DeselectAll" );
+        doc .doEdit( "SelectAll" );
+        EditHistory history = doc .getHistoryModel();
+        int edits = history .getEditNumber();
+        assertTrue( selection .size() > 1 );
+        assertGlowMatchesSelection( model, selection );
+
+        history .undoAll();
+        assertGlowMatchesSelection( model, selection );
+        history .redoAll( -1 );
+        assertEquals( edits, history .getEditNumber() );
+        assertTrue( selection .size() > 1 );
+        assertGlowMatchesSelection( model, selection );
+
+        for ( int target : new int[] { 1, 0, edits, 2, 1, edits } ) {
+            history .goToEdit( target );
+            assertGlowMatchesSelection( model, selection );
+        }
+    }
+}
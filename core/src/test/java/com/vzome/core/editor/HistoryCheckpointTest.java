@@ -0,0 +1,294 @@
+package com.vzome.core.editor;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Test;
+
+import com.vzome.core.construction.Construction;
+import com.vzome.core.editor.api.Selection;
+import com.vzome.core.editor.api.SymmetryAware;
+import com.vzome.core.generic.Utilities;
+import com.vzome.core.math.symmetry.Symmetry;
+import com.vzome.core.model.Connector;
+import com.vzome.core.model.Group;
+import com.vzome.core.model.GroupElement;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.Strut;
+import com.vzome.xml.ResourceLoader;
+
+public class HistoryCheckpointTest
+{
+    private static Manifestation pick( DocumentModel doc, Class<? extends Manifestation> kind, int skip )
+    {
+        for ( Manifestation man : doc .getEditorModel() .getRealizedModel() )
+            if ( kind .isInstance( man ) && skip-- == 0 )
+                return man;
+        return null;
+    }
+
+    private static DocumentModel buildDocument( Application app ) throws Exception
+    {
+        DocumentModel doc = app .createDocument( "golden" );
+        Map<String,Object> props = new HashMap<>();
+        props .put( "vef", ResourceLoader .loadStringResource( "com/vzome/core/math/5cell.vef" ) );
+        props .put( "scale", doc .getField() .one() );
+        doc .doEdit( "LoadVEF", props );
+        doc .doEdit( "SelectAll" );
+        doc .doEdit( "ColorManifestations/ff000080" );
+        doc .doEdit( "DeselectAll" );
+        doc .doPickEdit( pick( doc, Connector.class, 2 ), "SymmetryCenterChange" );
+        doc .doPickEdit( pick( doc, Strut.class, 3 ), "SelectManifestation" );
+        doc .doEdit( "Delete" );
+        doc .doPickEdit( pick( doc, Connector.class, 4 ), "SelectManifestation" );
+        doc .doEdit( "hideball" );
+        doc .doEdit( "SelectAll" );
+        doc .doEdit( "GroupSelection/group" );
+        doc .doEdit( "DeselectAll" );
+        // an anchored strut and its end point, constructions that are not defined by their geometry alone
+        props = new HashMap<>();
+        props .put( "anchor", pick( doc, Connector.class, 1 ) .getFirstConstruction() );
+        Symmetry symmetry = ((SymmetryAware) doc .getEditorModel()) .getSymmetrySystem() .getSymmetry();
+        props .put( "zone", symmetry .getDirection( "blue" ) .getAxis( Symmetry.PLUS, 3 ) );
+        props .put( "length", doc .getField() .createPower( 1 ) );
+        doc .doEdit( "StrutCreation", props );
+        doc .doPickEdit( pick( doc, Strut.class, 1 ), "SelectManifestation" );
+        return doc;
+    }
+
+    private static String serialize( DocumentModel doc, String minEdits ) throws Exception
+    {
+        Properties editorProps = new Properties();
+        if ( minEdits != null )
+            editorProps .setProperty( "checkpoint.min.edits", minEdits );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        doc .serialize( out, editorProps );
+        return new String( out .toByteArray(), StandardCharsets.UTF_8 );
+    }
+
+    private static String saveDocument( Application app, int minEdits ) throws Exception
+    {
+        return serialize( buildDocument( app ), Integer .toString( minEdits ) );
+    }
+
+    private static String withoutCheckpoint( String xml )
+    {
+        return xml .replaceAll( "(?s)<Checkpoint .*</Checkpoint>", "" );
+    }
+
+    private static DocumentModel loadDocument( Application app, String xml, List<String> replayed ) throws Exception
+    {
+        DocumentModel doc = app .loadDocument( new ByteArrayInputStream( xml .getBytes( StandardCharsets.UTF_8 ) ) );
+        doc .addPropertyChangeListener( e -> {
+            if ( "current.edit.xml" .equals( e .getPropertyName() ) )
+                replayed .add( (String) e .getNewValue() );
+        } );
+        doc .finishLoading( false, false );
+        return doc;
+    }
+
+    private static String describe( Manifestation man )
+    {
+        Construction first = man .getFirstConstruction();
+        return man .toString() + ( man .isHidden()? " hidden" : "" ) + " " + man .getColor()
+                + " " + ( ( first == null )? "unconstructed" : first .getClass() .getSimpleName() );
+    }
+
+    // everything later edits can observe, independent of iteration order
+    private static List<String> signature( DocumentModel doc )
+    {
+        Selection selection = doc .getEditorModel() .getSelection();
+        List<String> result = new ArrayList<>();
+        for ( Manifestation man : doc .getEditorModel() .getRealizedModel() ) {
+            StringBuilder buf = new StringBuilder( describe( man ) );
+            if ( selection .manifestationSelected( man ) )
+                buf .append( " selected" );
+            Group group = man .getContainer();
+            if ( group != null ) {
+                List<String> members = new ArrayList<>();
+                for ( GroupElement member : group )
+                    members .add( ( member instanceof Manifestation )? describe( (Manifestation) member ) : "group" );
+                Collections .sort( members );
+                buf .append( " in " ) .append( members );
+                if ( Selection .biggestGroup( man ) != group )
+                    buf .append( " nested" );
+            }
+            result .add( buf .toString() );
+        }
+        Collections .sort( result );
+        result .add( "center " + ((EditorModelImpl) doc .getEditorModel()) .getCenterPoint() .getLocation() );
+        return result;
+    }
+
+    @Test
+    public void testCheckpointMatchesReplay() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        Application app = new Application( false, null, new Properties() );
+        String withCheckpoint = saveDocument( app, 1 );
+        assertTrue( withCheckpoint .contains( "<Checkpoint " ) );
+        String withoutCheckpoint = withoutCheckpoint( withCheckpoint );
+        assertFalse( withoutCheckpoint .contains( "<Checkpoint " ) );
+
+        List<String> replayed = new ArrayList<>();
+        DocumentModel restored = loadDocument( app, withCheckpoint, replayed );
+        assertEquals( 0, replayed .size() );
+        List<String> fullReplay = new ArrayList<>();
+        DocumentModel expected = loadDocument( app, withoutCheckpoint, fullReplay );
+        int edits = restored .getHistoryModel() .getEditNumber();
+        assertEquals( edits, fullReplay .size() );
+        assertEquals( edits, expected .getHistoryModel() .getEditNumber() );
+        assertEquals( signature( expected ), signature( restored ) );
+
+        // undoing past the checkpoint replays the history from the start
+        restored .getHistoryModel() .undo();
+        expected .getHistoryModel() .undo();
+        assertEquals( signature( expected ), signature( restored ) );
+        restored .getHistoryModel() .goToEdit( 5 );
+        expected .getHistoryModel() .goToEdit( 5 );
+        assertEquals( signature( expected ), signature( restored ) );
+        restored .getHistoryModel() .undoAll();
+        expected .getHistoryModel() .undoAll();
+        assertEquals( signature( expected ), signature( restored ) );
+        restored .getHistoryModel() .redoAll( -1 );
+        expected .getHistoryModel() .redoAll( -1 );
+        assertEquals( edits, restored .getHistoryModel() .getEditNumber() );
+        assertEquals( signature( expected ), signature( restored ) );
+    }
+
+    @Test
+    public void testCheckpointOnlyForLongHistories() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        Application app = new Application( false, null, new Properties() );
+        assertFalse( saveDocument( app, 1000 ) .contains( "<Checkpoint " ) );
+    }
+
+    @Test
+    public void testMismatchedHistoryIsReplayed() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        Application app = new Application( false, null, new Properties() );
+        String saved = saveDocument( app, 1 );
+        // an edited history no longer matches the checkpoint
+        String edited = saved .replaceFirst( "<DeselectAll/>", "<SelectAll/>" );
+        assertFalse( edited .equals( saved ) );
+        List<String> replayed = new ArrayList<>();
+        loadDocument( app, edited, replayed );
+        assertFalse( replayed .isEmpty() );
+    }
+
+    @Test
+    public void testCheckpointBeforeLastEdit() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        Application app = new Application( false, null, new Properties() );
+        DocumentModel doc = loadDocument( app, saveDocument( app, 1 ), new ArrayList<>() );
+        int checkpointEdits = doc .getHistoryModel() .getEditNumber();
+        doc .doEdit( "DeselectAll" );
+        doc .doPickEdit( pick( doc, Connector.class, 0 ), "SelectManifestation" );
+        doc .doEdit( "ColorManifestations/0000ffff" );
+        int edits = doc .getHistoryModel() .getEditNumber();
+
+        // a recent checkpoint is saved again, and the edits after it are replayed
+        String saved = serialize( doc, Integer .toString( edits - checkpointEdits + 1 ) );
+        assertTrue( saved .contains( "editNumber=\"" + checkpointEdits + "\"" ) );
+        List<String> replayed = new ArrayList<>();
+        DocumentModel restored = loadDocument( app, saved, replayed );
+        assertFalse( replayed .isEmpty() );
+        List<String> fullReplay = new ArrayList<>();
+        DocumentModel expected = loadDocument( app, withoutCheckpoint( saved ), fullReplay );
+        assertTrue( replayed .size() < fullReplay .size() );
+        assertEquals( edits, restored .getHistoryModel() .getEditNumber() );
+        assertEquals( signature( expected ), signature( restored ) );
+
+        // but not once it is too far back
+        saved = serialize( doc, Integer .toString( edits - checkpointEdits ) );
+        assertTrue( saved .contains( "editNumber=\"" + edits + "\"" ) );
+        replayed .clear();
+        restored = loadDocument( app, saved, replayed );
+        assertEquals( 0, replayed .size() );
+        assertEquals( signature( expected ), signature( restored ) );
+    }
+
+    @Test
+    public void testRedoAfterRestore() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        Application app = new Application( false, null, new Properties() );
+        DocumentModel doc = buildDocument( app );
+        int edits = doc .getHistoryModel() .getEditNumber();
+        doc .getHistoryModel() .undo();
+        doc .getHistoryModel() .undo();
+        doc .getHistoryModel() .undo();
+        String saved = serialize( doc, "1" );
+        assertTrue( saved .contains( "<Checkpoint " ) );
+
+        List<String> replayed = new ArrayList<>();
+        DocumentModel restored = loadDocument( app, saved, replayed );
+        assertEquals( 0, replayed .size() );
+        DocumentModel expected = loadDocument( app, withoutCheckpoint( saved ), new ArrayList<>() );
+        assertEquals( edits - 3, restored .getHistoryModel() .getEditNumber() );
+        assertEquals( signature( expected ), signature( restored ) );
+
+        restored .getHistoryModel() .redo();
+        expected .getHistoryModel() .redo();
+        assertEquals( signature( expected ), signature( restored ) );
+        restored .getHistoryModel() .redoAll( -1 );
+        expected .getHistoryModel() .redoAll( -1 );
+        assertEquals( edits, restored .getHistoryModel() .getEditNumber() );
+        assertEquals( signature( expected ), signature( restored ) );
+        assertEquals( signature( buildDocument( app ) ), signature( restored ) );
+    }
+
+    @Test
+    public void testFailedRestoreIsReplayed() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        Application app = new Application( false, null, new Properties() );
+        String saved = saveDocument( app, 1 );
+        // a strut of no length parses, but cannot be manifested
+        int start = saved .indexOf( "<Checkpoint " );
+        String corrupted = saved .substring( 0, start )
+                + saved .substring( start ) .replaceFirst( "<segment end=\"[^\"]*\" start=\"([^\"]*)\"", "<segment end=\"$1\" start=\"$1\"" );
+        assertFalse( corrupted .equals( saved ) );
+
+        List<String> replayed = new ArrayList<>();
+        DocumentModel restored = loadDocument( app, corrupted, replayed );
+        int edits = restored .getHistoryModel() .getEditNumber();
+        assertEquals( edits, replayed .size() );
+        DocumentModel expected = loadDocument( app, withoutCheckpoint( saved ), new ArrayList<>() );
+        assertEquals( signature( expected ), signature( restored ) );
+    }
+
+    @Test
+    public void testInvalidMinEdits() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        Application app = new Application( false, null, new Properties() );
+        assertFalse( serialize( buildDocument( app ), "lots" ) .contains( "<Checkpoint " ) );
+    }
+
+    @Test
+    public void testNoCheckpointByDefault() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        Application app = new Application( false, null, new Properties() );
+        DocumentModel doc = buildDocument( app );
+        assertFalse( serialize( doc, null ) .contains( "<Checkpoint " ) );
+        assertFalse( serialize( doc, "0" ) .contains( "<Checkpoint " ) );
+        assertFalse( serialize( doc, "-5" ) .contains( "<Checkpoint " ) );
+        assertTrue( serialize( doc, "1" ) .contains( "<Checkpoint " ) );
+    }
+}
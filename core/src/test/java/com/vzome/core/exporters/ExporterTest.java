@@ -1,14 +1,29 @@
 package com.vzome.core.exporters;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+
+import javax.imageio.ImageIO;
 
 import org.junit.Test;
 
@@ -30,6 +45,7 @@ import com.vzome.core.model.Manifestation;
 import com.vzome.core.model.Panel;
 import com.vzome.core.model.VefModelExporter;
 import com.vzome.core.render.RenderedManifestation;
+import com.vzome.core.render.RenderedModel;
 
 /**
  * @author David Hall
@@ -706,4 +722,182 @@ public class ExporterTest {
         assertTrue(fieldsPassed == 5); // complete test requires testing all fields
     }
 
+
+    // a triangle and a square, sharing an edge
+    private static final String MESH_VEF =
+            "vZome VEF 7 field rational\n" +
+            "\n" +
+            "actual scale 1\n" +
+            "\n" +
+            "5\n" +
+            "0 0 0 0\n" +
+            "0 3 0 0\n" +
+            "0 3 2 0\n" +
+            "0 0 2 0\n" +
+            "0 1 1 5\n" +
+            "\n" +
+            "0\n" +
+            "\n" +
+            "2\n" +
+            "4 0 1 2 3\n" +
+            "3 1 0 4\n" +
+            "\n" +
+            "0\n";
+
+    private static String exportText( Exporter3d exporter ) throws Exception
+    {
+        StringWriter out = new StringWriter();
+        exporter .doExport( null, new PrintWriter( out ), 0, 0 );
+        return out .toString();
+    }
+
+    private static ByteBuffer exportBinary( Exporter3d exporter ) throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter .doExport( null, Channels .newChannel( out ), 0, 0 );
+        return ByteBuffer .wrap( out .toByteArray() ) .order( ByteOrder.LITTLE_ENDIAN );
+    }
+
+    private static List<Double> parseNumbers( String line )
+    {
+        List<Double> result = new ArrayList<>();
+        for ( String token : line .trim() .split( "\\s+" ) ) {
+            result .add( Double .parseDouble( token .replace( ",", "" ) ) );
+        }
+        return result;
+    }
+
+    private static void assertClose( double expected, float actual )
+    {
+        assertEquals( expected, actual, 1e-4 * Math .max( 1d, Math .abs( expected ) ) );
+    }
+
+    @Test
+    public void testBinaryMeshExports() throws Exception {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName());
+        TestApp app = new TestApp( "golden" );
+        app .importVefData( MESH_VEF );
+        RenderedModel model = app .doc .getRenderedModel();
+
+        // binary STL has the same triangles as the ASCII form
+        StlExporter stl = new StlExporter( null, null, null, model );
+        List<Double> expected = new ArrayList<>();
+        for ( String line : exportText( stl ) .split( "\n" ) ) {
+            line = line .trim();
+            if ( line .startsWith( "facet normal " ) )
+                expected .addAll( parseNumbers( line .substring( "facet normal " .length() ) ) );
+            else if ( line .startsWith( "vertex " ) )
+                expected .addAll( parseNumbers( line .substring( "vertex " .length() ) ) );
+        }
+        int numTriangles = expected .size() / 12;
+        assertEquals( 3, numTriangles );
+        // binary is opt-in, so a channel gets the ASCII form by default
+        assertFalse( stl .isBinary() );
+        assertEquals( "text/plain", stl .getContentType() );
+        assertEquals( exportText( stl ), new String( exportBinary( stl ) .array(), StandardCharsets.UTF_8 ) );
+        stl .setBinary( true );
+        assertTrue( stl .isBinary() );
+        assertEquals( "model/stl", stl .getContentType() );
+        for ( int pass = 0; pass < 2; pass++ ) { // the output buffer is reused
+            ByteBuffer buffer = exportBinary( stl );
+            assertEquals( 84 + 50 * numTriangles, buffer .limit() );
+            buffer .position( 80 );
+            assertEquals( numTriangles, buffer .getInt() );
+            for ( int t = 0; t < numTriangles; t++ ) {
+                for ( int i = 0; i < 12; i++ )
+                    assertClose( expected .get( 12 * t + i ), buffer .getFloat() );
+                assertEquals( 0, buffer .getShort() );
+            }
+        }
+
+        // binary PLY has the same vertices and faces as the ASCII form
+        PlyExporter ply = new PlyExporter( null, null );
+        ply .mModel = model;
+        String[] lines = exportText( ply ) .split( "\n" );
+        ply .setBinary( true );
+        assertEquals( "application/octet-stream", ply .getContentType() );
+        ByteBuffer buffer = exportBinary( ply );
+        String end = "end_header\n";
+        String header = new String( buffer .array(), 0, buffer .limit(), StandardCharsets.US_ASCII );
+        header = header .substring( 0, header .indexOf( end ) + end .length() );
+        assertTrue( header .contains( "format binary_little_endian 1.0\n" ) );
+        assertTrue( header .contains( "element vertex 5\n" ) );
+        assertTrue( header .contains( "element face 2\n" ) );
+        buffer .position( header .length() );
+        int line = 0;
+        while ( ! lines[ line ] .trim() .equals( "end_header" ) )
+            ++line;
+        for ( int v = 0; v < 5; v++ ) {
+            for ( double coord : parseNumbers( lines[ ++line ] ) )
+                assertClose( coord, buffer .getFloat() );
+        }
+        for ( int f = 0; f < 2; f++ ) {
+            List<Double> face = parseNumbers( lines[ ++line ] );
+            assertEquals( face .get( 0 ) .intValue(), buffer .getInt() );
+            for ( int i = 1; i < face .size(); i++ )
+                assertEquals( face .get( i ) .intValue(), buffer .getInt() );
+        }
+        assertEquals( buffer .limit(), buffer .position() );
+    }
+
+    @Test
+    public void testBinaryPlyLargePanel() throws Exception {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName());
+        // one convex panel with more vertices than a byte can count
+        int count = 300;
+        StringBuilder vef = new StringBuilder( "vZome VEF 7 field rational\n\nactual scale 1\n\n" + count + "\n" );
+        for ( int i = 0; i < count; i++ )
+            vef .append( "0 0 " + i + " " + ( i * i ) + "\n" );
+        vef .append( "\n0\n\n1\n" + count );
+        for ( int i = 0; i < count; i++ )
+            vef .append( " " + i );
+        vef .append( "\n\n0\n" );
+        TestApp app = new TestApp( "golden" );
+        app .importVefData( vef .toString() );
+
+        PlyExporter ply = new PlyExporter( null, null );
+        ply .mModel = app .doc .getRenderedModel();
+        ply .setBinary( true );
+        ByteBuffer buffer = exportBinary( ply );
+        String end = "end_header\n";
+        String header = new String( buffer .array(), 0, buffer .limit(), StandardCharsets.US_ASCII );
+        header = header .substring( 0, header .indexOf( end ) + end .length() );
+        assertTrue( header .contains( "element vertex " + count + "\n" ) );
+        assertTrue( header .contains( "element face 1\n" ) );
+        assertTrue( header .contains( "property list int int vertex_indices\n" ) );
+        buffer .position( header .length() + 3 * 4 * count );
+        assertEquals( count, buffer .getInt() );
+        Set<Integer> indices = new HashSet<>();
+        for ( int i = 0; i < count; i++ )
+            indices .add( buffer .getInt() );
+        assertEquals( count, indices .size() );
+        assertEquals( buffer .limit(), buffer .position() );
+    }
+
+    @Test
+    public void testPngExports() throws Exception {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName());
+        TestApp app = new TestApp( "golden" );
+        app .importVefData( MESH_VEF );
+        PngExporter png = new PngExporter( null, app .doc .getSceneLighting() );
+        // PNG has no text form, whatever was asked for
+        assertTrue( png .isBinary() );
+        png .setBinary( false );
+        assertTrue( png .isBinary() );
+        assertEquals( "image/png", png .getContentType() );
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        png .exportDocument( app .doc, null, Channels .newChannel( bytes ), 30, 40 );
+        BufferedImage image = ImageIO .read( new ByteArrayInputStream( bytes .toByteArray() ) );
+        assertEquals( 40, image .getWidth() );
+        assertEquals( 30, image .getHeight() );
+
+        // a Writer gets the same image, as base64
+        StringWriter text = new StringWriter();
+        png .exportDocument( app .doc, null, new PrintWriter( text ), 30, 40 );
+        byte[] decoded = Base64 .getDecoder() .decode( text .toString() );
+        image = ImageIO .read( new ByteArrayInputStream( decoded ) );
+        assertEquals( 40, image .getWidth() );
+        assertEquals( 30, image .getHeight() );
+    }
 }
@@ -0,0 +1,140 @@
+package com.vzome.core.exporters2d;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.geom.Rectangle2D;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.vecmath.Vector3f;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.construction.Color;
+import com.vzome.core.editor.SymmetrySystem;
+import com.vzome.core.generic.Utilities;
+import com.vzome.core.kinds.GoldenFieldApplication;
+import com.vzome.core.model.ConnectorImpl;
+import com.vzome.core.model.StrutImpl;
+import com.vzome.core.render.Colors;
+import com.vzome.core.render.RenderedModel;
+import com.vzome.core.viewing.Camera;
+import com.vzome.core.viewing.Lights;
+
+public class Java2dExporterTest
+{
+    private static RenderedModel ballsAndStruts( int count )
+    {
+        GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+        AlgebraicField field = app .getField();
+        SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+        RenderedModel model = new RenderedModel( field, sys );
+        AlgebraicVector step = field .basisVector( 3, AlgebraicVector.X ) .scale( field .createRational( 4 ) );
+        AlgebraicVector up = field .basisVector( 3, AlgebraicVector.Y ) .scale( field .createRational( 4 ) );
+        for ( int i = 0; i < count; i++ ) {
+            AlgebraicVector location = step .scale( field .createRational( i - count / 2 ) );
+            model .manifestationAdded( new ConnectorImpl( location ) );
+            model .manifestationAdded( new ConnectorImpl( location .plus( up ) ) );
+            model .manifestationAdded( new StrutImpl( location, location .plus( up ) ) );
+        }
+        return model;
+    }
+
+    private static Lights lights( Color background )
+    {
+        Lights lights = new Lights();
+        lights .setBackgroundColor( background );
+        lights .setAmbientColor( new Color( 0x29, 0x29, 0x29 ) );
+        lights .addDirectionLight( new Color( 0xEB, 0xEB, 0xE4 ), new Vector3f( 1f, -1f, -1f ) );
+        return lights;
+    }
+
+    private static void assertSameDrawing( List<Java2dSnapshot.Polygon> expected, List<Java2dSnapshot.Polygon> actual )
+    {
+        assertEquals( expected .size(), actual .size() );
+        for ( int i = 0; i < expected .size(); i++ ) {
+            assertEquals( expected .get( i ) .getColor(), actual .get( i ) .getColor() );
+            assertEquals( expected .get( i ) .getPath() .getBounds2D(), actual .get( i ) .getPath() .getBounds2D() );
+        }
+    }
+
+    @Test
+    public void testParallelProjection() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        RenderedModel model = ballsAndStruts( 5 );
+        Camera camera = new Camera();
+        Lights lights = lights( Color.WHITE );
+
+        Java2dSnapshot serial = new Java2dExporter( new ForkJoinPool( 1 ) ) .render2d( model, camera, lights, 300, 400, false, true );
+        Java2dSnapshot parallel = new Java2dExporter( new ForkJoinPool( 4 ) ) .render2d( model, camera, lights, 300, 400, false, true );
+        List<Java2dSnapshot.Polygon> polygons = serial .getPolygons();
+        assertTrue( polygons .size() > 0 );
+        assertSameDrawing( polygons, parallel .getPolygons() );
+        assertEquals( new Rectangle2D.Float( 0f, 0f, 400, 300 ), serial .getRect() );
+
+        // back to front
+        for ( int i = 1; i < polygons .size(); i++ )
+            assertTrue( polygons .get( i-1 ) .compareTo( polygons .get( i ) ) <= 0 );
+
+        Java2dSnapshot lines = new Java2dExporter() .render2d( model, camera, lights, 300, 400, true, true );
+        assertTrue( lines .isLineDrawing() );
+        assertEquals( 5, lines .getLines() .size() );
+    }
+
+    @Test
+    public void testRestyleReusesProjection() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        RenderedModel model = ballsAndStruts( 3 );
+        Camera camera = new Camera();
+        Java2dExporter exporter = new Java2dExporter();
+
+        Java2dSnapshot first = exporter .render2d( model, camera, lights( Color.WHITE ), 300, 400, false, true );
+        // only the background differs, so the projected polygons are reused, but each snapshot has its own copies
+        Java2dSnapshot second = exporter .render2d( model, new Camera( camera ), lights( Color.BLACK ), 300, 400, false, true );
+        assertEquals( java.awt.Color.BLACK, second .getBackgroundColor() );
+        assertNotSame( first .getPolygons() .get( 0 ), second .getPolygons() .get( 0 ) );
+        assertSameDrawing( first .getPolygons(), second .getPolygons() );
+        second .getPolygons() .get( 0 ) .applyLighting( new float[] { 0f, 0f, 0f } );
+        second .getPolygons() .get( 0 ) .addVertex( 1000f, 1000f, 0f );
+        assertSameDrawing( first .getPolygons(), exporter .render2d( model, camera, lights( Color.WHITE ), 300, 400, false, true ) .getPolygons() );
+
+        // a model change means projecting again
+        model .manifestationAdded( new ConnectorImpl( model .getField() .basisVector( 3, AlgebraicVector.Z ) .scale( model .getField() .createRational( 8 ) ) ) );
+        Java2dSnapshot third = exporter .render2d( model, camera, lights( Color.WHITE ), 300, 400, false, true );
+        assertTrue( third .getPolygons() .size() > first .getPolygons() .size() );
+
+        // and so does a camera change
+        camera .setPerspective( false );
+        Java2dSnapshot fourth = exporter .render2d( model, camera, lights( Color.WHITE ), 300, 400, false, true );
+        assertNotSame( third .getPolygons() .get( 0 ), fourth .getPolygons() .get( 0 ) );
+    }
+
+    @Test
+    public void testModelIsNotRetained() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        Java2dExporter exporter = new Java2dExporter();
+        RenderedModel model = ballsAndStruts( 3 );
+        exporter .render2d( model, new Camera(), lights( Color.WHITE ), 300, 400, false, true );
+        WeakReference<RenderedModel> ref = new WeakReference<>( model );
+        model = null;
+        for ( int i = 0; i < 20 && ref .get() != null; i++ ) {
+            System .gc();
+            Thread .sleep( 10 );
+        }
+        assertNull( ref .get() );
+        // a new model is projected, although it cannot be told apart from the collected one by its version
+        Java2dSnapshot snapshot = exporter .render2d( ballsAndStruts( 1 ), new Camera(), lights( Color.WHITE ), 300, 400, false, true );
+        assertTrue( snapshot .getPolygons() .size() > 0 );
+    }
+}
@@ -26,6 +26,7 @@ import com.vzome.api.Tool.Factory;
 import com.vzome.core.algebra.AlgebraicField;
 import com.vzome.core.algebra.AlgebraicNumber;
 import com.vzome.core.algebra.AlgebraicNumberImpl;
+import com.vzome.core.algebra.CompactAlgebraicNumberImpl;
 import com.vzome.core.algebra.AlgebraicVector;
 import com.vzome.core.algebra.EdPeggField;
 import com.vzome.core.algebra.HeptagonField;
@@ -91,6 +92,11 @@ public class FieldApplicationTest
             PolygonField field = new PolygonField( nSides, AlgebraicNumberImpl.FACTORY );
             result.add( new PolygonFieldApplication( field ));
         }
+        // the same suites again, with the numbers that the "compact.numbers" property selects
+        result.add( new GoldenFieldApplication( new PentagonField( CompactAlgebraicNumberImpl.FACTORY ) ) );
+        result.add( new RootTwoFieldApplication( new RootTwoField( CompactAlgebraicNumberImpl.FACTORY ) ) );
+        result.add( new RootThreeFieldApplication( new RootThreeField( CompactAlgebraicNumberImpl.FACTORY ) ) );
+        result.add( new HeptagonFieldApplication( new HeptagonField( CompactAlgebraicNumberImpl.FACTORY ) ) );
         return result;
     }
     
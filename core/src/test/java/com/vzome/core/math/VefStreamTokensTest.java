@@ -0,0 +1,170 @@
+package com.vzome.core.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.generic.Utilities;
+import com.vzome.xml.ResourceLoader;
+
+public class VefStreamTokensTest
+{
+    // records every callback, in order
+    private static class RecordingParser extends VefParser
+    {
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        protected void startVertices( int numVertices )
+        {
+            calls .add( "vertices " + numVertices );
+        }
+
+        @Override
+        protected void addVertex( int index, AlgebraicVector location )
+        {
+            calls .add( index + " " + location );
+        }
+
+        @Override
+        protected void startEdges( int numEdges )
+        {
+            calls .add( "edges " + numEdges );
+        }
+
+        @Override
+        protected void addEdge( int index, int v1, int v2 )
+        {
+            calls .add( index + " " + v1 + "-" + v2 );
+        }
+
+        @Override
+        protected void startFaces( int numFaces )
+        {
+            calls .add( "faces " + numFaces );
+        }
+
+        @Override
+        protected void addFace( int index, int[] verts )
+        {
+            calls .add( index + " " + Arrays.toString( verts ) );
+        }
+
+        @Override
+        protected void startBalls( int numVertices )
+        {
+            calls .add( "balls " + numVertices );
+        }
+
+        @Override
+        protected void addBall( int index, int vertex )
+        {
+            calls .add( index + " " + vertex );
+        }
+
+        @Override
+        protected void endFile( Tokens tokens )
+        {
+            while ( tokens .hasMoreTokens() )
+                calls .add( "extra " + tokens .nextToken() );
+        }
+    }
+
+    private static void assertSameParse( String vefData, AlgebraicField field ) throws IOException
+    {
+        RecordingParser expected = new RecordingParser();
+        expected .parseVEF( vefData, field );
+
+        RecordingParser read = new RecordingParser();
+        try ( VefStreamTokens tokens = new VefStreamTokens( new StringReader( vefData ) ) ) {
+            read .parseVEF( tokens, field );
+        }
+        assertEquals( expected .calls, read .calls );
+
+        Path file = Files .createTempFile( "vzome", ".vef" );
+        try {
+            Files .write( file, vefData .getBytes( StandardCharsets.US_ASCII ) );
+            RecordingParser mapped = new RecordingParser();
+            try ( VefStreamTokens tokens = VefStreamTokens .open( file ) ) {
+                mapped .parseVEF( tokens, field );
+            }
+            assertEquals( expected .calls, mapped .calls );
+        } finally {
+            Files .delete( file );
+        }
+    }
+
+    @Test
+    public void testResources() throws IOException
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        AlgebraicField field = new PentagonField();
+        assertSameParse( ResourceLoader .loadStringResource( "com/vzome/core/math/5cell.vef" ), field );
+        assertSameParse( ResourceLoader .loadStringResource( "com/vzome/core/math/symmetry/H4roots.vef" ), field );
+    }
+
+    @Test
+    public void testHeaderAndBalls() throws IOException
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        String vefData = "vZome VEF 10 field golden\r\n"
+                + "dimension 3 scale vector 1 (1,0) 1/2 offset 0 0 -1\n"
+                + "3\t(1,0) 2 3\n 4 5 (2,1)\n -1 0 +1\n"
+                + "2 0 1 1 -2\n"
+                + "1 3 0 1 2\n"
+                + "2 0 2\n"
+                + "tip 0";
+        assertSameParse( vefData, new PentagonField() );
+    }
+
+    @Test
+    public void testAcrossBuffers() throws IOException
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        // large enough to span several buffer refills, with tokens split across them
+        int count = 20000;
+        StringBuilder vefData = new StringBuilder( "vZome VEF 7 field golden\n" + count + "\n" );
+        for ( int i = 0; i < count; i++ )
+            vefData .append( "(" + i + "," + (-i) + ") 0 " + ( i % 7 ) + "/3 " + i + "\n" );
+        vefData .append( count - 1 ) .append( '\n' );
+        for ( int i = 1; i < count; i++ )
+            vefData .append( i - 1 ) .append( ' ' ) .append( i ) .append( '\n' );
+        assertSameParse( vefData .toString(), new PentagonField() );
+    }
+
+    @Test
+    public void testIntegers() throws IOException
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        try ( VefStreamTokens tokens = new VefStreamTokens( new StringReader( " 0 -7 +12 2147483647 -2147483648 2147483648 1x2 - next " ) ) ) {
+            assertEquals( 0, tokens .nextInt() );
+            assertEquals( -7, tokens .nextInt() );
+            assertEquals( 12, tokens .nextInt() );
+            assertEquals( Integer.MAX_VALUE, tokens .nextInt() );
+            assertEquals( Integer.MIN_VALUE, tokens .nextInt() );
+            for ( String bad : new String[] { "2147483648", "1x2", "-" } ) {
+                try {
+                    tokens .nextInt();
+                    throw new AssertionError( "expected NumberFormatException for " + bad );
+                } catch ( NumberFormatException e ) {
+                    assertEquals( "For input string: \"" + bad + "\"", e .getMessage() );
+                }
+            }
+            assertEquals( "next", tokens .nextToken() );
+            assertFalse( tokens .hasMoreTokens() );
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.vzome.core.math.convexhull;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.commands.Command.Failure;
+
+public class QuickHull3DTest {
+
+    private static AlgebraicNumber smallGolden(AlgebraicField field, Random random) {
+        return field.createAlgebraicNumber(random.nextInt(9) - 4, random.nextInt(5) - 2, 1, 0);
+    }
+
+    /**
+     * Points close to the plane z = 0, each offset by zero or by a tiny power of phi.
+     * The tiny powers have large golden coefficients that nearly cancel, so their
+     * floating-point distances are as close to the filter bound as vZome inputs get.
+     */
+    private static AlgebraicVector[] nearlyCoplanar(AlgebraicField field, Random random, int count) {
+        TreeSet<AlgebraicVector> set = new TreeSet<>();
+        while (set.size() < count) {
+            AlgebraicNumber z = field.zero();
+            int offset = random.nextInt(4);
+            if (offset > 0) {
+                z = field.createPower(-8 - random.nextInt(20));
+                if (offset == 1) {
+                    z = z.negate();
+                }
+            }
+            set.add(new AlgebraicVector(smallGolden(field, random), smallGolden(field, random), z));
+        }
+        return set.toArray(new AlgebraicVector[set.size()]);
+    }
+
+    @Test
+    public void testFilterMatchesExactHull() throws Failure {
+        AlgebraicField field = new PentagonField();
+        Random random = new Random(41);
+        for (int n = 0; n < 20; n++) {
+            AlgebraicVector[] points = nearlyCoplanar(field, random, 50 + 20 * n);
+
+            QuickHull3D exact = new QuickHull3D();
+            exact.filterDistances = false;
+            exact.build(points);
+            assertTrue(exact.getNumFaces() > 4);
+
+            QuickHull3D filtered = new QuickHull3D();
+            filtered.build(points);
+            assertArrayEquals(exact.getVertices(), filtered.getVertices());
+            assertArrayEquals(exact.getFaces(), filtered.getFaces());
+        }
+    }
+}
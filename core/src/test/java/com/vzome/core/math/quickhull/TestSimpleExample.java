@@ -1,5 +1,9 @@
 package com.vzome.core.math.quickhull;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
 import java.util.TreeSet;
 
 import org.junit.Test;
@@ -17,6 +21,7 @@ import com.vzome.core.construction.Segment;
 import com.vzome.core.construction.VefToModel;
 import com.vzome.core.generic.Utilities;
 import com.vzome.core.math.Projection;
+import com.vzome.core.math.convexhull.ParallelPointTasks;
 import com.vzome.core.math.convexhull.QuickHull3D;
 
 public class TestSimpleExample {
@@ -133,6 +138,32 @@ public class TestSimpleExample {
         hullToVef(hull, scale);
     }
     
+    @Test
+    public void testParallelTasksMatchSerial() throws Failure {
+        System.out.println("starting test: " + Utilities.thisSourceCodeLine() + "\n");
+        AlgebraicField field = new PentagonField();
+        // small golden coordinates, so the set is full of coplanar points and tied distances
+        Random random = new Random(19);
+        TreeSet<AlgebraicVector> set = new TreeSet<>();
+        while (set.size() < 2000) {
+            int[][] coords = new int[3][];
+            for (int i = 0; i < 3; i++) {
+                coords[i] = new int[] { random.nextInt(9) - 4, 1, random.nextInt(5) - 2, 1 };
+            }
+            set.add(field.createVector(coords));
+        }
+        AlgebraicVector[] points = set.toArray(new AlgebraicVector[set.size()]);
+
+        QuickHull3D serial = new QuickHull3D();
+        serial.build(points);
+        assertTrue(serial.getNumFaces() > 4);
+
+        QuickHull3D parallel = new QuickHull3D(new ParallelPointTasks());
+        parallel.build(points);
+        assertArrayEquals(serial.getVertices(), parallel.getVertices());
+        assertArrayEquals(serial.getFaces(), parallel.getFaces());
+    }
+
     private void hullToVef(QuickHull3D hull) {
         hullToVef(hull, 1);
     }
@@ -0,0 +1,79 @@
+package com.vzome.core.math.symmetry;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.generic.Utilities;
+import com.vzome.core.kinds.GoldenFieldApplication;
+
+public class ParallelWythoffGeneratorTest
+{
+    // records every call, in order
+    private static class RecordingListener implements WythoffConstruction.Listener
+    {
+        private final Map<AlgebraicVector, Integer> indices = new HashMap<>();
+        private final List<Object> calls = new ArrayList<>();
+
+        @Override
+        public Object addVertex( AlgebraicVector v )
+        {
+            Integer index = indices .get( v );
+            if ( index == null ) {
+                index = indices .size();
+                indices .put( v, index );
+            }
+            calls .add( v );
+            return index;
+        }
+
+        @Override
+        public Object addEdge( Object p1, Object p2 )
+        {
+            calls .add( p1 + "-" + p2 );
+            return null;
+        }
+
+        @Override
+        public Object addFace( Object[] vertices )
+        {
+            return null;
+        }
+    }
+
+    private static List<Object> construct( GoldenFieldApplication app, String groupName, int index, WythoffConstruction.Generator generator )
+    {
+        app .setWythoffGenerator( generator );
+        AlgebraicField field = app .getField();
+        RecordingListener listener = new RecordingListener();
+        AlgebraicNumber[] edgeScales = new AlgebraicNumber[] { field .one(), field .one(), field .getGoldenRatio(), field .one() };
+        app .constructPolytope( groupName, index, index, edgeScales, listener );
+        return listener .calls;
+    }
+
+    @Test
+    public void testSameAsSerial()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+        // several workers, to exercise the concurrency even on a single core
+        WythoffConstruction.Generator parallel = new ParallelWythoffGenerator( new ForkJoinPool( 4 ) );
+        for ( String groupName : new String[] { "A4", "B4/C4", "D4", "F4", "H4" } ) {
+            for ( int index : new int[] { 0x1, 0x6, 0xF } ) {
+                List<Object> expected = construct( app, groupName, index, new WythoffConstruction.Generator() );
+                List<Object> actual = construct( app, groupName, index, parallel );
+                assertEquals( groupName + " " + index, expected, actual );
+            }
+        }
+    }
+}
@@ -2,13 +2,17 @@
 package com.vzome.core.math.symmetry;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 
 import org.junit.Test;
 
+import com.vzome.core.algebra.AlgebraicNumber;
 import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.AlgebraicVectors;
 import com.vzome.core.algebra.PentagonField;
 import com.vzome.core.math.RealVector;
 
@@ -143,6 +147,57 @@ public class SymmetryTest
         assertEquals( expected, actual );
     }
     
+    @Test
+    public void testGetAxisByDirection()
+    {
+        PentagonField field = new PentagonField();
+        IcosahedralSymmetry symm = new IcosahedralSymmetry( field );
+        AlgebraicNumber scale = field .createRational( 3, 7 ) .times( field .getGoldenRatio() );
+
+        for ( Direction orbit : symm .getOrbitSet() ) {
+            for ( Axis zone : orbit ) {
+                AlgebraicVector normal = zone .normal();
+                assertEquals( zone, symm .getAxis( normal ) );
+                // looked up by direction signature the second time
+                assertEquals( zone, symm .getAxis( normal .scale( scale ) ) );
+                assertEquals( normal .negate(), symm .getAxis( normal .negate() .scale( scale ) ) .normal() );
+            }
+        }
+
+        // the recorded zones must not outlive changes to the orbit set
+        OrbitSet orbits = new OrbitSet( symm );
+        orbits .addAll( symm .getOrbitSet() );
+        Direction blue = symm .getDirection( "blue" );
+        AlgebraicVector vector = blue .getAxis( Symmetry.PLUS, 7 ) .normal() .scale( scale );
+        assertEquals( blue, symm .getAxis( vector, orbits ) .getDirection() );
+        orbits .remove( blue );
+        assertNull( symm .getAxis( vector, orbits ) );
+        orbits .add( blue );
+        assertEquals( blue, symm .getAxis( vector, orbits ) .getDirection() );
+    }
+
+    @Test
+    public void testGetAxisAfterVectorChanges()
+    {
+        PentagonField field = new PentagonField();
+        IcosahedralSymmetry symm = new IcosahedralSymmetry( field );
+        Direction blue = symm .getDirection( "blue" );
+        for ( Axis zone : blue ) {
+            AlgebraicVector normal = zone .normal();
+            if ( normal .getComponent( 0 ) .signum() <= 0 )
+                continue;
+            // a new vector that is its own direction signature
+            AlgebraicVector vector = AlgebraicVectors.getDirectionSignature( normal .scale( field .createRational( 2 ) ) );
+            assertTrue( vector .getComponent( 0 ) .isOne() );
+            assertEquals( zone, symm .getAxis( vector ) );
+            // changing the vector afterward must not change the recorded zones
+            vector .setComponent( 1, vector .getComponent( 1 ) .plus( field .one() ) );
+            assertNotEquals( zone, symm .getAxis( vector ) );
+            assertEquals( zone, symm .getAxis( normal ) );
+            assertEquals( zone, symm .getAxis( normal .scale( field .createRational( 5, 3 ) ) ) );
+        }
+    }
+
     @Test
     public void testTetrahedral()
     {
@@ -0,0 +1,90 @@
+package com.vzome.core.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.generic.Utilities;
+import com.vzome.core.math.Projection;
+
+public class RealizedModelImplTest
+{
+    // the location-based query, by scanning the whole model as the default method does
+    private static List<Manifestation> scan( RealizedModelImpl model, List<AlgebraicVector> locations )
+    {
+        List<Manifestation> result = new ArrayList<>();
+        for ( Manifestation man : model ) {
+            List<AlgebraicVector> vertices = new ArrayList<>();
+            if ( man instanceof Strut ) {
+                vertices .add( man .getLocation() );
+                vertices .add( ((Strut) man) .getEnd() );
+            }
+            else if ( man instanceof Panel ) {
+                for ( AlgebraicVector vertex : (Panel) man )
+                    vertices .add( vertex );
+            }
+            else
+                vertices .add( man .getLocation() );
+            for ( AlgebraicVector vertex : vertices ) {
+                if ( locations .contains( vertex ) ) {
+                    result .add( man );
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    @Test
+    public void testGetManifestationsAt()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        AlgebraicField field = new PentagonField();
+        RealizedModelImpl model = new RealizedModelImpl( field, new Projection .Default( field ) );
+        AlgebraicVector origin = field .origin( 3 );
+        AlgebraicVector x = field .basisVector( 3, AlgebraicVector.X );
+        AlgebraicVector y = field .basisVector( 3, AlgebraicVector.Y );
+        AlgebraicVector z = field .basisVector( 3, AlgebraicVector.Z );
+
+        Manifestation xStrut = new StrutImpl( origin, x );
+        Manifestation yBall = new ConnectorImpl( y );
+        Manifestation panel = new PanelImpl( Arrays.asList( origin, y, z ) );
+        Manifestation xBall = new ConnectorImpl( x );
+        Manifestation yzStrut = new StrutImpl( z, y );
+        Manifestation originBall = new ConnectorImpl( origin );
+        for ( Manifestation man : new Manifestation[] { xStrut, yBall, panel, xBall, yzStrut, originBall } ) {
+            model .add( man );
+        }
+
+        assertEquals( Arrays.asList( xStrut, panel, originBall ), model .getManifestationsAt( origin ) );
+        assertEquals( Arrays.asList( yBall, panel, yzStrut ), model .getManifestationsAt( y ) );
+        assertTrue( model .getManifestationsAt( x .plus( y ) ) .isEmpty() );
+        for ( List<AlgebraicVector> locations : Arrays.asList( Arrays.asList( x, y ), Arrays.asList( origin, z ), Arrays.asList( z, origin, x ) ) ) {
+            assertEquals( scan( model, locations ), model .getManifestationsAt( locations ) );
+        }
+
+        // an equal manifestation does not replace the original
+        model .add( new StrutImpl( x, origin ) );
+        assertTrue( xStrut == model .getManifestationsAt( x ) .get( 0 ) );
+
+        model .remove( panel );
+        model .remove( new ConnectorImpl( origin ) );
+        assertEquals( Arrays.asList( xStrut ), model .getManifestationsAt( origin ) );
+        assertEquals( Arrays.asList( yzStrut ), model .getManifestationsAt( z ) );
+
+        // re-adding moves the manifestation to the end, as with iteration over the model
+        model .remove( xStrut );
+        model .add( xStrut );
+        List<AlgebraicVector> locations = Arrays.asList( x, y );
+        assertEquals( Arrays.asList( yBall, xBall, yzStrut, xStrut ), model .getManifestationsAt( locations ) );
+        assertEquals( scan( model, locations ), model .getManifestationsAt( locations ) );
+    }
+}
@@ -0,0 +1,83 @@
+package com.vzome.core.model;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.generic.Utilities;
+
+public class VertexIndexTest
+{
+    @Test
+    public void testSortedIndices()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        AlgebraicField field = new PentagonField();
+        AlgebraicVector origin = field .origin( 3 );
+        AlgebraicVector x = field .basisVector( 3, AlgebraicVector.X );
+        AlgebraicVector y = field .basisVector( 3, AlgebraicVector.Y );
+        AlgebraicVector z = field .basisVector( 3, AlgebraicVector.Z ) .scale( field .getGoldenRatio() );
+
+        VertexIndex index = new VertexIndex();
+        index .add( new StrutImpl( x, y ) );
+        index .add( new ConnectorImpl( x ) );
+        index .add( new PanelImpl( Arrays.asList( origin, z, y ) ) );
+        assertEquals( 4, index .size() );
+
+        List<AlgebraicVector> expected = new ArrayList<>( new TreeSet<>( Arrays.asList( x, y, origin, z ) ) );
+        assertEquals( expected, index .getVertices() );
+        for ( AlgebraicVector vertex : expected ) {
+            assertEquals( expected .indexOf( vertex ), index .indexOf( vertex ) );
+        }
+        assertEquals( -1, index .indexOf( x .plus( y ) ) );
+    }
+
+    @Test( expected = IllegalStateException.class )
+    public void testNoAddAfterIndexing()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        AlgebraicField field = new PentagonField();
+        VertexIndex index = new VertexIndex();
+        index .add( field .origin( 3 ) );
+        index .indexOf( field .origin( 3 ) );
+        index .add( field .basisVector( 3, AlgebraicVector.X ) );
+    }
+
+    @Test
+    public void testWriteTrailingDivisors() throws Exception
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        AlgebraicField field = new PentagonField();
+        AlgebraicVector offset = field .basisVector( 3, AlgebraicVector.Y );
+        AlgebraicVector v1 = new AlgebraicVector( field .createRational( 1, 2 ), field .getGoldenRatio(), field .createAlgebraicNumber( 3, -1, 4, 0 ) );
+        AlgebraicVector v2 = v1 .scale( field .createRational( -7, 3 ) );
+        VertexIndex index = new VertexIndex();
+        index .add( v1 );
+        index .add( v2 );
+
+        StringWriter streamed = new StringWriter();
+        JsonGenerator generator = new JsonFactory() .createGenerator( streamed );
+        index .writeTrailingDivisors( generator, offset );
+        generator .close();
+
+        // the same as serializing with the view
+        List<AlgebraicVector> relative = new ArrayList<>();
+        for ( AlgebraicVector vertex : index .getVertices() )
+            relative .add( vertex .minus( offset ) );
+        String viewed = new ObjectMapper() .writerWithView( AlgebraicNumber.Views.TrailingDivisor.class ) .writeValueAsString( relative );
+        assertEquals( viewed, streamed .toString() );
+    }
+}
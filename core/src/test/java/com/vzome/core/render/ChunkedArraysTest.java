@@ -0,0 +1,59 @@
+package com.vzome.core.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.nio.FloatBuffer;
+
+import org.junit.Test;
+
+import com.vzome.core.generic.Utilities;
+
+public class ChunkedArraysTest
+{
+    @Test
+    public void testFrozenCopies()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        int count = 3 * ChunkedArrays.CHUNK_SIZE + 10;
+        ChunkedArrays arrays = new ChunkedArrays( 3, 1 );
+        arrays .ensureCapacity( count );
+        for ( int i = 0; i < count; i++ ) {
+            arrays .set( 0, i, i, 2 * i, 3 * i );
+            arrays .set( 1, i, new float[] { -i } );
+            arrays .setObject( i, "e" + i );
+        }
+        ChunkedArrays.Frozen first = arrays .freeze( count );
+
+        // writes after a freeze are not seen by the frozen copy
+        int changed = ChunkedArrays.CHUNK_SIZE + 5;
+        arrays .set( 1, changed, new float[] { 42f } );
+        arrays .setObject( changed, null );
+        ChunkedArrays.Frozen second = arrays .freeze( count );
+        assertEquals( - changed, first .get( 1, changed, 0 ), 0f );
+        assertEquals( "e" + changed, first .getObject( changed ) );
+        assertEquals( 42f, second .get( 1, changed, 0 ), 0f );
+        assertNull( second .getObject( changed ) );
+
+        // and unchanged elements are the same in both
+        assertSame( first .getObject( 7 ), second .getObject( 7 ) );
+        assertEquals( 3f * ( count - 1 ), second .get( 0, count - 1, 2 ), 0f );
+
+        // a range spanning chunks reaches the buffer in one piece
+        FloatBuffer buffer = FloatBuffer .allocate( count * 3 );
+        int start = ChunkedArrays.CHUNK_SIZE - 2, end = 2 * ChunkedArrays.CHUNK_SIZE + 3;
+        second .copyTo( buffer, 0, start, end );
+        for ( int i = start; i < end; i++ )
+            assertEquals( 2f * i, buffer .get( i * 3 + 1 ), 0f );
+        assertEquals( 0f, buffer .get( end * 3 + 1 ), 0f );
+
+        // copying between arrays carries every attribute and the objects
+        ChunkedArrays other = new ChunkedArrays( 3, 1 );
+        other .ensureCapacity( 5 );
+        other .copy( arrays, changed - 2, 0, 5 );
+        assertEquals( 42f, other .get( 1, 2, 0 ), 0f );
+        assertNull( other .getObject( 2 ) );
+        assertEquals( "e" + ( changed - 2 ), other .getObject( 0 ) );
+    }
+}
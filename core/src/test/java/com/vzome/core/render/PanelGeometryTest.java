@@ -0,0 +1,178 @@
+package com.vzome.core.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.generic.Utilities;
+import com.vzome.core.model.PanelImpl;
+import com.vzome.opengl.InstancedGeometry.BufferStorage;
+
+public class PanelGeometryTest
+{
+    private static class RecordingStorage implements BufferStorage
+    {
+        private int nextId = 1;
+        final List<int[]> stored = new ArrayList<>(); // { id, start, length }
+
+        @Override
+        public int storeBuffer( FloatBuffer buffer, int oldId )
+        {
+            int id = this .nextId++;
+            this .stored .add( new int[] { id, 0, buffer .capacity() } );
+            return id;
+        }
+
+        @Override
+        public int storeBufferRange( FloatBuffer buffer, int id, int start, int length )
+        {
+            this .stored .add( new int[] { id, start, length } );
+            return id;
+        }
+    }
+
+    // a unit triangle in the plane z = i
+    private static RenderedManifestation triangle( AlgebraicField field, int i )
+    {
+        AlgebraicVector x = field .basisVector( 3, AlgebraicVector.X );
+        AlgebraicVector y = field .basisVector( 3, AlgebraicVector.Y );
+        AlgebraicVector z = field .basisVector( 3, AlgebraicVector.Z ) .scale( field .createRational( i ) );
+        PanelImpl panel = new PanelImpl( Arrays .asList( z, z .plus( x ), z .plus( y ) ) );
+        RenderedManifestation rm = new RenderedManifestation( panel, null );
+        rm .resetAttributes( false, false );
+        return rm;
+    }
+
+    @Test
+    public void testAppendRemoveAndCompact()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        AlgebraicField field = new PentagonField();
+        PanelGeometry geometry = new PanelGeometry( 1f );
+        RecordingStorage storage = new RecordingStorage();
+        assertEquals( 0, geometry .prepareToRender( storage ) );
+        storage .stored .clear();
+
+        List<RenderedManifestation> rms = new ArrayList<>();
+        for ( int i = 0; i < 10; i++ ) {
+            RenderedManifestation rm = triangle( field, i );
+            rms .add( rm );
+            geometry .addPanel( rm );
+        }
+        // one draw call for all the panels
+        assertEquals( 1, geometry .prepareToRender( storage ) );
+        int perPanel = geometry .getVertexCount() / 10;
+        assertEquals( 10 * perPanel, geometry .getVertexCount() );
+        assertTrue( perPanel > 0 );
+        // the meshes grew, so all six buffers are stored whole
+        assertEquals( 6, storage .stored .size() );
+        assertEquals( 9f, geometry .getVerticesBuffer() .get( ( 9 * perPanel ) * 3 + 2 ), 0.001f );
+        storage .stored .clear();
+
+        // nothing changed, nothing stored
+        geometry .prepareToRender( storage );
+        assertEquals( 0, storage .stored .size() );
+
+        // a glow change stores only that panel's range of the data and color buffers
+        rms .get( 4 ) .setGlow( 0.5f );
+        geometry .panelChanged( rms .get( 4 ) );
+        geometry .prepareToRender( storage );
+        assertEquals( 6, storage .stored .size() );
+        for ( int[] store : storage .stored ) {
+            assertTrue( store[ 1 ] > 0 );
+            assertTrue( store[ 2 ] < geometry .getVertexCount() * 4 );
+        }
+        assertEquals( 0.5f, geometry .getInstancesBuffer() .get( 4 * perPanel * 4 + 3 ), 0f );
+        storage .stored .clear();
+
+        // a removal leaves a hole of the same size
+        geometry .removePanel( rms .get( 2 ) );
+        assertEquals( 9, geometry .size() );
+        assertEquals( 10 * perPanel, geometry .getVertexCount() );
+        geometry .prepareToRender( storage );
+        assertEquals( 0f, geometry .getVerticesBuffer() .get( ( 2 * perPanel + 1 ) * 3 + 2 ), 0f );
+        storage .stored .clear();
+
+        // once the holes outnumber the panels, the mesh is compacted, in order
+        for ( int i = 3; i < 8; i++ )
+            geometry .removePanel( rms .get( i ) );
+        assertEquals( 4, geometry .size() );
+        assertEquals( 4 * perPanel, geometry .getVertexCount() );
+        geometry .prepareToRender( storage );
+        assertEquals( 0f, geometry .getVerticesBuffer() .get( 0 * perPanel * 3 + 2 ), 0.001f );
+        assertEquals( 1f, geometry .getVerticesBuffer() .get( 1 * perPanel * 3 + 2 ), 0.001f );
+        assertEquals( 8f, geometry .getVerticesBuffer() .get( 2 * perPanel * 3 + 2 ), 0.001f );
+        assertEquals( 9f, geometry .getVerticesBuffer() .get( 3 * perPanel * 3 + 2 ), 0.001f );
+
+        geometry .clear();
+        assertEquals( 0, geometry .prepareToRender( storage ) );
+    }
+
+    // records the panels whose triangles pick() offers, and the z of each triangle
+    private static class PanelRecorder implements ShapeAndInstances.Intersector
+    {
+        final List<RenderedManifestation> panels = new ArrayList<>();
+        final List<Float> zs = new ArrayList<>();
+
+        @Override
+        public void intersectTriangle( float[] verticesArray, int i, RenderedManifestation rm, float scale, float[] embedding )
+        {
+            if ( this .panels .isEmpty() || this .panels .get( this .panels .size() - 1 ) != rm )
+                this .panels .add( rm );
+            this .zs .add( verticesArray[ i + 2 ] );
+        }
+
+        @Override
+        public void intersectTriangle( float[] verticesArray, int i, RenderedManifestation rm, float scale, float[] embedding, float[] orientation, float[] location ) {}
+    }
+
+    @Test
+    public void testSnapshotsShareAndPick()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        AlgebraicField field = new PentagonField();
+        PanelGeometry geometry = new PanelGeometry( 1f );
+        float[] identity = new float[] { 1,0,0,0, 0,1,0,0, 0,0,1,0, 0,0,0,1 };
+        List<RenderedManifestation> rms = new ArrayList<>();
+        // enough panels to fill several chunks
+        for ( int i = 0; i < 200; i++ ) {
+            RenderedManifestation rm = triangle( field, i );
+            rms .add( rm );
+            geometry .addPanel( rm );
+        }
+        PanelGeometry.Snapshot first = geometry .snapshot();
+
+        // later edits, even a compaction, do not disturb the published snapshot
+        rms .get( 4 ) .setGlow( 0.5f );
+        geometry .panelChanged( rms .get( 4 ) );
+        PanelGeometry.Snapshot second = geometry .snapshot();
+        for ( int i = 0; i < 150; i++ )
+            geometry .removePanel( rms .get( i ) );
+        PanelGeometry.Snapshot third = geometry .snapshot();
+
+        PanelRecorder picked = new PanelRecorder();
+        first .pick( picked, identity );
+        assertEquals( rms, picked .panels );
+        assertEquals( 199f, picked .zs .get( picked .zs .size() - 1 ), 0f );
+
+        picked = new PanelRecorder();
+        third .pick( picked, identity );
+        assertEquals( rms .subList( 150, 200 ), picked .panels );
+        assertEquals( 150f, picked .zs .get( 0 ), 0f );
+
+        RecordingStorage storage = new RecordingStorage();
+        assertEquals( 1, second .prepareToRender( storage ) );
+        int perPanel = second .getVertexCount() / 200;
+        assertEquals( 0.5f, geometry .getInstancesBuffer() .get( 4 * perPanel * 4 + 3 ), 0f );
+        assertEquals( 0f, geometry .getInstancesBuffer() .get( 5 * perPanel * 4 + 3 ), 0f );
+    }
+}
@@ -2,26 +2,46 @@ package com.vzome.core.render;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
 
 import org.junit.Test;
 
+import com.vzome.core.algebra.AlgebraicField;
 import com.vzome.core.algebra.AlgebraicNumber;
 import com.vzome.core.algebra.AlgebraicVector;
 import com.vzome.core.algebra.HeptagonField;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.construction.Color;
 import com.vzome.core.editor.SymmetryPerspective;
 import com.vzome.core.editor.SymmetrySystem;
 import com.vzome.core.editor.api.Shapes;
+import com.vzome.core.kinds.GoldenFieldApplication;
 import com.vzome.core.kinds.HeptagonFieldApplication;
+import com.vzome.core.math.Polyhedron;
+import com.vzome.core.math.Projection;
 import com.vzome.core.math.RealVector;
 import com.vzome.core.math.symmetry.Axis;
 import com.vzome.core.math.symmetry.Direction;
 import com.vzome.core.math.symmetry.OrbitSet;
 import com.vzome.core.math.symmetry.Symmetry;
+import com.vzome.core.model.ConnectorImpl;
+import com.vzome.core.model.Manifestation;
+import com.vzome.core.model.RealizedModelImpl;
 import com.vzome.core.model.Strut;
 import com.vzome.core.model.StrutImpl;
+import com.vzome.opengl.InstancedGeometry;
 
 /**
  * While creating HeptagonalAntiprismSymmetry, with inbound/outbound zones,
@@ -180,4 +200,343 @@ public class RenderedModelTest
 	    strut = new StrutImpl( origin, expected .normal() );
 		model .manifestationAdded( strut );
 	}
+
+	// tracks what a scene graph would display
+	private static class SceneRecorder implements RenderingChanges
+	{
+		private final Set<RenderedManifestation> displayed = Collections .newSetFromMap( new IdentityHashMap<>() );
+		private int added, removed, switched, glowed, colored;
+
+		@Override
+		public void manifestationAdded( RenderedManifestation rm )
+		{
+			assertTrue( displayed .add( rm ) );
+			++ added;
+		}
+
+		@Override
+		public void manifestationRemoved( RenderedManifestation rm )
+		{
+			assertTrue( displayed .remove( rm ) );
+			++ removed;
+		}
+
+		@Override
+		public void manifestationSwitched( RenderedManifestation from, RenderedManifestation to )
+		{
+			if ( displayed .remove( from ) )
+				assertTrue( displayed .add( to ) );
+			++ switched;
+		}
+
+		@Override
+		public void reset() {}
+
+		@Override
+		public void glowChanged( RenderedManifestation rm )
+		{
+			assertTrue( displayed .contains( rm ) );
+			++ glowed;
+		}
+
+		@Override
+		public void colorChanged( RenderedManifestation rm )
+		{
+			assertTrue( displayed .contains( rm ) );
+			++ colored;
+		}
+
+		@Override
+		public void locationChanged( RenderedManifestation rm ) {}
+
+		@Override
+		public void orientationChanged( RenderedManifestation rm ) {}
+
+		@Override
+		public void shapeChanged( RenderedManifestation rm ) {}
+
+		@Override
+		public boolean shapesChanged( Shapes shapes )
+		{
+			return false;
+		}
+	}
+
+	private static Set<RenderedManifestation> contents( RenderedModel model )
+	{
+		Set<RenderedManifestation> result = Collections .newSetFromMap( new IdentityHashMap<>() );
+		for ( RenderedManifestation rm : model )
+			result .add( rm );
+		return result;
+	}
+
+	// what the rendering shows, independent of object identity
+	private static Set<String> appearance( Iterable<RenderedManifestation> rms )
+	{
+		Set<String> result = new HashSet<>();
+		for ( RenderedManifestation rm : rms )
+			result .add( rm .getLocationAV() + " " + rm .getGlow() + " " + rm .getColor() );
+		return result;
+	}
+
+	@Test
+	public void testSnapshotDeltas()
+	{
+		GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+		AlgebraicField field = app .getField();
+		SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+		RenderedModel model = new RenderedModel( field, sys );
+		List<Manifestation> balls = new ArrayList<>();
+		for ( int i = 0; i < 20; i++ ) {
+			Manifestation ball = new ConnectorImpl( field .basisVector( 3, AlgebraicVector.X ) .scale( field .createRational( i ) ) );
+			balls .add( ball );
+			model .manifestationAdded( ball );
+		}
+		RenderedModel first = model .snapshot();
+		assertEquals( appearance( model ), appearance( first ) );
+
+		model .manifestationRemoved( balls .remove( 0 ) );
+		model .manifestationRemoved( balls .remove( 0 ) );
+		for ( int i = 0; i < 3; i++ ) {
+			Manifestation ball = new ConnectorImpl( field .basisVector( 3, AlgebraicVector.Y ) .scale( field .createRational( i+1 ) ) );
+			balls .add( ball );
+			model .manifestationAdded( ball );
+		}
+		model .setManifestationGlow( balls .get( 0 ), true );
+		model .setManifestationGlow( balls .get( 5 ), true );
+		RenderedModel second = model .snapshot();
+		assertEquals( appearance( model ), appearance( second ) );
+
+		model .setManifestationColor( balls .get( 7 ), new Color( 0xFF, 0, 0 ) );
+		model .setManifestationGlow( balls .get( 0 ), false );
+		RenderedModel third = model .snapshot();
+		assertEquals( appearance( model ), appearance( third ) );
+
+		// unchanged manifestations share their copies
+		Set<RenderedManifestation> shared = contents( first );
+		shared .retainAll( contents( second ) );
+		assertEquals( 20 - 2 - 2, shared .size() );
+
+		SceneRecorder scene = new SceneRecorder();
+		RenderedModel .renderChange( new RenderedModel( field, null ), first, scene );
+		assertEquals( contents( first ), scene .displayed );
+
+		// successive snapshots render only their differences, switching the parts that changed glow or color
+		scene .added = 0;
+		scene .removed = 0;
+		RenderedModel .renderChange( first, second, scene );
+		assertEquals( contents( second ), scene .displayed );
+		assertEquals( 3, scene .added );
+		assertEquals( 2, scene .removed );
+		assertEquals( 2, scene .switched );
+		assertEquals( 2, scene .glowed );
+		scene .added = 0;
+		scene .removed = 0;
+		scene .switched = 0;
+		scene .glowed = 0;
+		RenderedModel .renderChange( second, third, scene );
+		assertEquals( contents( third ), scene .displayed );
+		assertEquals( 2, scene .switched );
+		assertEquals( 1, scene .glowed );
+		assertEquals( 1, scene .colored );
+		RenderedModel .renderChange( third, second, scene );
+		assertEquals( contents( second ), scene .displayed );
+		assertEquals( 4, scene .switched );
+		assertEquals( 2, scene .glowed );
+		assertEquals( 2, scene .colored );
+		assertEquals( 0, scene .added + scene .removed );
+
+		// others are compared in full, matching equal manifestations
+		scene .switched = 0;
+		RenderedModel .renderChange( second, model, scene );
+		assertEquals( contents( model ), scene .displayed );
+		assertEquals( 21, scene .switched );
+		RenderedModel .renderChange( model, first, scene );
+		assertEquals( contents( first ), scene .displayed );
+	}
+
+	@Test
+	public void testSnapshotAfterShapesChange()
+	{
+		GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+		AlgebraicField field = app .getField();
+		SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+		RenderedModel model = new RenderedModel( field, sys );
+		model .addListener( new SymmetryRendering( sys, 1f ) );
+		AlgebraicVector x = field .basisVector( 3, AlgebraicVector.X );
+		for ( int i = 0; i < 5; i++ ) {
+			AlgebraicVector location = x .scale( field .createRational( i ) );
+			model .manifestationAdded( new ConnectorImpl( location ) );
+			model .manifestationAdded( new StrutImpl( location, location .plus( x ) ) );
+		}
+		RenderedModel before = model .snapshot();
+		Set<Polyhedron> oldShapes = new HashSet<>();
+		for ( RenderedManifestation rm : before )
+			oldShapes .add( rm .getShape() );
+
+		String oldStyle = sys .getStyle() .getName();
+		String newStyle = null;
+		for ( String name : sys .getStyleNames() )
+			if ( ! name .equals( oldStyle ) ) {
+				newStyle = name;
+				break;
+			}
+		assertNotNull( newStyle );
+		sys .setStyle( newStyle );
+		model .setShapes( sys .getShapes() );
+
+		// the next snapshot must not share copies that still have the old shapes
+		RenderedModel after = model .snapshot();
+		Set<Polyhedron> newShapes = new HashSet<>();
+		for ( RenderedManifestation rm : model )
+			newShapes .add( rm .getShape() );
+		assertTrue( Collections .disjoint( oldShapes, newShapes ) );
+		int count = 0;
+		for ( RenderedManifestation rm : after ) {
+			assertTrue( newShapes .contains( rm .getShape() ) );
+			++ count;
+		}
+		assertEquals( 10, count );
+	}
+
+	@Test
+	public void testBatchedChanges()
+	{
+		GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+		AlgebraicField field = app .getField();
+		SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+		RenderedModel model = new RenderedModel( field, sys );
+		RealizedModelImpl realized = new RealizedModelImpl( field, new Projection.Default( field ) );
+		realized .addListener( model );
+		int[] batches = new int[2];
+		SymmetryRendering rendering = new SymmetryRendering( sys, 1f )
+		{
+			@Override
+			public void manifestationsAdded( Collection<RenderedManifestation> rms )
+			{
+				++ batches[ 0 ];
+				super .manifestationsAdded( rms );
+			}
+
+			@Override
+			public void manifestationsRemoved( Collection<RenderedManifestation> rms )
+			{
+				++ batches[ 1 ];
+				super .manifestationsRemoved( rms );
+			}
+		};
+		model .addListener( rendering );
+
+		List<Manifestation> parts = new ArrayList<>();
+		AlgebraicVector x = field .basisVector( 3, AlgebraicVector.X );
+		realized .startBatch();
+		for ( int i = 0; i < 20; i++ ) {
+			AlgebraicVector location = x .scale( field .createRational( i ) );
+			parts .add( new ConnectorImpl( location ) );
+			parts .add( new StrutImpl( location, location .plus( x ) ) );
+		}
+		for ( Manifestation m : parts ) {
+			realized .add( m );
+			realized .show( m );
+		}
+		assertEquals( 0, contents( model ) .size() );
+		realized .endBatch();
+		assertEquals( 1, batches[ 0 ] );
+		assertEquals( parts .size(), contents( model ) .size() );
+		assertEquals( parts .size(), instances( rendering ) );
+		// two shapes: the ball, and the strut of one length
+		assertEquals( 2, rendering .numGeometries() );
+
+		realized .startBatch();
+		for ( int i = 0; i < 10; i++ )
+			realized .hide( parts .get( i ) );
+		realized .show( parts .get( 0 ) ); // cancels its hide
+		realized .endBatch();
+		assertEquals( 1, batches[ 1 ] );
+		assertEquals( parts .size() - 9, contents( model ) .size() );
+		assertEquals( parts .size() - 9, instances( rendering ) );
+		assertTrue( parts .get( 0 ) .isRendered() );
+	}
+
+	@Test
+	public void testNearbyBalls()
+	{
+		GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+		AlgebraicField field = app .getField();
+		SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+		RenderedModel model = new RenderedModel( field, sys );
+		List<Manifestation> balls = new ArrayList<>();
+		AlgebraicVector x = field .basisVector( 3, AlgebraicVector.X );
+		AlgebraicVector y = field .basisVector( 3, AlgebraicVector.Y ) .scale( field .getUnitTerm( 1 ) );
+		for ( int i = 0; i < 10; i++ )
+			for ( int j = 0; j < 10; j++ ) {
+				AlgebraicVector location = x .scale( field .createRational( i ) ) .plus( y .scale( field .createRational( j ) ) );
+				Manifestation ball = new ConnectorImpl( location );
+				balls .add( ball );
+				model .manifestationAdded( ball );
+				model .manifestationAdded( new StrutImpl( location, location .plus( x ) ) );
+			}
+		assertNull( model .getNearbyBall( new RealVector( -50d, 0d, 0d ), 1d ) );
+		RenderedManifestation origin = model .getNearbyBall( new RealVector( 0.1d, -0.1d, 0.1d ), 0.5d );
+		assertEquals( balls .get( 0 ), origin .getManifestation() );
+
+		// the index is maintained as balls come and go
+		model .manifestationRemoved( balls .remove( 0 ) );
+		assertNull( model .getNearbyBall( new RealVector( 0.1d, -0.1d, 0.1d ), 0.5d ) );
+		Manifestation extra = new ConnectorImpl( x .scale( field .createRational( -1 ) ) );
+		balls .add( extra );
+		model .manifestationAdded( extra );
+
+		Random random = new Random( 42 );
+		for ( int n = 0; n < 200; n++ ) {
+			RealVector target = new RealVector( 12 * random .nextDouble() - 2, 18 * random .nextDouble() - 2, random .nextDouble() - 0.5 );
+			double radius = ( n % 4 == 0 )? 20d : random .nextDouble() * 2;
+			Set<Manifestation> expected = new HashSet<>();
+			Manifestation nearest = null;
+			double best = radius;
+			for ( Manifestation ball : balls ) {
+				double distance = model .renderVector( ball .getLocation() ) .minus( target ) .length();
+				if ( distance < radius )
+					expected .add( ball );
+				if ( distance < best ) {
+					best = distance;
+					nearest = ball;
+				}
+			}
+			Set<Manifestation> actual = new HashSet<>();
+			for ( RenderedManifestation rm : model .getNearbyBalls( target, radius ) )
+				actual .add( rm .getManifestation() );
+			assertEquals( expected, actual );
+			RenderedManifestation found = model .getNearbyBall( target, radius );
+			assertEquals( nearest, found == null? null : found .getManifestation() );
+		}
+	}
+
+	@Test( timeout = 10000 )
+	public void testNearbyBallsFarBeyondCellSize()
+	{
+		GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+		AlgebraicField field = app .getField();
+		SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+		RenderedModel model = new RenderedModel( field, sys );
+		AlgebraicVector x = field .basisVector( 3, AlgebraicVector.X );
+		for ( int i = 0; i < 10; i++ )
+			model .manifestationAdded( new ConnectorImpl( x .scale( field .createRational( i ) ) ) );
+		// the first query sizes the grid with a tiny cell
+		assertNull( model .getNearbyBall( new RealVector( 0.5d, 0.5d, 0.5d ), 1e-6d ) );
+		// radii far beyond the cell size must not try to walk the empty cells
+		for ( double radius : new double[] { 1e3d, 1e9d, 1e30d, Double.MAX_VALUE, Double.POSITIVE_INFINITY } ) {
+			assertEquals( 10, model .getNearbyBalls( new RealVector( 0d, 0d, 0d ), radius ) .size() );
+			assertNotNull( model .getNearbyBall( new RealVector( 0d, 0d, 0d ), radius ) );
+		}
+	}
+
+	private static int instances( SymmetryRendering rendering )
+	{
+		int result = 0;
+		for ( InstancedGeometry geometry : rendering .getGeometries() )
+			result += ((ShapeAndInstances) geometry) .getInstances() .size();
+		return result;
+	}
 }
+
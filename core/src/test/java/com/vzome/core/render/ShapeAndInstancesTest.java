@@ -0,0 +1,308 @@
+package com.vzome.core.render;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.generic.Utilities;
+import com.vzome.core.math.symmetry.OctahedralSymmetry;
+import com.vzome.core.model.ConnectorImpl;
+import com.vzome.core.viewing.OctahedralShapes;
+import com.vzome.opengl.InstancedGeometry;
+import com.vzome.opengl.InstancedGeometry.BufferStorage;
+
+public class ShapeAndInstancesTest
+{
+    private static class RecordingStorage implements BufferStorage
+    {
+        private int nextId = 1;
+        final List<int[]> stored = new ArrayList<>(); // { id, start, length }
+
+        @Override
+        public int storeBuffer( FloatBuffer buffer, int oldId )
+        {
+            int id = this .nextId++;
+            this .stored .add( new int[] { id, 0, buffer .capacity() } );
+            return id;
+        }
+
+        @Override
+        public int storeBufferRange( FloatBuffer buffer, int id, int start, int length )
+        {
+            this .stored .add( new int[] { id, start, length } );
+            return id;
+        }
+    }
+
+    @Test
+    public void testSlotsAndDirtyRanges()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        AlgebraicField field = new PentagonField();
+        OctahedralShapes shapes = new OctahedralShapes( "octahedral", "trapezoids", new OctahedralSymmetry( field ) );
+        ShapeAndInstances geometry = new ShapeAndInstances( shapes .getConnectorShape(), 1f );
+        RecordingStorage storage = new RecordingStorage();
+        assertEquals( 0, geometry .prepareToRender( storage ) );
+        storage .stored .clear(); // the shape geometry
+
+        List<RenderedManifestation> rms = new ArrayList<>();
+        AlgebraicVector x = field .basisVector( 3, AlgebraicVector.X );
+        for ( int i = 0; i < 20; i++ ) {
+            RenderedManifestation rm = new RenderedManifestation( new ConnectorImpl( x .scale( field .createRational( i ) ) ), null );
+            rms .add( rm );
+            geometry .addInstance( rm );
+        }
+        assertEquals( 20, geometry .prepareToRender( storage ) );
+        // the buffers grew, so both are stored whole
+        assertEquals( 2, storage .stored .size() );
+        assertTrue( storage .stored .get( 0 )[ 2 ] >= 20 * ShapeAndInstances.FLOATS_PER_INSTANCE );
+        assertEquals( 20f * 19 / 2, sumX( geometry, 20 ), 0.001f );
+        storage .stored .clear();
+
+        // nothing changed, nothing stored
+        assertEquals( 20, geometry .prepareToRender( storage ) );
+        assertEquals( 0, storage .stored .size() );
+
+        // one glow change stores one slot of each buffer
+        rms .get( 7 ) .setGlow( 0.5f );
+        geometry .instanceChanged( rms .get( 7 ) );
+        assertEquals( 20, geometry .prepareToRender( storage ) );
+        assertEquals( 2, storage .stored .size() );
+        assertEquals( 7 * ShapeAndInstances.FLOATS_PER_INSTANCE, storage .stored .get( 0 )[ 1 ] );
+        assertEquals( ShapeAndInstances.FLOATS_PER_INSTANCE, storage .stored .get( 0 )[ 2 ] );
+        assertEquals( 0.5f, geometry .getInstancesBuffer() .get( 7 * ShapeAndInstances.FLOATS_PER_INSTANCE + 3 ), 0f );
+        storage .stored .clear();
+
+        // switching to a snapshot copy keeps the slot, and stores only that slot
+        RenderedManifestation copy = rms .get( 7 ) .copy();
+        copy .setGlow( 0f );
+        geometry .switchInstance( rms .get( 7 ), copy );
+        rms .set( 7, copy );
+        assertEquals( 20, geometry .prepareToRender( storage ) );
+        assertEquals( 2, storage .stored .size() );
+        assertEquals( 7 * ShapeAndInstances.FLOATS_PER_INSTANCE, storage .stored .get( 0 )[ 1 ] );
+        assertEquals( 0f, geometry .getInstancesBuffer() .get( 7 * ShapeAndInstances.FLOATS_PER_INSTANCE + 3 ), 0f );
+        storage .stored .clear();
+
+        // removing an instance moves the last one into its slot, leaving no gaps
+        geometry .removeInstance( rms .get( 3 ) );
+        geometry .removeInstance( rms .get( 19 ) );
+        assertEquals( 18, geometry .prepareToRender( storage ) );
+        assertEquals( 2, storage .stored .size() );
+        assertEquals( 3 * ShapeAndInstances.FLOATS_PER_INSTANCE, storage .stored .get( 0 )[ 1 ] );
+        assertEquals( ShapeAndInstances.FLOATS_PER_INSTANCE, storage .stored .get( 0 )[ 2 ] );
+        assertEquals( 20f * 19 / 2 - 3 - 19, sumX( geometry, 18 ), 0.001f );
+        Set<RenderedManifestation> expected = new HashSet<>( rms );
+        expected .remove( rms .get( 3 ) );
+        expected .remove( rms .get( 19 ) );
+        assertEquals( expected, new HashSet<>( geometry .getInstances() ) );
+
+        geometry .removeInstances();
+        assertEquals( 0, geometry .prepareToRender( storage ) );
+    }
+
+    @Test
+    public void testSnapshots()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        AlgebraicField field = new PentagonField();
+        OctahedralShapes shapes = new OctahedralShapes( "octahedral", "trapezoids", new OctahedralSymmetry( field ) );
+        ShapeAndInstances geometry = new ShapeAndInstances( shapes .getConnectorShape(), 1f );
+        RecordingStorage storage = new RecordingStorage();
+
+        List<RenderedManifestation> rms = new ArrayList<>();
+        AlgebraicVector x = field .basisVector( 3, AlgebraicVector.X );
+        for ( int i = 0; i < 30; i++ )
+            rms .add( new RenderedManifestation( new ConnectorImpl( x .scale( field .createRational( i ) ) ), null ) );
+        for ( int i = 0; i < 10; i++ )
+            geometry .addInstance( rms .get( i ) );
+        InstancedGeometry first = geometry .snapshot();
+        // nothing changed, so the same snapshot is published again
+        assertSame( first, geometry .snapshot() );
+
+        // later edits do not disturb a published snapshot
+        for ( int i = 10; i < 20; i++ )
+            geometry .addInstance( rms .get( i ) );
+        geometry .removeInstance( rms .get( 0 ) );
+        InstancedGeometry second = geometry .snapshot();
+        for ( int i = 20; i < 30; i++ )
+            geometry .addInstance( rms .get( i ) );
+        InstancedGeometry third = geometry .snapshot();
+        assertEquals( 10, first .prepareToRender( storage ) );
+        assertEquals( 10f * 9 / 2, sumX( geometry, 10 ), 0.001f );
+        storage .stored .clear();
+
+        // the second snapshot was never drawn, so the third is stored whole
+        assertEquals( 29, third .prepareToRender( storage ) );
+        assertEquals( 30f * 29 / 2, sumX( geometry, 29 ), 0.001f );
+        assertEquals( 2, storage .stored .size() );
+        assertEquals( 0, storage .stored .get( 0 )[ 1 ] );
+        storage .stored .clear();
+
+        // a second renderer drawing the same snapshot stores nothing more
+        assertEquals( 29, third .prepareToRender( storage ) );
+        assertEquals( 0, storage .stored .size() );
+        assertTrue( second != third );
+    }
+
+    /**
+     * Records the instances whose triangles are tested, with a real ray and sphere test
+     * so that the pick index can skip instances.
+     */
+    private static class RayRecorder implements ShapeAndInstances.Intersector
+    {
+        final float[] origin, direction;
+        final Set<RenderedManifestation> tested = new HashSet<>();
+        int sphereTests = 0;
+
+        RayRecorder( float[] origin, float[] direction )
+        {
+            this .origin = origin;
+            float length = (float) Math .sqrt( direction[0] * direction[0] + direction[1] * direction[1] + direction[2] * direction[2] );
+            this .direction = new float[] { direction[0] / length, direction[1] / length, direction[2] / length };
+        }
+
+        @Override
+        public void intersectTriangle( float[] verticesArray, int i, RenderedManifestation rm, float scale, float[] embedding )
+        {
+            this .tested .add( rm );
+        }
+
+        @Override
+        public void intersectTriangle( float[] verticesArray, int i, RenderedManifestation rm, float scale, float[] embedding, float[] orientation, float[] location )
+        {
+            this .tested .add( rm );
+        }
+
+        @Override
+        public boolean intersectsSphere( float[] center, float radius )
+        {
+            ++this .sphereTests;
+            float[] v = new float[3];
+            float along = 0f;
+            for ( int j = 0; j < 3; j++ ) {
+                v[ j ] = center[ j ] - this .origin[ j ];
+                along += v[ j ] * this .direction[ j ];
+            }
+            float squared = 0f;
+            for ( int j = 0; j < 3; j++ ) {
+                float off = v[ j ] - along * this .direction[ j ];
+                squared += off * off;
+            }
+            return squared <= radius * radius;
+        }
+    }
+
+    private static final float[] IDENTITY = new float[] { 1f, 0f, 0f, 0f,  0f, 1f, 0f, 0f,  0f, 0f, 1f, 0f,  0f, 0f, 0f, 1f };
+
+    @Test
+    public void testIndexedPickMatchesBruteForce()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        AlgebraicField field = new PentagonField();
+        OctahedralShapes shapes = new OctahedralShapes( "octahedral", "trapezoids", new OctahedralSymmetry( field ) );
+        ShapeAndInstances geometry = new ShapeAndInstances( shapes .getConnectorShape(), 2f );
+        float[][] orientations = new float[0][];
+        Random random = new Random( 2718 );
+
+        // a 12 x 12 x 12 lattice of balls, spaced well apart
+        List<RenderedManifestation> rms = new ArrayList<>();
+        for ( int i = 0; i < 12; i++ )
+            for ( int j = 0; j < 12; j++ )
+                for ( int k = 0; k < 12; k++ ) {
+                    AlgebraicVector location = field .origin( 3 )
+                            .setComponent( AlgebraicVector.X, field .createRational( 4 * i ) )
+                            .setComponent( AlgebraicVector.Y, field .createRational( 4 * j ) )
+                            .setComponent( AlgebraicVector.Z, field .createRational( 4 * k ) );
+                    rms .add( new RenderedManifestation( new ConnectorImpl( location ), null ) );
+                }
+        List<RenderedManifestation> present = new ArrayList<>( rms .subList( 0, 1200 ) );
+        List<RenderedManifestation> absent = new ArrayList<>( rms .subList( 1200, rms .size() ) );
+        geometry .addInstances( present );
+
+        ShapeAndInstances.Snapshot oldest = null;
+        List<float[][]> oldestRays = null;
+        List<Set<RenderedManifestation>> oldestPicks = new ArrayList<>();
+        for ( int round = 0; round < 40; round++ ) {
+            ShapeAndInstances.Snapshot snapshot = geometry .snapshot();
+            if ( round % 5 == 2 ) {
+                // picking only some snapshots makes the index catch up over several at once
+                List<float[][]> rays = randomRays( random, 20 );
+                int bruteTests = 0, indexedTests = 0;
+                for ( float[][] ray : rays ) {
+                    RayRecorder brute = new RayRecorder( ray[ 0 ], ray[ 1 ] );
+                    geometry .pick( brute, orientations, IDENTITY );
+                    RayRecorder indexed = new RayRecorder( ray[ 0 ], ray[ 1 ] );
+                    snapshot .pick( indexed, orientations, IDENTITY );
+                    assertEquals( brute .tested, indexed .tested );
+                    bruteTests += brute .sphereTests;
+                    indexedTests += indexed .sphereTests;
+                }
+                assertTrue( indexedTests < bruteTests / 4 );
+                if ( oldest == null ) {
+                    oldest = snapshot;
+                    oldestRays = rays;
+                    for ( float[][] ray : rays ) {
+                        RayRecorder indexed = new RayRecorder( ray[ 0 ], ray[ 1 ] );
+                        snapshot .pick( indexed, orientations, IDENTITY );
+                        oldestPicks .add( indexed .tested );
+                    }
+                }
+            }
+            // remove some, add some, and restyle some
+            for ( int n = 0; n < 1 + random .nextInt( round < 20? 5 : 60 ); n++ ) {
+                RenderedManifestation rm = present .remove( random .nextInt( present .size() ) );
+                geometry .removeInstance( rm );
+                absent .add( rm );
+            }
+            for ( int n = 0; n < 1 + random .nextInt( round < 20? 5 : 60 ); n++ ) {
+                RenderedManifestation rm = absent .remove( random .nextInt( absent .size() ) );
+                geometry .addInstance( rm );
+                present .add( rm );
+            }
+            RenderedManifestation restyled = present .get( random .nextInt( present .size() ) );
+            restyled .setGlow( random .nextFloat() );
+            geometry .instanceChanged( restyled );
+        }
+
+        // a snapshot picked long ago still picks what it held, though the index has moved on
+        for ( int i = 0; i < oldestRays .size(); i++ ) {
+            float[][] ray = oldestRays .get( i );
+            RayRecorder indexed = new RayRecorder( ray[ 0 ], ray[ 1 ] );
+            oldest .pick( indexed, orientations, IDENTITY );
+            assertEquals( oldestPicks .get( i ), indexed .tested );
+        }
+    }
+
+    private static List<float[][]> randomRays( Random random, int count )
+    {
+        List<float[][]> rays = new ArrayList<>();
+        for ( int i = 0; i < count; i++ ) {
+            float[] origin = new float[] { 100f * random .nextFloat() - 2f, 100f * random .nextFloat() - 2f, -50f };
+            float[] direction = new float[] { random .nextFloat() - 0.5f, random .nextFloat() - 0.5f, 1f };
+            rays .add( new float[][] { origin, direction } );
+        }
+        return rays;
+    }
+
+    // the sum of the x coordinates of the first count instances
+    private static float sumX( ShapeAndInstances geometry, int count )
+    {
+        float sum = 0f;
+        for ( int i = 0; i < count; i++ )
+            sum += geometry .getInstancesBuffer() .get( i * ShapeAndInstances.FLOATS_PER_INSTANCE );
+        return sum;
+    }
+}
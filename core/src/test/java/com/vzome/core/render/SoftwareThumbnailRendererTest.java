@@ -0,0 +1,90 @@
+package com.vzome.core.render;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.image.BufferedImage;
+import java.util.Properties;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.vecmath.Vector3f;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.construction.Color;
+import com.vzome.core.editor.SymmetrySystem;
+import com.vzome.core.generic.Utilities;
+import com.vzome.core.kinds.GoldenFieldApplication;
+import com.vzome.core.model.ConnectorImpl;
+import com.vzome.core.viewing.Camera;
+import com.vzome.core.viewing.Lights;
+import com.vzome.opengl.SoftwareRenderer;
+
+public class SoftwareThumbnailRendererTest
+{
+    private static RenderedModel balls()
+    {
+        GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+        AlgebraicField field = app .getField();
+        SymmetrySystem sys = new SymmetrySystem( null, app .getDefaultSymmetryPerspective(), null, new Colors( new Properties() ), true );
+        RenderedModel model = new RenderedModel( field, sys );
+        for ( int i = -2; i <= 2; i++ )
+            model .manifestationAdded( new ConnectorImpl( field .basisVector( 3, AlgebraicVector.X ) .scale( field .createRational( i ) ) ) );
+        return model;
+    }
+
+    private static Lights lights()
+    {
+        Lights lights = new Lights();
+        lights .setBackgroundColor( new Color( 0, 0, 0xFF ) );
+        lights .setAmbientColor( new Color( 0x40, 0x40, 0x40 ) );
+        lights .addDirectionLight( new Color( 0xFF, 0xFF, 0xFF ), new Vector3f( 1f, 1f, 1f ) );
+        return lights;
+    }
+
+    @Test
+    public void testRender()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        RenderedModel model = balls();
+        SoftwareThumbnailRenderer thumbnails = new SoftwareThumbnailRenderer( lights(), null );
+        SoftwareRenderer renderer = thumbnails .prepare( model, new Camera(), 160, 128 );
+        assertTrue( renderer .getTriangleCount() > 0 );
+
+        BufferedImage image = renderer .getImage( false );
+        assertEquals( 160, image .getWidth() );
+        assertEquals( 128, image .getHeight() );
+        int background = 0xFF0000FF;
+        assertEquals( background, image .getRGB( 0, 0 ) );
+        assertEquals( background, image .getRGB( 159, 127 ) );
+        assertNotEquals( background, image .getRGB( 80, 64 ) );
+    }
+
+    @Test
+    public void testParallelMatchesSerial()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        RenderedModel model = balls();
+        Camera camera = new Camera();
+        camera .setPerspective( false );
+        int[] serial = new SoftwareThumbnailRenderer( lights(), null ) .prepare( model, camera, 300, 200 ) .getPixels();
+        int[] parallel = new SoftwareThumbnailRenderer( lights(), new ForkJoinPool( 4 ) ) .prepare( model, camera, 300, 200 ) .getPixels();
+        assertArrayEquals( serial, parallel );
+    }
+
+    @Test
+    public void testCaptureSnapshot()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        Object[] result = new Object[1];
+        new SoftwareThumbnailRenderer( lights() ) .captureSnapshot( balls(), new Camera(), 100, thumbnail -> result[0] = thumbnail );
+        BufferedImage image = (BufferedImage) result[0];
+        assertEquals( 100, image .getWidth() );
+        assertEquals( 80, image .getHeight() );
+    }
+}
@@ -0,0 +1,90 @@
+package com.vzome.core.viewing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicNumber;
+import com.vzome.core.algebra.AlgebraicNumberImpl;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.algebra.PolygonField;
+import com.vzome.core.algebra.RootTwoField;
+import com.vzome.core.generic.Utilities;
+import com.vzome.core.math.Polyhedron;
+import com.vzome.core.math.symmetry.Direction;
+import com.vzome.core.math.symmetry.IcosahedralSymmetry;
+
+public class ShapeCacheTest
+{
+    @Test
+    public void testSharedAcrossDocuments()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        ShapeCache cache = new ShapeCache( 100 );
+        // two documents, each with its own field, symmetry and shapes
+        AlgebraicField field1 = new PentagonField();
+        AbstractShapes shapes1 = new OctahedralShapes( "octahedral", "trapezoids", new IcosahedralSymmetry( field1 ) );
+        AlgebraicField field2 = new PentagonField();
+        AbstractShapes shapes2 = new OctahedralShapes( "octahedral", "trapezoids", new IcosahedralSymmetry( field2 ) );
+        shapes1 .setShapeCache( cache );
+        shapes2 .setShapeCache( cache );
+        Direction blue1 = shapes1 .getSymmetry() .getDirection( "blue" );
+        Direction blue2 = shapes2 .getSymmetry() .getDirection( "blue" );
+        AlgebraicNumber length1 = field1 .createPower( 1 );
+        AlgebraicNumber length2 = field2 .createPower( 1 );
+
+        Polyhedron strut1 = shapes1 .getStrutShape( blue1, length1 );
+        assertEquals( 0, cache .getHits() );
+        Polyhedron strut2 = shapes2 .getStrutShape( blue2, length2 );
+        assertEquals( 1, cache .getHits() );
+        assertSame( strut2, shapes2 .getStrutShape( blue2, length2 ) );
+        assertEquals( 1, cache .getHits() );
+
+        // the geometry is shared, but not the identity
+        assertNotSame( strut1, strut2 );
+        assertSame( strut1 .getVertexList(), strut2 .getVertexList() );
+        assertNotEquals( strut1 .getGuid(), strut2 .getGuid() );
+        assertSame( blue1, strut1 .getOrbit() );
+        assertSame( blue2, strut2 .getOrbit() );
+        assertEquals( strut1 .getName(), strut2 .getName() );
+
+        // a different length or shape style is not shared
+        Polyhedron other = shapes2 .getStrutShape( blue2, field2 .createPower( 2 ) );
+        assertNotSame( strut2 .getVertexList(), other .getVertexList() );
+        AbstractShapes shapes3 = new OctahedralShapes( "octahedral", "other", shapes2 .getSymmetry() );
+        shapes3 .setShapeCache( cache );
+        assertNotSame( strut2 .getVertexList(), shapes3 .getStrutShape( blue2, length2 ) .getVertexList() );
+
+        Polyhedron ball1 = shapes1 .getConnectorShape();
+        Polyhedron ball2 = shapes2 .getConnectorShape();
+        assertNotSame( ball1, ball2 );
+        assertSame( ball1 .getVertexList(), ball2 .getVertexList() );
+        assertEquals( 2, cache .getHits() );
+
+        // shapes with no cache share nothing
+        AbstractShapes shapes4 = new OctahedralShapes( "octahedral", "trapezoids", new IcosahedralSymmetry( new PentagonField() ) );
+        assertNotSame( ball1 .getVertexList(), shapes4 .getConnectorShape() .getVertexList() );
+        assertEquals( 2, cache .getHits() );
+    }
+
+    @Test
+    public void testKeysMatchFieldsExactly()
+    {
+        System.out.println(new Throwable().getStackTrace()[0].getMethodName() + " " + Utilities.thisSourceCodeLine());
+        ShapeCache.Key golden1 = new ShapeCache.Key( new PentagonField(), "octahedral", "style", null, null, null );
+        ShapeCache.Key golden2 = new ShapeCache.Key( new PentagonField(), "octahedral", "style", null, null, null );
+        assertEquals( golden1, golden2 );
+        assertEquals( golden1 .hashCode(), golden2 .hashCode() );
+
+        // these fields are equal, but their numbers are not represented alike
+        AlgebraicField rootTwo = new RootTwoField();
+        AlgebraicField square = new PolygonField( 4, AlgebraicNumberImpl.FACTORY );
+        assertEquals( rootTwo, square );
+        assertNotEquals( new ShapeCache.Key( rootTwo, "octahedral", "style", null, null, null ),
+                new ShapeCache.Key( square, "octahedral", "style", null, null, null ) );
+    }
+}
@@ -15,7 +15,7 @@ import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.Writer;
+import java.nio.channels.FileChannel;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.util.Base64;
@@ -64,6 +64,7 @@ import com.vzome.core.exporters2d.Java2dSnapshot;
 import com.vzome.core.math.Polyhedron;
 import com.vzome.core.math.QuaternionProjection;
 import com.vzome.core.math.RealVector;
+import com.vzome.core.math.VefStreamTokens;
 import com.vzome.core.math.symmetry.Axis;
 import com.vzome.core.math.symmetry.Direction;
 import com.vzome.core.math.symmetry.Symmetry;
@@ -877,18 +878,22 @@ public class DocumentController extends DefaultController implements Scene.Provi
             if ( command.startsWith( "export." ) )
             {
                 Dimension size = this .modelCanvas .getSize();
-                Writer out = null;
+                // Exporters write bytes, and files get the binary form of formats like STL and PLY
+                FileChannel out = null;
                 try {
-                    out = new FileWriter( file );
+                    out = new FileOutputStream( file ) .getChannel();
                     String format = command .substring( "export." .length() ) .toLowerCase();
                     Exporter3d exporter = documentModel .getNaiveExporter( format, cameraController .getView(), colors, sceneLighting, currentSnapshot );
                     if ( exporter != null ) {
+                        exporter .setBinary( true );
                         exporter.doExport( file, out, size.height, size.width );
                     }
                     else {
                         exporter = documentModel .getStructuredExporter( format, cameraController .getView(), colors, sceneLighting );
-                        if ( exporter != null )
+                        if ( exporter != null ) {
+                            exporter .setBinary( true );
                             exporter .exportDocument( documentModel, file, out, size.height, size.width );
+                        }
                     }
                 }
                 catch (Exception e) {
@@ -897,8 +902,8 @@ public class DocumentController extends DefaultController implements Scene.Provi
                 }
                 finally {
                     if ( logger .isLoggable( Level.INFO ) ) logger .info( String.format( "exported: %s %s", command, file .getAbsolutePath() ) );
-                    out .flush();
-                    out .close();
+                    if ( out != null )
+                        out .close();
                 }
                 this .openApplication( file );
                 return;
@@ -912,7 +917,15 @@ public class DocumentController extends DefaultController implements Scene.Provi
                 params .put( "scale", this .importScaleController .getValue() );
                 params .put( "projection", new QuaternionProjection( documentModel .getField(), null,
                                                 this .quaternionController .getVector() ) );
-                documentModel .doEdit( command, params );
+                if ( command.startsWith( "LoadVEF/" ) ) {
+                    // parsed from the mapped file, so the text is only kept for the edit history
+                    try ( VefStreamTokens tokens = VefStreamTokens .open( file .toPath() ) ) {
+                        params .put( "vefTokens", tokens );
+                        documentModel .doEdit( command, params );
+                    }
+                }
+                else
+                    documentModel .doEdit( command, params );
                 return;
             }
             if ( command.equals( "import.zomecad.binary" ) ) {
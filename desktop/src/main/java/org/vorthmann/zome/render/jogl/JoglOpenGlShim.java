@@ -193,6 +193,11 @@ public class JoglOpenGlShim implements OpenGlShim
         gl2.glBufferData( GL.GL_ARRAY_BUFFER, i, floatBuffer, GL.GL_STATIC_DRAW );
     }
 
+    @Override
+    public void glBufferSubData( int offset, int size, FloatBuffer floatBuffer ) {
+        gl2.glBufferSubData( GL.GL_ARRAY_BUFFER, offset, size, floatBuffer );
+    }
+
     @Override
     public void multiplyMM(float[] floats, float[] floats2, float[] floats3) {
         FloatUtil.multMatrix( floats, floats2, floats3 );
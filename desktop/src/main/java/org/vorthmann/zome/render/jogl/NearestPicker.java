@@ -27,6 +27,27 @@ class NearestPicker implements ShapeAndInstances.Intersector
         this .rayDirection .normalize();
     }
     
+    // Slightly generous, since the triangle intersection has rounding errors of its own
+    private static final float SPHERE_TOLERANCE = 1.001f;
+
+    @Override
+    public boolean intersectsSphere( float[] center, float radius )
+    {
+        // The triangle test does not reject hits behind the ray origin, so neither do we;
+        //  just compare the distance from center to the line.
+        float wx = center[0] - rayPoint.x();
+        float wy = center[1] - rayPoint.y();
+        float wz = center[2] - rayPoint.z();
+        float t = wx * rayDirection.x() + wy * rayDirection.y() + wz * rayDirection.z();
+        // the perpendicular from the line to center, avoiding cancellation in |w|^2 - t^2
+        float px = wx - t * rayDirection.x();
+        float py = wy - t * rayDirection.y();
+        float pz = wz - t * rayDirection.z();
+        float distanceSquared = px * px + py * py + pz * pz;
+        float tolerance = radius * SPHERE_TOLERANCE + FloatUtil.EPSILON;
+        return distanceSquared <= tolerance * tolerance;
+    }
+
     // temporary storage, reset and reused during intersections
     private final float[] verticesIn = new float[16];
     private final float[] verticesOut = new float[16];
@@ -106,10 +127,15 @@ class NearestPicker implements ShapeAndInstances.Intersector
         }
     }
     
+    // temporary storage, reset and reused for each hit
+    private final float[] intInWorldCoords = new float[] { 0, 0, 0, 1 };
+    private final float[] intInDeviceCoords = new float[4];
+
     private void setNearest( float x, float y, float z, RenderedManifestation rm )
     {
-        float[] intInWorldCoords = new float[] { x, y, z, 1 };
-        float[] intInDeviceCoords = new float[4];
+        intInWorldCoords[0] = x;
+        intInWorldCoords[1] = y;
+        intInWorldCoords[2] = z;
         FloatUtil .multMatrixVec( modelViewProjection, intInWorldCoords, intInDeviceCoords );
         if ( intInDeviceCoords[2] < nearestZ ) {
             nearest = rm;
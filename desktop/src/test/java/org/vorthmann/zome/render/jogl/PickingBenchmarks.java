@@ -0,0 +1,132 @@
+package org.vorthmann.zome.render.jogl;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Properties;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.vzome.core.algebra.AlgebraicField;
+import com.vzome.core.algebra.AlgebraicVector;
+import com.vzome.core.algebra.PentagonField;
+import com.vzome.core.editor.SymmetryPerspective;
+import com.vzome.core.editor.SymmetrySystem;
+import com.vzome.core.kinds.GoldenFieldApplication;
+import com.vzome.core.math.Line;
+import com.vzome.core.math.RealVector;
+import com.vzome.core.model.ConnectorImpl;
+import com.vzome.core.model.StrutImpl;
+import com.vzome.core.render.Colors;
+import com.vzome.core.render.RenderedManifestation;
+import com.vzome.core.render.RenderedModel;
+import com.vzome.core.render.Scene;
+import com.vzome.core.viewing.Lights;
+
+/**
+ * Compares picking with bounding sphere culling to the brute-force picking of every triangle.
+ */
+public class PickingBenchmarks
+{
+    private static final float[] IDENTITY = new float[] { 1, 0, 0, 0,  0, 1, 0, 0,  0, 0, 1, 0,  0, 0, 0, 1 };
+
+    // a cubic lattice of balls, joined by blue struts
+    private static Scene createScene( int size )
+    {
+        GoldenFieldApplication app = new GoldenFieldApplication( new PentagonField() );
+        AlgebraicField field = app .getField();
+        SymmetryPerspective perspective = app .getDefaultSymmetryPerspective();
+        SymmetrySystem symmetry = new SymmetrySystem( null, perspective, null, new Colors( new Properties() ), true );
+        RenderedModel model = new RenderedModel( field, symmetry );
+        Scene scene = new Scene( new Lights(), false, 60 );
+        model .addListener( scene );
+
+        AlgebraicVector[] units = new AlgebraicVector[] {
+                field .basisVector( 3, AlgebraicVector.X ) .scale( field .createPower( 2 ) ),
+                field .basisVector( 3, AlgebraicVector.Y ) .scale( field .createPower( 2 ) ),
+                field .basisVector( 3, AlgebraicVector.Z ) .scale( field .createPower( 2 ) ) };
+        for ( int i = 0; i < size; i++ ) {
+            for ( int j = 0; j < size; j++ ) {
+                for ( int k = 0; k < size; k++ ) {
+                    AlgebraicVector location = units[ 0 ] .scale( field .createRational( i ) )
+                            .plus( units[ 1 ] .scale( field .createRational( j ) ) )
+                            .plus( units[ 2 ] .scale( field .createRational( k ) ) );
+                    model .manifestationAdded( new ConnectorImpl( location ) );
+                    if ( i+1 < size )
+                        model .manifestationAdded( new StrutImpl( location, location .plus( units[ 0 ] ) ) );
+                    if ( j+1 < size )
+                        model .manifestationAdded( new StrutImpl( location, location .plus( units[ 1 ] ) ) );
+                    if ( k+1 < size )
+                        model .manifestationAdded( new StrutImpl( location, location .plus( units[ 2 ] ) ) );
+                }
+            }
+        }
+        return scene;
+    }
+
+    // rays from a far corner of the lattice, aimed at random points within it
+    private static Line[] createRays( int size, int count )
+    {
+        Random random = new Random( 1234 );
+        double extent = size * PentagonField.PHI_VALUE * PentagonField.PHI_VALUE;
+        RealVector origin = new RealVector( -10 * extent, -7 * extent, -5 * extent );
+        Line[] rays = new Line[ count ];
+        for ( int i = 0; i < count; i++ ) {
+            RealVector target = new RealVector( random .nextDouble() * extent, random .nextDouble() * extent, random .nextDouble() * extent );
+            rays[ i ] = new Line( origin, target .minus( origin ) );
+        }
+        return rays;
+    }
+
+    private static RenderedManifestation pick( Scene scene, Line ray, boolean culling )
+    {
+        NearestPicker picker = culling
+                ? new NearestPicker( ray, IDENTITY, IDENTITY )
+                : new NearestPicker( ray, IDENTITY, IDENTITY )
+                {
+                    @Override
+                    public boolean intersectsSphere( float[] center, float radius )
+                    {
+                        return true;
+                    }
+                };
+        scene .pick( picker );
+        return picker .getNearest();
+    }
+
+    @Test
+    public void testCullingPicksTheSame()
+    {
+        Scene scene = createScene( 4 );
+        int hits = 0;
+        for ( Line ray : createRays( 4, 200 ) ) {
+            RenderedManifestation expected = pick( scene, ray, false );
+            assertSame( expected, pick( scene, ray, true ) );
+            if ( expected != null )
+                ++hits;
+        }
+        assertTrue( "some rays must hit something", hits > 0 );
+    }
+
+    /**
+     * This compares the time for hover picking with and without the bounding sphere culling.
+     * Since it doesn't actually test any code behavior, it's not normally enabled as a unit test.
+     * Uncomment the @Test annotation to enable it.
+     */
+//    @Test
+    public void testPickingBenchmarks()
+    {
+        int size = 16;
+        Scene scene = createScene( size );
+        Line[] rays = createRays( size, 100 );
+        for ( boolean culling : new boolean[] { false, true, false, true } ) {
+            long start = System.nanoTime();
+            for ( Line ray : rays ) {
+                pick( scene, ray, culling );
+            }
+            double millis = ( System.nanoTime() - start ) / 1000000d / rays.length;
+            System.out.printf( "%1$30s %2$10.3f ms per pick\n", culling ? "bounding sphere culling" : "brute force", millis );
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.vzome.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.util.log.Log;
+import org.eclipse.jetty.util.log.Logger;
+
+import com.vzome.api.Application;
+import com.vzome.api.Document;
+import com.vzome.api.Exporter;
+
+/**
+ * Runs document exports on a bounded pool of worker threads.
+ * Loaded documents are cached by a hash of their content, in a small LRU,
+ * so that one load can serve several formats, and repeated requests for
+ * the same model skip the load entirely.
+ * 
+ * Each worker has its own Application, since exporters hold state while they run.
+ */
+public class BatchExportService
+{
+    private static final Logger LOG = Log.getLogger( BatchExportService.class );
+
+    private static final int HEIGHT = 1080, WIDTH = 1920;
+
+    /**
+     * Receives the exports for one request, in order.
+     */
+    public interface Output
+    {
+        /**
+         * @return the channel for the export in this format, which will not be closed
+         */
+        WritableByteChannel startExport( String format, Exporter exporter ) throws IOException;
+
+        void endExport( String format ) throws IOException;
+    }
+
+    private final ThreadPoolExecutor workers;
+
+    private final ThreadLocal<Application> apps = ThreadLocal .withInitial( Application::new );
+
+    // only used for exporter metadata, never for exporting
+    private final Application catalog = new Application();
+
+    private final Map<String, Document> documents;
+
+    /**
+     * @param threads the number of exports that can run at once
+     * @param queueSize the number of exports that can wait for a worker, beyond which submit() rejects them
+     * @param cacheSize the number of loaded documents to retain
+     */
+    public BatchExportService( int threads, int queueSize, int cacheSize )
+    {
+        this .workers = new ThreadPoolExecutor( threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>( queueSize ) );
+        this .documents = new LinkedHashMap<String, Document>( 16, 0.75f, true )
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<String, Document> eldest )
+            {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * @return an exporter describing the format, or null if the format is not supported.
+     * The result must not be used to export.
+     */
+    public Exporter getExporter( String format )
+    {
+        Exporter exporter = this .catalog .getExporter( format );
+        return exporter .isValid()? exporter : null;
+    }
+
+    /**
+     * Queues the exports for a document.  All formats must be supported.
+     * @param bytes the content of a .vZome file
+     * @param binary true to export the binary form of formats that have one, like STL and PLY
+     * @throws RejectedExecutionException if the workers and queue are all busy
+     */
+    public Future<?> submit( byte[] bytes, List<String> formats, boolean binary, Output output )
+    {
+        return this .workers .submit( () -> {
+            Document doc = getDocument( bytes );
+            Application app = this .apps .get();
+            // one export at a time for a document, since exporters read its rendered model
+            synchronized ( doc ) {
+                for ( String format : formats ) {
+                    Exporter exporter = app .getExporter( format );
+                    // set for every export, since the exporters are reused for other requests
+                    exporter .setBinary( binary );
+                    exporter .doExport( doc, output .startExport( format, exporter ), HEIGHT, WIDTH );
+                    output .endExport( format );
+                }
+            }
+            return null;
+        } );
+    }
+
+    private Document getDocument( byte[] bytes ) throws Exception
+    {
+        String hash = hash( bytes );
+        Document doc;
+        synchronized ( this .documents ) {
+            doc = this .documents .get( hash );
+        }
+        if ( doc != null ) {
+            LOG .debug( "document cache hit: {}", hash );
+            return doc;
+        }
+        // loaded without holding the lock; concurrent first requests for a document may both load it
+        doc = this .apps .get() .loadDocument( new ByteArrayInputStream( bytes ) );
+        synchronized ( this .documents ) {
+            this .documents .put( hash, doc );
+        }
+        return doc;
+    }
+
+    private static String hash( byte[] bytes ) throws NoSuchAlgorithmException
+    {
+        byte[] digest = MessageDigest .getInstance( "SHA-256" ) .digest( bytes );
+        StringBuilder hex = new StringBuilder();
+        for ( byte b : digest ) {
+            hex .append( String .format( "%02x", b ) );
+        }
+        return hex .toString();
+    }
+
+    public static byte[] readBytes( InputStream input ) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[ 1 << 16 ];
+        int read;
+        while ( ( read = input .read( buffer ) ) > 0 ) {
+            bytes .write( buffer, 0, read );
+        }
+        return bytes .toByteArray();
+    }
+
+    public void shutdown()
+    {
+        this .workers .shutdown();
+    }
+}
@@ -0,0 +1,162 @@
+package com.vzome.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.util.log.Log;
+import org.eclipse.jetty.util.log.Logger;
+
+import com.vzome.api.Exporter;
+
+/**
+ * Exports a model in one or more formats, with a single load of the model.
+ * 
+ * GET takes the model URL as the "url" parameter, and POST takes the model as the request body,
+ * sent as "application/octet-stream".  Formats are given by one or more "format" parameters,
+ * each of which may be a comma-separated list.
+ * Formats are exported as text, unless the "binary" parameter is "true", which selects
+ * the binary form of the formats that have one, like STL and PLY.
+ * A single format is returned as is, and several are returned in a zip file.
+ * When all the export workers are busy, the response is 503, and the request can be retried.
+ */
+@SuppressWarnings("serial")
+public class BatchExporterServlet extends HttpServlet
+{
+    private static final Logger LOG = Log.getLogger( BatchExporterServlet.class );
+
+    private final BatchExportService exports;
+
+    public BatchExporterServlet( BatchExportService exports )
+    {
+        this.exports = exports;
+    }
+
+    @Override
+    public void doGet( HttpServletRequest req, HttpServletResponse res ) throws ServletException, IOException
+    {
+        String urlStr = req .getParameter( "url" );
+        if ( urlStr == null ) {
+            res .sendError( HttpServletResponse.SC_BAD_REQUEST, "no url parameter" );
+            return;
+        }
+        URL url = new URL( urlStr );
+        byte[] bytes;
+        try ( InputStream input = url .openStream() ) {
+            bytes = BatchExportService .readBytes( input );
+        }
+        String name = url .getPath() .replaceFirst( "^.*/", "" ) .replaceFirst( "\\.vZome$", "" );
+        export( req, res, bytes, name .isEmpty()? "model" : name );
+    }
+
+    @Override
+    public void doPost( HttpServletRequest req, HttpServletResponse res ) throws ServletException, IOException
+    {
+        byte[] bytes;
+        try ( InputStream input = req .getInputStream() ) {
+            bytes = BatchExportService .readBytes( input );
+        }
+        export( req, res, bytes, "model" );
+    }
+
+    private void export( HttpServletRequest req, HttpServletResponse res, byte[] bytes, String name ) throws ServletException, IOException
+    {
+        List<String> formats = new ArrayList<>();
+        String[] params = req .getParameterValues( "format" );
+        if ( params != null )
+            for ( String param : params )
+                for ( String format : param .split( "," ) )
+                    if ( ! format .trim() .isEmpty() )
+                        formats .add( format .trim() );
+        if ( formats .isEmpty() ) {
+            res .sendError( HttpServletResponse.SC_BAD_REQUEST, "no format parameter" );
+            return;
+        }
+        for ( String format : formats ) {
+            if ( this .exports .getExporter( format ) == null ) {
+                res .sendError( HttpServletResponse.SC_NOT_FOUND, "unknown format: " + format );
+                return;
+            }
+        }
+        LOG .debug( "exporting {} as {}", name, formats );
+
+        ZipOutputStream zip = null;
+        BatchExportService.Output output;
+        if ( formats .size() == 1 ) {
+            output = new BatchExportService.Output()
+            {
+                @Override
+                public WritableByteChannel startExport( String format, Exporter exporter ) throws IOException
+                {
+                    res .setContentType( exporter .getContentType() );
+                    return Channels .newChannel( res .getOutputStream() );
+                }
+
+                @Override
+                public void endExport( String format ) {}
+            };
+        }
+        else {
+            res .setContentType( "application/zip" );
+            res .setHeader( "Content-Disposition", "attachment; filename=\"" + name + ".zip\"" );
+            ZipOutputStream entries = new ZipOutputStream( res .getOutputStream() );
+            WritableByteChannel channel = Channels .newChannel( entries );
+            output = new BatchExportService.Output()
+            {
+                @Override
+                public WritableByteChannel startExport( String format, Exporter exporter ) throws IOException
+                {
+                    entries .putNextEntry( new ZipEntry( name + "." + exporter .getFileExtension() ) );
+                    return channel;
+                }
+
+                @Override
+                public void endExport( String format ) throws IOException
+                {
+                    entries .closeEntry();
+                }
+            };
+            zip = entries;
+        }
+
+        Future<?> result;
+        try {
+            result = this .exports .submit( bytes, formats, Boolean .parseBoolean( req .getParameter( "binary" ) ), output );
+        } catch ( RejectedExecutionException e ) {
+            res .setHeader( "Retry-After", "10" );
+            res .sendError( HttpServletResponse.SC_SERVICE_UNAVAILABLE, "export workers are busy" );
+            return;
+        }
+        try {
+            result .get();
+        } catch ( InterruptedException e ) {
+            result .cancel( true );
+            throw new ServletException( e );
+        } catch ( ExecutionException e ) {
+            LOG .warn( "export failed for " + name, e .getCause() );
+            throw new ServletException( e .getCause() );
+        }
+        if ( zip != null )
+            zip .finish();
+    }
+
+    @Override
+    public String getServletInfo()
+    {
+        return "Exports a vZome model in several formats, from one load of the model";
+    }
+}
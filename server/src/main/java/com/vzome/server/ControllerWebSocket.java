@@ -260,9 +260,24 @@ public class ControllerWebSocket implements WebSocketListener, JsonClientRenderi
         defHolder.setInitParameter("dirAllowed","true");
         context.addServlet(defHolder,"/");
 
-        // add exporter servlet
-        
-        context.addServlet( new ServletHolder( new ExporterServlet() ), "/exporter/*" );
+        // add exporter servlets, sharing one pool of export workers
+
+        int threads = Runtime .getRuntime() .availableProcessors();
+        String threadsStr = System.getenv( "EXPORT_THREADS" );
+        if ( threadsStr != null ) {
+            try {
+                int requested = Integer .parseInt( threadsStr .trim() );
+                if ( requested >= 1 )
+                    threads = requested;
+                else
+                    LOG.warn( "ignoring EXPORT_THREADS below 1: {}", threadsStr );
+            } catch ( NumberFormatException e ) {
+                LOG.warn( "ignoring invalid EXPORT_THREADS: {}", threadsStr );
+            }
+        }
+        BatchExportService exports = new BatchExportService( threads, 4 * threads, 64 );
+        context.addServlet( new ServletHolder( new ExporterServlet( exports ) ), "/exporter/*" );
+        context.addServlet( new ServletHolder( new BatchExporterServlet( exports ) ), "/batch" );
 
         try
         {
@@ -273,6 +288,10 @@ public class ControllerWebSocket implements WebSocketListener, JsonClientRenderi
         {
             e.printStackTrace();
         }
+        finally
+        {
+            exports .shutdown();
+        }
     }
 
 }
\ No newline at end of file
@@ -3,85 +3,92 @@ package com.vzome.server;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.PrintWriter;
 import java.net.URL;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Collections;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
-import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import com.vzome.api.Application;
-import com.vzome.api.Document;
+import org.eclipse.jetty.util.log.Log;
+import org.eclipse.jetty.util.log.Logger;
+
 import com.vzome.api.Exporter;
 
 @SuppressWarnings("serial")
 public class ExporterServlet extends HttpServlet
 {
-  Application app;
-  
-  public void init( ServletConfig config )
-  throws ServletException
-  {
-      super.init( config );
+  private static final Logger LOG = Log.getLogger( ExporterServlet.class );
 
-      app = new Application();
+  private final BatchExportService exports;
+
+  public ExporterServlet( BatchExportService exports )
+  {
+      this.exports = exports;
   }
 
   public void doGet( HttpServletRequest req, HttpServletResponse res )
       throws ServletException, IOException
   {
-      InputStream bytes = null;
-      PrintWriter out = null;
-      try {
-          System .out .println( "context path is = " + req .getContextPath() );
-          System .out .println( "servlet path is = " + req .getServletPath() );
-          System .out .println( "original URI is = " + req .getRequestURI() );
-          System .out .println( "original URL is = " + req .getRequestURL() );
+      String urlStr = req .getQueryString();
+      LOG .debug( "exporter request {}, URL is {}", req .getRequestURI(), urlStr );
+      if ( urlStr == null ) {
+          res .sendError( 404, "no model URL" );
+          return;
+      }
+      URL vZomeFile = new URL( urlStr );
+      String format = req .getPathInfo();
+      if ( format == null ) {
+          res .sendError( 404, "no format" );
+          return;
+      }
+      format = format .substring( 1 );
 
-          String urlStr = req .getQueryString();
-          System .out .println( "URL is = " + urlStr );
-          if ( urlStr == null ) {
-              res .setStatus( 404 );
-              // TODO return an error message
-              return;
-          }
-          URL vZomeFile = new URL( urlStr );
-          String format = req .getPathInfo();
-          if ( format == null ) {
-              res .setStatus( 404 );
-              // TODO return an error message
-              return;
-          }
-          format = format .substring( 1 );
-          System .out .println( "format is = " + format );
-          
-          Exporter exporter = this .app .getExporter( format );
-          if ( exporter == null || ! exporter .isValid() ) {
-              res .setStatus( 404 );
-              // TODO return an error message
-              return;
-          }
+      Exporter exporter = this .exports .getExporter( format );
+      if ( exporter == null ) {
+          res .sendError( 404, "unknown format: " + format );
+          return;
+      }
+
+      byte[] bytes;
+      try ( InputStream input = vZomeFile .openStream() ) {
+          bytes = BatchExportService .readBytes( input );
+      }
 
-          // set header field first
-          res .setContentType( exporter .getContentType() );
+      Future<?> result;
+      try {
+          result = this .exports .submit( bytes, Collections .singletonList( format ), false, new BatchExportService.Output()
+          {
+              @Override
+              public WritableByteChannel startExport( String format, Exporter exporter ) throws IOException
+              {
+                  // set header field first
+                  res .setContentType( exporter .getContentType() );
+                  return Channels .newChannel( res .getOutputStream() );
+              }
 
-          out = res .getWriter();
-          
-          bytes = vZomeFile .openStream();
-          
-          Document model = app .loadDocument( bytes );
-          exporter .doExport( model, out, 1080, 1920 );
-          
-      } catch ( Exception e ) {
-          e .printStackTrace();
+              @Override
+              public void endExport( String format ) {}
+          } );
+      } catch ( RejectedExecutionException e ) {
+          res .setHeader( "Retry-After", "10" );
+          res .sendError( 503, "export workers are busy" );
+          return;
+      }
+      try {
+          result .get();
+      } catch ( InterruptedException e ) {
+          result .cancel( true );
           throw new ServletException( e );
-      } finally {
-          if ( bytes != null )
-              bytes .close();
-          if ( out != null )
-              out .close();
+      } catch ( ExecutionException e ) {
+          LOG .warn( "export failed for " + urlStr, e .getCause() );
+          throw new ServletException( e .getCause() );
       }
   }
 